@@ -0,0 +1,57 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.BookingDAO;
+import com.hotel.dao.impl.BookingDAOImpl;
+import com.hotel.dao.impl.RoomAvailabilityIndex;
+import com.hotel.model.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingDAOImpl.getAllAvailableRooms with and without the in-memory availability index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({"true", "false"})
+    public boolean indexEnabled;
+
+    private final BookingDAO bookingDAO = new BookingDAOImpl();
+    private LocalDate checkIn;
+
+    @Setup(Level.Trial)
+    public void setUp(HotelState hotel) {
+        RoomAvailabilityIndex.getInstance().setEnabled(indexEnabled);
+        checkIn = LocalDate.now().plusDays(7);
+    }
+
+    @Benchmark
+    public List<Room> shortStay() throws SQLException {
+        return bookingDAO.getAllAvailableRooms(checkIn, checkIn.plusDays(2));
+    }
+
+    @Benchmark
+    public List<Room> longStay() throws SQLException {
+        return bookingDAO.getAllAvailableRooms(checkIn, checkIn.plusDays(21));
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotel.benchmark;
+
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.DatabaseConnection;
+import com.hotel.util.PooledConnectionProvider;
+import com.hotel.util.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates an in-memory embedded database (db.backend=embedded, H2 in MySQL mode),
+ * migrates it to the application schema, fills it with a synthetic hotel and
+ * points DatabaseConnection at it, so the DAO implementations run unchanged
+ * against it, invoice triggers and dashboard_summary view included, on any
+ * machine and with the same data every run.
+ */
+public final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates and populates the database and installs a connection pool for it.
+     * Call once per JVM; each JMH fork gets a fresh database.
+     */
+    public static void start(SyntheticHotel hotel) throws SQLException {
+        start(hotel, "mem:hotel");
+    }
+
+    /**
+     * Like start(hotel), with the database at a db.embedded.location, e.g. a
+     * file path for checks that need the embedded file store.
+     */
+    public static void start(SyntheticHotel hotel, String location) throws SQLException {
+        // DatabaseConfig lets db.* system properties override application.properties
+        System.setProperty("db.backend", "embedded");
+        System.setProperty("db.embedded.location", location);
+        DatabaseConfig config = DatabaseConfig.load();
+
+        long start = System.nanoTime();
+        try (Connection conn = connect(config)) {
+            new SchemaMigrator(config).migrate(conn);
+            hotel.populate(conn);
+        }
+        System.out.println(String.format("Benchmark database ready in %.1f s: %s",
+                (System.nanoTime() - start) / 1_000_000_000.0, hotel));
+
+        PooledConnectionProvider pool = new PooledConnectionProvider(config);
+        pool.warmUp();
+        DatabaseConnection.setProvider(pool);
+    }
+
+    public static void stop() {
+        DatabaseConnection.closeConnection();
+        try (Connection conn = connect(DatabaseConfig.load());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            System.err.println("Error shutting down benchmark database: " + e.getMessage());
+        }
+    }
+
+    private static Connection connect(DatabaseConfig config) throws SQLException {
+        return DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword());
+    }
+}
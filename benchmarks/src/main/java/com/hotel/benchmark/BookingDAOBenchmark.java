@@ -0,0 +1,82 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.BookingDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.impl.BookingDAOImpl;
+import com.hotel.model.Booking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingDAOImpl read paths: date range search, customer history and the
+ * keyset-paginated booking table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingDAOBenchmark {
+
+    private final BookingDAO bookingDAO = new BookingDAOImpl();
+    private PageRequest firstPage;
+    private PageRequest deepPage;
+    private PageRequest searchPage;
+    private int customerId;
+
+    @Setup(Level.Trial)
+    public void setUp(HotelState hotel) throws SQLException {
+        firstPage = PageRequest.first(25).sortBy(BookingDAO.SORT_CHECK_IN, true);
+        searchPage = firstPage.filter(BookingDAO.FILTER_SEARCH, "smith");
+
+        // Walk half-way into the table to get a cursor for a deep page
+        Page<Booking> page = bookingDAO.findPage(firstPage.withPageSize(1_000));
+        for (int i = 0; i < page.getTotalPages() / 2 && page.hasNext(); i++) {
+            page = bookingDAO.findPage(page.getRequest().after(page.getNextCursor()));
+        }
+        deepPage = firstPage.after(page.getNextCursor());
+        customerId = hotel.customers / 2;
+    }
+
+    @Benchmark
+    public List<Booking> findByDateRange() throws SQLException {
+        LocalDate today = LocalDate.now();
+        return bookingDAO.findByDateRange(today, today.plusDays(30));
+    }
+
+    @Benchmark
+    public List<Booking> findByCustomerId() throws SQLException {
+        return bookingDAO.findByCustomerId(customerId);
+    }
+
+    @Benchmark
+    public Page<Booking> findFirstPage() throws SQLException {
+        return bookingDAO.findPage(firstPage);
+    }
+
+    @Benchmark
+    public Page<Booking> findDeepPage() throws SQLException {
+        return bookingDAO.findPage(deepPage);
+    }
+
+    @Benchmark
+    public Page<Booking> findSearchPage() throws SQLException {
+        return bookingDAO.findPage(searchPage);
+    }
+}
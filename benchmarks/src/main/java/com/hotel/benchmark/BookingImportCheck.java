@@ -0,0 +1,269 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.impl.BookingDAOImpl;
+import com.hotel.dao.impl.RoomDAOImpl;
+import com.hotel.model.Booking;
+import com.hotel.model.Room;
+import com.hotel.util.BookingCsvImport;
+import com.hotel.util.DatabaseConnection;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Imports a generated booking file with BookingCsvImport and checks the
+ * outcome.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.hotel.benchmark.BookingImportCheck \
+ *       [--rows=20000] [--rooms=200] [--min-throughput=1500]
+ * </pre>
+ *
+ * The database is an embedded file database, as H2 only loses a file store
+ * to an interrupted thread.
+ *
+ * The file books stays one after the other in every room, in a window far
+ * beyond the generated bookings. About one row in twenty is spoiled: it
+ * overlaps an earlier row for the same room, names an unknown room or
+ * customer, or has a date that does not parse. The check fails with exit
+ * status 1 if the import refuses a different number of rows, if the error
+ * report does not list each refused row, if any two bookings of a room share
+ * a night, or if fewer than --min-throughput rows were imported per second.
+ *
+ * On the embedded database the defaults import about 2,000 to 2,400 rows per
+ * second. The insert stage bounds that: the other stages wait on it most of
+ * the time, and import.batchSize between 250 and 2000 changes it by less than
+ * a fifth. Most of an insert goes to the invoice trigger, the room locks and
+ * the commit.
+ *
+ * A second import of the same rows, a few years later, is cancelled from
+ * another thread in the middle of its third batch. It must stop early, keep
+ * every batch it committed, the one in flight included, and leave the
+ * database usable.
+ */
+public final class BookingImportCheck {
+
+    private BookingImportCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = GenerateDataset.parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "20000"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "200"));
+        double minThroughput = Double.parseDouble(options.getOrDefault("min-throughput", "1500"));
+
+        SyntheticHotel hotel = new SyntheticHotel(42, rooms, 2000, 1);
+        File directory = Files.createTempDirectory("hotel-import-check").toFile();
+        BenchmarkDatabase.start(hotel, new File(directory, "hotel").getPath());
+        List<String> failures = new ArrayList<>();
+        File source = new File(directory, "bookings.csv");
+        try {
+            LocalDate windowStart = LocalDate.now().plusYears(10);
+            List<Room> roomList = new RoomDAOImpl().findAll();
+            int spoiled = writeFile(source, roomList, hotel.getCustomers(), windowStart, rows);
+
+            Import task = new Import(source);
+            BookingCsvImport.Result result = task.runHere();
+            System.out.println(result);
+
+            if (result.getRows() != rows) {
+                failures.add(result.getRows() + " rows read, but the file has " + rows);
+            }
+            if (result.getRefused() != spoiled) {
+                failures.add(result.getRefused() + " rows refused, but " + spoiled + " are spoiled");
+            }
+            int reported = result.getReport() == null ? 0
+                    : (int) Files.lines(result.getReport().toPath()).count() - 1;
+            if (reported != result.getRefused()) {
+                failures.add(reported + " rows in the error report, but " + result.getRefused() + " refused");
+            }
+
+            List<Booking> booked = readBookings(windowStart);
+            if (booked.size() != result.getImported()) {
+                failures.add(booked.size() + " bookings in the database, but " + result.getImported() + " imported");
+            }
+            for (int i = 1; i < booked.size(); i++) {
+                Booking previous = booked.get(i - 1);
+                Booking next = booked.get(i);
+                if (next.getRoomId() == previous.getRoomId()
+                        && next.getCheckInDate().isBefore(previous.getCheckOutDate())) {
+                    failures.add("Double booking: " + previous.getBookingId() + " and " + next.getBookingId());
+                }
+            }
+            if (result.getRowsPerSecond() < minThroughput) {
+                failures.add(String.format("Throughput %.0f rows/s is below the minimum of %.0f rows/s",
+                        result.getRowsPerSecond(), minThroughput));
+            }
+
+            LocalDate laterStart = windowStart.plusYears(5);
+            writeFile(source, roomList, hotel.getCustomers(), laterStart, rows);
+            Import cancelled = new Import(source);
+            cancelled.cancelDuringBatch(3);
+            BookingCsvImport.Result partial = cancelled.runHere();
+            System.out.println("Cancelled: " + partial);
+            if (partial.getRows() >= rows) {
+                failures.add("The cancelled import read all " + partial.getRows() + " rows");
+            }
+            int keptBookings = readBookings(laterStart).size();
+            if (keptBookings != partial.getImported()) {
+                failures.add(keptBookings + " bookings in the database after the cancel, but "
+                        + partial.getImported() + " imported");
+            }
+        } finally {
+            BenchmarkDatabase.stop();
+            if (failures.isEmpty()) {
+                try (Stream<Path> files = Files.walk(directory.toPath())) {
+                    files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("Import matches the file, no double bookings");
+    }
+
+    /**
+     * Writes the rows and returns how many of them should be refused.
+     */
+    private static int writeFile(File file, List<Room> rooms, int customers, LocalDate windowStart, int rows)
+            throws Exception {
+        Random random = new Random(42);
+        LocalDate[] nextFree = new LocalDate[rooms.size()];
+        LocalDate[] lastCheckIn = new LocalDate[rooms.size()];
+        int spoiled = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("room_number,customer_id,check_in_date,check_out_date,number_of_adults,number_of_kids");
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                int room = i % rooms.size();
+                if (nextFree[room] == null) {
+                    nextFree[room] = windowStart;
+                }
+                String roomNumber = rooms.get(room).getRoomNumber();
+                int customer = 1 + random.nextInt(customers);
+                LocalDate checkIn = nextFree[room].plusDays(random.nextInt(3));
+                LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+                String checkInText = checkIn.toString();
+
+                int fault = random.nextInt(100);
+                if (fault < 2 && lastCheckIn[room] != null) {
+                    // The night after an earlier row of this room checks in
+                    checkIn = lastCheckIn[room];
+                    checkInText = checkIn.toString();
+                    checkOut = checkIn.plusDays(1);
+                    spoiled++;
+                } else if (fault == 2) {
+                    roomNumber = "X" + roomNumber;
+                    spoiled++;
+                } else if (fault == 3) {
+                    // Only the insert finds the customer unknown; the rows after it keep clear of its nights
+                    customer = customers + 1000;
+                    nextFree[room] = checkOut;
+                    spoiled++;
+                } else if (fault == 4) {
+                    checkInText = checkIn.getDayOfMonth() + "/" + checkIn.getMonthValue() + "/" + checkIn.getYear();
+                    spoiled++;
+                } else {
+                    nextFree[room] = checkOut;
+                    lastCheckIn[room] = checkIn;
+                }
+                out.write(roomNumber + "," + customer + "," + checkInText + "," + checkOut + ","
+                        + (1 + random.nextInt(4)) + "," + random.nextInt(3));
+                out.newLine();
+            }
+        }
+        return spoiled;
+    }
+
+    private static List<Booking> readBookings(LocalDate windowStart) throws SQLException {
+        String sql = "SELECT booking_id, room_id, check_in_date, check_out_date FROM bookings " +
+                "WHERE check_in_date >= ? ORDER BY room_id, check_in_date, booking_id";
+        List<Booking> bookings = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(windowStart));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Booking booking = new Booking();
+                    booking.setBookingId(rs.getInt("booking_id"));
+                    booking.setRoomId(rs.getInt("room_id"));
+                    booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
+                    booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
+                    bookings.add(booking);
+                }
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Runs the import on the calling thread; progress updates need the FX
+     * toolkit, which a headless run does not start.
+     */
+    private static final class Import extends BookingCsvImport {
+
+        Import(File source) {
+            super(new BookingDAOImpl(), new RoomDAOImpl(), source);
+        }
+
+        private int cancelAfterBatches = -1;
+        private int batches;
+
+        BookingCsvImport.Result runHere() throws Exception {
+            return call();
+        }
+
+        /**
+         * Cancels from another thread shortly after the given batch starts,
+         * the way the progress dialog's cancel button does.
+         */
+        void cancelDuringBatch(int batch) {
+            cancelAfterBatches = batch - 1;
+        }
+
+        @Override
+        protected void updateMessage(String message) {
+        }
+
+        // Called on the task thread after each batch
+        @Override
+        protected void updateProgress(long workDone, long max) {
+            if (++batches == cancelAfterBatches) {
+                Thread canceller = new Thread(() -> {
+                    try {
+                        Thread.sleep(20);
+                        cancel();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (IllegalStateException e) {
+                        // The task is cancelled; there is no FX toolkit to report the new state to
+                    }
+                }, "booking-import-canceller");
+                canceller.setDaemon(true);
+                canceller.start();
+            }
+        }
+
+        @Override
+        protected void updateProgress(double workDone, double max) {
+        }
+    }
+}
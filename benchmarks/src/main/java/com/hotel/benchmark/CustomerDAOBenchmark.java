@@ -0,0 +1,64 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.CustomerDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.impl.CustomerDAOImpl;
+import com.hotel.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CustomerDAOImpl read paths: full list, name search and the paginated table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerDAOBenchmark {
+
+    private final CustomerDAO customerDAO = new CustomerDAOImpl();
+    private PageRequest firstPage;
+    private PageRequest searchPage;
+
+    @Setup(Level.Trial)
+    public void setUp(HotelState hotel) {
+        firstPage = PageRequest.first(25).sortBy(CustomerDAO.SORT_LAST_NAME, false);
+        searchPage = firstPage.filter(CustomerDAO.FILTER_SEARCH, "john");
+    }
+
+    @Benchmark
+    public List<Customer> findAll() throws SQLException {
+        return customerDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Customer> findByName() throws SQLException {
+        return customerDAO.findByName("Mary");
+    }
+
+    @Benchmark
+    public Page<Customer> findFirstPage() throws SQLException {
+        return customerDAO.findPage(firstPage);
+    }
+
+    @Benchmark
+    public Page<Customer> findSearchPage() throws SQLException {
+        return customerDAO.findPage(searchPage);
+    }
+}
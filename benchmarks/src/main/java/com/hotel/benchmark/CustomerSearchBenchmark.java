@@ -0,0 +1,76 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.CustomerDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.impl.CustomerDAOImpl;
+import com.hotel.dao.impl.CustomerSearchIndex;
+import com.hotel.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The customer search box: one ranked page of ids from CustomerSearchIndex,
+ * and the whole findPage call with the index on and off (SQL LIKE). Run with
+ * a realistic guest list, e.g. -p customers=300000.
+ *
+ * The queries cover a short prefix ("e" matches every synthetic email
+ * address), a first name, a typo, two terms and part of a phone number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSearchBenchmark {
+
+    @Param({"e", "john", "jhon", "mary smi", "4567"})
+    public String query;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private final CustomerDAO customerDAO = new CustomerDAOImpl();
+    private final CustomerSearchIndex index = CustomerSearchIndex.getInstance();
+    private PageRequest searchPage;
+
+    @Setup(Level.Trial)
+    public void setUp(HotelState hotel) throws SQLException {
+        index.setEnabled(indexed);
+        index.preload();
+        searchPage = PageRequest.first(25)
+                .sortBy(CustomerDAO.SORT_LAST_NAME, false)
+                .filter(CustomerDAO.FILTER_SEARCH, query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        index.setEnabled(true);
+    }
+
+    @Benchmark
+    public Optional<CustomerSearchIndex.Hits> rankedIds() throws SQLException {
+        return index.search(query, false, CustomerSearchIndex.PartyFilter.ANY, 0, 25);
+    }
+
+    @Benchmark
+    public Page<Customer> findSearchPage() throws SQLException {
+        return customerDAO.findPage(searchPage);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.InvoiceDAO;
+import com.hotel.dao.PaymentDAO;
+import com.hotel.dao.RoomDAO;
+import com.hotel.dao.ServiceDAO;
+import com.hotel.dao.impl.InvoiceDAOImpl;
+import com.hotel.dao.impl.PaymentDAOImpl;
+import com.hotel.dao.impl.RoomDAOImpl;
+import com.hotel.dao.impl.ServiceDAOImpl;
+import com.hotel.model.Invoice;
+import com.hotel.model.Payment;
+import com.hotel.model.Room;
+import com.hotel.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full-table reads behind the room, service, invoice and payment screens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FullTableReadBenchmark {
+
+    private final RoomDAO roomDAO = new RoomDAOImpl();
+    private final ServiceDAO serviceDAO = new ServiceDAOImpl();
+    private final InvoiceDAO invoiceDAO = new InvoiceDAOImpl();
+    private final PaymentDAO paymentDAO = new PaymentDAOImpl();
+
+    @Benchmark
+    public List<Room> allRooms(HotelState hotel) throws SQLException {
+        return roomDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Service> allServices(HotelState hotel) throws SQLException {
+        return serviceDAO.getAllServices();
+    }
+
+    @Benchmark
+    public List<Invoice> allInvoices(HotelState hotel) throws SQLException {
+        return invoiceDAO.getAllInvoices();
+    }
+
+    @Benchmark
+    public List<Payment> allPayments(HotelState hotel) throws SQLException {
+        return paymentDAO.getAllPayments();
+    }
+}
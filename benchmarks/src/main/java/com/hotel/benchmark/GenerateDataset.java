@@ -0,0 +1,101 @@
+package com.hotel.benchmark;
+
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line entry point that writes a SyntheticHotel into a database.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.hotel.benchmark.GenerateDataset \
+ *       --rooms=500 --customers=200000 --years=10 --seed=42 [--create-schema]
+ * </pre>
+ *
+ * The target defaults to the database in application.properties; use --url,
+ * --username and --password (or -Ddb.url=...) to point elsewhere. The tables
+ * must exist and be empty; --create-schema runs the application's schema
+ * migrations first; -Ddb.backend=embedded writes into the embedded H2
+ * database instead. The invoice triggers are switched off for the
+ * generator's session, since it writes the invoices itself.
+ *
+ * Other options: --staff, --future-months, --services-per-night,
+ * --feedback-rate, --cancellation-rate, --rows-per-statement,
+ * --bookings-per-commit, --reference-date=yyyy-MM-dd.
+ */
+public final class GenerateDataset {
+
+    private GenerateDataset() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parse(args);
+        DatabaseConfig config = DatabaseConfig.load();
+        String url = options.getOrDefault("url", config.getUrl());
+        String username = options.getOrDefault("username", config.getUsername());
+        String password = options.getOrDefault("password", config.getPassword());
+
+        SyntheticHotel hotel = new SyntheticHotel(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("rooms", "200")),
+                Integer.parseInt(options.getOrDefault("customers", "5000")),
+                Integer.parseInt(options.getOrDefault("years", "2")));
+        if (options.containsKey("staff")) {
+            hotel.setStaff(Integer.parseInt(options.get("staff")));
+        }
+        if (options.containsKey("future-months")) {
+            hotel.setFutureMonths(Integer.parseInt(options.get("future-months")));
+        }
+        if (options.containsKey("services-per-night")) {
+            hotel.setServicesPerNight(Double.parseDouble(options.get("services-per-night")));
+        }
+        if (options.containsKey("feedback-rate")) {
+            hotel.setFeedbackRate(Double.parseDouble(options.get("feedback-rate")));
+        }
+        if (options.containsKey("cancellation-rate")) {
+            hotel.setCancellationRate(Double.parseDouble(options.get("cancellation-rate")));
+        }
+        if (options.containsKey("rows-per-statement")) {
+            hotel.setRowsPerStatement(Integer.parseInt(options.get("rows-per-statement")));
+        }
+        if (options.containsKey("bookings-per-commit")) {
+            hotel.setBookingsPerCommit(Integer.parseInt(options.get("bookings-per-commit")));
+        }
+        if (options.containsKey("reference-date")) {
+            hotel.setReferenceDate(LocalDate.parse(options.get("reference-date")));
+        }
+
+        long start = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(url, username, password)) {
+            if (options.containsKey("create-schema")) {
+                System.out.println(new SchemaMigrator(config).migrate(conn));
+            }
+            hotel.populate(conn);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println(String.format("Generated %s in %.1f s (%.0f rows/s)",
+                hotel, seconds, hotel.getCounts().getTotal() / seconds));
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hotel.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.SQLException;
+
+/**
+ * The benchmark database, created once per fork. The hotel size is set with
+ * JMH parameters, e.g. -p rooms=500 -p years=5.
+ */
+@State(Scope.Benchmark)
+public class HotelState {
+
+    @Param("42")
+    public long seed;
+
+    @Param("200")
+    public int rooms;
+
+    @Param("5000")
+    public int customers;
+
+    @Param("2")
+    public int years;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        BenchmarkDatabase.start(new SyntheticHotel(seed, rooms, customers, years));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        BenchmarkDatabase.stop();
+    }
+}
@@ -0,0 +1,117 @@
+package com.hotel.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Buffers rows for one table and writes them as multi-row
+ * INSERT ... VALUES (...), (...), ... statements.
+ *
+ * The full-size statement is prepared once and reused; only the last, partial
+ * chunk of a flush needs a statement of its own. An insert into a child table
+ * is chained to its parent with {@link #after}: it keeps buffering until it is
+ * flushed explicitly, and then writes the parent's buffered rows first so
+ * foreign keys stay satisfied. Callers flush child inserts periodically, e.g.
+ * before each commit.
+ */
+final class MultiRowInsert implements AutoCloseable {
+
+    // MySQL allows at most 65535 placeholders per statement
+    private static final int MAX_PARAMETERS = 65_535;
+
+    private final Connection conn;
+    private final String table;
+    private final String[] columns;
+    private final int rowsPerStatement;
+    private final List<Object> buffer;
+    private PreparedStatement fullStatement;
+    private MultiRowInsert parent;
+    private long rowCount;
+
+    MultiRowInsert(Connection conn, String table, int rowsPerStatement, String... columns) {
+        this.conn = conn;
+        this.table = table;
+        this.columns = columns;
+        this.rowsPerStatement = Math.max(1, Math.min(rowsPerStatement, MAX_PARAMETERS / columns.length));
+        this.buffer = new ArrayList<>(this.rowsPerStatement * columns.length);
+    }
+
+    /**
+     * Makes every flush of this insert write the parent's buffered rows first.
+     * The insert then only writes when flushed.
+     */
+    MultiRowInsert after(MultiRowInsert parent) {
+        this.parent = parent;
+        return this;
+    }
+
+    /**
+     * Adds one row; values are in column order.
+     */
+    void add(Object... values) throws SQLException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " expects " + columns.length + " values, got " + values.length);
+        }
+        Collections.addAll(buffer, values);
+        rowCount++;
+        if (parent == null && buffer.size() == rowsPerStatement * columns.length) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered rows.
+     */
+    void flush() throws SQLException {
+        if (parent != null) {
+            parent.flush();
+        }
+        int chunk = rowsPerStatement * columns.length;
+        int from = 0;
+        while (buffer.size() - from >= chunk) {
+            if (fullStatement == null) {
+                fullStatement = conn.prepareStatement(sql(rowsPerStatement));
+            }
+            execute(fullStatement, from, from + chunk);
+            from += chunk;
+        }
+        if (from < buffer.size()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql((buffer.size() - from) / columns.length))) {
+                execute(stmt, from, buffer.size());
+            }
+        }
+        buffer.clear();
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            if (fullStatement != null) {
+                fullStatement.close();
+            }
+        }
+    }
+
+    private void execute(PreparedStatement stmt, int from, int to) throws SQLException {
+        for (int i = from; i < to; i++) {
+            stmt.setObject(i - from + 1, buffer.get(i));
+        }
+        stmt.executeUpdate();
+    }
+
+    private String sql(int rows) {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES " +
+                String.join(", ", Collections.nCopies(rows, placeholders));
+    }
+}
@@ -0,0 +1,78 @@
+package com.hotel.benchmark;
+
+import com.hotel.util.PasswordHasher;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Finds the PBKDF2 iterations at which one password hash takes a target time
+ * on this machine, for password.hash.iterations.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.hotel.benchmark.PasswordHashCalibration \
+ *       [--target-ms=250] [--samples=7] [--threads=2] [--burst=40]
+ * </pre>
+ *
+ * Hash time grows linearly with the iterations, so each round measures the
+ * median of --samples hashes and scales the iterations by target / measured,
+ * until the median is within 5% of the target. The result is rounded down to
+ * a thousand. It then estimates how long a burst of --burst logins, e.g. a
+ * shift change, waits for a pool of --threads hashing threads
+ * (password.verify.threads) with those iterations, counting at most one thread
+ * per processor.
+ */
+public final class PasswordHashCalibration {
+
+    private static final int MAX_ROUNDS = 8;
+
+    private PasswordHashCalibration() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = GenerateDataset.parse(args);
+        double targetMillis = Double.parseDouble(options.getOrDefault("target-ms", "250"));
+        int samples = Integer.parseInt(options.getOrDefault("samples", "7"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "2"));
+        int burst = Integer.parseInt(options.getOrDefault("burst", "40"));
+
+        byte[] salt = new byte[16];
+        new Random(42).nextBytes(salt);
+
+        // Warms up the JIT before anything is measured
+        for (int i = 0; i < 20; i++) {
+            PasswordHasher.derive("warm-up", salt, 10_000);
+        }
+
+        int iterations = 10_000;
+        double millis = medianMillis(iterations, salt, samples);
+        for (int round = 0; round < MAX_ROUNDS && Math.abs(millis - targetMillis) > targetMillis * 0.05; round++) {
+            iterations = (int) Math.max(1_000, Math.min(Integer.MAX_VALUE, iterations * (targetMillis / millis)));
+            millis = medianMillis(iterations, salt, samples);
+            System.out.printf("%,12d iterations: %8.1f ms%n", iterations, millis);
+        }
+        int recommended = Math.max(1_000, iterations / 1_000 * 1_000);
+        double recommendedMillis = medianMillis(recommended, salt, samples);
+
+        System.out.printf("%nTarget %.0f ms per hash on %d processors:%n", targetMillis,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("  password.hash.iterations=%d   (%.1f ms per hash)%n", recommended, recommendedMillis);
+        System.out.printf("  currently configured: %d%n", PasswordHasher.getInstance().getIterations());
+        // Threads beyond the processors do not hash any faster
+        int parallel = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+        System.out.printf("A burst of %d logins on %d hashing threads takes about %.1f s; the last login waits that long.%n",
+                burst, threads, Math.ceil((double) burst / parallel) * recommendedMillis / 1000.0);
+    }
+
+    private static double medianMillis(int iterations, byte[] salt, int samples) {
+        double[] millis = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            PasswordHasher.derive("calibration-password", salt, iterations);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[samples / 2];
+    }
+}
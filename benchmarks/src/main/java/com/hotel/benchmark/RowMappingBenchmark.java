@@ -0,0 +1,116 @@
+package com.hotel.benchmark;
+
+import com.hotel.dao.BookingDAO;
+import com.hotel.dao.impl.BookingDAOImpl;
+import com.hotel.model.Booking;
+import com.hotel.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping and statement reuse: the DAO's getAllBookings and findById,
+ * which map by resolved column position through the pool's statement cache,
+ * against the same queries mapped by column label on a statement prepared
+ * for each call, as the DAOs did before RowMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final String ALL_BOOKINGS_SQL = "SELECT b.*, c.first_name, c.last_name, r.room_number " +
+            "FROM bookings b " +
+            "JOIN customers c ON b.customer_id = c.customer_id " +
+            "JOIN rooms r ON b.room_id = r.room_id " +
+            "ORDER BY b.check_in_date DESC";
+
+    private static final String FIND_BY_ID_SQL = "SELECT * FROM bookings WHERE booking_id = ?";
+
+    private final BookingDAO bookingDAO = new BookingDAOImpl();
+    private int bookingId;
+
+    @Setup(Level.Trial)
+    public void setUp(HotelState hotel) throws SQLException {
+        List<Booking> bookings = bookingDAO.findByCustomerId(hotel.customers / 2);
+        bookingId = bookings.isEmpty() ? 1 : bookings.get(0).getBookingId();
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookings() throws SQLException {
+        return bookingDAO.getAllBookings();
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsByLabel() throws SQLException {
+        List<Booking> bookings = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ALL_BOOKINGS_SQL)) {
+            while (rs.next()) {
+                Booking booking = mapByLabel(rs);
+                booking.setCustomerName(rs.getString("first_name") + " " + rs.getString("last_name"));
+                booking.setRoomNumber(rs.getString("room_number"));
+                bookings.add(booking);
+            }
+        }
+        return bookings;
+    }
+
+    @Benchmark
+    public Optional<Booking> findById() throws SQLException {
+        return bookingDAO.findById(bookingId);
+    }
+
+    @Benchmark
+    public Optional<Booking> findByIdUncached() throws SQLException {
+        // The three-argument overload bypasses the pool's statement cache
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setInt(1, bookingId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapByLabel(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    private static Booking mapByLabel(ResultSet rs) throws SQLException {
+        Booking booking = new Booking();
+        booking.setBookingId(rs.getInt("booking_id"));
+        booking.setRoomId(rs.getInt("room_id"));
+        booking.setCustomerId(rs.getInt("customer_id"));
+        booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
+        booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
+        booking.setBookingStatus(rs.getString("booking_status"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            booking.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        booking.setNumberOfAdults(rs.getInt("number_of_adults"));
+        booking.setNumberOfKids(rs.getInt("number_of_kids"));
+        return booking;
+    }
+}
@@ -0,0 +1,551 @@
+package com.hotel.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Generates a synthetic hotel covering every table the DAOs use: Users, Staff,
+ * Rooms, customers, services, bookings, booking_services, invoices, payments
+ * and feedback.
+ *
+ * Bookings are laid out room by room as a sequence of stays separated by
+ * gaps, so stays in one room never overlap. Gaps shrink in the busy months
+ * (summer and December), stays are mostly short with a tail of long ones and
+ * run longer in summer, and a small share of guests account for most repeat
+ * bookings. Every room draws from its own random stream derived from the
+ * seed, so the same seed and sizes always produce the same rows, and ids are
+ * assigned explicitly rather than by the database.
+ *
+ * Rows are written with multi-row INSERT statements and committed in chunks;
+ * the tables must be empty. The generator writes invoices and paid amounts
+ * itself, so the invoice triggers are turned off for the connection while it
+ * runs.
+ */
+public class SyntheticHotel {
+
+    private static final String[] ROOM_TYPES = {"Single", "Double", "Suite", "Deluxe"};
+    private static final int[] ROOM_TYPE_WEIGHTS = {30, 45, 10, 15};
+    private static final int[] ROOM_PRICES = {80, 120, 320, 180};
+    private static final int ROOMS_PER_FLOOR = 20;
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph",
+            "Jessica", "Thomas", "Sarah", "Charles", "Karen", "Abebe", "Hana", "Dawit", "Selam", "Yonas",
+            "Meron", "Kebede", "Tigist", "Samuel", "Ruth"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Tesfaye", "Bekele", "Alemu", "Girma", "Haile",
+            "Mengistu", "Wolde", "Assefa", "Tadesse", "Kassa"};
+    private static final String[] STREETS = {"Main Street", "Bole Road", "Churchill Avenue", "Oak Lane",
+            "Station Road", "Park Avenue", "Market Street", "Hill Road"};
+
+    private static final String[] SERVICES = {"Room Service", "Laundry", "Spa", "Airport Transfer",
+            "Breakfast", "Dinner", "Minibar", "Parking", "Gym", "Late Checkout", "City Tour", "Massage"};
+    private static final int[] SERVICE_PRICES = {25, 15, 60, 40, 12, 30, 18, 10, 8, 35, 55, 70};
+
+    private static final String[] POSITIONS = {"Receptionist", "Housekeeper", "Maintenance", "Chef"};
+    private static final int[] POSITION_SALARIES = {2500, 1800, 2200, 3000};
+    private static final String[] PAYMENT_METHODS = {"Cash", "Credit Card", "Debit Card", "Bank Transfer",
+            "Mobile Payment"};
+    private static final String[] COMMENTS = {"Great stay, friendly staff.", "Room was clean and quiet.",
+            "Breakfast could be better.", "Excellent service!", "Check-in took too long.",
+            "Lovely view from the room.", "Average experience.", "Would come back again.",
+            "Wi-Fi was slow.", "The spa was wonderful."};
+
+    // Demand per month, January first; higher demand means shorter gaps between stays
+    private static final double[] MONTH_OCCUPANCY = {0.55, 0.55, 0.62, 0.68, 0.72, 0.85,
+            0.93, 0.95, 0.75, 0.68, 0.58, 0.82};
+    // Length of stay in nights and its weight
+    private static final int[] STAY_NIGHTS = {1, 2, 3, 4, 5, 6, 7, 10, 14};
+    private static final int[] STAY_WEIGHTS = {22, 25, 18, 10, 8, 4, 8, 3, 2};
+
+    private final long seed;
+    private final int rooms;
+    private final int customers;
+    private final int years;
+    private int futureMonths = 6;
+    private int staff;
+    private double servicesPerNight = 0.4;
+    private double feedbackRate = 0.3;
+    private double cancellationRate = 0.05;
+    private int rowsPerStatement = 500;
+    private int bookingsPerCommit = 5_000;
+
+    private LocalDate referenceDate;
+    private LocalDate today;
+    private Counts counts = new Counts();
+
+    /**
+     * @param seed      Random seed; the same seed gives the same data
+     * @param rooms     Number of rooms
+     * @param customers Number of customers
+     * @param years     Years of booking history before today
+     */
+    public SyntheticHotel(long seed, int rooms, int customers, int years) {
+        this.seed = seed;
+        this.rooms = rooms;
+        this.customers = Math.max(1, customers);
+        this.years = years;
+        this.staff = Math.max(5, rooms / 10);
+    }
+
+    /**
+     * Date treated as today when deciding booking statuses and the booking window
+     * (default: the current date). Fix it to reproduce a data set exactly on another day.
+     */
+    public void setReferenceDate(LocalDate referenceDate) {
+        this.referenceDate = referenceDate;
+    }
+
+    /** Months of future bookings after today (default 6). */
+    public void setFutureMonths(int futureMonths) {
+        this.futureMonths = futureMonths;
+    }
+
+    /** Number of staff accounts, including the admin and the manager (default rooms / 10, at least 5). */
+    public void setStaff(int staff) {
+        this.staff = Math.max(2, staff);
+    }
+
+    /** Average booked services per night of stay (default 0.4). */
+    public void setServicesPerNight(double servicesPerNight) {
+        this.servicesPerNight = servicesPerNight;
+    }
+
+    /** Share of completed stays that leave feedback (default 0.3). */
+    public void setFeedbackRate(double feedbackRate) {
+        this.feedbackRate = feedbackRate;
+    }
+
+    /** Share of bookings that are cancelled (default 0.05). */
+    public void setCancellationRate(double cancellationRate) {
+        this.cancellationRate = cancellationRate;
+    }
+
+    /** Rows per INSERT statement (default 500). */
+    public void setRowsPerStatement(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    /** Bookings written per transaction (default 5000). */
+    public void setBookingsPerCommit(int bookingsPerCommit) {
+        this.bookingsPerCommit = Math.max(1, bookingsPerCommit);
+    }
+
+    public int getRooms() {
+        return rooms;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    /**
+     * @return Rows written by the last call to populate
+     */
+    public Counts getCounts() {
+        return counts;
+    }
+
+    public void populate(Connection conn) throws SQLException {
+        today = referenceDate != null ? referenceDate : LocalDate.now();
+        counts = new Counts();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET @skip_invoice_triggers = 1");
+            insertStaff(conn);
+            insertServices(conn);
+            insertCustomers(conn);
+            insertRooms(conn);
+            conn.commit();
+            insertBookings(conn);
+            conn.commit();
+            stmt.execute("SET @skip_invoice_triggers = NULL");
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertStaff(Connection conn) throws SQLException {
+        Random random = random(-1);
+        try (MultiRowInsert users = new MultiRowInsert(conn, "Users", rowsPerStatement,
+                "user_id", "username", "password", "role");
+             MultiRowInsert staffRows = new MultiRowInsert(conn, "Staff", rowsPerStatement,
+                     "user_id", "first_name", "last_name", "phone_number", "email", "position", "hire_date",
+                     "salary", "address").after(users)) {
+            for (int id = 1; id <= staff; id++) {
+                String username;
+                String role;
+                String position;
+                double salary;
+                if (id == 1) {
+                    username = "admin";
+                    role = "admin";
+                    position = "Admin";
+                    salary = 5000;
+                } else if (id == 2) {
+                    username = "manager";
+                    role = "manager";
+                    position = "Manager";
+                    salary = 4500;
+                } else {
+                    int p = random.nextInt(POSITIONS.length);
+                    username = "staff" + id;
+                    role = "staff";
+                    position = POSITIONS[p];
+                    salary = POSITION_SALARIES[p] + random.nextInt(500);
+                }
+                String first = pick(random, FIRST_NAMES);
+                String last = pick(random, LAST_NAMES);
+                users.add(id, username, "password", role);
+                staffRows.add(id, first, last, phone(random), username + "@hotel.example.com", position,
+                        Date.valueOf(today.minusDays(30 + random.nextInt(365 * 8))), salary, address(random));
+            }
+            staffRows.flush();
+            counts.users = users.getRowCount();
+            counts.staff = staffRows.getRowCount();
+        }
+    }
+
+    private void insertServices(Connection conn) throws SQLException {
+        try (MultiRowInsert services = new MultiRowInsert(conn, "services", rowsPerStatement,
+                "service_id", "service_name", "price", "description")) {
+            for (int i = 0; i < SERVICES.length; i++) {
+                services.add(i + 1, SERVICES[i], BigDecimal.valueOf(SERVICE_PRICES[i]), SERVICES[i]);
+            }
+            services.flush();
+            counts.services = services.getRowCount();
+        }
+    }
+
+    private void insertCustomers(Connection conn) throws SQLException {
+        Random random = random(-2);
+        try (MultiRowInsert rows = new MultiRowInsert(conn, "customers", rowsPerStatement,
+                "customer_id", "first_name", "last_name", "email", "phone_number", "address",
+                "number_of_adults", "number_of_kids")) {
+            for (int id = 1; id <= customers; id++) {
+                String first = pick(random, FIRST_NAMES);
+                String last = pick(random, LAST_NAMES);
+                int adults = random.nextInt(10) < 7 ? 2 : 1 + random.nextInt(4);
+                int kids = random.nextInt(10) < 6 ? 0 : 1 + random.nextInt(3);
+                rows.add(id, first, last, (first + "." + last + id + "@example.com").toLowerCase(),
+                        phone(random), address(random), adults, kids);
+            }
+            rows.flush();
+            counts.customers = rows.getRowCount();
+        }
+    }
+
+    private void insertRooms(Connection conn) throws SQLException {
+        try (MultiRowInsert rows = new MultiRowInsert(conn, "Rooms", rowsPerStatement,
+                "room_id", "room_number", "type", "price", "status", "floor", "description")) {
+            for (int roomId = 1; roomId <= rooms; roomId++) {
+                int floor = (roomId - 1) / ROOMS_PER_FLOOR + 1;
+                int type = roomType(roomId);
+                rows.add(roomId, String.valueOf(floor * 100 + (roomId - 1) % ROOMS_PER_FLOOR + 1),
+                        ROOM_TYPES[type], BigDecimal.valueOf(ROOM_PRICES[type]), roomStatus(roomId), floor,
+                        ROOM_TYPES[type] + " room on floor " + floor);
+            }
+            rows.flush();
+            counts.rooms = rows.getRowCount();
+        }
+    }
+
+    private void insertBookings(Connection conn) throws SQLException {
+        try (MultiRowInsert bookings = new MultiRowInsert(conn, "bookings", rowsPerStatement,
+                "booking_id", "room_id", "customer_id", "check_in_date", "check_out_date", "booking_status",
+                "number_of_adults", "number_of_kids", "created_at");
+             MultiRowInsert bookingServices = new MultiRowInsert(conn, "booking_services", rowsPerStatement,
+                     "booking_service_id", "booking_id", "service_id", "quantity", "service_date").after(bookings);
+             MultiRowInsert invoices = new MultiRowInsert(conn, "invoices", rowsPerStatement,
+                     "invoice_id", "booking_id", "issue_date", "due_date", "room_cost", "service_cost",
+                     "total_amount", "paid_amount", "invoice_status").after(bookings);
+             MultiRowInsert payments = new MultiRowInsert(conn, "payments", rowsPerStatement,
+                     "payment_id", "invoice_id", "payment_date", "amount", "payment_method", "transaction_id")
+                     .after(invoices);
+             MultiRowInsert feedback = new MultiRowInsert(conn, "feedback", rowsPerStatement,
+                     "feedback_id", "customer_id", "booking_id", "rating", "comments", "feedback_date")
+                     .after(bookings)) {
+
+            long bookingId = 0;
+            long bookingServiceId = 0;
+            long invoiceId = 0;
+            long paymentId = 0;
+            long feedbackId = 0;
+
+            for (int roomId = 1; roomId <= rooms; roomId++) {
+                BigDecimal nightly = BigDecimal.valueOf(ROOM_PRICES[roomType(roomId)]);
+                Timeline timeline = new Timeline(roomId);
+                Random random = random(roomId * 2L + 1);
+
+                for (Stay stay = timeline.next(); stay != null; stay = timeline.next()) {
+                    bookingId++;
+                    int customerId = repeatGuest(random);
+                    int adults = 1 + random.nextInt(stay.nights > 5 ? 4 : 2);
+                    int kids = stay.summer && random.nextBoolean() ? 1 + random.nextInt(2) : 0;
+                    LocalDateTime createdAt = stay.checkIn.minusDays(leadDays(random))
+                            .atTime(8 + random.nextInt(14), random.nextInt(60));
+                    bookings.add(bookingId, roomId, customerId, Date.valueOf(stay.checkIn),
+                            Date.valueOf(stay.checkOut), stay.status, adults, kids, Timestamp.valueOf(createdAt));
+
+                    if (!"Cancelled".equals(stay.status)) {
+                        long serviceCost = 0;
+                        int services = poisson(random, servicesPerNight * stay.nights);
+                        for (int s = 0; s < services; s++) {
+                            int service = random.nextInt(SERVICES.length);
+                            int quantity = 1 + (random.nextInt(4) == 0 ? random.nextInt(3) : 0);
+                            bookingServices.add(++bookingServiceId, bookingId, service + 1, quantity,
+                                    Date.valueOf(stay.checkIn.plusDays(random.nextInt(stay.nights))));
+                            serviceCost += (long) SERVICE_PRICES[service] * quantity;
+                        }
+
+                        // Invoices are raised at check-in
+                        if (!stay.checkIn.isAfter(today)) {
+                            invoiceId++;
+                            BigDecimal roomCost = nightly.multiply(BigDecimal.valueOf(stay.nights));
+                            BigDecimal total = roomCost.add(BigDecimal.valueOf(serviceCost));
+                            boolean settled = "Checked-out".equals(stay.status);
+                            BigDecimal deposit = random.nextInt(3) == 0
+                                    ? total.divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+                            BigDecimal paid = settled ? total : deposit;
+                            String status = settled ? "Paid" : deposit.signum() > 0 ? "Partially Paid" : "Pending";
+                            invoices.add(invoiceId, bookingId, Date.valueOf(stay.checkIn),
+                                    Date.valueOf(stay.checkOut.plusDays(14)), roomCost,
+                                    BigDecimal.valueOf(serviceCost), total, paid, status);
+
+                            String method = pick(random, PAYMENT_METHODS);
+                            if (deposit.signum() > 0) {
+                                payments.add(++paymentId, invoiceId, Date.valueOf(stay.checkIn), deposit,
+                                        method, "TX" + paymentId);
+                            }
+                            if (settled) {
+                                payments.add(++paymentId, invoiceId, Date.valueOf(stay.checkOut),
+                                        total.subtract(deposit), method, "TX" + paymentId);
+                            }
+                        }
+
+                        if ("Checked-out".equals(stay.status) && random.nextDouble() < feedbackRate) {
+                            LocalDateTime submitted = stay.checkOut.plusDays(random.nextInt(4))
+                                    .atTime(9 + random.nextInt(12), random.nextInt(60));
+                            if (!submitted.toLocalDate().isAfter(today)) {
+                                feedback.add(++feedbackId, customerId, bookingId, rating(random),
+                                        pick(random, COMMENTS), Timestamp.valueOf(submitted));
+                            }
+                        }
+                    }
+
+                    if (bookingId % bookingsPerCommit == 0) {
+                        flushAll(bookingServices, payments, feedback);
+                        conn.commit();
+                    }
+                }
+            }
+            flushAll(bookingServices, payments, feedback);
+
+            counts.bookings = bookings.getRowCount();
+            counts.bookingServices = bookingServices.getRowCount();
+            counts.invoices = invoices.getRowCount();
+            counts.payments = payments.getRowCount();
+            counts.feedback = feedback.getRowCount();
+        }
+    }
+
+    // Flushing the leaf inserts flushes their parents first
+    private static void flushAll(MultiRowInsert... inserts) throws SQLException {
+        for (MultiRowInsert insert : inserts) {
+            insert.flush();
+        }
+    }
+
+    /**
+     * The stays of one room in date order. The same room always yields the
+     * same stays, so the room status can be derived before the bookings are written.
+     */
+    private final class Timeline {
+        private final Random random;
+        private final LocalDate end;
+        private LocalDate next;
+
+        Timeline(int roomId) {
+            this.random = random(roomId * 2L);
+            this.end = today.plusMonths(futureMonths);
+            this.next = today.minusYears(years).plusDays(random.nextInt(7));
+        }
+
+        Stay next() {
+            next = next.plusDays(gapDays(next));
+            if (!next.isBefore(end)) {
+                return null;
+            }
+            boolean summer = next.getMonthValue() >= 6 && next.getMonthValue() <= 8;
+            int nights = STAY_NIGHTS[weighted(random, STAY_WEIGHTS)];
+            if (summer && random.nextInt(10) < 3) {
+                nights += 1 + random.nextInt(3);
+            } else if (next.getDayOfWeek() == DayOfWeek.FRIDAY && nights == 1) {
+                nights = 2;
+            }
+            LocalDate checkIn = next;
+            LocalDate checkOut = checkIn.plusDays(nights);
+            next = checkOut;
+
+            String status;
+            if (random.nextDouble() < cancellationRate) {
+                status = "Cancelled";
+            } else if (!checkOut.isAfter(today)) {
+                status = "Checked-out";
+            } else if (!checkIn.isAfter(today)) {
+                status = "Checked-in";
+            } else {
+                status = "Confirmed";
+            }
+            return new Stay(checkIn, checkOut, nights, status, summer);
+        }
+
+        // Exponential gap whose mean keeps the room near the month's occupancy
+        private int gapDays(LocalDate from) {
+            double occupancy = MONTH_OCCUPANCY[from.getMonthValue() - 1];
+            double meanGap = 3.2 * (1 - occupancy) / occupancy;
+            return (int) Math.floor(-Math.log(1 - random.nextDouble()) * meanGap);
+        }
+    }
+
+    private static final class Stay {
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final int nights;
+        final String status;
+        final boolean summer;
+
+        Stay(LocalDate checkIn, LocalDate checkOut, int nights, String status, boolean summer) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.nights = nights;
+            this.status = status;
+            this.summer = summer;
+        }
+    }
+
+    /**
+     * Rows written per table.
+     */
+    public static final class Counts {
+        long users;
+        long staff;
+        long rooms;
+        long customers;
+        long services;
+        long bookings;
+        long bookingServices;
+        long invoices;
+        long payments;
+        long feedback;
+
+        public long getTotal() {
+            return users + staff + rooms + customers + services + bookings + bookingServices
+                    + invoices + payments + feedback;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rooms, %d customers, %d users/%d staff, %d services, %d bookings, " +
+                            "%d booking services, %d invoices, %d payments, %d feedback (%d rows)",
+                    rooms, customers, users, staff, services, bookings, bookingServices, invoices,
+                    payments, feedback, getTotal());
+        }
+    }
+
+    // A room is occupied today if its timeline has a checked-in stay; otherwise mostly available
+    private String roomStatus(int roomId) {
+        Timeline timeline = new Timeline(roomId);
+        for (Stay stay = timeline.next(); stay != null && !stay.checkIn.isAfter(today); stay = timeline.next()) {
+            if ("Checked-in".equals(stay.status)) {
+                return "Booked";
+            }
+        }
+        int roll = random(-3L - roomId).nextInt(100);
+        return roll < 5 ? "Cleaning" : roll < 7 ? "Out of Service" : "Available";
+    }
+
+    private int roomType(int roomId) {
+        return weighted(random(-1_000_000L - roomId), ROOM_TYPE_WEIGHTS);
+    }
+
+    // Low customer ids are drawn more often, giving a core of repeat guests
+    private int repeatGuest(Random random) {
+        double u = random.nextDouble();
+        return 1 + (int) (customers * u * u);
+    }
+
+    private static int leadDays(Random random) {
+        return (int) Math.min(180, Math.floor(-Math.log(1 - random.nextDouble()) * 21));
+    }
+
+    private static int rating(Random random) {
+        int roll = random.nextInt(100);
+        return roll < 40 ? 5 : roll < 70 ? 4 : roll < 85 ? 3 : roll < 95 ? 2 : 1;
+    }
+
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            count++;
+            product *= random.nextDouble();
+        }
+        return count;
+    }
+
+    private static int weighted(Random random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String phone(Random random) {
+        return String.format("+251-9%08d", random.nextInt(100_000_000));
+    }
+
+    private static String address(Random random) {
+        return (random.nextInt(900) + 100) + " " + pick(random, STREETS);
+    }
+
+    // Independent stream per purpose, so changing one size does not shift the rows of another table
+    private Random random(long stream) {
+        long mixed = seed * 0x9E3779B97F4A7C15L + stream;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return new Random(mixed ^ (mixed >>> 31));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("seed %d, %d years: %s", seed, years, counts);
+    }
+}
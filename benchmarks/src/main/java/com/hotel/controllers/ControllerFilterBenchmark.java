@@ -0,0 +1,86 @@
+package com.hotel.controllers;
+
+import com.hotel.model.Room;
+import com.hotel.model.Staff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory filters RoomController and StaffController apply to the rows
+ * loaded from the DAOs. Lives in the controllers package to reach the
+ * package-private filter methods; no JavaFX toolkit is started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerFilterBenchmark {
+
+    private static final String[] ROOM_TYPES = {"Single", "Double", "Twin", "Deluxe", "Suite"};
+    private static final String[] ROOM_STATUSES = {"Available", "Booked", "Cleaning", "Out of Service"};
+    private static final String[] POSITIONS = {"Admin", "Manager", "Receptionist", "Housekeeper", "Maintenance", "Chef"};
+
+    @Param({"500", "5000"})
+    public int rows;
+
+    private List<Room> rooms;
+    private List<Staff> staff;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        rooms = new ArrayList<>(rows);
+        staff = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int floor = i / 20 + 1;
+            rooms.add(new Room(i + 1, String.valueOf(floor * 100 + i % 20 + 1),
+                    ROOM_TYPES[random.nextInt(ROOM_TYPES.length)], BigDecimal.valueOf(100),
+                    ROOM_STATUSES[random.nextInt(ROOM_STATUSES.length)], floor, null));
+
+            Staff member = new Staff(i + 1, "First" + i, "Last" + random.nextInt(rows), POSITIONS[random.nextInt(POSITIONS.length)]);
+            member.setEmail("staff" + i + "@example.com");
+            member.setPhoneNumber(String.format("09%08d", random.nextInt(100_000_000)));
+            member.setHireDate(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)));
+            staff.add(member);
+        }
+    }
+
+    @Benchmark
+    public List<Room> roomsBySearchText() {
+        return RoomController.filterRooms(rooms, "10", null, null);
+    }
+
+    @Benchmark
+    public List<Room> roomsByTypeAndStatus() {
+        return RoomController.filterRooms(rooms, "", "Suite", "Available");
+    }
+
+    @Benchmark
+    public List<Staff> staffBySearchText() {
+        return StaffController.filterStaff(staff, "last1", null);
+    }
+
+    @Benchmark
+    public List<Staff> staffByPosition() {
+        return StaffController.filterStaff(staff, "", "Receptionist");
+    }
+}
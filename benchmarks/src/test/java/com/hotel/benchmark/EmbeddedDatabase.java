@@ -0,0 +1,78 @@
+package com.hotel.benchmark;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Runs a test class against an embedded database (db.backend=embedded, H2 in
+ * MySQL mode) holding a synthetic hotel, created by BenchmarkDatabase with the
+ * migrated schema, the invoice triggers and the dashboard_summary view.
+ *
+ * <pre>
+ *   &#64;RegisterExtension
+ *   static final EmbeddedDatabase DATABASE = new EmbeddedDatabase(new SyntheticHotel(42, 50, 500, 1));
+ * </pre>
+ *
+ * The database is created before the first test of the class and shut down
+ * after the last; the DAOs reach it through DatabaseConnection as in the
+ * application. Their caches and indexes are singletons, so the build runs
+ * every test class in a JVM of its own.
+ */
+public final class EmbeddedDatabase implements BeforeAllCallback, AfterAllCallback {
+
+    private final SyntheticHotel hotel;
+    private final boolean onFile;
+    private Path directory;
+
+    /**
+     * An in-memory database.
+     */
+    public EmbeddedDatabase(SyntheticHotel hotel) {
+        this(hotel, false);
+    }
+
+    private EmbeddedDatabase(SyntheticHotel hotel, boolean onFile) {
+        this.hotel = hotel;
+        this.onFile = onFile;
+    }
+
+    /**
+     * A database in a file store under a temporary directory, as the
+     * application keeps it, e.g. for tests of file I/O. The directory is
+     * deleted afterwards.
+     */
+    public static EmbeddedDatabase onFile(SyntheticHotel hotel) {
+        return new EmbeddedDatabase(hotel, true);
+    }
+
+    public SyntheticHotel getHotel() {
+        return hotel;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        if (onFile) {
+            directory = Files.createTempDirectory("hotel-test");
+            BenchmarkDatabase.start(hotel, new File(directory.toFile(), "hotel").getPath());
+        } else {
+            BenchmarkDatabase.start(hotel);
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws Exception {
+        BenchmarkDatabase.stop();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+}
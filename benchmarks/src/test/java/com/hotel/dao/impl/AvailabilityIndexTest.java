@@ -0,0 +1,148 @@
+package com.hotel.dao.impl;
+
+import com.hotel.benchmark.EmbeddedDatabase;
+import com.hotel.benchmark.SyntheticHotel;
+import com.hotel.model.Booking;
+import com.hotel.model.Room;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that getAllAvailableRooms gives the same rooms from the availability
+ * index as from its SQL fallback, right after the index is loaded and after
+ * bookings are added, moved and deleted through the DAO, which updates the
+ * index in place rather than reloading it.
+ */
+class AvailabilityIndexTest {
+
+    @RegisterExtension
+    static final EmbeddedDatabase DATABASE = new EmbeddedDatabase(new SyntheticHotel(42, 100, 2000, 2));
+
+    private static final int RANGES = 500;
+    private static final int CHANGES = 300;
+    private static final int CHECK_EVERY = 25;
+
+    private final BookingDAOImpl bookingDAO = new BookingDAOImpl();
+    private final RoomAvailabilityIndex index = RoomAvailabilityIndex.getInstance();
+    private final LocalDate today = LocalDate.now();
+
+    /**
+     * Half of the ranges are random stays inside the index horizon; the other
+     * half start on the check-out day, or end on the check-in day, of a
+     * booking in the horizon, where an inclusive overlap test would differ
+     * from the index's half-open nights.
+     */
+    @Test
+    void indexMatchesTheDatabaseForRandomAndAdjacentStays() throws SQLException {
+        List<Booking> inHorizon = bookingsInHorizon();
+        Random random = new Random(42);
+        for (int i = 0; i < RANGES; i++) {
+            LocalDate checkIn;
+            LocalDate checkOut;
+            if (i % 2 == 0 || inHorizon.isEmpty()) {
+                checkIn = today.plusDays(random.nextInt(365));
+                checkOut = checkIn.plusDays(1 + random.nextInt(14));
+            } else {
+                Booking booking = inHorizon.get(random.nextInt(inHorizon.size()));
+                if (random.nextBoolean()) {
+                    checkIn = booking.getCheckOutDate();
+                    checkOut = checkIn.plusDays(1 + random.nextInt(3));
+                } else {
+                    checkOut = booking.getCheckInDate();
+                    checkIn = checkOut.minusDays(1 + random.nextInt(3));
+                }
+            }
+            assertAgrees(checkIn, checkOut, "");
+
+            index.setEnabled(true);
+            List<Integer> indexed = roomIds(bookingDAO.getAllAvailableRooms(checkIn, checkOut));
+            index.setEnabled(false);
+            List<Integer> queried = roomIds(bookingDAO.getAllAvailableRooms(checkIn, checkOut));
+            index.setEnabled(true);
+            assertEquals(queried, indexed, checkIn + " - " + checkOut + ": the index against the SQL fallback");
+        }
+    }
+
+    /**
+     * Applies random reservations, moves to another room and other nights,
+     * and deletions through BookingDAOImpl, and compares the index with the
+     * database for random stays after every CHECK_EVERY of them.
+     */
+    @Test
+    void indexFollowsAddedMovedAndDeletedBookings() throws SQLException {
+        int rooms = DATABASE.getHotel().getRooms();
+        int customers = DATABASE.getHotel().getCustomers();
+        Random random = new Random(7);
+        List<Integer> bookingIds = bookingsInHorizon().stream().map(Booking::getBookingId).collect(Collectors.toList());
+        index.setEnabled(true);
+        assertAgrees(today, today.plusDays(1), "after loading");
+
+        int added = 0;
+        int moved = 0;
+        int deleted = 0;
+        for (int change = 1; change <= CHANGES; change++) {
+            int kind = bookingIds.isEmpty() ? 0 : random.nextInt(3);
+            if (kind == 0) {
+                Booking booking = new Booking();
+                booking.setCustomerId(1 + random.nextInt(customers));
+                booking.setNumberOfAdults(1);
+                setRandomStay(booking, random, rooms);
+                if (bookingDAO.reserve(booking).isReserved()) {
+                    bookingIds.add(booking.getBookingId());
+                    added++;
+                }
+            } else if (kind == 1) {
+                Booking booking = bookingDAO.findById(bookingIds.get(random.nextInt(bookingIds.size()))).orElseThrow();
+                setRandomStay(booking, random, rooms);
+                if (bookingDAO.updateBooking(booking).isReserved()) {
+                    moved++;
+                }
+            } else {
+                assertTrue(bookingDAO.deleteBooking(bookingIds.remove(random.nextInt(bookingIds.size()))));
+                deleted++;
+            }
+
+            if (change % CHECK_EVERY == 0) {
+                for (int i = 0; i < 20; i++) {
+                    LocalDate checkIn = today.plusDays(random.nextInt(120));
+                    assertAgrees(checkIn, checkIn.plusDays(1 + random.nextInt(14)), "after " + change + " changes");
+                }
+            }
+        }
+        assertTrue(added > 0 && moved > 0 && deleted > 0,
+                added + " added, " + moved + " moved, " + deleted + " deleted");
+    }
+
+    // Stays are kept within 120 days so that changes collide with each other and with the generated bookings
+    private static void setRandomStay(Booking booking, Random random, int rooms) {
+        booking.setRoomId(1 + random.nextInt(rooms));
+        booking.setCheckInDate(LocalDate.now().plusDays(random.nextInt(120)));
+        booking.setCheckOutDate(booking.getCheckInDate().plusDays(1 + random.nextInt(7)));
+    }
+
+    private List<Booking> bookingsInHorizon() throws SQLException {
+        return bookingDAO.findAll().stream()
+                .filter(booking -> booking.getCheckInDate().isAfter(today)
+                        && booking.getCheckOutDate().isBefore(today.plusDays(600)))
+                .collect(Collectors.toList());
+    }
+
+    private void assertAgrees(LocalDate checkIn, LocalDate checkOut, String when) throws SQLException {
+        List<String> differences = index.verifyAgainstDatabase(checkIn, checkOut);
+        assertTrue(differences.isEmpty(), checkIn + " - " + checkOut + " " + when + ": " + differences);
+    }
+
+    private static List<Integer> roomIds(List<Room> rooms) {
+        return rooms.stream().map(Room::getRoomId).collect(Collectors.toList());
+    }
+}
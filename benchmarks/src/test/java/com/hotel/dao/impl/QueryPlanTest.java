@@ -0,0 +1,76 @@
+package com.hotel.dao.impl;
+
+import com.hotel.benchmark.EmbeddedDatabase;
+import com.hotel.benchmark.SyntheticHotel;
+import com.hotel.util.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the dashboard's "today" counters are answered by index lookups.
+ * Runs EXPLAIN for OperationalSnapshotQuery's statement: each bookings and
+ * payments access must be an index lookup on a condition, not a table scan or
+ * a full index scan as H2 reports for a predicate like DATE(created_at) = ?.
+ * Rooms is small and counted in full.
+ */
+class QueryPlanTest {
+
+    @RegisterExtension
+    static final EmbeddedDatabase DATABASE = new EmbeddedDatabase(new SyntheticHotel(42, 50, 500, 1));
+
+    // Tables the snapshot is allowed to read in full
+    private static final Set<String> FULL_SCANS_ALLOWED = Set.of("rooms");
+
+    // In H2's plan each table is followed by the access path, "index: condition" for a lookup
+    private static final Pattern ACCESS = Pattern.compile(
+            "FROM public\\.(\\w+)\\s*/\\* public\\.([\\w.]+)(:[^*]*)?\\s*\\*/");
+
+    @Test
+    void operationalSnapshotUsesIndexLookups() throws SQLException {
+        String plan = explain(OperationalSnapshotQuery.SQL);
+        List<String> accesses = new ArrayList<>();
+        List<String> scans = new ArrayList<>();
+        Matcher matcher = ACCESS.matcher(plan);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            String path = matcher.group(2);
+            boolean lookup = matcher.group(3) != null && !path.endsWith(".tableScan");
+            accesses.add(table);
+            if (!lookup && !FULL_SCANS_ALLOWED.contains(table)) {
+                scans.add(table + " via " + path);
+            }
+        }
+        assertFalse(accesses.isEmpty(), "Could not read the plan:\n" + plan);
+        assertTrue(accesses.contains("bookings") && accesses.contains("payments"),
+                "Plan does not read bookings and payments:\n" + plan);
+        assertTrue(scans.isEmpty(), "Full scans " + scans + " in the plan:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            OperationalSnapshotQuery.setParameters(stmt, LocalDate.now());
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.hotel.dao.impl;
+
+import com.hotel.benchmark.EmbeddedDatabase;
+import com.hotel.benchmark.SyntheticHotel;
+import com.hotel.dao.BookingDAO;
+import com.hotel.dao.Reservation;
+import com.hotel.model.Booking;
+import com.hotel.util.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires concurrent reservations of one room, mixed with edits that move
+ * bookings of other rooms into it, and checks that none of the bookings that
+ * went through overlap.
+ *
+ * Every reservation asks for the same room, for one to five nights starting
+ * on a random day of a window far beyond the generated bookings, so most of
+ * them conflict with each other; every MOVE_EVERY-th task instead moves one
+ * of the bookings made beforehand in the other rooms to the contested room
+ * through updateBooking. Afterwards the room's bookings in the window are
+ * read back: no two may share a night, their number must match the
+ * reservations and moves reported as successful, and at least MIN_THROUGHPUT
+ * tasks must be handled per second.
+ */
+class ReservationStressIT {
+
+    @RegisterExtension
+    static final EmbeddedDatabase DATABASE = new EmbeddedDatabase(new SyntheticHotel(42, 50, 500, 1));
+
+    private static final int ROOM_ID = 1;
+    private static final int RESERVATIONS = 5000;
+    private static final int THREADS = 8;
+    private static final int WINDOW_DAYS = 90;
+    private static final int MOVE_EVERY = 20;
+    private static final double MIN_THROUGHPUT = 100;
+
+    @Test
+    void concurrentReservationsAndMovesNeverDoubleBookTheRoom() throws Exception {
+        SyntheticHotel hotel = DATABASE.getHotel();
+        LocalDate windowStart = LocalDate.now().plusYears(5);
+        BookingDAO bookingDAO = new BookingDAOImpl();
+
+        List<Booking> toMove = new ArrayList<>();
+        for (int i = 0; toMove.size() < RESERVATIONS / MOVE_EVERY; i++) {
+            Booking booking = randomStay(new Random(-1 - i), hotel, windowStart);
+            booking.setRoomId(ROOM_ID + 1 + i % (hotel.getRooms() - 1));
+            if (bookingDAO.reserve(booking).isReserved()) {
+                toMove.add(booking);
+            }
+        }
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger moved = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < RESERVATIONS; i++) {
+                if (i % MOVE_EVERY == 0) {
+                    Booking booking = toMove.get(i / MOVE_EVERY);
+                    booking.setRoomId(ROOM_ID);
+                    results.add(pool.submit(() -> {
+                        Reservation reservation = bookingDAO.updateBooking(booking);
+                        if (reservation.isReserved()) {
+                            moved.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                } else {
+                    Booking booking = randomStay(new Random(i), hotel, windowStart);
+                    booking.setRoomId(ROOM_ID);
+                    results.add(pool.submit(() -> {
+                        if (bookingDAO.reserve(booking).isReserved()) {
+                            reserved.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> result : results) {
+                result.get(); // rethrows a task that failed with an exception
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double throughput = RESERVATIONS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        assertTrue(moved.get() > 0, "No booking was moved into the room");
+        List<Booking> booked = readBookings(windowStart);
+        assertEquals(reserved.get() + moved.get(), booked.size(),
+                "Bookings in the database against reservations and moves reported as successful");
+        for (int i = 1; i < booked.size(); i++) {
+            Booking previous = booked.get(i - 1);
+            Booking next = booked.get(i);
+            assertTrue(!next.getCheckInDate().isBefore(previous.getCheckOutDate()),
+                    "Double booking: " + previous.getBookingId() + " (" + previous.getCheckInDate() + " - " +
+                            previous.getCheckOutDate() + ") and " + next.getBookingId() + " (" +
+                            next.getCheckInDate() + " - " + next.getCheckOutDate() + ")");
+        }
+        assertTrue(throughput >= MIN_THROUGHPUT,
+                String.format("Throughput %.0f/s is below the minimum of %.0f/s", throughput, MIN_THROUGHPUT));
+    }
+
+    private static Booking randomStay(Random random, SyntheticHotel hotel, LocalDate windowStart) {
+        Booking booking = new Booking();
+        booking.setCustomerId(1 + random.nextInt(hotel.getCustomers()));
+        booking.setCheckInDate(windowStart.plusDays(random.nextInt(WINDOW_DAYS)));
+        booking.setCheckOutDate(booking.getCheckInDate().plusDays(1 + random.nextInt(5)));
+        booking.setNumberOfAdults(1);
+        return booking;
+    }
+
+    private static List<Booking> readBookings(LocalDate windowStart) throws SQLException {
+        String sql = "SELECT booking_id, check_in_date, check_out_date FROM bookings " +
+                "WHERE room_id = ? AND check_in_date >= ? ORDER BY check_in_date, booking_id";
+        List<Booking> bookings = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, ROOM_ID);
+            stmt.setDate(2, Date.valueOf(windowStart));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Booking booking = new Booking();
+                    booking.setBookingId(rs.getInt("booking_id"));
+                    booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
+                    booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
+                    bookings.add(booking);
+                }
+            }
+        }
+        return bookings;
+    }
+}
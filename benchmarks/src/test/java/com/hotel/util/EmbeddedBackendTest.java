@@ -0,0 +1,104 @@
+package com.hotel.util;
+
+import com.hotel.benchmark.EmbeddedDatabase;
+import com.hotel.benchmark.SyntheticHotel;
+import com.hotel.dao.Reservation;
+import com.hotel.dao.impl.BookingDAOImpl;
+import com.hotel.dao.impl.PaymentDAOImpl;
+import com.hotel.model.Booking;
+import com.hotel.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the embedded backend stands in for MySQL where the DAOs rely on
+ * the database doing the work: the invoice triggers and the dashboard_summary
+ * view.
+ */
+class EmbeddedBackendTest {
+
+    @RegisterExtension
+    static final EmbeddedDatabase DATABASE = new EmbeddedDatabase(new SyntheticHotel(42, 50, 500, 1));
+
+    @Test
+    void runsOnH2() throws SQLException {
+        assertTrue(DatabaseConfig.load().isEmbedded());
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            assertEquals("H2", conn.getMetaData().getDatabaseProductName());
+        }
+    }
+
+    @Test
+    void bookingAndPaymentsKeepTheInvoiceUpToDate() throws SQLException {
+        Booking booking = new Booking();
+        booking.setRoomId(1);
+        booking.setCustomerId(1);
+        booking.setCheckInDate(LocalDate.now().plusYears(10));
+        booking.setCheckOutDate(booking.getCheckInDate().plusDays(3));
+        booking.setNumberOfAdults(1);
+        Reservation reservation = new BookingDAOImpl().reserve(booking);
+        assertTrue(reservation.isReserved(), reservation.toString());
+
+        BigDecimal price = queryDecimal("SELECT price FROM Rooms WHERE room_id = ?", 1);
+        BigDecimal total = price.multiply(BigDecimal.valueOf(3));
+        assertEquals(0, total.compareTo(invoiceColumn("room_cost", booking)));
+        assertEquals(0, total.compareTo(invoiceColumn("total_amount", booking)));
+        assertEquals("Pending", invoiceStatus(booking));
+
+        int invoiceId = invoiceColumn("invoice_id", booking).intValue();
+        PaymentDAOImpl paymentDAO = new PaymentDAOImpl();
+        BigDecimal half = total.divide(BigDecimal.valueOf(2));
+        paymentDAO.addPayment(new Payment(invoiceId, Date.valueOf(LocalDate.now()), half, "Cash"));
+        assertEquals(0, half.compareTo(invoiceColumn("paid_amount", booking)));
+        assertEquals("Partially Paid", invoiceStatus(booking));
+
+        paymentDAO.addPayment(new Payment(invoiceId, Date.valueOf(LocalDate.now()), total.subtract(half), "Cash"));
+        assertEquals(0, total.compareTo(invoiceColumn("paid_amount", booking)));
+        assertEquals("Paid", invoiceStatus(booking));
+    }
+
+    @Test
+    void dashboardSummaryViewCountsTheHotel() throws SQLException {
+        assertEquals(DATABASE.getHotel().getRooms(),
+                queryDecimal("SELECT total_rooms FROM dashboard_summary").intValue());
+    }
+
+    private static BigDecimal invoiceColumn(String column, Booking booking) throws SQLException {
+        return queryDecimal("SELECT " + column + " FROM invoices WHERE booking_id = ?", booking.getBookingId());
+    }
+
+    private static String invoiceStatus(Booking booking) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT invoice_status FROM invoices WHERE booking_id = ?")) {
+            stmt.setInt(1, booking.getBookingId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "No invoice for booking " + booking.getBookingId());
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static BigDecimal queryDecimal(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "No row for " + sql);
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.hotel.util;
+
+import com.hotel.benchmark.EmbeddedDatabase;
+import com.hotel.benchmark.SyntheticHotel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cancels BackgroundLoader channels in the middle of a query on the embedded
+ * file database and checks that the database keeps answering afterwards.
+ *
+ * Cancelling a channel interrupts the worker thread running its query. H2
+ * closes a plain file store for good when a thread is interrupted during file
+ * I/O, and every other connection fails after that; the embedded backend uses
+ * the async file system, which does not. The database cache is kept small so
+ * the scans below read from the file. After every cancel a second connection
+ * runs a query, which must succeed.
+ */
+class EmbeddedCancelTest {
+
+    private static final int CANCELS = 50;
+
+    // Reads most pages of three tables; an interrupted query still runs to its end
+    private static final String SCAN = "SELECT COUNT(*) FROM bookings b " +
+            "JOIN customers c ON c.customer_id = b.customer_id " +
+            "JOIN booking_services s ON s.booking_id = b.booking_id " +
+            "WHERE c.address <> b.booking_status";
+
+    @RegisterExtension
+    static final EmbeddedDatabase DATABASE = EmbeddedDatabase.onFile(new SyntheticHotel(42, 100, 5000, 2));
+
+    @Test
+    void databaseSurvivesCancelledQueries() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // In KB; keeps the scans reading pages from the file
+            stmt.execute("SET CACHE_SIZE 256");
+        }
+
+        BackgroundLoader.Channel<Integer> channel = BackgroundLoader.getInstance().channel("cancel-test");
+        Random random = new Random(42);
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < CANCELS; i++) {
+            CountDownLatch started = new CountDownLatch(1);
+            channel.submit(i, () -> {
+                started.countDown();
+                return count(SCAN);
+            }, result -> { }, error -> { });
+            assertTrue(started.await(10, TimeUnit.SECONDS), "Query " + i + " did not start");
+            Thread.sleep(5 + random.nextInt(50));
+            channel.cancel();
+
+            try {
+                count("SELECT COUNT(*) FROM bookings");
+            } catch (SQLException e) {
+                failures.add("Query after cancel " + i + " failed: " + e.getMessage());
+            }
+        }
+        assertEquals(List.of(), failures);
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
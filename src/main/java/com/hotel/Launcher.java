@@ -0,0 +1,16 @@
+package com.hotel;
+
+/**
+ * Main class of the packaged jar. The JavaFX launcher refuses to start a main
+ * class that extends Application when JavaFX is on the class path rather than
+ * the module path, as it is in the jar built by the cds profile.
+ */
+public final class Launcher {
+
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        MainApp.main(args);
+    }
+}
@@ -6,24 +6,178 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import javafx.application.Platform;
+
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 // Import controllers if needed for passing data
 import com.hotel.controllers.MainController;
+import com.hotel.dao.impl.CustomerSearchIndex;
 import com.hotel.model.User;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.DatabaseConnection;
+import com.hotel.util.PooledConnectionProvider;
+import com.hotel.util.SchemaMigrator;
+import com.hotel.util.StartupProfile;
 
+/**
+ * Application entry point.
+ *
+ * Startup is split into phases timed by StartupProfile: JVM, FX toolkit, FXML
+ * parse, CSS and first view of each window, with the schema migration and the
+ * connection pool warm-up running on a background thread from the start of
+ * main, in parallel with the toolkit and the login screen. The login waits for
+ * them before its first query. The customer search index is built after them
+ * on a thread of its own, which the login does not wait for. Work that is not
+ * needed for the first frame of the main window, such as preloading the other
+ * tabs, starts after it.
+ *
+ * Started with -Dstartup.exitAfterFirstView=true the application exits once the
+ * login screen is shown; the cds build profile uses this as the training run
+ * for its class data sharing archive.
+ */
 public class MainApp extends Application {
 
+    private static final StartupProfile PROFILE = StartupProfile.getInstance();
+
     private static Stage primaryStage; // Keep a reference to the primary stage
 
+    // Completes once the schema is migrated and the pool warmed up, successfully or not
+    private static CompletableFuture<Void> databaseStartup;
+    private static StartupProfile.Phase toolkitStartup;
+
     @Override
     public void start(Stage stage) throws IOException {
+        if (toolkitStartup != null) {
+            toolkitStartup.end();
+        }
         primaryStage = stage; // Store the stage reference
         primaryStage.setTitle("Hotel Management System - Login");
+        startDatabase(); // Already running unless launched without main
         showLoginScreen();
     }
 
+    // Migrate the schema and warm up the pool in the background; the app still starts if the database is unreachable
+    private static synchronized void startDatabase() {
+        if (databaseStartup != null) {
+            return;
+        }
+        databaseStartup = CompletableFuture.runAsync(() -> {
+            migrateSchema();
+            warmUpConnectionPool();
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "db-startup");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        // Not part of the startup the login waits for; the first customer search waits for it if needed
+        databaseStartup.thenRunAsync(MainApp::loadSearchIndex, runnable -> {
+            Thread thread = new Thread(runnable, "search-index");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Waits until the schema migration and pool warm-up started with the application
+     * have finished. Called before the first query, which usually finds them done.
+     */
+    public static void awaitDatabase() {
+        CompletableFuture<Void> startup;
+        synchronized (MainApp.class) {
+            startup = databaseStartup;
+        }
+        if (startup == null) {
+            return;
+        }
+        try {
+            startup.join();
+        } catch (CompletionException e) {
+            System.err.println("Database startup failed: " + e.getCause());
+        }
+    }
+
+    // Bring the schema up to date before any DAO runs
+    private static void migrateSchema() {
+        SchemaMigrator migrator = new SchemaMigrator(DatabaseConfig.load());
+        if (!migrator.isEnabled()) {
+            return;
+        }
+        StartupProfile.Phase phase = PROFILE.start("schema migration");
+        try {
+            System.out.println(migrator.migrate());
+        } catch (SQLException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+        } finally {
+            phase.end();
+        }
+    }
+
+    // Open the pool's minimum connections while the user is typing credentials
+    private static void warmUpConnectionPool() {
+        if (DatabaseConnection.getProvider() instanceof PooledConnectionProvider) {
+            StartupProfile.Phase phase = PROFILE.start("DB pool warmup");
+            ((PooledConnectionProvider) DatabaseConnection.getProvider()).warmUp();
+            phase.end();
+        }
+    }
+
+    // Build the customer search index while the user logs in
+    private static void loadSearchIndex() {
+        StartupProfile.Phase phase = PROFILE.start("customer search index");
+        try {
+            CustomerSearchIndex.getInstance().preload();
+        } catch (SQLException e) {
+            System.err.println("Customer search index not loaded, it is loaded on first search: " + e.getMessage());
+        } finally {
+            phase.end();
+        }
+    }
+
+    // Sets the scene and times its first layout pulse as the window's first view
+    private static void showScene(Scene scene, String window, Runnable afterFirstView) {
+        StartupProfile.Phase firstView = PROFILE.start("first view (" + window + ")");
+        Runnable listener = new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done) {
+                    return;
+                }
+                done = true;
+                firstView.end();
+                // Listeners must not be removed while the pulse is running them
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                PROFILE.print("first view (" + window + ")");
+                afterFirstView.run();
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+        primaryStage.setScene(scene);
+    }
+
+    // Adds the stylesheet and applies it now, so the CSS phase is not folded into the first pulse
+    private static void applyStylesheet(Scene scene, Parent root, String window) {
+        StartupProfile.Phase phase = PROFILE.start("CSS (" + window + ")");
+        String cssPath = "/com/hotel/css/styles.css";
+        URL cssUrl = MainApp.class.getResource(cssPath);
+        if (cssUrl != null) {
+            scene.getStylesheets().add(cssUrl.toExternalForm());
+            root.applyCss();
+            System.out.println("CSS loaded: " + cssPath);
+        } else {
+            System.err.println("Warning: Could not load CSS file: " + cssPath);
+        }
+        phase.end();
+    }
+
     public static void showLoginScreen() throws IOException {
         // Correct path relative to the classpath (resources folder)
         String fxmlPath = "/com/hotel/fxml/LoginPage.fxml";
@@ -37,21 +191,20 @@ public class MainApp extends Application {
             return;
         }
 
+        StartupProfile.Phase fxmlParse = PROFILE.start("FXML parse (login)");
         FXMLLoader loader = new FXMLLoader(fxmlLocation);
         Parent root = loader.load();
+        fxmlParse.end();
 
         // Apply CSS
         Scene scene = new Scene(root, 400, 350); // Adjusted size slightly
-        String cssPath = "/com/hotel/css/styles.css";
-        URL cssUrl = MainApp.class.getResource(cssPath);
-        if (cssUrl != null) {
-             scene.getStylesheets().add(cssUrl.toExternalForm());
-             System.out.println("CSS loaded: " + cssPath);
-        } else {
-            System.err.println("Warning: Could not load CSS file: " + cssPath);
-        }
+        applyStylesheet(scene, root, "login");
 
-        primaryStage.setScene(scene);
+        showScene(scene, "login", () -> {
+            if (Boolean.getBoolean("startup.exitAfterFirstView")) {
+                Platform.exit();
+            }
+        });
         primaryStage.show();
     }
 
@@ -69,8 +222,11 @@ public class MainApp extends Application {
             // Show error dialog
             return;
         }
+        // Includes MainController.initialize and its first tab, the dashboard
+        StartupProfile.Phase fxmlParse = PROFILE.start("FXML parse (main window)");
         FXMLLoader loader = new FXMLLoader(fxmlLocation);
         Parent root = loader.load();
+        fxmlParse.end();
 
         // Get the MainController and pass the user object
         MainController controller = loader.getController();
@@ -85,27 +241,33 @@ public class MainApp extends Application {
         Scene scene = new Scene(root, 1200, 800); // Adjusted size for better layout
 
         // Apply CSS
-        String cssPath = "/com/hotel/css/styles.css";
-        URL cssUrl = MainApp.class.getResource(cssPath);
-        if (cssUrl != null) {
-            scene.getStylesheets().add(cssUrl.toExternalForm());
-        } else {
-            System.err.println("Warning: Could not load CSS file: " + cssPath);
-        }
+        applyStylesheet(scene, root, "main window");
 
-        primaryStage.setScene(scene);
+        // Load the other tabs only once the dashboard is on screen
+        showScene(scene, "main window", () -> {
+            if (controller != null) {
+                controller.preloadViews();
+            }
+        });
         primaryStage.centerOnScreen();
         // primaryStage.setMaximized(true); // Optional: Start maximized
     }
 
 
     public static void main(String[] args) {
-        // Optional: Add shutdown hook to close DB connection
-        // Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-        //     System.out.println("Application shutting down. Closing DB connection.");
-        //     DatabaseConnection.closeConnection();
-        // }));
+        PROFILE.recordSinceProcessStart("JVM");
+
+        // Close the connection pool on shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Application shutting down. Closing DB connection pool.");
+            BackgroundLoader.getInstance().shutdown();
+            DaoMetrics.getInstance().logReport();
+            DatabaseConnection.closeConnection();
+        }));
 
+        // The database comes up while the FX toolkit starts
+        startDatabase();
+        toolkitStartup = PROFILE.start("FX toolkit");
         launch(args);
     }
 } 
@@ -1,8 +1,13 @@
 package com.hotel.controllers;
 
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
 import com.hotel.dao.ServiceDAO;
-import com.hotel.dao.impl.ServiceDAOImpl;
+import com.hotel.dao.impl.CachingServiceDAO;
 import com.hotel.model.Service;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.SearchPipeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -12,11 +17,9 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.SQLException;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.stream.Collectors;
 
-public class AvailableServicesController implements Initializable {
+public class AvailableServicesController implements Initializable, Refreshable {
     @FXML private TableView<Service> servicesTable;
     @FXML private TableColumn<Service, Integer> serviceIdColumn;
     @FXML private TableColumn<Service, String> serviceNameColumn;
@@ -40,7 +43,7 @@ public class AvailableServicesController implements Initializable {
     @FXML private Label pageInfoLabel;
     @FXML private Label statusLabel;
 
-    private ServiceDAO serviceDAO = new ServiceDAOImpl();
+    private ServiceDAO serviceDAO = DaoMetrics.instrument(ServiceDAO.class, CachingServiceDAO.getInstance());
     private ObservableList<Service> servicesData;
     private Service selectedService;
     
@@ -49,6 +52,11 @@ public class AvailableServicesController implements Initializable {
     private int currentPage = 1;
     private int totalItems = 0;
     private int totalPages = 0;
+    private PageRequest pageRequest;
+    private Page<Service> currentResult;
+    private final SearchPipeline<Service> serviceLoads = new SearchPipeline<>("services",
+            ServiceDAO.FILTER_SEARCH, this::fetchPage, AvailableServicesController::matchesSearch);
+    private final BackgroundLoader.Channel<Service> saves = BackgroundLoader.getInstance().channel("service-save");
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -82,6 +90,11 @@ public class AvailableServicesController implements Initializable {
         clearBtn.setOnAction(e -> clearFields());
     }
 
+    @Override
+    public void refresh() {
+        loadServices();
+    }
+
     private void setupTableColumns() {
         serviceIdColumn.setCellValueFactory(new PropertyValueFactory<>("serviceId"));
         serviceNameColumn.setCellValueFactory(new PropertyValueFactory<>("serviceName"));
@@ -101,8 +114,8 @@ public class AvailableServicesController implements Initializable {
         // Add listener to items per page combo box
         itemsPerPageCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
             if (newValue != null && !newValue.equals(oldValue)) {
-                currentPage = 1; // Reset to first page when changing page size
-                loadServices();
+                // Reset to first page when changing page size
+                loadServices(buildPageRequest(), 1);
             }
         });
         
@@ -113,88 +126,111 @@ public class AvailableServicesController implements Initializable {
         lastPageButton.setOnAction(e -> handleLastPage());
         
         // Set up search field listener
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
-            currentPage = 1;
-            loadServices();
-        });
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchServices());
     }
     
+    /**
+     * Reloads the page currently on screen.
+     */
     private void loadServices() {
-        try {
-            // Get all services from the database
-            List<Service> allServices = serviceDAO.getAllServices();
-            
-            // Apply filters to get filtered list
-            List<Service> filteredServices = filterServices(allServices);
-            
-            // Update total items and pages
-            totalItems = filteredServices.size();
-            int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
-                itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, totalItems);
-            
-            // Get sublist for current page
-            List<Service> pagedServices = filteredServices.subList(fromIndex, toIndex);
-            
-            // Update the table
-            servicesData.setAll(pagedServices);
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-        } catch (SQLException e) {
-            showError("Error loading services: " + e.getMessage());
-            e.printStackTrace();
+        // Always fetch fresh rows, e.g. after an add, update or delete
+        serviceLoads.cancel();
+        loadServices(pageRequest != null ? pageRequest : buildPageRequest(), currentPage);
+    }
+
+    /**
+     * Loads a page in the background and shows it as page number pageNumber.
+     */
+    private void loadServices(PageRequest request, int pageNumber) {
+        serviceLoads.load(request, result -> showServicesPage(result, pageNumber), this::showLoadError);
+    }
+
+    /**
+     * Searches as the user types; the search waits for a pause in typing.
+     */
+    private void searchServices() {
+        serviceLoads.search(buildPageRequest(), result -> showServicesPage(result, 1), this::showLoadError);
+    }
+
+    // Runs on a background thread
+    private Page<Service> fetchPage(PageRequest request) throws SQLException {
+        Page<Service> result = serviceDAO.findPage(request);
+        // The page can come back empty after deletions; show the last page instead
+        if (result.getItems().isEmpty() && result.getTotalCount() > 0) {
+            result = serviceDAO.findPage(request.lastPage());
         }
+        return result;
     }
-    
-    private List<Service> filterServices(List<Service> services) {
-        String searchTerm = searchField.getText().toLowerCase();
+
+    // Same columns as the LIKE filter in ServiceDAOImpl.findPage
+    private static boolean matchesSearch(Service service, String text) {
+        return SearchPipeline.contains(service.getServiceName(), text)
+                || SearchPipeline.contains(service.getDescription(), text)
+                || (service.getPrice() != null && service.getPrice().toPlainString().contains(text))
+                || SearchPipeline.contains(service.getServiceId(), text);
+    }
+
+    private void showLoadError(Exception e) {
+        showError("Error loading services: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    private void showServicesPage(Page<Service> result, int pageNumber) {
+        // Update total items and pages
+        pageRequest = result.getRequest();
+        currentResult = result;
+        totalItems = result.getTotalCount();
+        totalPages = result.getTotalPages();
         
-        return services.stream()
-            .filter(service -> 
-                searchTerm.isEmpty() || 
-                (service.getServiceName() != null && service.getServiceName().toLowerCase().contains(searchTerm)) ||
-                (service.getDescription() != null && service.getDescription().toLowerCase().contains(searchTerm)) ||
-                String.valueOf(service.getPrice()).contains(searchTerm) ||
-                String.valueOf(service.getServiceId()).contains(searchTerm))
-            .collect(Collectors.toList());
+        currentPage = pageNumber;
+        if (pageRequest.getPosition() == PageRequest.Position.FIRST || !result.hasPrevious()) {
+            currentPage = 1;
+        } else if (pageRequest.getPosition() == PageRequest.Position.LAST || !result.hasNext()) {
+            currentPage = Math.max(totalPages, 1);
+        }
+        currentPage = Math.max(1, Math.min(currentPage, Math.max(totalPages, 1)));
+        
+        // Update the table
+        servicesData.setAll(result.getItems());
+        
+        // Update pagination controls
+        updatePaginationControls();
+    }
+    
+    /**
+     * Builds a first-page request from the search field.
+     * Filtering, sorting and paging are done by the database.
+     */
+    private PageRequest buildPageRequest() {
+        int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
+            itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
+        return PageRequest.first(itemsPerPage)
+            .sortBy(ServiceDAO.SORT_NAME, false)
+            .filter(ServiceDAO.FILTER_SEARCH, searchField.getText());
     }
 
     @FXML
     private void handleAddService() {
-        if (isInputValid()) {
-            try {
-                Service service = new Service();
-                service.setServiceName(serviceNameField.getText().trim());
-                service.setPrice(new BigDecimal(priceField.getText().trim()));
-                service.setDescription(descriptionArea.getText().trim());
-                
-                serviceDAO.addService(service);
+        if (isInputValid() && !isSaving()) {
+            Service service = new Service();
+            service.setServiceName(serviceNameField.getText().trim());
+            service.setPrice(new BigDecimal(priceField.getText().trim()));
+            service.setDescription(descriptionArea.getText().trim());
+            
+            saves.submit(service, () -> serviceDAO.addService(service), added -> {
                 clearFields();
                 loadServices();
                 showSuccess("Service added successfully");
-            } catch (SQLException e) {
+            }, e -> {
                 showError("Could not add service: " + e.getMessage());
                 e.printStackTrace();
-            }
+            });
         }
     }
 
     @FXML
     private void handleEditService() {
-        if (selectedService != null && isInputValid()) {
+        if (selectedService != null && isInputValid() && !isSaving()) {
             try {
                 String serviceName = serviceNameField.getText().trim();
                 String priceText = this.priceField.getText().trim();
@@ -206,31 +242,33 @@ public class AvailableServicesController implements Initializable {
                     return;
                 }
 
-                selectedService.setServiceName(serviceName);
-                selectedService.setPrice(BigDecimal.valueOf(price));
-                selectedService.setDescription(description);
+                Service service = selectedService;
+                service.setServiceName(serviceName);
+                service.setPrice(BigDecimal.valueOf(price));
+                service.setDescription(description);
 
-                serviceDAO.updateService(selectedService);
-                loadServices();
-                clearFields();
-                showSuccess("Service updated successfully");
-                
-                // Reset the add button to its original state
-                addServiceBtn.setText("Add Service");
-                addServiceBtn.setOnAction(e -> handleAddService());
+                saves.submit(service, () -> serviceDAO.updateService(service), updated -> {
+                    loadServices();
+                    clearFields();
+                    showSuccess("Service updated successfully");
+                    
+                    // Reset the add button to its original state
+                    addServiceBtn.setText("Add Service");
+                    addServiceBtn.setOnAction(e -> handleAddService());
+                }, e -> {
+                    showError("Error updating service: " + e.getMessage());
+                    e.printStackTrace();
+                });
                 
             } catch (NumberFormatException e) {
                 showError("Please enter a valid price");
-            } catch (SQLException e) {
-                showError("Error updating service: " + e.getMessage());
-                e.printStackTrace();
             }
         }
     }
     
     @FXML
     private void handleDeleteService() {
-        if (selectedService != null) {
+        if (selectedService != null && !isSaving()) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Confirm Delete");
             alert.setHeaderText(null);
@@ -238,20 +276,32 @@ public class AvailableServicesController implements Initializable {
             
             alert.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.OK) {
-                    try {
-                        serviceDAO.deleteService(selectedService.getServiceId());
+                    Service service = selectedService;
+                    saves.submit(service.getServiceId(), () -> {
+                        serviceDAO.deleteService(service.getServiceId());
+                        return service;
+                    }, deleted -> {
                         loadServices();
                         clearFields();
                         showSuccess("Service deleted successfully");
-                    } catch (SQLException e) {
+                    }, e -> {
                         showError("Error deleting service: " + e.getMessage());
                         e.printStackTrace();
-                    }
+                    });
                 }
             });
         }
     }
 
+    private boolean isSaving() {
+        if (saves.isLoading()) {
+            // Another submit would cancel the write in flight
+            showError("Still saving the previous change, please wait");
+            return true;
+        }
+        return false;
+    }
+
     private void populateFields(Service service) {
         serviceNameField.setText(service.getServiceName());
         priceField.setText(service.getPrice().toString());
@@ -340,49 +390,47 @@ public class AvailableServicesController implements Initializable {
     
     @FXML
     private void handleFirstPage() {
-        currentPage = 1;
-        loadServices();
+        if (currentPage != 1 && totalPages > 0) {
+            loadServices(buildPageRequest(), 1);
+        }
     }
     
     @FXML
     private void handlePrevPage() {
-        if (currentPage > 1) {
-            currentPage--;
-            loadServices();
+        if (currentResult != null && currentResult.hasPrevious()) {
+            loadServices(pageRequest.before(currentResult.getPreviousCursor()), currentPage - 1);
         }
     }
     
     @FXML
     private void handleNextPage() {
-        if (currentPage < totalPages) {
-            currentPage++;
-            loadServices();
+        if (currentResult != null && currentResult.hasNext()) {
+            loadServices(pageRequest.after(currentResult.getNextCursor()), currentPage + 1);
         }
     }
     
     @FXML
     private void handleLastPage() {
-        currentPage = totalPages;
-        loadServices();
+        if (currentPage != totalPages && totalPages > 0) {
+            loadServices(buildPageRequest().lastPage(), totalPages);
+        }
     }
     
     @FXML
     private void handleSearch() {
-        currentPage = 1; // Reset to first page when searching
-        loadServices();
+        // Reset to first page when searching
+        loadServices(buildPageRequest(), 1);
     }
     
     @FXML
     private void handleClearFilters() {
         searchField.clear();
-        currentPage = 1;
-        loadServices();
+        loadServices(buildPageRequest(), 1);
     }
     
     @FXML
     private void handleRefresh() {
-        currentPage = 1;
         searchField.clear();
-        loadServices();
+        loadServices(buildPageRequest(), 1);
     }
 }
@@ -6,9 +6,17 @@ import com.hotel.model.Customer;
 import com.hotel.dao.BookingDAO;
 import com.hotel.dao.RoomDAO;
 import com.hotel.dao.CustomerDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.Reservation;
 import com.hotel.dao.impl.BookingDAOImpl;
 import com.hotel.dao.impl.RoomDAOImpl;
 import com.hotel.dao.impl.CustomerDAOImpl;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.BookingCsvImport;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.SearchPipeline;
+import com.hotel.util.TaskProgressDialog;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -16,17 +24,20 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.SpinnerValueFactory;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import javafx.application.Platform;
 //import javafx.scene.control.Alert.AlertType;
 
-public class BookingController {
+public class BookingController implements Refreshable {
 
     @FXML private TextField bookingIdField;
     @FXML private ComboBox<Room> roomNumberComboBox;
@@ -60,6 +71,17 @@ public class BookingController {
     private int currentPage = 1;
     private int totalItems = 0;
     private int totalPages = 0;
+    private PageRequest pageRequest;
+    private Page<Booking> currentResult;
+    private final SearchPipeline<Booking> bookingLoads = new SearchPipeline<>("bookings",
+            BookingDAO.FILTER_SEARCH, this::fetchPage, BookingController::matchesSearch);
+    private final BackgroundLoader.Channel<List<Room>> availableRoomLoads = BackgroundLoader.getInstance().channel("available-rooms");
+    private final BackgroundLoader.Channel<List<Customer>> customerLoads = BackgroundLoader.getInstance().channel("booking-customers");
+    private final BackgroundLoader.Channel<Optional<Room>> roomLookups = BackgroundLoader.getInstance().channel("booking-room");
+    private final BackgroundLoader.Channel<Optional<Customer>> customerLookups = BackgroundLoader.getInstance().channel("booking-customer");
+    // Writes; a click while one is running is refused, as a new submit would cancel it
+    private final BackgroundLoader.Channel<Reservation> reservations = BackgroundLoader.getInstance().channel("booking-reserve");
+    private final BackgroundLoader.Channel<Boolean> saves = BackgroundLoader.getInstance().channel("booking-save");
 
     private BookingDAO bookingDAO;
     private RoomDAO roomDAO;
@@ -72,9 +94,9 @@ public class BookingController {
     public void initialize() {
         try {
             // Instantiate DAOs first
-            bookingDAO = new BookingDAOImpl();
-            roomDAO = new RoomDAOImpl();
-            customerDAO = new CustomerDAOImpl();
+            bookingDAO = DaoMetrics.instrument(BookingDAO.class, new BookingDAOImpl());
+            roomDAO = DaoMetrics.instrument(RoomDAO.class, new RoomDAOImpl());
+            customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
 
             // Initialize UI components
             statusMessageLabel.setText("");
@@ -144,20 +166,9 @@ public class BookingController {
                     (obs, oldSelection, newSelection) -> showBookingDetails(newSelection));
 
             // Add filter listeners
-            searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-                currentPage = 1;
-                applyFilters();
-            });
-            
-            filterStartDate.valueProperty().addListener((observable, oldValue, newValue) -> {
-                currentPage = 1;
-                applyFilters();
-            });
-            
-            filterEndDate.valueProperty().addListener((observable, oldValue, newValue) -> {
-                currentPage = 1;
-                applyFilters();
-            });
+            searchField.textProperty().addListener((observable, oldValue, newValue) -> searchBookings());
+            filterStartDate.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+            filterEndDate.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
             
             // Add listeners to date pickers to refresh available rooms
             checkInDatePicker.valueProperty().addListener((observable, oldValue, newValue) -> loadAvailableRooms());
@@ -175,6 +186,11 @@ public class BookingController {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void refresh() {
+        loadInitialData();
+    }
     
     private void loadInitialData() {
         try {
@@ -188,163 +204,159 @@ public class BookingController {
     }
     
     private void loadAvailableRooms() {
-        try {
-            System.out.println("Loading available rooms...");
-            
-            // Clear the current list
-            availableRoomList.clear();
-            
-            // Get dates from date pickers
-            LocalDate checkIn = checkInDatePicker.getValue();
-            LocalDate checkOut = checkOutDatePicker.getValue();
-            
-            // If dates aren't selected, use current date and next day
-            if (checkIn == null) checkIn = LocalDate.now();
-            if (checkOut == null) checkOut = checkIn.plusDays(1);
-            
-            // Ensure check-out is after check-in
-            if (checkOut.isBefore(checkIn.plusDays(1))) {
-                checkOut = checkIn.plusDays(1);
-                checkOutDatePicker.setValue(checkOut);
-            }
-            
-            System.out.println("Checking availability from " + checkIn + " to " + checkOut);
-            
-            // Get available rooms from the database
-            List<Room> availableRooms = bookingDAO.getAllAvailableRooms(checkIn, checkOut);
+        // Get dates from date pickers
+        LocalDate checkIn = checkInDatePicker.getValue();
+        LocalDate checkOut = checkOutDatePicker.getValue();
+        
+        // If dates aren't selected, use current date and next day
+        if (checkIn == null) checkIn = LocalDate.now();
+        if (checkOut == null) checkOut = checkIn.plusDays(1);
+        
+        // Ensure check-out is after check-in
+        if (checkOut.isBefore(checkIn.plusDays(1))) {
+            checkOut = checkIn.plusDays(1);
+            checkOutDatePicker.setValue(checkOut);
+        }
+        
+        System.out.println("Checking availability from " + checkIn + " to " + checkOut);
+        
+        // Rapid date changes cancel the previous lookup
+        LocalDate from = checkIn;
+        LocalDate to = checkOut;
+        availableRoomLoads.submit(Arrays.asList(from, to), () -> bookingDAO.getAllAvailableRooms(from, to), availableRooms -> {
             System.out.println("Found " + availableRooms.size() + " available rooms");
-            
-            // Update the available rooms list on the JavaFX Application Thread
             Room selectedRoom = roomNumberComboBox.getValue();
-            Platform.runLater(() -> {
-                try {
-                    availableRoomList.setAll(availableRooms);
-                    
-                    // Update the selected room if it's no longer available
-                    if (selectedRoom != null && !availableRoomList.contains(selectedRoom)) {
-                        roomNumberComboBox.setValue(null);
-                    }
-                    
-                    if (availableRooms.isEmpty()) {
-                        showStatusMessage("No available rooms found for selected dates.", false);
-                    } else {
-                        showStatusMessage(availableRooms.size() + " rooms available", true);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error updating available rooms UI: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            });
+            availableRoomList.setAll(availableRooms);
+            
+            // Update the selected room if it's no longer available
+            if (selectedRoom != null && !availableRoomList.contains(selectedRoom)) {
+                roomNumberComboBox.setValue(null);
+            }
             
-        } catch (SQLException e) {
+            if (availableRooms.isEmpty()) {
+                showStatusMessage("No available rooms found for selected dates.", false);
+            } else {
+                showStatusMessage(availableRooms.size() + " rooms available", true);
+            }
+        }, e -> {
             String errorMsg = "Error loading available rooms: " + e.getMessage();
             System.err.println(errorMsg);
             e.printStackTrace();
             showError(errorMsg);
-        }
+        });
     }
 
     private void loadCustomers() {
-        try {
-            System.out.println("Loading customers...");
-            
-            // Clear the current list
-            customerList.clear();
-            
-            // Get customers from DAO
-            List<Customer> customers = customerDAO.findAll();
+        System.out.println("Loading customers...");
+        
+        customerLoads.submit("all", customerDAO::findAll, customers -> {
             System.out.println("Found " + customers.size() + " customers");
+            customerList.setAll(customers);
             
-            // Update the customers list on the JavaFX Application Thread
-            Platform.runLater(() -> {
-                try {
-                    customerList.setAll(customers);
-                    
-                    // Update the selected customer if it's no longer in the list
-                    Customer selectedCustomer = customerComboBox.getValue();
-                    if (selectedCustomer != null && !customerList.contains(selectedCustomer)) {
-                        customerComboBox.setValue(null);
-                    }
-                    
-                    if (customers.isEmpty()) {
-                        showStatusMessage("No customers found.", false);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error updating customers UI: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            });
+            // Update the selected customer if it's no longer in the list
+            Customer selectedCustomer = customerComboBox.getValue();
+            if (selectedCustomer != null && !customerList.contains(selectedCustomer)) {
+                customerComboBox.setValue(null);
+            }
             
-        } catch (SQLException e) {
+            if (customers.isEmpty()) {
+                showStatusMessage("No customers found.", false);
+            }
+        }, e -> {
             String errorMsg = "Error loading customers: " + e.getMessage();
             System.err.println(errorMsg);
             e.printStackTrace();
-            Platform.runLater(() -> showError(errorMsg));
-        }
+            showError(errorMsg);
+        });
     }
 
     private void showBookingDetails(Booking booking) {
         if (booking != null) {
             bookingIdField.setText(String.valueOf(booking.getBookingId()));
-            try {
-                // Find and select the room
-                List<Booking> roomBookings = bookingDAO.findByRoomId(booking.getRoomId());
-                if (!roomBookings.isEmpty()) {
-                    Room room = roomDAO.findById(booking.getRoomId()).orElse(null);
-                    if (room != null) {
-                        roomNumberComboBox.setValue(room);
-                    }
+
+            // The room and customer are looked up in the background; a quick change of selection drops the old lookups
+            int roomId = booking.getRoomId();
+            roomLookups.submit(roomId, () -> roomDAO.findById(roomId), room -> {
+                if (isSelected(booking)) {
+                    room.ifPresent(roomNumberComboBox::setValue);
                 }
-                
-                // Find and select the customer
-                List<Booking> customerBookings = bookingDAO.findByCustomerId(booking.getCustomerId());
-                if (!customerBookings.isEmpty()) {
-                    Customer customer = customerDAO.findById(booking.getCustomerId()).orElse(null);
-                    if (customer != null) {
-                        customerComboBox.setValue(customer);
+            }, e -> showStatusMessage("Error loading booking details: " + e.getMessage(), false));
+
+            Customer listed = customerList.stream()
+                    .filter(customer -> customer.getCustomerId() == booking.getCustomerId())
+                    .findFirst().orElse(null);
+            if (listed != null) {
+                customerLookups.cancel();
+                customerComboBox.setValue(listed);
+            } else {
+                int customerId = booking.getCustomerId();
+                customerLookups.submit(customerId, () -> customerDAO.findById(customerId), customer -> {
+                    if (isSelected(booking)) {
+                        customer.ifPresent(customerComboBox::setValue);
                     }
-                }
-                
-                checkInDatePicker.setValue(booking.getCheckInDate());
-                checkOutDatePicker.setValue(booking.getCheckOutDate());
-                numberOfAdultsSpinner.getValueFactory().setValue(booking.getNumberOfAdults());
-                numberOfKidsSpinner.getValueFactory().setValue(booking.getNumberOfKids());
-            } catch (SQLException e) {
-                showStatusMessage("Error loading booking details: " + e.getMessage(), false);
+                }, e -> showStatusMessage("Error loading booking details: " + e.getMessage(), false));
             }
+
+            checkInDatePicker.setValue(booking.getCheckInDate());
+            checkOutDatePicker.setValue(booking.getCheckOutDate());
+            numberOfAdultsSpinner.getValueFactory().setValue(booking.getNumberOfAdults());
+            numberOfKidsSpinner.getValueFactory().setValue(booking.getNumberOfKids());
         } else {
+            roomLookups.cancel();
+            customerLookups.cancel();
             handleClearFields();
         }
     }
 
+    private boolean isSelected(Booking booking) {
+        return bookingsTableView.getSelectionModel().getSelectedItem() == booking;
+    }
+
+    private boolean isSaving() {
+        if (reservations.isLoading() || saves.isLoading()) {
+            showStatusMessage("Still saving the previous change, please wait.", false);
+            return true;
+        }
+        return false;
+    }
+
     @FXML
     private void handleAddBooking() {
-        if (!validateInput()) {
+        if (!validateInput() || isSaving()) {
             return;
         }
 
-        try {
-            Booking booking = new Booking();
-            booking.setRoomId(roomNumberComboBox.getValue().getRoomId());
-            booking.setCustomerId(customerComboBox.getValue().getCustomerId());
-            booking.setCheckInDate(checkInDatePicker.getValue());
-            booking.setCheckOutDate(checkOutDatePicker.getValue());
-            booking.setNumberOfAdults(numberOfAdultsSpinner.getValue());
-            booking.setNumberOfKids(numberOfKidsSpinner.getValue());
-
-            if (bookingDAO.addBooking(booking)) {
-                showSuccess("Booking added successfully!");
-                
-                // Reload data and stay on the current page
-                loadBookings();
-                handleClearFields();
-            } else {
-                showError("Failed to add booking");
+        Booking booking = new Booking();
+        Room room = roomNumberComboBox.getValue();
+        booking.setRoomId(room.getRoomId());
+        booking.setCustomerId(customerComboBox.getValue().getCustomerId());
+        booking.setCheckInDate(checkInDatePicker.getValue());
+        booking.setCheckOutDate(checkOutDatePicker.getValue());
+        booking.setNumberOfAdults(numberOfAdultsSpinner.getValue());
+        booking.setNumberOfKids(numberOfKidsSpinner.getValue());
+
+        reservations.submit(booking, () -> bookingDAO.reserve(booking), reservation -> {
+            switch (reservation.getStatus()) {
+                case RESERVED:
+                    showSuccess("Booking added successfully!");
+
+                    // Reload data and stay on the current page
+                    loadBookings();
+                    handleClearFields();
+                    break;
+                case CONFLICT:
+                    showError("Room " + room.getRoomNumber() +
+                            " is already booked for some of these nights (booking " +
+                            reservation.getConflictingBookingIds().get(0) + "). Please choose other dates or another room.");
+                    break;
+                default:
+                    showError("The selected room no longer exists");
+                    break;
             }
-        } catch (SQLException e) {
+        }, e -> {
             showError("Error adding booking: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
     @FXML
@@ -355,30 +367,46 @@ public class BookingController {
             return;
         }
 
-        if (!validateInput()) {
+        if (!validateInput() || isSaving()) {
             return;
         }
 
-        try {
-            selectedBooking.setRoomId(roomNumberComboBox.getValue().getRoomId());
-            selectedBooking.setCustomerId(customerComboBox.getValue().getCustomerId());
-            selectedBooking.setCheckInDate(checkInDatePicker.getValue());
-            selectedBooking.setCheckOutDate(checkOutDatePicker.getValue());
-            selectedBooking.setNumberOfAdults(numberOfAdultsSpinner.getValue());
-            selectedBooking.setNumberOfKids(numberOfKidsSpinner.getValue());
-
-            if (bookingDAO.updateBooking(selectedBooking)) {
-                showSuccess("Booking updated successfully!");
-                
-                // Reload data and stay on the current page
-                loadBookings();
-            } else {
-                showError("Failed to update booking");
+        // Edit a copy, so a refused update leaves the row in the table as it is in the database
+        Booking booking = new Booking();
+        booking.setBookingId(selectedBooking.getBookingId());
+        Room room = roomNumberComboBox.getValue();
+        booking.setRoomId(room.getRoomId());
+        booking.setCustomerId(customerComboBox.getValue().getCustomerId());
+        booking.setCheckInDate(checkInDatePicker.getValue());
+        booking.setCheckOutDate(checkOutDatePicker.getValue());
+        booking.setNumberOfAdults(numberOfAdultsSpinner.getValue());
+        booking.setNumberOfKids(numberOfKidsSpinner.getValue());
+
+        reservations.submit(booking, () -> bookingDAO.updateBooking(booking), reservation -> {
+            switch (reservation.getStatus()) {
+                case RESERVED:
+                    showSuccess("Booking updated successfully!");
+
+                    // Reload data and stay on the current page
+                    loadBookings();
+                    break;
+                case CONFLICT:
+                    showError("Room " + room.getRoomNumber() +
+                            " is already booked for some of these nights (booking " +
+                            reservation.getConflictingBookingIds().get(0) + "). Please choose other dates or another room.");
+                    break;
+                case BOOKING_NOT_FOUND:
+                    showError("The booking no longer exists");
+                    loadBookings();
+                    break;
+                default:
+                    showError("The selected room no longer exists");
+                    break;
             }
-        } catch (SQLException e) {
+        }, e -> {
             showError("Error updating booking: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
     @FXML
@@ -452,8 +480,8 @@ public class BookingController {
         // Add listener for items per page changes
         itemsPerPageCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                currentPage = 1; // Reset to first page when changing items per page
-                loadBookings();
+                // Reset to first page when changing items per page
+                loadBookings(buildPageRequest(), 1);
             }
         });
         
@@ -470,32 +498,28 @@ public class BookingController {
     @FXML
     private void handleFirstPage() {
         if (currentPage != 1 && totalPages > 0) {
-            currentPage = 1;
-            loadBookings();
+            loadBookings(buildPageRequest(), 1);
         }
     }
 
     @FXML
     private void handlePrevPage() {
-        if (currentPage > 1) {
-            currentPage--;
-            loadBookings();
+        if (currentResult != null && currentResult.hasPrevious()) {
+            loadBookings(pageRequest.before(currentResult.getPreviousCursor()), currentPage - 1);
         }
     }
 
     @FXML
     private void handleNextPage() {
-        if (currentPage < totalPages) {
-            currentPage++;
-            loadBookings();
+        if (currentResult != null && currentResult.hasNext()) {
+            loadBookings(pageRequest.after(currentResult.getNextCursor()), currentPage + 1);
         }
     }
 
     @FXML
     private void handleLastPage() {
         if (currentPage != totalPages && totalPages > 0) {
-            currentPage = totalPages;
-            loadBookings();
+            loadBookings(buildPageRequest().lastPage(), totalPages);
         }
     }
     
@@ -528,98 +552,85 @@ public class BookingController {
         }
     }
     
-    private List<Booking> filterBookings(List<Booking> allBookings) {
-        String searchText = searchField.getText().toLowerCase();
-        LocalDate startDate = filterStartDate.getValue();
-        LocalDate endDate = filterEndDate.getValue();
-        
-        return allBookings.stream()
-            .filter(booking -> {
-                // Apply search filter
-                boolean matchesSearch = searchText.isEmpty() ||
-                    String.valueOf(booking.getBookingId()).contains(searchText) ||
-                    String.valueOf(booking.getRoomId()).toLowerCase().contains(searchText) ||
-                    String.valueOf(booking.getCustomerId()).toLowerCase().contains(searchText);
-                
-                // Apply date range filter
-                boolean matchesDate = true;
-                if (startDate != null) {
-                    matchesDate = !booking.getCheckInDate().isBefore(startDate);
-                }
-                if (endDate != null) {
-                    matchesDate = matchesDate && !booking.getCheckInDate().isAfter(endDate);
-                }
-                
-                return matchesSearch && matchesDate;
-            })
-            .collect(Collectors.toList());
+    /**
+     * Builds a first-page request from the current filter controls.
+     * Filtering, sorting and paging are done by the database.
+     */
+    private PageRequest buildPageRequest() {
+        int itemsPerPage = itemsPerPageCombo != null && itemsPerPageCombo.getValue() != null
+            ? itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
+        return PageRequest.first(itemsPerPage)
+            .sortBy(BookingDAO.SORT_CHECK_IN, false)
+            .filter(BookingDAO.FILTER_SEARCH, searchField.getText())
+            .filter(BookingDAO.FILTER_CHECK_IN_FROM, filterStartDate.getValue())
+            .filter(BookingDAO.FILTER_CHECK_IN_TO, filterEndDate.getValue());
     }
     
+    /**
+     * Reloads the page currently on screen.
+     */
     private void loadBookings() {
-        try {
-            System.out.println("Loading bookings...");
-            
-            // Get all bookings from the database
-            List<Booking> allBookings = bookingDAO.findAll();
-            System.out.println("Found " + allBookings.size() + " bookings in database");
-            
-            if (allBookings.isEmpty()) {
-                System.out.println("No bookings found in the database");
-            }
-            
-            // Apply any active filters
-            List<Booking> filteredBookings = filterBookings(allBookings);
-            System.out.println("After filtering: " + filteredBookings.size() + " bookings");
-            
-            // Update total items and pages
-            totalItems = filteredBookings.size();
-            int itemsPerPage = itemsPerPageCombo != null ? itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            System.out.println("Total items: " + totalItems + ", items per page: " + itemsPerPage + ", total pages: " + totalPages);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, filteredBookings.size());
-            
-            System.out.println("Showing items from index " + fromIndex + " to " + toIndex);
-            
-            // Get the sublist for the current page
-            List<Booking> pagedBookings = filteredBookings.subList(
-                Math.min(fromIndex, filteredBookings.size()),
-                Math.min(toIndex, filteredBookings.size())
-            );
-            
-            // Update the table with paginated data
-            Platform.runLater(() -> {
-                try {
-                    bookingList.setAll(pagedBookings);
-                    System.out.println("Updated table with " + pagedBookings.size() + " bookings");
-                    
-                    // Update pagination controls
-                    updatePaginationControls();
-                    
-                    // Update status label
-                    updateStatusLabel();
-                } catch (Exception e) {
-                    System.err.println("Error updating UI: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            });
-            
-        } catch (SQLException e) {
-            String errorMsg = "Error loading bookings: " + e.getMessage();
-            System.err.println(errorMsg);
-            e.printStackTrace();
-            showError(errorMsg);
+        // Always fetch fresh rows, e.g. after an add, update or delete
+        bookingLoads.cancel();
+        loadBookings(pageRequest != null ? pageRequest : buildPageRequest(), currentPage);
+    }
+
+    /**
+     * Loads a page in the background and shows it as page number pageNumber.
+     */
+    private void loadBookings(PageRequest request, int pageNumber) {
+        bookingLoads.load(request, result -> showBookingsPage(result, pageNumber), this::showLoadError);
+    }
+
+    /**
+     * Searches as the user types; the search waits for a pause in typing.
+     */
+    private void searchBookings() {
+        bookingLoads.search(buildPageRequest(), result -> showBookingsPage(result, 1), this::showLoadError);
+    }
+
+    // Runs on a background thread
+    private Page<Booking> fetchPage(PageRequest request) throws SQLException {
+        Page<Booking> result = bookingDAO.findPage(request);
+        // The page can come back empty after deletions; show the last page instead
+        if (result.getItems().isEmpty() && result.getTotalCount() > 0) {
+            result = bookingDAO.findPage(request.lastPage());
         }
+        return result;
+    }
+
+    // Same columns as the LIKE filter in BookingDAOImpl.findPage
+    private static boolean matchesSearch(Booking booking, String text) {
+        return SearchPipeline.contains(booking.getBookingId(), text)
+                || SearchPipeline.contains(booking.getRoomId(), text)
+                || SearchPipeline.contains(booking.getCustomerId(), text);
+    }
+
+    private void showLoadError(Exception e) {
+        showError("Error loading bookings: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    private void showBookingsPage(Page<Booking> result, int pageNumber) {
+        // Update total items and pages
+        pageRequest = result.getRequest();
+        currentResult = result;
+        totalItems = result.getTotalCount();
+        totalPages = result.getTotalPages();
+        
+        currentPage = pageNumber;
+        if (pageRequest.getPosition() == PageRequest.Position.FIRST || !result.hasPrevious()) {
+            currentPage = 1;
+        } else if (pageRequest.getPosition() == PageRequest.Position.LAST || !result.hasNext()) {
+            currentPage = Math.max(totalPages, 1);
+        }
+        currentPage = Math.max(1, Math.min(currentPage, Math.max(totalPages, 1)));
+        
+        // Update the table
+        bookingList.setAll(result.getItems());
+        
+        // Update pagination controls
+        updatePaginationControls();
     }
     
     @FXML
@@ -629,6 +640,9 @@ public class BookingController {
             showAlert(Alert.AlertType.WARNING, "No Selection", "Please select a booking to delete.");
             return;
         }
+        if (isSaving()) {
+            return;
+        }
 
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Confirm Deletion");
@@ -637,25 +651,21 @@ public class BookingController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                if (bookingDAO.deleteBooking(selectedBooking.getBookingId())) {
+            int bookingId = selectedBooking.getBookingId();
+            saves.submit(bookingId, () -> bookingDAO.deleteBooking(bookingId), deleted -> {
+                if (deleted) {
                     showSuccess("Booking deleted successfully!");
-                    
-                    // Check if we need to go back a page if this was the last item on the current page
-                    if (bookingList.size() == 1 && currentPage > 1) {
-                        currentPage--;
-                    }
-                    
-                    // Reload data
+
+                    // Reload data; an emptied page falls back to the last page
                     loadBookings();
                     handleClearFields();
                 } else {
                     showError("Failed to delete booking");
                 }
-            } catch (SQLException e) {
+            }, e -> {
                 showError("Error deleting booking: " + e.getMessage());
                 e.printStackTrace();
-            }
+            });
         }
     }
 
@@ -674,56 +684,52 @@ public class BookingController {
         searchField.clear();
         filterStartDate.setValue(null);
         filterEndDate.setValue(null);
-        loadBookings();
+        loadBookings(buildPageRequest(), 1);
     }
 
     @FXML
     private void handleRefresh() {
-        currentPage = 1; // Reset to first page when refreshing
-        loadBookings();
+        // Reset to first page when refreshing
+        loadBookings(buildPageRequest(), 1);
+    }
+
+    @FXML
+    private void handleImportBookings() {
+        Window window = bookingsTableView.getScene().getWindow();
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Bookings");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File source = fileChooser.showOpenDialog(window);
+        if (source == null) {
+            return;
+        }
+
+        BookingCsvImport task = new BookingCsvImport(bookingDAO, roomDAO, source);
+        task.setOnSucceeded(e -> {
+            BookingCsvImport.Result result = task.getValue();
+            String summary = result.toString();
+            if (result.getReport() != null) {
+                summary += "\n\nRefused rows are listed in " + result.getReport().getPath();
+            }
+            showAlert(result.getRefused() == 0 ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING,
+                    "Import Complete", summary);
+            loadBookings();
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Booking import failed: " + task.getException());
+            showAlert(Alert.AlertType.ERROR, "Import Error",
+                    "Failed to import bookings: " + task.getException().getMessage());
+            loadBookings();
+        });
+        task.setOnCancelled(e -> loadBookings());
+        TaskProgressDialog.run(window, "Importing Bookings", task, "booking-import");
     }
     
 
 
     private void applyFilters() {
-        try {
-            // Get all bookings from the database
-            List<Booking> allBookings = bookingDAO.findAll();
-            
-            // Apply filters to get filtered list
-            List<Booking> filteredBookings = filterBookings(allBookings);
-            
-            // Update total items and pages
-            totalItems = filteredBookings.size();
-            int itemsPerPage = itemsPerPageCombo.getValue();
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, filteredBookings.size());
-            
-            // Get the sublist for the current page
-            List<Booking> pagedBookings = filteredBookings.subList(
-                Math.min(fromIndex, filteredBookings.size()),
-                Math.min(toIndex, filteredBookings.size())
-            );
-            
-            // Update the table with paginated data
-            bookingList.setAll(pagedBookings);
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-        } catch (SQLException e) {
-            showError("Error applying filters: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Any filter change starts again from the first page
+        loadBookings(buildPageRequest(), 1);
     }
 } 
\ No newline at end of file
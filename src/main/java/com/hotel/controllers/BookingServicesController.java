@@ -5,10 +5,12 @@ import com.hotel.dao.BookingServiceDAO;
 import com.hotel.dao.ServiceDAO;
 import com.hotel.dao.impl.BookingDAOImpl;
 import com.hotel.dao.impl.BookingServiceDAOImpl;
-import com.hotel.dao.impl.ServiceDAOImpl;
+import com.hotel.dao.impl.CachingServiceDAO;
 import com.hotel.model.Booking;
 import com.hotel.model.BookingService;
 import com.hotel.model.Service;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -22,12 +24,12 @@ import javafx.util.StringConverter;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Date;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
 
-public class BookingServicesController implements Initializable {
+public class BookingServicesController implements Initializable, Refreshable {
 
     @FXML private TableView<BookingService> bookingServicesTable;
     @FXML private TableColumn<BookingService, Integer> idColumn;
@@ -57,14 +59,22 @@ public class BookingServicesController implements Initializable {
     private ServiceDAO serviceDAO;
     
     private ObservableList<BookingService> bookingServicesData;
+    private final BackgroundLoader.Channel<List<BookingService>> bookingServiceLoads =
+            BackgroundLoader.getInstance().channel("booking-services");
+    private final BackgroundLoader.Channel<List<Booking>> bookingLoads =
+            BackgroundLoader.getInstance().channel("booking-services-bookings");
+    private final BackgroundLoader.Channel<List<Service>> serviceLoads =
+            BackgroundLoader.getInstance().channel("booking-services-services");
+    private final BackgroundLoader.Channel<BookingService> saves =
+            BackgroundLoader.getInstance().channel("booking-service-save");
     private BookingService selectedBookingService;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Initialize DAOs
-        bookingServiceDAO = new BookingServiceDAOImpl();
-        bookingDAO = new BookingDAOImpl();
-        serviceDAO = new ServiceDAOImpl();
+        bookingServiceDAO = DaoMetrics.instrument(BookingServiceDAO.class, new BookingServiceDAOImpl());
+        bookingDAO = DaoMetrics.instrument(BookingDAO.class, new BookingDAOImpl());
+        serviceDAO = DaoMetrics.instrument(ServiceDAO.class, CachingServiceDAO.getInstance());
         
         // Initialize data lists
         bookingServicesData = FXCollections.observableArrayList();
@@ -116,104 +126,100 @@ public class BookingServicesController implements Initializable {
         // Load booking services data
         loadBookingServices();
     }
+
+    @Override
+    public void refresh() {
+        loadBookingServices();
+    }
     
     private void setupBookingComboBox() {
-        try {
-            List<Booking> bookings = bookingDAO.getAllBookings();
-            bookingComboBox.setItems(FXCollections.observableArrayList(bookings));
-            
-            // Custom cell factory to display booking info
-            bookingComboBox.setCellFactory(new Callback<ListView<Booking>, ListCell<Booking>>() {
-                @Override
-                public ListCell<Booking> call(ListView<Booking> param) {
-                    return new ListCell<Booking>() {
-                        @Override
-                        protected void updateItem(Booking booking, boolean empty) {
-                            super.updateItem(booking, empty);
-                            if (empty || booking == null) {
-                                setText(null);
-                            } else {
-                                setText("Booking #" + booking.getBookingId() + " - " + 
-                                       booking.getCustomerName() + " (Room " + booking.getRoomNumber() + ")");
-                            }
+        // Custom cell factory to display booking info
+        bookingComboBox.setCellFactory(new Callback<ListView<Booking>, ListCell<Booking>>() {
+            @Override
+            public ListCell<Booking> call(ListView<Booking> param) {
+                return new ListCell<Booking>() {
+                    @Override
+                    protected void updateItem(Booking booking, boolean empty) {
+                        super.updateItem(booking, empty);
+                        if (empty || booking == null) {
+                            setText(null);
+                        } else {
+                            setText("Booking #" + booking.getBookingId() + " - " + 
+                                   booking.getCustomerName() + " (Room " + booking.getRoomNumber() + ")");
                         }
-                    };
-                }
-            });
-            
-            // Use the same display for the selected item
-            bookingComboBox.setConverter(new StringConverter<Booking>() {
-                @Override
-                public String toString(Booking booking) {
-                    if (booking == null) {
-                        return null;
                     }
-                    return "Booking #" + booking.getBookingId() + " - " + 
-                           booking.getCustomerName() + " (Room " + booking.getRoomNumber() + ")";
-                }
-                
-                @Override
-                public Booking fromString(String string) {
-                    return null; // Not needed for this use case
+                };
+            }
+        });
+        
+        // Use the same display for the selected item
+        bookingComboBox.setConverter(new StringConverter<Booking>() {
+            @Override
+            public String toString(Booking booking) {
+                if (booking == null) {
+                    return null;
                 }
-            });
-        } catch (SQLException e) {
-            showDatabaseError("Could not load bookings", e);
-        }
+                return "Booking #" + booking.getBookingId() + " - " + 
+                       booking.getCustomerName() + " (Room " + booking.getRoomNumber() + ")";
+            }
+            
+            @Override
+            public Booking fromString(String string) {
+                return null; // Not needed for this use case
+            }
+        });
+        
+        bookingLoads.submit("all", bookingDAO::getAllBookings,
+            bookings -> bookingComboBox.setItems(FXCollections.observableArrayList(bookings)),
+            e -> showDatabaseError("Could not load bookings", e));
     }
     
     private void setupServiceComboBox() {
-        try {
-            List<Service> services = serviceDAO.getAllServices();
-            serviceComboBox.setItems(FXCollections.observableArrayList(services));
-            
-            // Custom cell factory to display service info
-            serviceComboBox.setCellFactory(new Callback<ListView<Service>, ListCell<Service>>() {
-                @Override
-                public ListCell<Service> call(ListView<Service> param) {
-                    return new ListCell<Service>() {
-                        @Override
-                        protected void updateItem(Service service, boolean empty) {
-                            super.updateItem(service, empty);
-                            if (empty || service == null) {
-                                setText(null);
-                            } else {
-                                setText(service.getServiceName() + " ($" + service.getPrice() + ")");
-                            }
+        // Custom cell factory to display service info
+        serviceComboBox.setCellFactory(new Callback<ListView<Service>, ListCell<Service>>() {
+            @Override
+            public ListCell<Service> call(ListView<Service> param) {
+                return new ListCell<Service>() {
+                    @Override
+                    protected void updateItem(Service service, boolean empty) {
+                        super.updateItem(service, empty);
+                        if (empty || service == null) {
+                            setText(null);
+                        } else {
+                            setText(service.getServiceName() + " ($" + service.getPrice() + ")");
                         }
-                    };
-                }
-            });
-            
-            // Use the same display for the selected item
-            serviceComboBox.setConverter(new StringConverter<Service>() {
-                @Override
-                public String toString(Service service) {
-                    if (service == null) {
-                        return null;
                     }
-                    return service.getServiceName() + " ($" + service.getPrice() + ")";
-                }
-                
-                @Override
-                public Service fromString(String string) {
-                    return null; // Not needed for this use case
+                };
+            }
+        });
+        
+        // Use the same display for the selected item
+        serviceComboBox.setConverter(new StringConverter<Service>() {
+            @Override
+            public String toString(Service service) {
+                if (service == null) {
+                    return null;
                 }
-            });
-        } catch (SQLException e) {
-            showDatabaseError("Could not load services", e);
-        }
+                return service.getServiceName() + " ($" + service.getPrice() + ")";
+            }
+            
+            @Override
+            public Service fromString(String string) {
+                return null; // Not needed for this use case
+            }
+        });
+        
+        serviceLoads.submit("all", serviceDAO::getAllServices,
+            services -> serviceComboBox.setItems(FXCollections.observableArrayList(services)),
+            e -> showDatabaseError("Could not load services", e));
     }
     
     private void loadBookingServices() {
-        try {
-            List<BookingService> bookingServices = bookingServiceDAO.getAllBookingServicesWithDetails();
+        bookingServiceLoads.submit("all", bookingServiceDAO::getAllBookingServicesWithDetails, bookingServices -> {
             bookingServicesData.clear();
             bookingServicesData.addAll(bookingServices);
             bookingServicesTable.setItems(bookingServicesData);
-        } catch (SQLException e) {
-            showDatabaseError("Could not load booking services", e);
-        }
+        }, e -> showDatabaseError("Could not load booking services", e));
     }
     
     private void populateFields(BookingService bookingService) {
@@ -246,73 +252,76 @@ public class BookingServicesController implements Initializable {
     
     @FXML
     private void handleAddBookingService() {
-        if (isInputValid()) {
-            try {
-                BookingService bookingService = new BookingService();
-                bookingService.setBookingId(bookingComboBox.getValue().getBookingId());
-                bookingService.setServiceId(serviceComboBox.getValue().getServiceId());
-                bookingService.setQuantity(quantitySpinner.getValue());
-                bookingService.setServiceDate(Date.valueOf(serviceDatePicker.getValue()));
-                
-                bookingServiceDAO.addBookingService(bookingService);
-                handleClearFields();
-                loadBookingServices();
-                
-                showAlert(Alert.AlertType.INFORMATION, "Success", 
-                        "Booking Service Added", 
-                        "The booking service was successfully added.");
-            } catch (SQLException e) {
-                showDatabaseError("Could not add booking service", e);
-            }
+        if (isInputValid() && !isSaving()) {
+            BookingService bookingService = new BookingService();
+            bookingService.setBookingId(bookingComboBox.getValue().getBookingId());
+            bookingService.setServiceId(serviceComboBox.getValue().getServiceId());
+            bookingService.setQuantity(quantitySpinner.getValue());
+            bookingService.setServiceDate(Date.valueOf(serviceDatePicker.getValue()));
+            
+            save(bookingService, () -> bookingServiceDAO.addBookingService(bookingService),
+                    "Booking Service Added", "The booking service was successfully added.",
+                    "Could not add booking service");
         }
     }
     
     @FXML
     private void handleUpdateBookingService() {
-        if (selectedBookingService != null && isInputValid()) {
-            try {
-                selectedBookingService.setBookingId(bookingComboBox.getValue().getBookingId());
-                selectedBookingService.setServiceId(serviceComboBox.getValue().getServiceId());
-                selectedBookingService.setQuantity(quantitySpinner.getValue());
-                selectedBookingService.setServiceDate(Date.valueOf(serviceDatePicker.getValue()));
-                
-                bookingServiceDAO.updateBookingService(selectedBookingService);
-                handleClearFields();
-                loadBookingServices();
-                
-                showAlert(Alert.AlertType.INFORMATION, "Success", 
-                        "Booking Service Updated", 
-                        "The booking service was successfully updated.");
-            } catch (SQLException e) {
-                showDatabaseError("Could not update booking service", e);
-            }
+        if (selectedBookingService != null && isInputValid() && !isSaving()) {
+            BookingService bookingService = selectedBookingService;
+            bookingService.setBookingId(bookingComboBox.getValue().getBookingId());
+            bookingService.setServiceId(serviceComboBox.getValue().getServiceId());
+            bookingService.setQuantity(quantitySpinner.getValue());
+            bookingService.setServiceDate(Date.valueOf(serviceDatePicker.getValue()));
+            
+            save(bookingService, () -> {
+                bookingServiceDAO.updateBookingService(bookingService);
+                return bookingService;
+            }, "Booking Service Updated", "The booking service was successfully updated.",
+                    "Could not update booking service");
         }
     }
     
     @FXML
     private void handleDeleteBookingService() {
-        if (selectedBookingService != null) {
+        if (selectedBookingService != null && !isSaving()) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Delete Booking Service");
             alert.setHeaderText("Are you sure you want to delete this booking service?");
             alert.setContentText("This action cannot be undone.");
             
             if (alert.showAndWait().get() == ButtonType.OK) {
-                try {
-                    bookingServiceDAO.deleteBookingService(selectedBookingService.getBookingServiceId());
-                    handleClearFields();
-                    loadBookingServices();
-                    
-                    showAlert(Alert.AlertType.INFORMATION, "Success", 
-                            "Booking Service Deleted", 
-                            "The booking service was successfully deleted.");
-                } catch (SQLException e) {
-                    showDatabaseError("Could not delete booking service", e);
-                }
+                BookingService bookingService = selectedBookingService;
+                save(bookingService.getBookingServiceId(), () -> {
+                    bookingServiceDAO.deleteBookingService(bookingService.getBookingServiceId());
+                    return bookingService;
+                }, "Booking Service Deleted", "The booking service was successfully deleted.",
+                        "Could not delete booking service");
             }
         }
     }
     
+    private boolean isSaving() {
+        if (saves.isLoading()) {
+            // Another submit would cancel the write in flight
+            showAlert(Alert.AlertType.WARNING, "Please Wait", "Still Saving",
+                    "The previous change is still being saved.");
+            return true;
+        }
+        return false;
+    }
+    
+    // Writes in the background; the table is reloaded once the write is done
+    private void save(Object request, Callable<BookingService> write, String header, String content,
+                      String errorMessage) {
+        saves.submit(request, write, saved -> {
+            handleClearFields();
+            loadBookingServices();
+            
+            showAlert(Alert.AlertType.INFORMATION, "Success", header, content);
+        }, e -> showDatabaseError(errorMessage, e));
+    }
+    
     @FXML
     private void handleClearFields() {
         bookingComboBox.getSelectionModel().clearSelection();
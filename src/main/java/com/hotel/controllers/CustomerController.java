@@ -2,7 +2,13 @@ package com.hotel.controllers;
 
 import com.hotel.model.Customer;
 import com.hotel.dao.CustomerDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
 import com.hotel.dao.impl.CustomerDAOImpl;
+import com.hotel.dao.impl.CustomerSearchIndex;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.SearchPipeline;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,10 +18,8 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.SpinnerValueFactory;
 
 import java.sql.SQLException;
-import java.util.List;
-import java.util.stream.Collectors;
 
-public class CustomerController {
+public class CustomerController implements Refreshable {
 
     @FXML private TextField customerIdField;
     @FXML private TextField firstNameField;
@@ -53,9 +57,18 @@ public class CustomerController {
     private int currentPage = 1;
     private int totalItems = 0;
     private int totalPages = 0;
+    private PageRequest pageRequest;
+    private Page<Customer> currentResult;
+    private SearchPipeline<Customer> customerLoads;
+    private final BackgroundLoader.Channel<Boolean> saves = BackgroundLoader.getInstance().channel("customer-save");
 
     public void initialize() {
-        customerDAO = new CustomerDAOImpl();
+        customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
+        // The search index ranks hits and matches typos, so a longer query may find customers
+        // the shorter one did not; only the SQL LIKE search can be refined in memory
+        SearchPipeline.Matcher<Customer> matcher =
+                CustomerSearchIndex.getInstance().isEnabled() ? null : CustomerController::matchesSearch;
+        customerLoads = new SearchPipeline<>("customers", CustomerDAO.FILTER_SEARCH, this::fetchPage, matcher);
         statusMessageLabel.setText("");
         
         // Initialize pagination controls
@@ -95,7 +108,7 @@ public class CustomerController {
         filterKidsComboBox.setValue("Any");
 
         // Add filter listeners
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchCustomers());
         filterAdultsComboBox.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
         filterKidsComboBox.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
 
@@ -111,72 +124,92 @@ public class CustomerController {
             });
     }
 
+    @Override
+    public void refresh() {
+        loadCustomers();
+    }
+
+    /**
+     * Reloads the page currently on screen.
+     */
     private void loadCustomers() {
-        try {
-            // Get all customers from the database
-            List<Customer> allCustomers = customerDAO.findAll();
-            
-            // Apply filters to get filtered list
-            List<Customer> filteredCustomers = filterCustomers(allCustomers);
-            
-            // Update total items and pages
-            totalItems = filteredCustomers.size();
-            int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
-                itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, totalItems);
-            
-            // Get sublist for current page
-            List<Customer> pagedCustomers = filteredCustomers.subList(fromIndex, toIndex);
-            
-            // Update the table
-            customerList.setAll(pagedCustomers);
-            customersTableView.setItems(customerList);
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-            System.out.println(String.format("Showing items from index %d to %d", fromIndex, toIndex));
-            
-        } catch (SQLException e) {
-            setStatusMessage("Error loading customers: " + e.getMessage(), false);
-            e.printStackTrace();
+        // Always fetch fresh rows, e.g. after an add, update or delete
+        customerLoads.cancel();
+        loadCustomers(pageRequest != null ? pageRequest : buildPageRequest(), currentPage);
+    }
+
+    /**
+     * Loads a page in the background and shows it as page number pageNumber.
+     */
+    private void loadCustomers(PageRequest request, int pageNumber) {
+        customerLoads.load(request, result -> showCustomersPage(result, pageNumber), this::showLoadError);
+    }
+
+    /**
+     * Searches as the user types; the search waits for a pause in typing.
+     */
+    private void searchCustomers() {
+        customerLoads.search(buildPageRequest(), result -> showCustomersPage(result, 1), this::showLoadError);
+    }
+
+    // Runs on a background thread
+    private Page<Customer> fetchPage(PageRequest request) throws SQLException {
+        Page<Customer> result = customerDAO.findPage(request);
+        // The page can come back empty after deletions; show the last page instead
+        if (result.getItems().isEmpty() && result.getTotalCount() > 0) {
+            result = customerDAO.findPage(request.lastPage());
         }
+        return result;
     }
-    
-    private List<Customer> filterCustomers(List<Customer> customers) {
-        String searchTerm = searchField.getText().toLowerCase();
-        String adultsFilter = filterAdultsComboBox.getValue() != null ? filterAdultsComboBox.getValue() : "";
-        String kidsFilter = filterKidsComboBox.getValue() != null ? filterKidsComboBox.getValue() : "";
+
+    // Same columns as the LIKE filter in CustomerDAOImpl.findPage
+    private static boolean matchesSearch(Customer customer, String text) {
+        return SearchPipeline.contains(customer.getFirstName(), text)
+                || SearchPipeline.contains(customer.getLastName(), text)
+                || SearchPipeline.contains(customer.getEmail(), text)
+                || SearchPipeline.contains(customer.getPhoneNumber(), text);
+    }
+
+    private void showLoadError(Exception e) {
+        setStatusMessage("Error loading customers: " + e.getMessage(), false);
+        e.printStackTrace();
+    }
+
+    private void showCustomersPage(Page<Customer> result, int pageNumber) {
+        // Update total items and pages
+        pageRequest = result.getRequest();
+        currentResult = result;
+        totalItems = result.getTotalCount();
+        totalPages = result.getTotalPages();
+        
+        currentPage = pageNumber;
+        if (pageRequest.getPosition() == PageRequest.Position.FIRST || !result.hasPrevious()) {
+            currentPage = 1;
+        } else if (pageRequest.getPosition() == PageRequest.Position.LAST || !result.hasNext()) {
+            currentPage = Math.max(totalPages, 1);
+        }
+        currentPage = Math.max(1, Math.min(currentPage, Math.max(totalPages, 1)));
         
-        return customers.stream()
-            .filter(customer -> 
-                (searchTerm.isEmpty() || 
-                 (customer.getFirstName() != null && customer.getFirstName().toLowerCase().contains(searchTerm)) ||
-                 (customer.getLastName() != null && customer.getLastName().toLowerCase().contains(searchTerm)) ||
-                 (customer.getEmail() != null && customer.getEmail().toLowerCase().contains(searchTerm)) ||
-                 (customer.getPhoneNumber() != null && customer.getPhoneNumber().toLowerCase().contains(searchTerm))))
-            .filter(customer -> 
-                adultsFilter.isEmpty() || 
-                adultsFilter.equals("Any") ||
-                (adultsFilter.equals("4+") && customer.getNumberOfAdults() >= 4) ||
-                String.valueOf(customer.getNumberOfAdults()).equals(adultsFilter))
-            .filter(customer -> 
-                kidsFilter.isEmpty() ||
-                kidsFilter.equals("Any") ||
-                (kidsFilter.equals("3+") && customer.getNumberOfKids() >= 3) ||
-                String.valueOf(customer.getNumberOfKids()).equals(kidsFilter))
-            .collect(Collectors.toList());
+        // Update the table
+        customerList.setAll(result.getItems());
+        customersTableView.setItems(customerList);
+        
+        // Update pagination controls
+        updatePaginationControls();
+    }
+    
+    /**
+     * Builds a first-page request from the current filter controls.
+     * Filtering, sorting and paging are done by the database.
+     */
+    private PageRequest buildPageRequest() {
+        int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
+            itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
+        return PageRequest.first(itemsPerPage)
+            .sortBy(CustomerDAO.SORT_LAST_NAME, false)
+            .filter(CustomerDAO.FILTER_SEARCH, searchField.getText())
+            .filter(CustomerDAO.FILTER_ADULTS, filterAdultsComboBox.getValue())
+            .filter(CustomerDAO.FILTER_KIDS, filterKidsComboBox.getValue());
     }
     
     private void setupPaginationControls() {
@@ -188,8 +221,8 @@ public class CustomerController {
         // Add listener to items per page combo box
         itemsPerPageCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
             if (newValue != null && !newValue.equals(oldValue)) {
-                currentPage = 1; // Reset to first page when changing page size
-                loadCustomers();
+                // Reset to first page when changing page size
+                loadCustomers(buildPageRequest(), 1);
             }
         });
         
@@ -206,32 +239,28 @@ public class CustomerController {
     @FXML
     private void handleFirstPage() {
         if (currentPage != 1 && totalPages > 0) {
-            currentPage = 1;
-            loadCustomers();
+            loadCustomers(buildPageRequest(), 1);
         }
     }
 
     @FXML
     private void handlePrevPage() {
-        if (currentPage > 1) {
-            currentPage--;
-            loadCustomers();
+        if (currentResult != null && currentResult.hasPrevious()) {
+            loadCustomers(pageRequest.before(currentResult.getPreviousCursor()), currentPage - 1);
         }
     }
 
     @FXML
     private void handleNextPage() {
-        if (currentPage < totalPages) {
-            currentPage++;
-            loadCustomers();
+        if (currentResult != null && currentResult.hasNext()) {
+            loadCustomers(pageRequest.after(currentResult.getNextCursor()), currentPage + 1);
         }
     }
 
     @FXML
     private void handleLastPage() {
         if (currentPage != totalPages && totalPages > 0) {
-            currentPage = totalPages;
-            loadCustomers();
+            loadCustomers(buildPageRequest().lastPage(), totalPages);
         }
     }
     
@@ -282,7 +311,7 @@ public class CustomerController {
 
     @FXML
     private void handleAddCustomer() {
-        if (!validateInput()) return;
+        if (!validateInput() || isSaving()) return;
 
         Customer newCustomer = new Customer(
             0, // ID is auto-generated by DB
@@ -295,12 +324,11 @@ public class CustomerController {
             kidsSpinner.getValue()
         );
 
-        try {
-            if (customerDAO == null) {
-                setStatusMessage("Error: Customer service not available.", false);
-                return;
-            }
-            boolean success = customerDAO.addCustomer(newCustomer);
+        if (customerDAO == null) {
+            setStatusMessage("Error: Customer service not available.", false);
+            return;
+        }
+        saves.submit(newCustomer, () -> customerDAO.addCustomer(newCustomer), success -> {
             if (success) {
                 loadCustomers();
                 handleClearFields();
@@ -308,14 +336,7 @@ public class CustomerController {
             } else {
                 setStatusMessage("Failed to add customer.", false);
             }
-        } catch (SQLException e) {
-            if (e.getSQLState().equals("23000")) { // Duplicate entry
-                setStatusMessage("Email address already exists.", false);
-            } else {
-                setStatusMessage("Database error adding customer: " + e.getMessage(), false);
-                e.printStackTrace();
-            }
-        }
+        }, e -> showSaveError("Database error adding customer: ", e));
     }
 
     @FXML
@@ -325,7 +346,7 @@ public class CustomerController {
             showAlert(Alert.AlertType.WARNING, "No Selection", "Please select a customer to update.");
             return;
         }
-        if (!validateInput()) return;
+        if (!validateInput() || isSaving()) return;
 
         Customer updatedCustomer = new Customer(
             selectedCustomer.getCustomerId(),
@@ -338,26 +359,18 @@ public class CustomerController {
             kidsSpinner.getValue()
         );
 
-        try {
-            if (customerDAO == null) {
-                setStatusMessage("Error: Customer service not available.", false);
-                return;
-            }
-            boolean success = customerDAO.updateCustomer(updatedCustomer);
+        if (customerDAO == null) {
+            setStatusMessage("Error: Customer service not available.", false);
+            return;
+        }
+        saves.submit(updatedCustomer, () -> customerDAO.updateCustomer(updatedCustomer), success -> {
             if (success) {
                 loadCustomers();
                 setStatusMessage("Customer updated successfully!", true);
             } else {
                 setStatusMessage("Failed to update customer.", false);
             }
-        } catch (SQLException e) {
-            if (e.getSQLState().equals("23000")) { // Duplicate entry
-                setStatusMessage("Email address already exists.", false);
-            } else {
-                setStatusMessage("Database error updating customer: " + e.getMessage(), false);
-                e.printStackTrace();
-            }
-        }
+        }, e -> showSaveError("Database error updating customer: ", e));
     }
 
     @FXML
@@ -367,6 +380,7 @@ public class CustomerController {
             showAlert(Alert.AlertType.WARNING, "No Selection", "Please select a customer to delete.");
             return;
         }
+        if (isSaving()) return;
 
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Confirm Deletion");
@@ -374,12 +388,12 @@ public class CustomerController {
         alert.setContentText("Are you sure you want to delete this customer? This will also delete all their bookings.");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            try {
-                if (customerDAO == null) {
-                    setStatusMessage("Error: Customer service not available.", false);
-                    return;
-                }
-                boolean success = customerDAO.deleteCustomer(selectedCustomer.getCustomerId());
+            if (customerDAO == null) {
+                setStatusMessage("Error: Customer service not available.", false);
+                return;
+            }
+            int customerId = selectedCustomer.getCustomerId();
+            saves.submit(customerId, () -> customerDAO.deleteCustomer(customerId), success -> {
                 if (success) {
                     loadCustomers();
                     handleClearFields();
@@ -387,10 +401,25 @@ public class CustomerController {
                 } else {
                     setStatusMessage("Failed to delete customer.", false);
                 }
-            } catch (SQLException e) {
-                setStatusMessage("Database error deleting customer: " + e.getMessage(), false);
-                e.printStackTrace();
-            }
+            }, e -> showSaveError("Database error deleting customer: ", e));
+        }
+    }
+
+    private boolean isSaving() {
+        if (saves.isLoading()) {
+            // Another submit would cancel the write in flight
+            setStatusMessage("Still saving the previous change, please wait.", false);
+            return true;
+        }
+        return false;
+    }
+
+    private void showSaveError(String message, Exception e) {
+        if (e instanceof SQLException && "23000".equals(((SQLException) e).getSQLState())) { // Duplicate entry
+            setStatusMessage("Email address already exists.", false);
+        } else {
+            setStatusMessage(message + e.getMessage(), false);
+            e.printStackTrace();
         }
     }
 
@@ -457,8 +486,8 @@ public class CustomerController {
 
     @FXML
     private void handleSearch() {
-        currentPage = 1; // Reset to first page when searching
-        loadCustomers();
+        // Reset to first page when searching
+        loadCustomers(buildPageRequest(), 1);
     }
 
     @FXML
@@ -466,40 +495,18 @@ public class CustomerController {
         searchField.clear();
         filterAdultsComboBox.getSelectionModel().clearSelection();
         filterKidsComboBox.getSelectionModel().clearSelection();
-        currentPage = 1; // Reset to first page when clearing filters
-        loadCustomers();
+        // Reset to first page when clearing filters
+        loadCustomers(buildPageRequest(), 1);
     }
 
     @FXML
     private void handleRefresh() {
-        currentPage = 1; // Reset to first page when refreshing
-        loadCustomers();
+        // Reset to first page when refreshing
+        loadCustomers(buildPageRequest(), 1);
     }
 
     private void applyFilters() {
-        String searchText = searchField.getText().toLowerCase();
-        String adultsFilter = filterAdultsComboBox.getValue();
-        String kidsFilter = filterKidsComboBox.getValue();
-
-        ObservableList<Customer> filteredList = customerList.filtered(customer -> {
-            boolean matchesSearch = searchText.isEmpty() ||
-                String.valueOf(customer.getCustomerId()).contains(searchText) ||
-                customer.getFirstName().toLowerCase().contains(searchText) ||
-                customer.getLastName().toLowerCase().contains(searchText) ||
-                customer.getEmail().toLowerCase().contains(searchText) ||
-                customer.getPhoneNumber().toLowerCase().contains(searchText);
-
-            boolean matchesAdults = adultsFilter.equals("Any") ||
-                (adultsFilter.equals("4+") && customer.getNumberOfAdults() >= 4) ||
-                String.valueOf(customer.getNumberOfAdults()).equals(adultsFilter);
-
-            boolean matchesKids = kidsFilter.equals("Any") ||
-                (kidsFilter.equals("3+") && customer.getNumberOfKids() >= 3) ||
-                String.valueOf(customer.getNumberOfKids()).equals(kidsFilter);
-
-            return matchesSearch && matchesAdults && matchesKids;
-        });
-
-        customersTableView.setItems(filteredList);
+        // Any filter change starts again from the first page
+        loadCustomers(buildPageRequest(), 1);
     }
 } 
\ No newline at end of file
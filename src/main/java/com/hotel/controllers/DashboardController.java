@@ -3,18 +3,25 @@ package com.hotel.controllers;
 import com.hotel.dao.DashboardDAO;
 import com.hotel.dao.impl.DashboardDAOImpl;
 import com.hotel.models.DashboardSummary;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.DaoMetrics;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
-import javafx.scene.control.Alert;
 import javafx.scene.control.ProgressBar;
 import java.net.URL;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import javafx.util.Duration;
 
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, Refreshable {
     // Room Status Labels
     @FXML private Label availableRoomsLabel;
     @FXML private Label cleaningRoomsLabel;
@@ -43,34 +50,99 @@ public class DashboardController implements Initializable {
     @FXML private Label lastUpdatedLabel;
 
     private final DashboardDAO dashboardDAO;
+    private final BackgroundLoader.Channel<DashboardSummary> summaryLoads =
+        BackgroundLoader.getInstance().channel("dashboard");
     private static final DateTimeFormatter TIME_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("$#,##0.00");
     private static final DecimalFormat RATING_FORMAT = new DecimalFormat("#.#");
+    // dashboard.autoRefreshSeconds; 0 turns automatic refresh off
+    private static final int AUTO_REFRESH_SECONDS =
+        Math.max(0, DatabaseConfig.load().getInt("dashboard.autoRefreshSeconds", 5));
+
+    private Timeline autoRefresh;
+    // Set when a refresh fails; automatic refresh waits for the next success
+    private boolean refreshFailed;
+    private String lastUpdated;
 
     public DashboardController() {
-        this.dashboardDAO = new DashboardDAOImpl();
+        this.dashboardDAO = DaoMetrics.instrument(DashboardDAO.class, new DashboardDAOImpl());
     }
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         refreshDashboard();
+        startAutoRefresh();
+    }
+
+    @Override
+    public void refresh() {
+        refreshDashboard();
     }
 
     @FXML
     private void handleRefreshDashboard() {
-        refreshDashboard();
+        // An explicit refresh re-reads the view instead of trusting the in-memory counters. It is also
+        // the retry after a failed refresh: automatic refresh resumes when it succeeds.
+        loadSummary("reconcile", () -> {
+            dashboardDAO.refreshDashboardData();
+            return dashboardDAO.getDashboardSummary();
+        });
     }
 
     private void refreshDashboard() {
-        try {
-            DashboardSummary summary = dashboardDAO.getDashboardSummary();
+        loadSummary("summary", dashboardDAO::getDashboardSummary);
+    }
+
+    private void startAutoRefresh() {
+        if (AUTO_REFRESH_SECONDS == 0) {
+            return;
+        }
+        autoRefresh = new Timeline(new KeyFrame(Duration.seconds(AUTO_REFRESH_SECONDS), e -> {
+            if (!summaryLoads.isLoading()) {
+                refreshDashboard();
+            }
+        }));
+        autoRefresh.setCycleCount(Animation.INDEFINITE);
+        autoRefresh.play();
+        // Stop polling once the dashboard is replaced by another view
+        lastUpdatedLabel.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                autoRefresh.stop();
+                summaryLoads.cancel();
+            } else if (!refreshFailed && autoRefresh.getStatus() != Animation.Status.RUNNING) {
+                autoRefresh.play();
+            }
+        });
+    }
+
+    private void loadSummary(Object request, Callable<DashboardSummary> query) {
+        // Repeated clicks while a refresh is running are merged into it
+        summaryLoads.submit(request, query, summary -> {
             updateDashboardUI(summary);
-            lastUpdatedLabel.setText("Last Updated: " + LocalDateTime.now().format(TIME_FORMATTER));
-        } catch (Exception e) {
-            showError("Dashboard Error", "Failed to refresh dashboard data: " + e.getMessage());
-            e.printStackTrace();
+            lastUpdated = LocalDateTime.now().format(TIME_FORMATTER);
+            lastUpdatedLabel.setText("Last Updated: " + lastUpdated);
+            lastUpdatedLabel.setStyle(null);
+            if (refreshFailed) {
+                refreshFailed = false;
+                if (autoRefresh != null && lastUpdatedLabel.getScene() != null) {
+                    autoRefresh.play();
+                }
+            }
+        }, this::showRefreshFailure);
+    }
+
+    // No dialog: during an outage every automatic refresh would raise another one
+    private void showRefreshFailure(Exception e) {
+        refreshFailed = true;
+        if (autoRefresh != null) {
+            autoRefresh.stop();
         }
+        lastUpdatedLabel.setText("Refresh failed at " + LocalDateTime.now().format(TIME_FORMATTER) + ": "
+                + e.getMessage() + (lastUpdated == null ? "" : " (showing data from " + lastUpdated + ")")
+                + ". Click Refresh to try again.");
+        lastUpdatedLabel.setStyle("-fx-text-fill: red;");
+        System.err.println("Dashboard refresh failed: " + e.getMessage());
     }
 
     private void updateDashboardUI(DashboardSummary summary) {
@@ -102,12 +174,4 @@ public class DashboardController implements Initializable {
         double ratingProgress = summary.getAvgFeedbackRating30Days() / 5.0;
         feedbackRatingProgress.setProgress(ratingProgress);
     }
-
-    private void showError(String title, String content) {
-        Alert alert = new Alert(Alert.AlertType.ERROR);
-        alert.setTitle(title);
-        alert.setHeaderText(null);
-        alert.setContentText(content);
-        alert.showAndWait();
-    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.hotel.controllers;
 
 import com.hotel.dao.UserDAO;
-import com.hotel.dao.impl.UserDAOImpl;
+import com.hotel.dao.impl.CachingUserDAO;
 import com.hotel.model.User;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -21,9 +23,10 @@ public class EditProfileController {
     private Dialog<ButtonType> dialog;
     private User currentUser;
     private final UserDAO userDAO;
+    private final BackgroundLoader.Channel<Boolean> saves = BackgroundLoader.getInstance().channel("profile-save");
 
     public EditProfileController() {
-        userDAO = new UserDAOImpl();
+        userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance());
     }
 
     public void setDialog(Dialog<ButtonType> dialog) {
@@ -49,7 +52,14 @@ public class EditProfileController {
         }
     }
 
-    public boolean handleSave() {
+    /**
+     * Validates the form and saves it in the background; a new password is
+     * hashed as part of the save, which must not happen on the FX thread.
+     *
+     * @param onSaved Called on the FX thread once the profile has been saved
+     * @return false if the form is invalid and nothing is saved
+     */
+    public boolean handleSave(Runnable onSaved) {
         System.out.println("Starting handleSave...");
         if (dialog == null) {
             String error = "Dialog not properly initialized";
@@ -66,37 +76,36 @@ public class EditProfileController {
             return false;
         }
 
-        try {
-            // Update user object with new values
-            String newFirstName = firstNameField.getText().trim();
-            String newLastName = lastNameField.getText().trim();
-            String newEmail = emailField.getText().trim();
-            String newPhone = phoneField.getText().trim();
-            
-            System.out.println("Updating user with values - Name: " + newFirstName + " " + newLastName + 
-                             ", Email: " + newEmail + ", Phone: " + newPhone);
-            
-            // Create a new User object to avoid modifying the current one until update succeeds
-            User updatedUser = new User();
-            updatedUser.setUserId(currentUser.getUserId());
-            updatedUser.setUsername(currentUser.getUsername());
-            updatedUser.setRole(currentUser.getRole());
-            updatedUser.setFirstName(newFirstName);
-            updatedUser.setLastName(newLastName);
-            updatedUser.setEmail(newEmail);
-            updatedUser.setPhoneNumber(newPhone);
-
-            // Only update password if a new one was entered
-            if (!passwordField.getText().isEmpty()) {
-                System.out.println("Password field is not empty, updating password");
-                updatedUser.setPassword(passwordField.getText());
-            } else {
-                System.out.println("No password change requested");
-                updatedUser.setPassword(""); // Empty string indicates no password change
-            }
+        // Update user object with new values
+        String newFirstName = firstNameField.getText().trim();
+        String newLastName = lastNameField.getText().trim();
+        String newEmail = emailField.getText().trim();
+        String newPhone = phoneField.getText().trim();
+        
+        System.out.println("Updating user with values - Name: " + newFirstName + " " + newLastName + 
+                         ", Email: " + newEmail + ", Phone: " + newPhone);
+        
+        // Create a new User object to avoid modifying the current one until update succeeds
+        User updatedUser = new User();
+        updatedUser.setUserId(currentUser.getUserId());
+        updatedUser.setUsername(currentUser.getUsername());
+        updatedUser.setRole(currentUser.getRole());
+        updatedUser.setFirstName(newFirstName);
+        updatedUser.setLastName(newLastName);
+        updatedUser.setEmail(newEmail);
+        updatedUser.setPhoneNumber(newPhone);
+
+        // Only update password if a new one was entered
+        if (!passwordField.getText().isEmpty()) {
+            System.out.println("Password field is not empty, updating password");
+            updatedUser.setPassword(passwordField.getText());
+        } else {
+            System.out.println("No password change requested");
+            updatedUser.setPassword(""); // Empty string indicates no password change
+        }
 
-            System.out.println("Calling userDAO.updateUser...");
-            boolean updateResult = userDAO.updateUser(updatedUser);
+        System.out.println("Calling userDAO.updateUser...");
+        saves.submit(updatedUser, () -> userDAO.updateUser(updatedUser), updateResult -> {
             System.out.println("userDAO.updateUser returned: " + updateResult);
             
             if (updateResult) {
@@ -105,9 +114,6 @@ public class EditProfileController {
                 currentUser.setLastName(updatedUser.getLastName());
                 currentUser.setEmail(updatedUser.getEmail());
                 currentUser.setPhoneNumber(updatedUser.getPhoneNumber());
-                if (!updatedUser.getPassword().isEmpty()) {
-                    currentUser.setPassword(updatedUser.getPassword());
-                }
                 
                 String successMsg = "Profile updated successfully!";
                 System.out.println(successMsg);
@@ -121,26 +127,19 @@ public class EditProfileController {
                     alert.setContentText("Your profile has been updated successfully!");
                     alert.showAndWait();
                 });
-                return true;
+                onSaved.run();
             } else {
                 String errorMsg = "Failed to update profile. Please try again.";
                 System.err.println(errorMsg);
                 showMessage(errorMsg, true);
-                return false;
             }
-        } catch (SQLException e) {
-            String errorMsg = "Database error: " + e.getMessage();
+        }, e -> {
+            String errorMsg = (e instanceof SQLException ? "Database error: " : "Unexpected error: ") + e.getMessage();
             System.err.println(errorMsg);
             e.printStackTrace();
             showMessage(errorMsg, true);
-            return false;
-        } catch (Exception e) {
-            String errorMsg = "Unexpected error: " + e.getMessage();
-            System.err.println(errorMsg);
-            e.printStackTrace();
-            showMessage(errorMsg, true);
-            return false;
-        }
+        });
+        return true;
     }
 
     private String validateInput() {
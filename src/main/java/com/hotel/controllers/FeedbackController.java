@@ -3,27 +3,31 @@ package com.hotel.controllers;
 import com.hotel.dao.CustomerDAO;
 import com.hotel.dao.BookingDAO;
 import com.hotel.dao.FeedbackDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
 import com.hotel.dao.impl.CustomerDAOImpl;
 import com.hotel.dao.impl.BookingDAOImpl;
 import com.hotel.dao.impl.FeedbackDAOImpl;
 import com.hotel.model.Customer;
 import com.hotel.model.Booking;
 import com.hotel.models.Feedback;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.SearchPipeline;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.collections.ObservableList;
-import java.util.stream.Collectors;
+import java.util.Collections;
 import java.util.List;
 import javafx.scene.control.cell.PropertyValueFactory;
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.sql.SQLException;
 
-public class FeedbackController implements Initializable {
+public class FeedbackController implements Initializable, Refreshable {
     
     @FXML private ComboBox<String> customerComboBox;
     @FXML private ComboBox<String> bookingComboBox;
@@ -53,10 +57,22 @@ public class FeedbackController implements Initializable {
     private int currentPage = 1;
     private int totalItems = 0;
     private int totalPages = 0;
+    private PageRequest pageRequest;
+    private Page<Feedback> currentResult;
+    private final SearchPipeline<Feedback> feedbackLoads = new SearchPipeline<>("feedback",
+            FeedbackDAO.FILTER_SEARCH, this::fetchPage, FeedbackController::matchesSearch);
+    private final BackgroundLoader.Channel<List<Customer>> customerLoads =
+            BackgroundLoader.getInstance().channel("feedback-customers");
+    private final BackgroundLoader.Channel<List<Booking>> bookingLoads =
+            BackgroundLoader.getInstance().channel("feedback-bookings");
+    private final BackgroundLoader.Channel<Boolean> saves =
+            BackgroundLoader.getInstance().channel("feedback-save");
+    // In the order of the customer combo box, after its prompt item
+    private List<Customer> customers = Collections.emptyList();
 
-    private final FeedbackDAO feedbackDAO = new FeedbackDAOImpl();
-    private final CustomerDAO customerDAO = new CustomerDAOImpl();
-    private final BookingDAO bookingDAO = new BookingDAOImpl();
+    private final FeedbackDAO feedbackDAO = DaoMetrics.instrument(FeedbackDAO.class, new FeedbackDAOImpl());
+    private final CustomerDAO customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
+    private final BookingDAO bookingDAO = DaoMetrics.instrument(BookingDAO.class, new BookingDAOImpl());
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -66,6 +82,11 @@ public class FeedbackController implements Initializable {
         loadFeedback();
     }
 
+    @Override
+    public void refresh() {
+        loadFeedback();
+    }
+
     private void setupTableColumns() {
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("feedbackDate"));
         customerNameColumn.setCellValueFactory(new PropertyValueFactory<>("customerName"));
@@ -95,7 +116,7 @@ public class FeedbackController implements Initializable {
         
         // Setup search listener
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            handleSearch();
+            searchFeedback();
         });
         
         // Setup rating filter listener
@@ -103,88 +124,105 @@ public class FeedbackController implements Initializable {
             handleSearch();
         });
         
-        // Load customer data
-        try {
-            List<Customer> customers = customerDAO.findAll();
+        // Load customer data; the list is kept to look up the selected customer's ID
+        customerLoads.submit("all", customerDAO::findAll, loaded -> {
+            customers = loaded;
             ObservableList<String> customerOptions = FXCollections.observableArrayList();
             customerOptions.add("Select Customer");
-            customers.forEach(customer -> 
+            loaded.forEach(customer -> 
                 customerOptions.add(customer.getFirstName() + " " + customer.getLastName()));
             customerComboBox.setItems(customerOptions);
-        } catch (SQLException e) {
-            showAlert("Error", "Failed to load customers: " + e.getMessage());
-        }
+        }, e -> showAlert("Error", "Failed to load customers: " + e.getMessage()));
         
         // Load booking data
-        try {
-            List<Booking> bookings = bookingDAO.getAllBookings();
+        bookingLoads.submit("all", bookingDAO::getAllBookings, bookings -> {
             ObservableList<String> bookingOptions = FXCollections.observableArrayList();
             bookingOptions.add("Select Booking");
             bookings.forEach(booking -> 
                 bookingOptions.add("Booking ID: " + booking.getBookingId() + 
                     " (" + booking.getCustomerName() + ", Room: " + booking.getRoomNumber() + ")"));
             bookingComboBox.setItems(bookingOptions);
-        } catch (SQLException e) {
-            showAlert("Error", "Failed to load bookings: " + e.getMessage());
-        }
+        }, e -> showAlert("Error", "Failed to load bookings: " + e.getMessage()));
     }
 
+    /**
+     * Reloads the page currently on screen.
+     */
     private void loadFeedback() {
-        try {
-            // Get all feedback from the database
-            List<Feedback> allFeedbacks = feedbackDAO.getAllFeedback();
-            
-            // Apply filters to get filtered list
-            List<Feedback> filteredFeedbacks = filterFeedbacks(allFeedbacks);
-            
-            // Update total items and pages
-            totalItems = filteredFeedbacks.size();
-            int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
-                itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, totalItems);
-            
-            // Get sublist for current page
-            List<Feedback> pagedFeedbacks = filteredFeedbacks.subList(fromIndex, toIndex);
-            
-            // Update the table
-            feedbackList.setAll(pagedFeedbacks);
-            feedbackTable.setItems(feedbackList);
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-            System.out.println(String.format("Showing items from index %d to %d", fromIndex, toIndex));
-            
-        } catch (Exception e) {
-            showAlert("Error", "Error loading feedback: " + e.getMessage());
-            e.printStackTrace();
+        // Always fetch fresh rows, e.g. after an add, update or delete
+        feedbackLoads.cancel();
+        loadFeedback(pageRequest != null ? pageRequest : buildPageRequest(), currentPage);
+    }
+
+    /**
+     * Loads a page in the background and shows it as page number pageNumber.
+     */
+    private void loadFeedback(PageRequest request, int pageNumber) {
+        feedbackLoads.load(request, result -> showFeedbackPage(result, pageNumber), this::showLoadError);
+    }
+
+    /**
+     * Searches as the user types; the search waits for a pause in typing.
+     */
+    private void searchFeedback() {
+        feedbackLoads.search(buildPageRequest(), result -> showFeedbackPage(result, 1), this::showLoadError);
+    }
+
+    // Runs on a background thread
+    private Page<Feedback> fetchPage(PageRequest request) {
+        Page<Feedback> result = feedbackDAO.findPage(request);
+        // The page can come back empty after deletions; show the last page instead
+        if (result.getItems().isEmpty() && result.getTotalCount() > 0) {
+            result = feedbackDAO.findPage(request.lastPage());
         }
+        return result;
     }
-    
-    private List<Feedback> filterFeedbacks(List<Feedback> feedbacks) {
-        String searchTerm = searchField.getText().toLowerCase();
-        Integer ratingFilter = filterRatingComboBox.getValue();
+
+    // Same columns as the LIKE filter in FeedbackDAOImpl.findPage
+    private static boolean matchesSearch(Feedback feedback, String text) {
+        return SearchPipeline.contains(feedback.getComments(), text)
+                || SearchPipeline.contains(feedback.getCustomerName(), text);
+    }
+
+    private void showLoadError(Exception e) {
+        showAlert("Error", "Error loading feedback: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    private void showFeedbackPage(Page<Feedback> result, int pageNumber) {
+        // Update total items and pages
+        pageRequest = result.getRequest();
+        currentResult = result;
+        totalItems = result.getTotalCount();
+        totalPages = result.getTotalPages();
         
-        return feedbacks.stream()
-            .filter(feedback -> 
-                searchTerm.isEmpty() || 
-                (feedback.getComments() != null && feedback.getComments().toLowerCase().contains(searchTerm)) ||
-                (feedback.getCustomerName() != null && feedback.getCustomerName().toLowerCase().contains(searchTerm)))
-            .filter(feedback -> 
-                ratingFilter == null || 
-                feedback.getRating() == ratingFilter)
-            .collect(Collectors.toList());
+        currentPage = pageNumber;
+        if (pageRequest.getPosition() == PageRequest.Position.FIRST || !result.hasPrevious()) {
+            currentPage = 1;
+        } else if (pageRequest.getPosition() == PageRequest.Position.LAST || !result.hasNext()) {
+            currentPage = Math.max(totalPages, 1);
+        }
+        currentPage = Math.max(1, Math.min(currentPage, Math.max(totalPages, 1)));
+        
+        // Update the table
+        feedbackList.setAll(result.getItems());
+        feedbackTable.setItems(feedbackList);
+        
+        // Update pagination controls
+        updatePaginationControls();
+    }
+    
+    /**
+     * Builds a first-page request from the current filter controls.
+     * Filtering, sorting and paging are done by the database.
+     */
+    private PageRequest buildPageRequest() {
+        int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
+            itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
+        return PageRequest.first(itemsPerPage)
+            .sortBy(FeedbackDAO.SORT_DATE, true)
+            .filter(FeedbackDAO.FILTER_SEARCH, searchField.getText())
+            .filter(FeedbackDAO.FILTER_RATING, filterRatingComboBox.getValue());
     }
     
     private void setupPaginationControls() {
@@ -196,8 +234,8 @@ public class FeedbackController implements Initializable {
         // Add listener to items per page combo box
         itemsPerPageCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
             if (newValue != null && !newValue.equals(oldValue)) {
-                currentPage = 1; // Reset to first page when changing page size
-                loadFeedback();
+                // Reset to first page when changing page size
+                loadFeedback(buildPageRequest(), 1);
             }
         });
         
@@ -214,32 +252,28 @@ public class FeedbackController implements Initializable {
     @FXML
     private void handleFirstPage() {
         if (currentPage != 1 && totalPages > 0) {
-            currentPage = 1;
-            loadFeedback();
+            loadFeedback(buildPageRequest(), 1);
         }
     }
 
     @FXML
     private void handlePrevPage() {
-        if (currentPage > 1) {
-            currentPage--;
-            loadFeedback();
+        if (currentResult != null && currentResult.hasPrevious()) {
+            loadFeedback(pageRequest.before(currentResult.getPreviousCursor()), currentPage - 1);
         }
     }
 
     @FXML
     private void handleNextPage() {
-        if (currentPage < totalPages) {
-            currentPage++;
-            loadFeedback();
+        if (currentResult != null && currentResult.hasNext()) {
+            loadFeedback(pageRequest.after(currentResult.getNextCursor()), currentPage + 1);
         }
     }
 
     @FXML
     private void handleLastPage() {
         if (currentPage != totalPages && totalPages > 0) {
-            currentPage = totalPages;
-            loadFeedback();
+            loadFeedback(buildPageRequest().lastPage(), totalPages);
         }
     }
     
@@ -280,20 +314,18 @@ public class FeedbackController implements Initializable {
             showAlert("Error", "Please fill in all required fields.");
             return;
         }
+        if (saves.isLoading()) {
+            // Another submit would cancel the write in flight
+            showAlert("Error", "The previous feedback is still being saved.");
+            return;
+        }
 
         try {
             Feedback feedback = new Feedback();
-            // Get customer ID from selected customer
-            String selectedCustomer = customerComboBox.getValue();
-            if (selectedCustomer != null && !selectedCustomer.equals("Select Customer")) {
-                // Extract customer ID from the display string
-                List<Customer> customers = customerDAO.findAll();
-                Customer selectedCustomerObj = customers.stream()
-                    .filter(c -> (c.getFirstName() + " " + c.getLastName()).equals(selectedCustomer))
-                    .findFirst().orElse(null);
-                if (selectedCustomerObj != null) {
-                    feedback.setCustomerId(selectedCustomerObj.getCustomerId());
-                }
+            // Get customer ID from selected customer; item 0 is the "Select Customer" prompt
+            int customerIndex = customerComboBox.getSelectionModel().getSelectedIndex() - 1;
+            if (customerIndex >= 0 && customerIndex < customers.size()) {
+                feedback.setCustomerId(customers.get(customerIndex).getCustomerId());
             }
             
             // Get booking ID if a booking is selected
@@ -323,13 +355,16 @@ public class FeedbackController implements Initializable {
             feedback.setComments(commentsArea.getText());
             feedback.setFeedbackDate(Timestamp.valueOf(LocalDateTime.now()));
 
-            feedbackDAO.addFeedback(feedback);
-            
-            // Clear form and refresh table
-            clearForm();
-            loadFeedback();
-            
-            showAlert("Success", "Feedback submitted successfully!");
+            saves.submit(feedback, () -> {
+                feedbackDAO.addFeedback(feedback);
+                return true;
+            }, saved -> {
+                // Clear form and refresh table
+                clearForm();
+                loadFeedback();
+                
+                showAlert("Success", "Feedback submitted successfully!");
+            }, e -> showAlert("Error", "Failed to submit feedback: " + e.getMessage()));
         } catch (Exception e) {
             showAlert("Error", "Failed to submit feedback: " + e.getMessage());
         }
@@ -352,21 +387,21 @@ public class FeedbackController implements Initializable {
 
     @FXML
     private void handleSearch() {
-        currentPage = 1; // Reset to first page when searching
-        loadFeedback();
+        // Reset to first page when searching
+        loadFeedback(buildPageRequest(), 1);
     }
     
     @FXML
     private void handleClearFilters() {
         searchField.clear();
         filterRatingComboBox.getSelectionModel().clearSelection();
-        currentPage = 1; // Reset to first page when clearing filters
-        loadFeedback();
+        // Reset to first page when clearing filters
+        loadFeedback(buildPageRequest(), 1);
     }
     
     @FXML
     private void handleRefresh() {
-        currentPage = 1; // Reset to first page when refreshing
-        loadFeedback();
+        // Reset to first page when refreshing
+        loadFeedback(buildPageRequest(), 1);
     }
 }
@@ -4,6 +4,12 @@ import com.hotel.dao.InvoiceDAO;
 import com.hotel.dao.impl.InvoiceDAOImpl;
 import com.hotel.model.Invoice;
 import com.hotel.model.BookingService;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.ExportOptions;
+import com.hotel.util.PdfBatchExport;
+import com.hotel.util.PdfDocuments;
+import com.hotel.util.TaskProgressDialog;
+import com.hotel.util.DaoMetrics;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,12 +18,9 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import javafx.stage.Window;
 
 import java.io.File;
 import java.io.IOException;
@@ -27,9 +30,10 @@ import java.sql.SQLException;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
-public class InvoiceController implements Initializable {
+public class InvoiceController implements Initializable, Refreshable {
 
     @FXML private TableView<Invoice> invoiceTable;
     @FXML private TableColumn<Invoice, Integer> invoiceIdColumn;
@@ -44,15 +48,19 @@ public class InvoiceController implements Initializable {
     @FXML private TableColumn<Invoice, String> invoiceStatusColumn;
     
     @FXML private Button btnExportToPdf;
+    @FXML private Button btnBatchExport;
     @FXML private Button btnRefresh;
     @FXML private Button btnClearFilters;
     @FXML private TextField searchField;
     @FXML private ComboBox<String> statusFilterComboBox;
     @FXML private Label statusLabel;
     
-    private final InvoiceDAO invoiceDAO = new InvoiceDAOImpl();
+    private final InvoiceDAO invoiceDAO = DaoMetrics.instrument(InvoiceDAO.class, new InvoiceDAOImpl());
     private ObservableList<Invoice> invoiceList = FXCollections.observableArrayList();
     private FilteredList<Invoice> filteredInvoices;
+    private PdfBatchExport<Invoice> batchExport;
+    private final BackgroundLoader.Channel<List<Invoice>> invoiceLoads = BackgroundLoader.getInstance().channel("invoices");
+    private final BackgroundLoader.Channel<File> pdfExports = BackgroundLoader.getInstance().channel("invoice-pdf");
     
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -61,6 +69,11 @@ public class InvoiceController implements Initializable {
         setupTableSelectionListener();
         loadInvoiceData();
     }
+
+    @Override
+    public void refresh() {
+        loadInvoiceData();
+    }
     
     private void setupTableColumns() {
         invoiceIdColumn.setCellValueFactory(new PropertyValueFactory<>("invoiceId"));
@@ -181,8 +194,8 @@ public class InvoiceController implements Initializable {
     }
     
     private void loadInvoiceData() {
-        try {
-            List<Invoice> invoices = invoiceDAO.getAllInvoices();
+        statusLabel.setText("Loading invoices...");
+        invoiceLoads.submit("all", invoiceDAO::getAllInvoices, invoices -> {
             invoiceList.setAll(invoices);
             
             // Initialize filtered list
@@ -190,11 +203,11 @@ public class InvoiceController implements Initializable {
             invoiceTable.setItems(filteredInvoices);
             
             statusLabel.setText("Loaded " + invoices.size() + " invoices");
-        } catch (SQLException e) {
+        }, e -> {
             showAlert(Alert.AlertType.ERROR, "Database Error", 
                     "Failed to load invoices", e.getMessage());
             statusLabel.setText("Error loading invoices");
-        }
+        });
     }
     
     private void filterInvoices() {
@@ -241,172 +254,97 @@ public class InvoiceController implements Initializable {
             return;
         }
         
-        try {
-            // Get detailed invoice data
-            Invoice invoiceDetails = invoiceDAO.getInvoiceDetails(selectedInvoice.getInvoiceId());
+        if (pdfExports.isLoading()) {
+            // A new export would cancel the one still writing its file
+            statusLabel.setText("Still exporting the previous invoice, please wait");
+            return;
+        }
+        int invoiceId = selectedInvoice.getInvoiceId();
+        
+        // Create file chooser
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Invoice PDF");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+        fileChooser.setInitialFileName("Invoice_" + invoiceId + ".pdf");
+        
+        File file = fileChooser.showSaveDialog(null);
+        if (file == null) {
+            return;
+        }
+        
+        // The invoice details are read and the PDF written in the background
+        statusLabel.setText("Exporting invoice " + invoiceId + "...");
+        pdfExports.submit(file, () -> {
+            Invoice invoiceDetails = invoiceDAO.getInvoiceDetails(invoiceId);
+            if (invoiceDetails == null) {
+                throw new SQLException("Invoice " + invoiceId + " no longer exists");
+            }
             List<BookingService> bookingServices = 
                     invoiceDAO.getBookingServicesForBooking(invoiceDetails.getBookingId());
-            
-            // Create file chooser
+            PdfDocuments.save(PdfDocuments.invoice(invoiceDetails, bookingServices), file);
+            return file;
+        }, saved -> statusLabel.setText("Saved " + saved.getName()), e -> {
+            statusLabel.setText("Error exporting invoice " + invoiceId);
+            if (e instanceof IOException) {
+                showAlert(Alert.AlertType.ERROR, "PDF Generation Error", 
+                        "Failed to generate PDF", e.getMessage());
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Database Error", 
+                        "Failed to load invoice details", e.getMessage());
+            }
+        });
+    }
+    
+    @FXML
+    private void handleBatchExport() {
+        if (batchExport != null && batchExport.isRunning()) {
+            showAlert(Alert.AlertType.WARNING, "Export Running", 
+                    "An Export Is Already Running", "Please wait for the current export to finish or cancel it.");
+            return;
+        }
+        
+        Window window = invoiceTable.getScene().getWindow();
+        Optional<ExportOptions> options = ExportOptions.showDialog(window, "Export Invoices to PDF", true);
+        if (!options.isPresent()) {
+            return;
+        }
+        
+        File target;
+        if (options.get().isMerged()) {
             FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Invoice PDF");
+            fileChooser.setTitle("Save Merged Invoice PDF");
             fileChooser.getExtensionFilters().add(
                     new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            fileChooser.setInitialFileName("Invoice_" + invoiceDetails.getInvoiceId() + ".pdf");
-            
-            File file = fileChooser.showSaveDialog(null);
-            if (file != null) {
-                generatePdf(file, invoiceDetails, bookingServices);
-            }
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", 
-                    "Failed to load invoice details", e.getMessage());
-        } catch (IOException e) {
-            showAlert(Alert.AlertType.ERROR, "PDF Generation Error", 
-                    "Failed to generate PDF", e.getMessage());
+            fileChooser.setInitialFileName("Invoices.pdf");
+            target = fileChooser.showSaveDialog(window);
+        } else {
+            DirectoryChooser directoryChooser = new DirectoryChooser();
+            directoryChooser.setTitle("Choose Folder for Invoice PDFs");
+            target = directoryChooser.showDialog(window);
         }
-    }
-    
-    private void generatePdf(File file, Invoice invoice, List<BookingService> services) throws IOException {
-        PDDocument document = new PDDocument();
-        try {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-            
-            PDPageContentStream contentStream = new PDPageContentStream(document, page);
-            try {
-                float margin = 50;
-                float yStart = page.getMediaBox().getHeight() - margin;
-                float yPosition = yStart;
-                int fontSize = 12;
-                
-                // Hotel Name and Invoice Title
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 18);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Hotel Management System");
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Invoice No: " + invoice.getInvoiceId());
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Customer Name: " + invoice.getCustomerName());
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Room Number: " + invoice.getRoomNumber());
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Issue Date: " + formatDate(invoice.getIssueDate()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Due Date: " + formatDate(invoice.getDueDate()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Services:");
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                for (BookingService service : services) {
-                    BigDecimal price = service.getServicePrice();
-                    BigDecimal total = price.multiply(BigDecimal.valueOf(service.getQuantity()));
-                    contentStream.beginText();
-                    contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                    contentStream.newLineAtOffset(margin, yPosition);
-                    contentStream.showText(service.getServiceName() + " x " + service.getQuantity() + " = " + formatCurrency(total));
-                    contentStream.endText();
-                    
-                    yPosition -= 20;
-                }
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Room Cost: " + formatCurrency(invoice.getRoomCost()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Service Cost: " + formatCurrency(invoice.getServiceCost()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Total Amount: " + formatCurrency(invoice.getTotalAmount()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Paid Amount: " + formatCurrency(invoice.getPaidAmount()));
-                contentStream.endText();
-                
-                yPosition -= 20;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, fontSize);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("Balance Due: " + formatCurrency(invoice.getBalanceDue()));
-                contentStream.endText();
-            } finally {
-                if (contentStream != null) {
-                    contentStream.close();
-                }
-            }
-        } finally {
-            if (document != null) {
-                document.save(file);
-                document.close();
-            }
+        if (target == null) {
+            return;
         }
-    }
-    
-    private String formatDate(java.sql.Date date) {
-        if (date == null) return "N/A";
-        return new SimpleDateFormat("yyyy-MM-dd").format(date);
-    }
-    
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "N/A";
-        return NumberFormat.getCurrencyInstance().format(amount);
+        
+        PdfBatchExport<Invoice> task = PdfBatchExport.invoices(invoiceDAO, options.get(), target);
+        task.setOnSucceeded(e -> {
+            PdfBatchExport.Result result = task.getValue();
+            if (result.getDocuments() == 0) {
+                showAlert(Alert.AlertType.WARNING, "No Data", 
+                        "No Invoices to Export", "There are no invoices matching the selected filters.");
+            } else {
+                showAlert(Alert.AlertType.INFORMATION, "Export Complete", 
+                        "Invoices Exported", result.toString());
+            }
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Invoice batch export failed: " + task.getException());
+            showAlert(Alert.AlertType.ERROR, "PDF Generation Error", 
+                    "Failed to export invoices", task.getException().getMessage());
+        });
+        batchExport = task;
+        TaskProgressDialog.run(window, "Exporting Invoices", task, "invoice-batch-export");
     }
     
     private void showAlert(Alert.AlertType type, String title, String header, String content) {
@@ -2,8 +2,10 @@ package com.hotel.controllers;
 
 import com.hotel.MainApp;
 import com.hotel.dao.UserDAO; // Assuming you'll create an implementation like UserDAOImpl
-import com.hotel.dao.impl.UserDAOImpl;
+import com.hotel.dao.impl.CachingUserDAO;
 import com.hotel.model.User;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -13,6 +15,7 @@ import javafx.scene.control.TextField;
 
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginController {
 
@@ -22,10 +25,11 @@ public class LoginController {
     @FXML private Label statusLabel;
 
     private UserDAO userDAO; // Use the interface
+    private final BackgroundLoader.Channel<Optional<User>> logins = BackgroundLoader.getInstance().channel("login");
 
     public LoginController() {
         try {
-            userDAO = new UserDAOImpl();
+            userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance());
         } catch (Exception e) {
             System.err.println("Error initializing LoginController: " + e.getMessage());
         }
@@ -65,58 +69,48 @@ public class LoginController {
         // --- End Placeholder Logic ---
 
         // --- DAO Logic (Now active) ---
-        try {
-            if (userDAO == null) {
-                userDAO = new UserDAOImpl(); // Initialize if null
-            }
-            Optional<User> userOptional = userDAO.findByUsername(username);
-
+        if (userDAO == null) {
+            userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance()); // Initialize if null
+        }
+        // The password is hashed and checked in the background, never on the FX thread
+        loginButton.setDisable(true);
+        statusLabel.setText("Signing in...");
+        logins.submit(username, () -> {
+            MainApp.awaitDatabase(); // Normally done while the credentials were typed
+            // One query checks the password and returns the user with staff details
+            return userDAO.authenticate(username, password);
+        }, userOptional -> {
+            loginButton.setDisable(false);
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                // IMPORTANT: Use password hashing and verification in a real app!
-                // Example: if (PasswordUtil.verifyPassword(password, user.getPassword())) {
-                if (user.getPassword().equals(password)) { // Simple comparison (INSECURE)
-                    System.out.println("Login successful for user: " + username + " with role: " + user.getRole());
-                    loginSuccess(user.getRole());
-                } else {
-                    statusLabel.setText("Invalid username or password.");
-                     System.out.println("Incorrect password for user: " + username);
-                }
+                statusLabel.setText("");
+                System.out.println("Login successful for user: " + username + " with role: " + user.getRole());
+                loginSuccess(user);
             } else {
                 statusLabel.setText("Invalid username or password.");
-                System.out.println("User not found: " + username);
+                System.out.println("Login failed for user: " + username);
+            }
+        }, e -> {
+            loginButton.setDisable(false);
+            if (e instanceof SQLException) {
+                statusLabel.setText("Database error during login.");
+                System.err.println("SQL Error during login: " + e.getMessage());
+            } else if (e instanceof RejectedExecutionException) {
+                statusLabel.setText("Too many sign-ins in progress, please try again.");
+                System.err.println("Login rejected: " + e.getMessage());
+            } else {
+                statusLabel.setText("An unexpected error occurred.");
+                System.err.println("Unexpected Error during login: " + e.getMessage());
             }
-
-        } catch (SQLException e) {
-            statusLabel.setText("Database error during login.");
-            System.err.println("SQL Error during login: " + e.getMessage());
-            e.printStackTrace(); // Log the full error
-        } catch (Exception e) {
-            statusLabel.setText("An unexpected error occurred.");
-            System.err.println("Unexpected Error during login: " + e.getMessage());
             e.printStackTrace(); // Log the full error
-        }
+        });
         // --- End DAO Logic ---
     }
 
-    private void loginSuccess(String userRole) {
+    private void loginSuccess(User user) {
         try {
-            // Get the user object with full details
-            Optional<User> userOptional = userDAO.findByUsername(usernameField.getText());
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                // Fetch additional user details if needed
-                Optional<User> detailedUser = userDAO.getUserWithStaffDetails(user.getUserId());
-                if (detailedUser.isPresent()) {
-                    user = detailedUser.get();
-                }
-                // Switch to the main application window with the user object
-                MainApp.showMainInterface(user);
-            } else {
-                // This should theoretically not happen since we just logged in
-                statusLabel.setText("Error: User data not found.");
-                System.err.println("User data not found after login for: " + usernameField.getText());
-            }
+            // The user already carries the staff details; switch to the main application window
+            MainApp.showMainInterface(user);
         } catch (Exception e) {
             statusLabel.setText("Error loading main application window.");
             System.err.println("Error when loading MainInterface: " + e.getMessage());
@@ -1,11 +1,17 @@
 package com.hotel.controllers;
 
 import com.hotel.dao.UserDAO;
-import com.hotel.dao.impl.UserDAOImpl;
+import com.hotel.dao.impl.CachingUserDAO;
 import com.hotel.model.User;
 import com.hotel.util.RoleBasedAccessControl;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
+import com.hotel.util.DatabaseConfig;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -55,9 +61,15 @@ public class MainController {
 
     private int loggedInUserId;
     private UserDAO userDAO;
+    private final ViewRegistry viewRegistry = new ViewRegistry(DatabaseConfig.load());
+    private final Map<String, Button> navigationButtons = new HashMap<>();
+    private String currentViewFile;
+    private final BackgroundLoader.Channel<Optional<User>> userDetailsLoads = BackgroundLoader.getInstance().channel("user-details");
+    // Separate from userDetailsLoads, which would drop a load for the same user while the one after login is in flight
+    private final BackgroundLoader.Channel<Optional<User>> profileLoads = BackgroundLoader.getInstance().channel("user-profile");
 
     public MainController() {
-        userDAO = new UserDAOImpl();
+        userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance());
     }
 
     public void setLoggedInUserId(int userId) {
@@ -155,45 +167,40 @@ public class MainController {
     }
     
     /**
-     * Loads additional user details from the database
+     * Loads additional user details from the database in the background
      * @param userId The ID of the user to load details for
      */
     private void loadUserDetails(int userId) {
-        try {
-            if (userDAO == null) {
-                userDAO = new UserDAOImpl();
-            }
-            
-            // Fetch user details with staff information
-            Optional<User> userOptional = userDAO.getUserWithStaffDetails(userId);
-            
+        if (userDAO == null) {
+            userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance());
+        }
+        
+        // Fetch user details with staff information off the FX thread, so the main window shows without waiting for it
+        userDetailsLoads.submit(userId, () -> userDAO.getUserWithStaffDetails(userId), userOptional -> {
             if (userOptional.isPresent()) {
                 User userWithDetails = userOptional.get();
                 
-                // Update the UI with the fetched details
-                Platform.runLater(() -> {
-                    // Update any additional fields that might have been fetched
-                    if (emailLabel != null && (currentUser.getEmail() == null || currentUser.getEmail().isEmpty())) {
-                        emailLabel.setText(userWithDetails.getEmail() != null && !userWithDetails.getEmail().isEmpty() ? 
-                                        userWithDetails.getEmail() : "N/A");
-                    }
-                    if (phoneLabel != null && (currentUser.getPhoneNumber() == null || currentUser.getPhoneNumber().isEmpty())) {
-                        phoneLabel.setText(userWithDetails.getPhoneNumber() != null && !userWithDetails.getPhoneNumber().isEmpty() ? 
-                                        userWithDetails.getPhoneNumber() : "N/A");
-                    }
-                    if (positionLabel != null && (currentUser.getPosition() == null || currentUser.getPosition().isEmpty())) {
-                        positionLabel.setText(userWithDetails.getPosition() != null && !userWithDetails.getPosition().isEmpty() ? 
-                                           userWithDetails.getPosition() : "N/A");
-                    }
-                });
+                // Update any additional fields that might have been fetched
+                if (emailLabel != null && (currentUser.getEmail() == null || currentUser.getEmail().isEmpty())) {
+                    emailLabel.setText(userWithDetails.getEmail() != null && !userWithDetails.getEmail().isEmpty() ? 
+                                    userWithDetails.getEmail() : "N/A");
+                }
+                if (phoneLabel != null && (currentUser.getPhoneNumber() == null || currentUser.getPhoneNumber().isEmpty())) {
+                    phoneLabel.setText(userWithDetails.getPhoneNumber() != null && !userWithDetails.getPhoneNumber().isEmpty() ? 
+                                    userWithDetails.getPhoneNumber() : "N/A");
+                }
+                if (positionLabel != null && (currentUser.getPosition() == null || currentUser.getPosition().isEmpty())) {
+                    positionLabel.setText(userWithDetails.getPosition() != null && !userWithDetails.getPosition().isEmpty() ? 
+                                       userWithDetails.getPosition() : "N/A");
+                }
                 
                 // Update the current user with the fetched details
                 currentUser = userWithDetails;
             }
-        } catch (SQLException e) {
+        }, e -> {
             System.err.println("Error loading user details: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
     private Button currentActiveButton;
 
@@ -201,7 +208,18 @@ public class MainController {
     public void initialize() {
         System.out.println("MainController initialized.");
         try {
-            userDAO = new UserDAOImpl();
+            userDAO = DaoMetrics.instrument(UserDAO.class, CachingUserDAO.getInstance());
+            
+            navigationButtons.put("DashboardTab.fxml", dashboardBtn);
+            navigationButtons.put("RoomTab.fxml", roomsBtn);
+            navigationButtons.put("BookingTab.fxml", bookingsBtn);
+            navigationButtons.put("CustomerTab.fxml", customersBtn);
+            navigationButtons.put("StaffTab.fxml", staffBtn);
+            navigationButtons.put("AvailableServicesTab.fxml", availableServicesBtn);
+            navigationButtons.put("BookingServicesTab.fxml", bookingServicesBtn);
+            navigationButtons.put("InvoiceTab.fxml", invoicesBtn);
+            navigationButtons.put("PaymentTab.fxml", paymentsBtn);
+            navigationButtons.put("FeedbackTab.fxml", feedbackBtn);
             
             // Set Dashboard as default active view
             setActiveButton(dashboardBtn);
@@ -271,29 +289,24 @@ public class MainController {
     }
     
     /**
-     * Loads a view into the content area
+     * Shows a view in the content area. The view is loaded from its FXML file
+     * the first time only; later navigations reuse it from the view registry.
      * 
      * @param fxmlFile The FXML file to load
      */
     private void loadView(String fxmlFile) {
         try {
-            // Load the FXML file
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/hotel/fxml/" + fxmlFile));
-            if (loader.getLocation() == null) {
-                throw new IOException("FXML file not found: " + fxmlFile);
-            }
+            ViewRegistry.View view = viewRegistry.get(fxmlFile);
             
-            Node view = loader.load();
-            
-            // Get the controller and pass the current user if it implements UserAware
-            Object controller = loader.getController();
+            // Pass the current user if the controller implements UserAware; it may have changed since the view was loaded
+            Object controller = view.getController();
             if (controller instanceof UserAware && currentUser != null) {
                 ((UserAware) controller).setUser(currentUser);
             }
             
-            // Clear content area and add the new view
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(view);
+            // Replace the content area with the view
+            contentArea.getChildren().setAll(view.getNode());
+            currentViewFile = fxmlFile;
         } catch (IOException e) {
             e.printStackTrace();
             showErrorAlert("Error loading view: " + fxmlFile + "\nError: " + e.getMessage());
@@ -303,6 +316,31 @@ public class MainController {
         }
     }
     
+    /**
+     * Reloads the data of the view on screen without re-creating it
+     */
+    @FXML
+    public void handleRefreshView(ActionEvent event) {
+        if (currentViewFile != null) {
+            viewRegistry.refresh(currentViewFile);
+        }
+    }
+    
+    /**
+     * Preloads the configured views in the background, skipping those the user's role cannot open.
+     * Called once the main window is on screen, so preloading does not delay its first frame.
+     */
+    public void preloadViews() {
+        List<String> accessible = new ArrayList<>();
+        for (String fxmlFile : viewRegistry.getPreloadFiles()) {
+            Button button = navigationButtons.get(fxmlFile);
+            if (button != null && button.isVisible() && !button.isDisabled()) {
+                accessible.add(fxmlFile);
+            }
+        }
+        viewRegistry.preload(accessible);
+    }
+    
     /**
      * Shows the Rooms view
      */
@@ -335,23 +373,7 @@ public class MainController {
     @FXML
     public void showStaff(ActionEvent event) {
         setActiveButton(staffBtn);
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/hotel/fxml/StaffTab.fxml"));
-            Node view = loader.load();
-            
-            // Get the controller and pass the current user
-            StaffController controller = loader.getController();
-            if (controller != null && currentUser != null) {
-                controller.setUser(currentUser);
-            }
-            
-            // Clear content area and add the new view
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(view);
-        } catch (IOException e) {
-            e.printStackTrace();
-            showErrorAlert("Error loading Staff view: " + e.getMessage());
-        }
+        loadView("StaffTab.fxml");
     }
     
 
@@ -438,22 +460,45 @@ public class MainController {
             // Set the dialog and current user in the controller
             controller.setDialog(dialog);
             
-            // Get current user details
+            // Get current user details in the background, then show the dialog
             System.out.println("Fetching user details for ID: " + loggedInUserId);
-            Optional<User> userOpt = userDAO.getUserWithStaffDetails(loggedInUserId);
-            if (userOpt.isPresent()) {
-                System.out.println("User found: " + userOpt.get().getUsername());
-                controller.setUser(userOpt.get());
-                
-                // Show the dialog and handle the result
-                System.out.println("Showing dialog...");
-                Optional<ButtonType> result = dialog.showAndWait();
-                System.out.println("Dialog closed with result: " + (result.isPresent() ? result.get() : "empty"));
-                
-                if (result.isPresent() && result.get() == ButtonType.OK) {
-                    if (controller.handleSave()) {
-                        // Get the updated user information
-                        Optional<User> updatedUserOpt = userDAO.getUserWithStaffDetails(loggedInUserId);
+            int userId = loggedInUserId;
+            profileLoads.submit(userId, () -> userDAO.getUserWithStaffDetails(userId),
+                    userOpt -> showEditProfileDialog(dialog, controller, userId, userOpt), e -> {
+                        System.err.println("Error loading user details: " + e.getMessage());
+                        showError("Could not load user details: " + e.getMessage());
+                    });
+        } catch (IOException e) {
+            System.err.println("IO Error loading dialog: " + e.getMessage());
+            e.printStackTrace();
+            showError("Error loading dialog: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            e.printStackTrace();
+            showError("An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    private void showEditProfileDialog(Dialog<ButtonType> dialog, EditProfileController controller, int userId,
+                                       Optional<User> userOpt) {
+        if (!userOpt.isPresent()) {
+            String errorMsg = "Could not load user details for ID: " + userId;
+            System.err.println(errorMsg);
+            showError(errorMsg);
+            return;
+        }
+        System.out.println("User found: " + userOpt.get().getUsername());
+        controller.setUser(userOpt.get());
+        
+        // Show the dialog and handle the result
+        System.out.println("Showing dialog...");
+        Optional<ButtonType> result = dialog.showAndWait();
+        System.out.println("Dialog closed with result: " + (result.isPresent() ? result.get() : "empty"));
+        
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            // The save evicted the cached user, so the updated details are read in the background too
+            boolean saving = controller.handleSave(() -> profileLoads.submit(userId,
+                    () -> userDAO.getUserWithStaffDetails(userId), updatedUserOpt -> {
                         if (updatedUserOpt.isPresent()) {
                             // Update the UI with the latest user information
                             updateUserInfo(updatedUserOpt.get());
@@ -464,23 +509,10 @@ public class MainController {
                         } else {
                             System.err.println("Failed to fetch updated user details");
                         }
-                    } else {
-                        System.err.println("Failed to save user changes");
-                    }
-                }
-            } else {
-                String errorMsg = "Could not load user details for ID: " + loggedInUserId;
-                System.err.println(errorMsg);
-                showError(errorMsg);
+                    }, e -> System.err.println("Failed to fetch updated user details: " + e.getMessage())));
+            if (!saving) {
+                System.err.println("Failed to save user changes");
             }
-        } catch (IOException e) {
-            System.err.println("IO Error loading dialog: " + e.getMessage());
-            e.printStackTrace();
-            showError("Error loading dialog: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Unexpected error: " + e.getMessage());
-            e.printStackTrace();
-            showError("An unexpected error occurred: " + e.getMessage());
         }
     }
 
@@ -608,6 +640,10 @@ public class MainController {
     @FXML
     public void handleLogout(ActionEvent event) {
         try {
+            // Drop this session's views and their controllers
+            viewRegistry.clear();
+            
+
             // Load the login view
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/hotel/fxml/LoginView.fxml"));
             Parent loginView = loader.load();
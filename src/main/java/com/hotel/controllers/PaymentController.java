@@ -6,7 +6,15 @@ import com.hotel.model.Invoice;
 import com.hotel.model.Payment;
 import com.hotel.model.User;
 import com.hotel.util.AlertUtil;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.ExportOptions;
+import com.hotel.util.PaymentExcelExport;
+import com.hotel.util.PdfBatchExport;
+import com.hotel.util.PdfDocuments;
 import com.hotel.util.RoleBasedAccessControl;
+import com.hotel.util.TaskProgressDialog;
+import com.hotel.util.DaoMetrics;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -14,38 +22,33 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import javafx.stage.Window;
 import javafx.util.StringConverter;
 
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Date;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
-public class PaymentController implements Initializable, UserAware {
+public class PaymentController implements Initializable, UserAware, Refreshable {
     private User currentUser;
 
     // DAO
-    private final PaymentDAO paymentDAO = new PaymentDAOImpl();
+    private final PaymentDAO paymentDAO = DaoMetrics.instrument(PaymentDAO.class, new PaymentDAOImpl());
+    // payments.table.limit; the table shows the newest payments only
+    private static final int PAYMENT_TABLE_LIMIT =
+        Math.max(1, DatabaseConfig.load().getInt("payments.table.limit", 1000));
+    private final BackgroundLoader.Channel<List<Invoice>> invoiceLoads = BackgroundLoader.getInstance().channel("payment-invoices");
+    private final BackgroundLoader.Channel<List<Payment>> paymentLoads = BackgroundLoader.getInstance().channel("payments");
+    private final BackgroundLoader.Channel<Payment> paymentSaves = BackgroundLoader.getInstance().channel("payment-save");
     
     // Form fields
     @FXML private ComboBox<Invoice> invoiceComboBox;
@@ -77,11 +80,16 @@ public class PaymentController implements Initializable, UserAware {
     // Export buttons
     @FXML private Button exportToExcelButton;
     @FXML private Button generateReceiptButton;
+    @FXML private Button batchReceiptsButton;
     
     // Data
     private ObservableList<Payment> payments = FXCollections.observableArrayList();
     private ObservableList<Invoice> invoices = FXCollections.observableArrayList();
     
+    // Exports in progress, if any
+    private PaymentExcelExport export;
+    private PdfBatchExport<Payment> receiptExport;
+    
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         initializePaymentMethodComboBox();
@@ -99,6 +107,12 @@ public class PaymentController implements Initializable, UserAware {
         // Initially disable all CRUD operations until we know the user's role
         disableCrudOperations(true);
     }
+
+    @Override
+    public void refresh() {
+        loadInvoices();
+        loadPayments();
+    }
     
     @Override
     public void setUser(User user) {
@@ -115,6 +129,7 @@ public class PaymentController implements Initializable, UserAware {
         if (clearButton != null) clearButton.setDisable(disable);
         if (exportToExcelButton != null) exportToExcelButton.setDisable(disable);
         if (generateReceiptButton != null) generateReceiptButton.setDisable(disable);
+        if (batchReceiptsButton != null) batchReceiptsButton.setDisable(disable);
         
         // Disable/enable input fields
         if (paymentDatePicker != null) paymentDatePicker.setDisable(disable);
@@ -275,8 +290,7 @@ public class PaymentController implements Initializable, UserAware {
     }
     
     private void loadInvoices() {
-        try {
-            List<Invoice> invoiceList = paymentDAO.getAllInvoices();
+        invoiceLoads.submit("all", paymentDAO::getAllInvoices, invoiceList -> {
             invoices.clear();
             invoices.addAll(invoiceList);
             invoiceComboBox.setItems(invoices);
@@ -284,72 +298,75 @@ public class PaymentController implements Initializable, UserAware {
             if (!invoices.isEmpty()) {
                 invoiceComboBox.getSelectionModel().selectFirst();
             }
-        } catch (SQLException e) {
-            AlertUtil.showErrorAlert("Database Error", "Failed to load invoices", e.getMessage());
-        }
+        }, e -> AlertUtil.showErrorAlert("Database Error", "Failed to load invoices", e.getMessage()));
     }
     
     private void loadPayments() {
-        try {
-            List<Payment> paymentList = paymentDAO.getAllPayments();
+        paymentLoads.submit(PAYMENT_TABLE_LIMIT, () -> paymentDAO.getRecentPayments(PAYMENT_TABLE_LIMIT), paymentList -> {
             payments.clear();
             payments.addAll(paymentList);
-        } catch (SQLException e) {
-            AlertUtil.showErrorAlert("Database Error", "Failed to load payments", e.getMessage());
-        }
+        }, e -> AlertUtil.showErrorAlert("Database Error", "Failed to load payments", e.getMessage()));
     }
     
     @FXML
     private void handleRecordPayment() {
+        if (paymentSaves.isLoading()) {
+            // Submitting again would cancel the payment being recorded
+            AlertUtil.showWarningAlert("Payment Pending", "Still Recording a Payment",
+                    "Please wait for the previous payment to be recorded.");
+            return;
+        }
+        
+        // Validate input
+        Invoice selectedInvoice = invoiceComboBox.getValue();
+        if (selectedInvoice == null) {
+            AlertUtil.showWarningAlert("Validation Error", "No Invoice Selected", "Please select an invoice for this payment.");
+            return;
+        }
+        
+        if (paymentDatePicker.getValue() == null) {
+            AlertUtil.showWarningAlert("Validation Error", "No Date Selected", "Please select a payment date.");
+            return;
+        }
+        
+        String amountText = amountField.getText().trim();
+        if (amountText.isEmpty()) {
+            AlertUtil.showWarningAlert("Validation Error", "Amount Required", "Please enter a payment amount.");
+            return;
+        }
+        
+        BigDecimal amount;
         try {
-            // Validate input
-            Invoice selectedInvoice = invoiceComboBox.getValue();
-            if (selectedInvoice == null) {
-                AlertUtil.showWarningAlert("Validation Error", "No Invoice Selected", "Please select an invoice for this payment.");
-                return;
-            }
-            
-            if (paymentDatePicker.getValue() == null) {
-                AlertUtil.showWarningAlert("Validation Error", "No Date Selected", "Please select a payment date.");
-                return;
-            }
-            
-            String amountText = amountField.getText().trim();
-            if (amountText.isEmpty()) {
-                AlertUtil.showWarningAlert("Validation Error", "Amount Required", "Please enter a payment amount.");
-                return;
-            }
-            
-            BigDecimal amount;
-            try {
-                amount = new BigDecimal(amountText);
-                if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                    AlertUtil.showWarningAlert("Validation Error", "Invalid Amount", "Payment amount must be greater than zero.");
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                AlertUtil.showWarningAlert("Validation Error", "Invalid Amount", "Please enter a valid number for the amount.");
-                return;
-            }
-            
-            String paymentMethod = paymentMethodComboBox.getValue();
-            if (paymentMethod == null || paymentMethod.isEmpty()) {
-                AlertUtil.showWarningAlert("Validation Error", "Payment Method Required", "Please select a payment method.");
+            amount = new BigDecimal(amountText);
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                AlertUtil.showWarningAlert("Validation Error", "Invalid Amount", "Payment amount must be greater than zero.");
                 return;
             }
-            
-            // Create payment object
-            Payment payment = new Payment();
-            payment.setInvoiceId(selectedInvoice.getInvoiceId());
-            payment.setPaymentDate(Date.valueOf(paymentDatePicker.getValue()));
-            payment.setAmount(amount);
-            payment.setPaymentMethod(paymentMethod);
-            payment.setTransactionId(transactionIdField.getText().trim());
-            payment.setNotes(notesArea.getText().trim());
-            
-            // Save to database
+        } catch (NumberFormatException e) {
+            AlertUtil.showWarningAlert("Validation Error", "Invalid Amount", "Please enter a valid number for the amount.");
+            return;
+        }
+        
+        String paymentMethod = paymentMethodComboBox.getValue();
+        if (paymentMethod == null || paymentMethod.isEmpty()) {
+            AlertUtil.showWarningAlert("Validation Error", "Payment Method Required", "Please select a payment method.");
+            return;
+        }
+        
+        // Create payment object
+        Payment payment = new Payment();
+        payment.setInvoiceId(selectedInvoice.getInvoiceId());
+        payment.setPaymentDate(Date.valueOf(paymentDatePicker.getValue()));
+        payment.setAmount(amount);
+        payment.setPaymentMethod(paymentMethod);
+        payment.setTransactionId(transactionIdField.getText().trim());
+        payment.setNotes(notesArea.getText().trim());
+        
+        // Save to database
+        paymentSaves.submit(payment, () -> {
             paymentDAO.addPayment(payment);
-            
+            return payment;
+        }, saved -> {
             // Show success message
             AlertUtil.showInformationAlert("Success", "Payment Recorded", 
                     "Payment has been successfully recorded.\nInvoice status will be updated automatically.");
@@ -360,10 +377,7 @@ public class PaymentController implements Initializable, UserAware {
             
             // Clear form
             handleClearFields();
-            
-        } catch (SQLException e) {
-            AlertUtil.showErrorAlert("Database Error", "Failed to record payment", e.getMessage());
-        }
+        }, e -> AlertUtil.showErrorAlert("Database Error", "Failed to record payment", e.getMessage()));
     }
     
     @FXML
@@ -382,9 +396,16 @@ public class PaymentController implements Initializable, UserAware {
     
     @FXML
     private void handleExportToExcel() {
-        if (payments.isEmpty()) {
-            AlertUtil.showWarningAlert("No Data", "No Payments to Export", 
-                    "There are no payment records to export to Excel.");
+        if (export != null && export.isRunning()) {
+            AlertUtil.showWarningAlert("Export Running", "An Export Is Already Running",
+                    "Please wait for the current export to finish or cancel it.");
+            return;
+        }
+        
+        // The export reads the payments from the database, not from the table
+        Optional<ExportOptions> options = ExportOptions.showDialog(
+                paymentTable.getScene().getWindow(), "Export Payments", false);
+        if (!options.isPresent()) {
             return;
         }
         
@@ -395,77 +416,76 @@ public class PaymentController implements Initializable, UserAware {
         fileChooser.setInitialFileName("Payment_Records.xlsx");
         
         File file = fileChooser.showSaveDialog(paymentTable.getScene().getWindow());
-        if (file != null) {
-            try {
-                generateExcel(file);
-                AlertUtil.showInformationAlert("Success", "Excel File Generated", 
-                        "Payment records have been exported to Excel successfully.");
-            } catch (IOException e) {
-                AlertUtil.showErrorAlert("Export Error", "Failed to generate Excel file", e.getMessage());
-            }
+        if (file == null) {
+            return;
         }
+        
+        PaymentExcelExport task = new PaymentExcelExport(paymentDAO, file, options.get().getFromDate(),
+                options.get().getToDate(), options.get().getInvoiceStatus());
+        task.setOnSucceeded(e -> {
+            if (task.getValue() == 0) {
+                AlertUtil.showWarningAlert("No Data", "No Payments to Export",
+                        "There are no payment records matching the selected filters.");
+            } else {
+                AlertUtil.showInformationAlert("Success", "Excel File Generated",
+                        String.format("%,d payment records have been exported to Excel successfully.", task.getValue()));
+            }
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Payment export failed: " + task.getException());
+            AlertUtil.showErrorAlert("Export Error", "Failed to generate Excel file", task.getException().getMessage());
+        });
+        export = task;
+        TaskProgressDialog.run(paymentTable.getScene().getWindow(), "Exporting Payments", task, "payment-export");
     }
     
-    private void generateExcel(File file) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Payment Records");
-            
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {
-                "Payment ID", "Invoice ID", "Customer", "Room", "Payment Date", 
-                "Amount", "Method", "Transaction ID", "Notes", "Invoice Status"
-            };
-            
-            // Create header cell style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            // Add headers
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Create data rows
-            int rowNum = 1;
-            for (Payment payment : payments) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(payment.getPaymentId());
-                row.createCell(1).setCellValue(payment.getInvoiceId());
-                row.createCell(2).setCellValue(payment.getCustomerName());
-                row.createCell(3).setCellValue(payment.getRoomNumber());
-                
-                org.apache.poi.ss.usermodel.Cell dateCell = row.createCell(4);
-                if (payment.getPaymentDate() != null) {
-                    dateCell.setCellValue(payment.getPaymentDate().toString());
-                }
-                
-                org.apache.poi.ss.usermodel.Cell amountCell = row.createCell(5);
-                if (payment.getAmount() != null) {
-                    amountCell.setCellValue(payment.getAmount().doubleValue());
-                }
-                
-                row.createCell(6).setCellValue(payment.getPaymentMethod());
-                row.createCell(7).setCellValue(payment.getTransactionId());
-                row.createCell(8).setCellValue(payment.getNotes());
-                row.createCell(9).setCellValue(payment.getInvoiceStatus());
-            }
-            
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Write to file
-            try (FileOutputStream outputStream = new FileOutputStream(file)) {
-                workbook.write(outputStream);
-            }
+    @FXML
+    private void handleBatchReceipts() {
+        if (receiptExport != null && receiptExport.isRunning()) {
+            AlertUtil.showWarningAlert("Export Running", "An Export Is Already Running",
+                    "Please wait for the current export to finish or cancel it.");
+            return;
+        }
+        
+        Window window = paymentTable.getScene().getWindow();
+        Optional<ExportOptions> options = ExportOptions.showDialog(window, "Export Receipts to PDF", true);
+        if (!options.isPresent()) {
+            return;
+        }
+        
+        File target;
+        if (options.get().isMerged()) {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save Merged Receipt PDF");
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+            fileChooser.setInitialFileName("Receipts.pdf");
+            target = fileChooser.showSaveDialog(window);
+        } else {
+            DirectoryChooser directoryChooser = new DirectoryChooser();
+            directoryChooser.setTitle("Choose Folder for Receipt PDFs");
+            target = directoryChooser.showDialog(window);
         }
+        if (target == null) {
+            return;
+        }
+        
+        PdfBatchExport<Payment> task = PdfBatchExport.receipts(paymentDAO, options.get(), target);
+        task.setOnSucceeded(e -> {
+            PdfBatchExport.Result result = task.getValue();
+            if (result.getDocuments() == 0) {
+                AlertUtil.showWarningAlert("No Data", "No Payments to Export",
+                        "There are no payment records matching the selected filters.");
+            } else {
+                AlertUtil.showInformationAlert("Success", "Receipts Generated", result.toString());
+            }
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Receipt batch export failed: " + task.getException());
+            AlertUtil.showErrorAlert("Export Error", "Failed to generate receipts", task.getException().getMessage());
+        });
+        receiptExport = task;
+        TaskProgressDialog.run(window, "Generating Receipts", task, "receipt-batch-export");
     }
     
     @FXML
@@ -489,7 +509,7 @@ public class PaymentController implements Initializable, UserAware {
             
             File file = fileChooser.showSaveDialog(paymentTable.getScene().getWindow());
             if (file != null) {
-                generatePdf(file, selectedPayment);
+                PdfDocuments.save(PdfDocuments.receipt(selectedPayment), file);
                 AlertUtil.showInformationAlert("Success", "PDF Generated", 
                         "Receipt has been generated successfully.");
             }
@@ -498,190 +518,4 @@ public class PaymentController implements Initializable, UserAware {
             AlertUtil.showErrorAlert("Error", "Failed to generate PDF", e.getMessage());
         }
     }
-    
-    private void generatePdf(File file, Payment payment) throws IOException {
-        PDDocument document = new PDDocument();
-        try {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-            
-            PDPageContentStream contentStream = new PDPageContentStream(document, page);
-            try {
-                float margin = 50;
-                float yStart = page.getMediaBox().getHeight() - margin;
-                float yPosition = yStart;
-                int fontSize = 12;
-                
-                // Header
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 18);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("HOTEL MANAGEMENT SYSTEM");
-                contentStream.endText();
-                
-                yPosition -= 25;
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("PAYMENT RECEIPT");
-                contentStream.endText();
-                
-                yPosition -= 30;
-                
-                // Draw line after header
-                contentStream.moveTo(margin, yPosition);
-                contentStream.lineTo(page.getMediaBox().getWidth() - margin, yPosition);
-                contentStream.stroke();
-                
-                yPosition -= 20;
-                
-                // Payment Information Section
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("PAYMENT DETAILS");
-                contentStream.endText();
-                yPosition -= 20;
-                
-                addLabelValue(contentStream, "Payment ID:", String.valueOf(payment.getPaymentId()), margin, yPosition);
-                yPosition -= 20;
-                
-                addLabelValue(contentStream, "Invoice ID:", String.valueOf(payment.getInvoiceId()), margin, yPosition);
-                yPosition -= 20;
-                
-                addLabelValue(contentStream, "Date:", formatDate(payment.getPaymentDate()), margin, yPosition);
-                yPosition -= 20;
-                
-                addLabelValue(contentStream, "Amount:", formatCurrency(payment.getAmount()), margin, yPosition);
-                yPosition -= 20;
-                
-                String paymentMethod = payment.getPaymentMethod() != null ? payment.getPaymentMethod() : "N/A";
-                addLabelValue(contentStream, "Payment Method:", paymentMethod, margin, yPosition);
-                yPosition -= 20;
-                
-                if (payment.getTransactionId() != null && !payment.getTransactionId().isEmpty()) {
-                    addLabelValue(contentStream, "Transaction ID:", payment.getTransactionId(), margin, yPosition);
-                    yPosition -= 20;
-                }
-                
-                // Customer Information Section
-                yPosition -= 10;
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("CUSTOMER INFORMATION");
-                contentStream.endText();
-                yPosition -= 20;
-                
-                String customerName = payment.getCustomerName() != null ? payment.getCustomerName() : "N/A";
-                addLabelValue(contentStream, "Customer Name:", customerName, margin, yPosition);
-                yPosition -= 20;
-                
-                String roomNumber = payment.getRoomNumber() != null ? payment.getRoomNumber() : "N/A";
-                addLabelValue(contentStream, "Room Number:", roomNumber, margin, yPosition);
-                
-                // Invoice Status Section
-                yPosition -= 30;
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-                contentStream.newLineAtOffset(margin, yPosition);
-                contentStream.showText("INVOICE STATUS");
-                contentStream.endText();
-                yPosition -= 20;
-                
-                String invoiceStatus = payment.getInvoiceStatus() != null ? payment.getInvoiceStatus() : "N/A";
-                addLabelValue(contentStream, "Status:", invoiceStatus, margin, yPosition);
-                yPosition -= 20;
-                
-                if (payment.getInvoiceTotal() != null) {
-                    addLabelValue(contentStream, "Invoice Total:", formatCurrency(payment.getInvoiceTotal()), margin, yPosition);
-                    yPosition -= 20;
-                }
-                
-                if (payment.getPaidAmount() != null) {
-                    addLabelValue(contentStream, "Amount Paid:", formatCurrency(payment.getPaidAmount()), margin, yPosition);
-                    yPosition -= 20;
-                }
-                
-                if (payment.getBalanceDue() != null) {
-                    addLabelValue(contentStream, "Balance Due:", formatCurrency(payment.getBalanceDue()), margin, yPosition);
-                    yPosition -= 20;
-                }
-                
-                // Notes Section
-                if (payment.getNotes() != null && !payment.getNotes().trim().isEmpty()) {
-                    yPosition -= 10;
-                    contentStream.beginText();
-                    contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-                    contentStream.newLineAtOffset(margin, yPosition);
-                    contentStream.showText("NOTES");
-                    contentStream.endText();
-                    yPosition -= 20;
-                    
-                    contentStream.beginText();
-                    contentStream.setFont(PDType1Font.HELVETICA, fontSize);
-                    contentStream.newLineAtOffset(margin, yPosition);
-                    contentStream.showText(payment.getNotes());
-                    contentStream.endText();
-                }
-                
-                // Footer
-                yPosition = 100;
-                contentStream.moveTo(margin, yPosition);
-                contentStream.lineTo(page.getMediaBox().getWidth() - margin, yPosition);
-                contentStream.stroke();
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_OBLIQUE, 10);
-                contentStream.newLineAtOffset(margin, 70);
-                contentStream.showText("Thank you for your payment. This is an official receipt.");
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA_OBLIQUE, 10);
-                contentStream.newLineAtOffset(margin, 50);
-                contentStream.showText("Generated on: " + LocalDate.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
-                contentStream.endText();
-            } finally {
-                if (contentStream != null) {
-                    contentStream.close();
-                }
-            }
-            
-            document.save(file);
-        } finally {
-            if (document != null) {
-                document.close();
-            }
-        }
-    }
-    
-    private void addLabelValue(PDPageContentStream contentStream, String label, String value, float x, float y) throws IOException {
-        contentStream.beginText();
-        contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-        contentStream.newLineAtOffset(x, y);
-        contentStream.showText(label);
-        contentStream.endText();
-        
-        contentStream.beginText();
-        contentStream.setFont(PDType1Font.HELVETICA, 12);
-        contentStream.newLineAtOffset(x + 120, y);
-        contentStream.showText(value);
-        contentStream.endText();
-    }
-    
-    private String formatDate(Date date) {
-        if (date == null) {
-            return "N/A";
-        }
-        return date.toLocalDate().format(DateTimeFormatter.ofPattern("MM/dd/yyyy"));
-    }
-    
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) {
-            return "$0.00";
-        }
-        return String.format("$%.2f", amount);
-    }
 }
@@ -0,0 +1,15 @@
+package com.hotel.controllers;
+
+/**
+ * Interface for controllers of views that are kept between navigations.
+ * A cached view is not re-created when it is shown again; its data is
+ * reloaded through refresh instead.
+ */
+public interface Refreshable {
+
+    /**
+     * Reloads the data shown by the view, keeping its current page and filters.
+     * Called on the JavaFX Application Thread.
+     */
+    void refresh();
+}
@@ -1,7 +1,10 @@
 package com.hotel.controllers;
 
 import com.hotel.model.Room;
+import com.hotel.dao.RoomDAO;
 import com.hotel.dao.impl.RoomDAOImpl;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,14 +15,14 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.math.BigDecimal;
 import java.net.URL;
-import java.sql.SQLException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 // Unused imports removed
 
-public class RoomController implements Initializable {
+public class RoomController implements Initializable, Refreshable {
     @FXML private TableView<Room> roomTable;
     @FXML private TableColumn<Room, String> roomNumberColumn;
     @FXML private TableColumn<Room, String> typeColumn;
@@ -48,7 +51,10 @@ public class RoomController implements Initializable {
     @FXML private Button lastPageButton;
     @FXML private ComboBox<Integer> itemsPerPageCombo;
 
-    private RoomDAOImpl roomDAO;
+    private RoomDAO roomDAO;
+    private final BackgroundLoader.Channel<List<Room>> roomLoads = BackgroundLoader.getInstance().channel("rooms");
+    private final BackgroundLoader.Channel<Boolean> statusSaves =
+            BackgroundLoader.getInstance().channel("room-status-save");
     
     // Pagination
     private static final int ITEMS_PER_PAGE = 30;
@@ -67,7 +73,7 @@ public class RoomController implements Initializable {
     public void initialize(URL url, ResourceBundle rb) {
         try {
             // Initialize the DAO
-            roomDAO = new RoomDAOImpl();
+            roomDAO = DaoMetrics.instrument(RoomDAO.class, new RoomDAOImpl());
 
             // Initialize the status options
             statusComboBox.setItems(statusOptions);
@@ -130,6 +136,11 @@ public class RoomController implements Initializable {
         }
     }
 
+    @Override
+    public void refresh() {
+        loadRoomData();
+    }
+
     private void setupPaginationControls() {
         // Set up items per page combo box
         itemsPerPageCombo.getItems().addAll(10, 20, 30, 50, 100);
@@ -210,47 +221,50 @@ public class RoomController implements Initializable {
     }
     
     private void loadRoomData() {
-        try {
-            // Get all rooms from the database
-            List<Room> allRooms = roomDAO.findAll();
-            
-            // Apply filters
-            List<Room> filteredRooms = filterRooms(allRooms);
-            
-            // Update total items and pages
-            totalItems = filteredRooms.size();
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPageCombo.getValue());
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPageCombo.getValue();
-            int toIndex = Math.min(fromIndex + itemsPerPageCombo.getValue(), filteredRooms.size());
-            
-            // Get the sublist for the current page
-            List<Room> pagedRooms = filteredRooms.subList(
-                Math.min(fromIndex, filteredRooms.size()),
-                Math.min(toIndex, filteredRooms.size())
-            );
-            
-            // Update the table with paginated data
-            roomTable.setItems(FXCollections.observableArrayList(pagedRooms));
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-            // Update status label
-            updateStatusLabel();
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showError("Error loading room data: " + e.getMessage());
+        // Read the filters here; the query and filtering run in the background
+        String searchText = searchField.getText().toLowerCase();
+        String typeFilter = filterTypeComboBox.getValue();
+        String statusFilter = filterStatusComboBox.getValue();
+        
+        roomLoads.submit(Arrays.asList(searchText, typeFilter, statusFilter),
+            () -> filterRooms(roomDAO.findAll(), searchText, typeFilter, statusFilter),
+            this::showRoomPage,
+            e -> {
+                e.printStackTrace();
+                showError("Error loading room data: " + e.getMessage());
+            });
+    }
+
+    private void showRoomPage(List<Room> filteredRooms) {
+        // Update total items and pages
+        totalItems = filteredRooms.size();
+        totalPages = (int) Math.ceil((double) totalItems / itemsPerPageCombo.getValue());
+        
+        // Ensure current page is within bounds
+        if (currentPage > totalPages && totalPages > 0) {
+            currentPage = totalPages;
+        } else if (currentPage < 1) {
+            currentPage = 1;
         }
+        
+        // Calculate pagination
+        int fromIndex = (currentPage - 1) * itemsPerPageCombo.getValue();
+        int toIndex = Math.min(fromIndex + itemsPerPageCombo.getValue(), filteredRooms.size());
+        
+        // Get the sublist for the current page
+        List<Room> pagedRooms = filteredRooms.subList(
+            Math.min(fromIndex, filteredRooms.size()),
+            Math.min(toIndex, filteredRooms.size())
+        );
+        
+        // Update the table with paginated data
+        roomTable.setItems(FXCollections.observableArrayList(pagedRooms));
+        
+        // Update pagination controls
+        updatePaginationControls();
+        
+        // Update status label
+        updateStatusLabel();
     }
 
     private void showRoomDetails(Room room) {
@@ -285,16 +299,22 @@ public class RoomController implements Initializable {
             return;
         }
 
-        try {
-            if (roomDAO.updateRoomStatus(selectedRoom.getRoomNumber(), newStatus)) {
+        if (statusSaves.isLoading()) {
+            // Another submit would cancel the update in flight
+            showError("Still saving the previous status, please wait");
+            return;
+        }
+
+        String roomNumber = selectedRoom.getRoomNumber();
+        statusSaves.submit(roomNumber, () -> roomDAO.updateRoomStatus(roomNumber, newStatus), updated -> {
+            if (updated) {
+                roomLoads.cancel(); // A load already in flight may predate the update
                 loadRoomData(); // Refresh the table
                 showSuccess("Room status updated successfully");
             } else {
                 showError("Failed to update room status");
             }
-        } catch (SQLException e) {
-            showError("Error updating room status: " + e.getMessage());
-        }
+        }, e -> showError("Error updating room status: " + e.getMessage()));
     }
 
     private void showError(String message) {
@@ -321,11 +341,8 @@ public class RoomController implements Initializable {
         loadRoomData();
     }
 
-    private List<Room> filterRooms(List<Room> rooms) {
-        String searchText = searchField.getText().toLowerCase();
-        String typeFilter = filterTypeComboBox.getValue();
-        String statusFilter = filterStatusComboBox.getValue();
-        
+    // Package-private for the filter benchmarks
+    static List<Room> filterRooms(List<Room> rooms, String searchText, String typeFilter, String statusFilter) {
         if (searchText.isEmpty() && typeFilter == null && statusFilter == null) {
             return rooms;
         }
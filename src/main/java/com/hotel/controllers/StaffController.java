@@ -2,7 +2,10 @@ package com.hotel.controllers;
 
 import com.hotel.model.Staff;
 import com.hotel.model.User;
+import com.hotel.dao.StaffDAO;
 import com.hotel.dao.impl.StaffDAOImpl;
+import com.hotel.util.BackgroundLoader;
+import com.hotel.util.DaoMetrics;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,13 +15,14 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
-public class StaffController implements Initializable {
+public class StaffController implements Initializable, Refreshable, UserAware {
     @FXML private TableView<Staff> staffTable;
     @FXML private TableColumn<Staff, Integer> colUserId;
     @FXML private TableColumn<Staff, String> colFirstName;
@@ -51,13 +55,19 @@ public class StaffController implements Initializable {
     @FXML private Label pageInfoLabel;
     @FXML private Label statusLabel;
 
-    private StaffDAOImpl staffDAO;
+    private StaffDAO staffDAO;
     private ObservableList<Staff> staffList;
+    // Every staff member as last loaded; paging and filtering work on this list
+    private List<Staff> allStaff = Collections.emptyList();
+    private final BackgroundLoader.Channel<List<Staff>> staffLoads = BackgroundLoader.getInstance().channel("staff");
+    // A click while a save is running is refused; a new submit would cancel it
+    private final BackgroundLoader.Channel<Boolean> saves = BackgroundLoader.getInstance().channel("staff-save");
     
     /**
      * Sets the current user and updates UI elements accordingly
      * @param user The logged-in user
      */
+    @Override
     public void setUser(User user) {
         this.currentUser = user;
         
@@ -77,7 +87,7 @@ public class StaffController implements Initializable {
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        staffDAO = new StaffDAOImpl();
+        staffDAO = DaoMetrics.instrument(StaffDAO.class, new StaffDAOImpl());
 
         // Initialize position combo boxes
         positionComboBox.setItems(positions);
@@ -96,6 +106,11 @@ public class StaffController implements Initializable {
         positionComboBox.setDisable(true);
     }
 
+    @Override
+    public void refresh() {
+        loadStaffData();
+    }
+
     private void setupTableColumns() {
         // Initialize table columns
         colUserId.setCellValueFactory(new PropertyValueFactory<>("userId"));
@@ -117,26 +132,18 @@ public class StaffController implements Initializable {
 
     @FXML
     private void handleAddStaff() {
-        if (!validateInputFields()) {
+        if (!validateInputFields() || isSaving()) {
             return;
         }
 
+        Staff staff = new Staff();
         try {
-            Staff staff = new Staff();
             populateStaffFromFields(staff);
-
-            if (staffDAO.addStaff(staff)) {
-                loadStaffData();
-                clearFields();
-                showSuccess("Staff member added successfully");
-            } else {
-                showError("Failed to add staff member");
-            }
-        } catch (SQLException e) {
-            showError("Database error: " + e.getMessage());
         } catch (NumberFormatException e) {
             showError("Please enter valid numbers for User ID and Salary");
+            return;
         }
+        save(staff, () -> staffDAO.addStaff(staff), "Staff member added successfully", "Failed to add staff member");
     }
 
     @FXML
@@ -147,7 +154,7 @@ public class StaffController implements Initializable {
             return;
         }
 
-        if (!validateInputFields()) {
+        if (!validateInputFields() || isSaving()) {
             return;
         }
 
@@ -166,19 +173,12 @@ public class StaffController implements Initializable {
             }
 
             populateStaffFromFields(selectedStaff);
-
-            if (staffDAO.updateStaff(selectedStaff)) {
-                loadStaffData();
-                clearFields();
-                showSuccess("Staff member updated successfully");
-            } else {
-                showError("Failed to update staff member");
-            }
-        } catch (SQLException e) {
-            showError("Database error: " + e.getMessage());
         } catch (NumberFormatException e) {
             showError("Please enter valid numbers for User ID and Salary");
+            return;
         }
+        save(selectedStaff, () -> staffDAO.updateStaff(selectedStaff),
+                "Staff member updated successfully", "Failed to update staff member");
     }
 
     @FXML
@@ -188,6 +188,9 @@ public class StaffController implements Initializable {
             showError("Please select a staff member to delete");
             return;
         }
+        if (isSaving()) {
+            return;
+        }
 
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Staff");
@@ -195,76 +198,93 @@ public class StaffController implements Initializable {
         alert.setContentText("Are you sure you want to delete this staff member?");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            try {
-                if (staffDAO.deleteStaff(selectedStaff.getUserId())) {
-                    loadStaffData();
-                    clearFields();
-                    showSuccess("Staff member deleted successfully");
-                } else {
-                    showError("Failed to delete staff member");
-                }
-            } catch (SQLException e) {
-                showError("Database error: " + e.getMessage());
-            }
+            int userId = selectedStaff.getUserId();
+            save(userId, () -> staffDAO.deleteStaff(userId),
+                    "Staff member deleted successfully", "Failed to delete staff member");
         }
     }
 
+    private boolean isSaving() {
+        if (saves.isLoading()) {
+            showError("Still saving the previous change, please wait");
+            return true;
+        }
+        return false;
+    }
+
+    // Runs the write in the background, then reloads the table
+    private void save(Object request, Callable<Boolean> write, String successMessage, String failureMessage) {
+        saves.submit(request, write, saved -> {
+            if (saved) {
+                loadStaffData();
+                clearFields();
+                showSuccess(successMessage);
+            } else {
+                showError(failureMessage);
+            }
+        }, e -> showError("Database error: " + e.getMessage()));
+    }
+
     @FXML
     private void handleClearFields() {
         clearFields();
     }
 
     private void loadStaffData() {
-        try {
-            // Get all staff from the database
-            List<Staff> allStaff = staffDAO.findAll();
-            
-            // Apply filters to get filtered list
-            List<Staff> filteredStaff = filterStaff(allStaff);
-            
-            // Update total items and pages
-            totalItems = filteredStaff.size();
-            int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
-                itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
-            totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
-            
-            // Update position combo box state based on user role
-            boolean isManager = currentUser != null && "manager".equalsIgnoreCase(currentUser.getRole());
-            positionComboBox.setDisable(!isManager);
-            
-            // Ensure current page is within bounds
-            if (currentPage > totalPages && totalPages > 0) {
-                currentPage = totalPages;
-            } else if (currentPage < 1) {
-                currentPage = 1;
-            }
-            
-            // Calculate pagination
-            int fromIndex = (currentPage - 1) * itemsPerPage;
-            int toIndex = Math.min(fromIndex + itemsPerPage, totalItems);
-            
-            // Get sublist for current page
-            List<Staff> pagedStaff = filteredStaff.subList(fromIndex, toIndex);
-            
-            // Update the table
-            staffList = FXCollections.observableArrayList(pagedStaff);
-            staffTable.setItems(staffList);
-            
-            // Update pagination controls
-            updatePaginationControls();
-            
-            System.out.println(String.format("Showing items from index %d to %d", fromIndex, toIndex));
-            
-        } catch (SQLException e) {
+        staffLoads.submit("all", staffDAO::findAll, staff -> {
+            allStaff = staff;
+            showStaffPage();
+        }, e -> {
             showError("Error loading staff data: " + e.getMessage());
             e.printStackTrace();
+        });
+    }
+
+    // Shows the current page of the loaded staff, filtered; runs no query
+    private void showStaffPage() {
+        // Apply filters to get filtered list
+        List<Staff> filteredStaff = filterStaff(allStaff);
+        
+        // Update total items and pages
+        totalItems = filteredStaff.size();
+        int itemsPerPage = itemsPerPageCombo.getValue() != null ? 
+            itemsPerPageCombo.getValue() : ITEMS_PER_PAGE;
+        totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
+        
+        // Update position combo box state based on user role
+        boolean isManager = currentUser != null && "manager".equalsIgnoreCase(currentUser.getRole());
+        positionComboBox.setDisable(!isManager);
+        
+        // Ensure current page is within bounds
+        if (currentPage > totalPages && totalPages > 0) {
+            currentPage = totalPages;
+        } else if (currentPage < 1) {
+            currentPage = 1;
         }
+        
+        // Calculate pagination
+        int fromIndex = (currentPage - 1) * itemsPerPage;
+        int toIndex = Math.min(fromIndex + itemsPerPage, totalItems);
+        
+        // Get sublist for current page
+        List<Staff> pagedStaff = filteredStaff.subList(fromIndex, toIndex);
+        
+        // Update the table
+        staffList = FXCollections.observableArrayList(pagedStaff);
+        staffTable.setItems(staffList);
+        
+        // Update pagination controls
+        updatePaginationControls();
+        
+        System.out.println(String.format("Showing items from index %d to %d", fromIndex, toIndex));
     }
     
     private List<Staff> filterStaff(List<Staff> staff) {
-        String searchTerm = searchField.getText().toLowerCase();
-        String positionFilter = filterPositionComboBox.getValue();
-        
+        return filterStaff(staff, searchField.getText().toLowerCase(), filterPositionComboBox.getValue());
+    }
+
+    // Package-private for the filter benchmarks
+    static List<Staff> filterStaff(List<Staff> staff, String searchTerm, String positionFilter) {
         return staff.stream()
             .filter(s -> 
                 searchTerm.isEmpty() || 
@@ -288,7 +308,7 @@ public class StaffController implements Initializable {
         itemsPerPageCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
             if (newValue != null && !newValue.equals(oldValue)) {
                 currentPage = 1; // Reset to first page when changing page size
-                loadStaffData();
+                showStaffPage();
             }
         });
         
@@ -306,7 +326,7 @@ public class StaffController implements Initializable {
     private void handleFirstPage() {
         if (currentPage != 1 && totalPages > 0) {
             currentPage = 1;
-            loadStaffData();
+            showStaffPage();
         }
     }
 
@@ -314,7 +334,7 @@ public class StaffController implements Initializable {
     private void handlePrevPage() {
         if (currentPage > 1) {
             currentPage--;
-            loadStaffData();
+            showStaffPage();
         }
     }
 
@@ -322,7 +342,7 @@ public class StaffController implements Initializable {
     private void handleNextPage() {
         if (currentPage < totalPages) {
             currentPage++;
-            loadStaffData();
+            showStaffPage();
         }
     }
 
@@ -330,7 +350,7 @@ public class StaffController implements Initializable {
     private void handleLastPage() {
         if (currentPage != totalPages && totalPages > 0) {
             currentPage = totalPages;
-            loadStaffData();
+            showStaffPage();
         }
     }
     
@@ -441,7 +461,7 @@ public class StaffController implements Initializable {
         searchField.clear();
         filterPositionComboBox.getSelectionModel().clearSelection();
         currentPage = 1; // Reset to first page when clearing filters
-        loadStaffData();
+        showStaffPage();
     }
 
     @FXML
@@ -453,6 +473,6 @@ public class StaffController implements Initializable {
     @FXML
     private void handleSearch() {
         currentPage = 1; // Reset to first page when searching
-        loadStaffData();
+        showStaffPage();
     }
 }
@@ -0,0 +1,239 @@
+package com.hotel.controllers;
+
+import com.hotel.util.DatabaseConfig;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tab views of the main window, each loaded from its FXML file once and
+ * kept for the rest of the session.
+ *
+ * A view is parsed and its controller initialized the first time it is asked
+ * for; after that get returns the same Node and controller, so switching tabs
+ * does not re-run initialize() and its queries. A view the user has been on
+ * keeps its page, filters and selection until they refresh it explicitly
+ * through refresh, which calls its controller's Refreshable.refresh. Only a
+ * preloaded view that is shown for the first time more than
+ * views.refreshAfterSeconds after it was loaded is refreshed on its own, as
+ * nobody has worked in it yet.
+ *
+ * preload loads views on a background thread ahead of their first use, one
+ * after the other. Scene graphs may be built off the FX thread as long as they
+ * are not attached to a scene; the view is handed to the FX thread by get. A
+ * view asked for while it is still preloading is waited for; one whose preload
+ * failed, for example because its controller shows an alert, is loaded again
+ * on the FX thread when it is first shown.
+ *
+ * Each main window has its own registry, so views and their controllers are
+ * dropped with it on logout.
+ *
+ * Configuration (application.properties):
+ *   views.cache.enabled        - keep loaded views; false re-creates them on every navigation (default true)
+ *   views.preload              - comma separated FXML files to preload after login (default none)
+ *   views.refreshAfterSeconds  - refresh a preloaded view first shown after this long; 0 never (default 120)
+ */
+public final class ViewRegistry {
+
+    private static final String FXML_DIRECTORY = "/com/hotel/fxml/";
+
+    private final boolean enabled;
+    private final long refreshAfterNanos;
+    private final List<String> preloadFiles;
+    private final ConcurrentHashMap<String, FutureTask<View>> views = new ConcurrentHashMap<>();
+    private ExecutorService preloader;
+
+    public ViewRegistry(DatabaseConfig config) {
+        this.enabled = config.getBoolean("views.cache.enabled", true);
+        this.refreshAfterNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getLong("views.refreshAfterSeconds", 120)));
+        List<String> files = new ArrayList<>();
+        for (String file : config.getProperty("views.preload", "").split(",")) {
+            if (!file.trim().isEmpty()) {
+                files.add(file.trim());
+            }
+        }
+        this.preloadFiles = Collections.unmodifiableList(files);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The FXML files listed in views.preload.
+     */
+    public List<String> getPreloadFiles() {
+        return preloadFiles;
+    }
+
+    /**
+     * Returns the view of the given FXML file, loading it if it is not cached yet.
+     * Must be called on the FX thread.
+     *
+     * @param fxmlFile The file name under /com/hotel/fxml/
+     */
+    public View get(String fxmlFile) throws IOException {
+        if (!enabled) {
+            return load(fxmlFile);
+        }
+        FutureTask<View> task = views.get(fxmlFile);
+        boolean loadedNow = false;
+        if (task == null) {
+            FutureTask<View> created = new FutureTask<>(() -> load(fxmlFile));
+            task = views.putIfAbsent(fxmlFile, created);
+            if (task == null) {
+                task = created;
+                task.run();
+                loadedNow = true;
+            }
+        }
+        View view;
+        try {
+            view = task.get();
+        } catch (ExecutionException | CancellationException e) {
+            views.remove(fxmlFile, task);
+            if (!loadedNow) {
+                // The preload failed or was cancelled; load it here, where errors can be shown
+                return get(fxmlFile);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error loading view " + fxmlFile, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for view " + fxmlFile, e);
+        }
+        if (!view.shown && refreshAfterNanos > 0 && System.nanoTime() - view.refreshedAt >= refreshAfterNanos) {
+            refresh(view);
+        }
+        view.shown = true;
+        return view;
+    }
+
+    /**
+     * Loads the given views on a background thread unless they are loaded already.
+     */
+    public synchronized void preload(Collection<String> fxmlFiles) {
+        if (!enabled || fxmlFiles.isEmpty()) {
+            return;
+        }
+        if (preloader == null) {
+            preloader = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "view-preloader");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (String fxmlFile : fxmlFiles) {
+            FutureTask<View> task = new FutureTask<>(() -> {
+                try {
+                    return load(fxmlFile);
+                } catch (Exception e) {
+                    System.err.println("Could not preload " + fxmlFile + ", it is loaded when shown: " + e);
+                    throw e;
+                }
+            });
+            if (views.putIfAbsent(fxmlFile, task) == null) {
+                preloader.execute(task);
+            }
+        }
+    }
+
+    /**
+     * Reloads the data of a cached view through its controller. Views that are
+     * not loaded yet, or whose controller is not Refreshable, are left alone.
+     * Must be called on the FX thread.
+     */
+    public void refresh(String fxmlFile) {
+        FutureTask<View> task = views.get(fxmlFile);
+        if (task == null || !task.isDone()) {
+            return;
+        }
+        try {
+            refresh(task.get());
+        } catch (ExecutionException | CancellationException | InterruptedException e) {
+            // Nothing loaded to refresh; the next get loads it
+        }
+    }
+
+    /**
+     * Drops every cached view and stops preloading.
+     */
+    public synchronized void clear() {
+        if (preloader != null) {
+            preloader.shutdownNow();
+            preloader = null;
+        }
+        views.values().forEach(task -> task.cancel(false));
+        views.clear();
+    }
+
+    private static void refresh(View view) {
+        if (view.controller instanceof Refreshable) {
+            ((Refreshable) view.controller).refresh();
+        }
+        view.refreshedAt = System.nanoTime();
+    }
+
+    private static View load(String fxmlFile) throws IOException {
+        URL location = ViewRegistry.class.getResource(FXML_DIRECTORY + fxmlFile);
+        if (location == null) {
+            throw new IOException("FXML file not found: " + fxmlFile);
+        }
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(location);
+        Node node = loader.load();
+        System.out.println(String.format("Loaded view %s in %.1f ms on %s", fxmlFile,
+                (System.nanoTime() - start) / 1_000_000.0, Thread.currentThread().getName()));
+        return new View(fxmlFile, node, loader.getController());
+    }
+
+    /**
+     * A loaded view and its controller.
+     */
+    public static final class View {
+        private final String fxmlFile;
+        private final Node node;
+        private final Object controller;
+        private volatile long refreshedAt;
+        // Set on the FX thread once get has returned the view
+        private boolean shown;
+
+        View(String fxmlFile, Node node, Object controller) {
+            this.fxmlFile = fxmlFile;
+            this.node = node;
+            this.controller = controller;
+            this.refreshedAt = System.nanoTime();
+        }
+
+        public String getFxmlFile() {
+            return fxmlFile;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+
+        public Object getController() {
+            return controller;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.hotel.dao;
 
 import com.hotel.model.Booking;
 import com.hotel.model.Customer;
+import com.hotel.model.OperationalSnapshot;
 import com.hotel.model.Room;
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -13,7 +14,37 @@ public interface BookingDAO {
     Optional<Booking> findById(int bookingId) throws SQLException;
     List<Booking> findAll() throws SQLException;
     boolean addBooking(Booking booking) throws SQLException;
-    boolean updateBooking(Booking booking) throws SQLException;
+
+    /**
+     * Inserts the booking unless its room is already taken for any of the
+     * nights [checkIn, checkOut) by a booking that is not cancelled or checked
+     * out. The check and the insert run in one transaction holding a lock on
+     * the room, so concurrent reservations of the same room cannot both succeed.
+     * addBooking goes through this as well.
+     *
+     * @return The outcome; a conflict is reported here rather than thrown
+     */
+    Reservation reserve(Booking booking) throws SQLException;
+
+    /**
+     * Reserves a batch of bookings in one transaction, e.g. from a file
+     * import. Each booking is checked as reserve would, against the active
+     * bookings and against the bookings of the batch before it; the rooms of
+     * the batch are locked in id order for the whole transaction. The bookings
+     * that pass are inserted with one batch insert.
+     *
+     * @return One reservation per booking, in the same order
+     */
+    List<Reservation> reserveAll(List<Booking> bookings) throws SQLException;
+
+    /**
+     * Saves the booking's room, customer and dates. Like reserve, it locks the
+     * room and checks the new nights against the room's other active bookings
+     * in the same transaction as the update.
+     *
+     * @return The outcome; a conflict is reported here rather than thrown
+     */
+    Reservation updateBooking(Booking booking) throws SQLException;
     boolean deleteBooking(int bookingId) throws SQLException;
     
     // Method for BookingServices tab
@@ -30,9 +61,28 @@ public interface BookingDAO {
     List<String> getAllBookingStatuses() throws SQLException;
     
     // Dashboard methods
+
+    /**
+     * Returns all dashboard counters, read together in one query. The counter
+     * methods below are views of the same snapshot.
+     */
+    OperationalSnapshot getOperationalSnapshot() throws SQLException;
     int getCheckedInGuestsCount() throws SQLException;
     int getExpectedCheckInsToday() throws SQLException;
     int getExpectedCheckOutsToday() throws SQLException;
     int getNewBookingsToday() throws SQLException;
     double getRevenueToday() throws SQLException;
+
+    // Paged queries
+    String SORT_CHECK_IN = "checkIn";
+    String SORT_CHECK_OUT = "checkOut";
+    String FILTER_SEARCH = "search";            // Matches booking, room or customer id
+    String FILTER_CHECK_IN_FROM = "checkInFrom"; // LocalDate, inclusive
+    String FILTER_CHECK_IN_TO = "checkInTo";     // LocalDate, inclusive
+
+    /**
+     * Returns one page of bookings, filtered and sorted by the database.
+     * Sorts by check-in date unless another sort key is given.
+     */
+    Page<Booking> findPage(PageRequest request) throws SQLException;
 }
\ No newline at end of file
@@ -12,4 +12,18 @@ public interface CustomerDAO {
     boolean updateCustomer(Customer customer) throws SQLException;
     boolean deleteCustomer(int customerId) throws SQLException;
     List<Customer> findByName(String name) throws SQLException; // Example specific query
+
+    // Paged queries
+    String SORT_LAST_NAME = "lastName";
+    String SORT_FIRST_NAME = "firstName";
+    String SORT_EMAIL = "email";
+    String FILTER_SEARCH = "search";   // Matches name, email or phone number
+    String FILTER_ADULTS = "adults";   // "1", "2", ... or "4+"
+    String FILTER_KIDS = "kids";       // "0", "1", ... or "3+"
+
+    /**
+     * Returns one page of customers, filtered and sorted by the database.
+     * Sorts by last name unless another sort key is given.
+     */
+    Page<Customer> findPage(PageRequest request) throws SQLException;
 } 
\ No newline at end of file
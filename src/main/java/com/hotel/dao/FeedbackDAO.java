@@ -10,4 +10,16 @@ public interface FeedbackDAO {
     List<Feedback> getFeedbackByCustomerId(int customerId);
     List<Feedback> getFeedbackByBookingId(int bookingId);
     double getAverageRating();
+
+    // Paged queries
+    String SORT_DATE = "date";
+    String SORT_RATING = "rating";
+    String FILTER_SEARCH = "search";   // Matches comments or customer name
+    String FILTER_RATING = "rating";   // Integer
+
+    /**
+     * Returns one page of feedback, filtered and sorted by the database.
+     * Sorts by feedback date unless another sort key is given.
+     */
+    Page<Feedback> findPage(PageRequest request);
 }
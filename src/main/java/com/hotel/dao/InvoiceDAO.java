@@ -3,7 +3,11 @@ package com.hotel.dao;
 import com.hotel.model.Invoice;
 import com.hotel.model.BookingService;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface InvoiceDAO {
     /**
@@ -28,4 +32,38 @@ public interface InvoiceDAO {
      * @throws SQLException if a database access error occurs
      */
     List<BookingService> getBookingServicesForBooking(int bookingId) throws SQLException;
+    
+    /**
+     * Retrieves the booking services of several bookings in one query
+     * @param bookingIds the IDs of the bookings
+     * @return the services of each booking by booking ID; bookings without services are left out
+     * @throws SQLException if a database access error occurs
+     */
+    Map<Integer, List<BookingService>> getBookingServicesForBookings(Collection<Integer> bookingIds)
+            throws SQLException;
+    
+    /**
+     * Counts the invoices matching the given filters
+     * @param fromDate first issue date to include, or null for no lower bound
+     * @param toDate last issue date to include, or null for no upper bound
+     * @param invoiceStatus invoice status to match, or null for any status
+     * @return the number of matching invoices
+     * @throws SQLException if a database access error occurs
+     */
+    int countInvoices(LocalDate fromDate, LocalDate toDate, String invoiceStatus) throws SQLException;
+    
+    /**
+     * Reads the invoices matching the given filters in invoice order and passes them to
+     * the handler one at a time, fetching fetchSize rows from a forward-only result set
+     * at a time. Each invoice has the same details as getInvoiceDetails.
+     * @param fromDate first issue date to include, or null for no lower bound
+     * @param toDate last issue date to include, or null for no upper bound
+     * @param invoiceStatus invoice status to match, or null for any status
+     * @param fetchSize number of rows fetched from the database at a time
+     * @param handler receives each invoice; returning false stops the read
+     * @return the number of invoices passed to the handler
+     * @throws SQLException if a database access error occurs
+     */
+    int streamInvoices(LocalDate fromDate, LocalDate toDate, String invoiceStatus, int fetchSize,
+                       Predicate<Invoice> handler) throws SQLException;
 }
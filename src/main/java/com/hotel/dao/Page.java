@@ -0,0 +1,118 @@
+package com.hotel.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of results from a keyset-paginated query.
+ *
+ * @param <T> The row type
+ */
+public final class Page<T> {
+
+    /**
+     * Position of a row in the sort order: its sort value plus the primary key
+     * as a tie-breaker. Pass it back through PageRequest.after/before to move
+     * to the neighbouring page.
+     */
+    public static final class Cursor {
+        private final Object sortValue;
+        private final int id;
+
+        public Cursor(Object sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        public Object getSortValue() {
+            return sortValue;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cursor)) return false;
+            Cursor other = (Cursor) o;
+            return id == other.id && Objects.equals(sortValue, other.sortValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sortValue, id);
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor{" + sortValue + ", " + id + "}";
+        }
+    }
+
+    private final PageRequest request;
+    private final List<T> items;
+    private final int totalCount;
+    private final int pageSize;
+    private final Cursor previousCursor;
+    private final Cursor nextCursor;
+
+    public Page(PageRequest request, List<T> items, int totalCount, Cursor previousCursor, Cursor nextCursor) {
+        this.request = request;
+        this.items = Collections.unmodifiableList(items);
+        this.totalCount = totalCount;
+        this.pageSize = request.getPageSize();
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return The request that produced this page
+     */
+    public PageRequest getRequest() {
+        return request;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The number of rows matching the filters across all pages
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalPages() {
+        return (int) Math.ceil((double) totalCount / pageSize);
+    }
+
+    /**
+     * @return Cursor for PageRequest.before, or null on the first page
+     */
+    public Cursor getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * @return Cursor for PageRequest.after, or null on the last page
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
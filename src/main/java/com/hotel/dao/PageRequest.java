@@ -0,0 +1,180 @@
+package com.hotel.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Describes one page of a keyset-paginated query: page size, sort key,
+ * filter values and where the page starts.
+ *
+ * Instances are immutable; the with-style methods return a modified copy, e.g.
+ * <pre>
+ *   PageRequest.first(25)
+ *       .sortBy(BookingDAO.SORT_CHECK_IN, false)
+ *       .filter(BookingDAO.FILTER_SEARCH, text)
+ *       .after(page.getNextCursor());
+ * </pre>
+ * Sort and filter keys are defined by each DAO; unknown keys are ignored.
+ */
+public final class PageRequest {
+
+    /**
+     * Where the requested page starts.
+     */
+    public enum Position {
+        /** The first page */
+        FIRST,
+        /** The page following the cursor */
+        AFTER,
+        /** The page preceding the cursor */
+        BEFORE,
+        /** The last page */
+        LAST
+    }
+
+    private final int pageSize;
+    private final String sortKey;
+    private final boolean descending;
+    private final Map<String, Object> filters;
+    private final Position position;
+    private final Page.Cursor cursor;
+
+    private PageRequest(int pageSize, String sortKey, boolean descending, Map<String, Object> filters,
+                        Position position, Page.Cursor cursor) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        this.pageSize = pageSize;
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.filters = filters;
+        this.position = position;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Creates a request for the first page using the DAO's default sort order.
+     */
+    public static PageRequest first(int pageSize) {
+        return new PageRequest(pageSize, null, false, Collections.emptyMap(), Position.FIRST, null);
+    }
+
+    public PageRequest sortBy(String sortKey, boolean descending) {
+        return new PageRequest(pageSize, sortKey, descending, filters, position, cursor);
+    }
+
+    /**
+     * Adds a filter. Null values and blank strings are treated as "no filter".
+     */
+    public PageRequest filter(String key, Object value) {
+        Map<String, Object> copy = new LinkedHashMap<>(filters);
+        if (value == null || (value instanceof String && ((String) value).trim().isEmpty())) {
+            copy.remove(key);
+        } else {
+            copy.put(key, value instanceof String ? ((String) value).trim() : value);
+        }
+        return new PageRequest(pageSize, sortKey, descending, Collections.unmodifiableMap(copy), position, cursor);
+    }
+
+    public PageRequest withPageSize(int pageSize) {
+        return new PageRequest(pageSize, sortKey, descending, filters, position, cursor);
+    }
+
+    public PageRequest firstPage() {
+        return new PageRequest(pageSize, sortKey, descending, filters, Position.FIRST, null);
+    }
+
+    public PageRequest lastPage() {
+        return new PageRequest(pageSize, sortKey, descending, filters, Position.LAST, null);
+    }
+
+    /**
+     * Requests the page after the given cursor, or the first page when the cursor is null.
+     */
+    public PageRequest after(Page.Cursor cursor) {
+        return cursor == null ? firstPage()
+                : new PageRequest(pageSize, sortKey, descending, filters, Position.AFTER, cursor);
+    }
+
+    /**
+     * Requests the page before the given cursor, or the first page when the cursor is null.
+     */
+    public PageRequest before(Page.Cursor cursor) {
+        return cursor == null ? firstPage()
+                : new PageRequest(pageSize, sortKey, descending, filters, Position.BEFORE, cursor);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Map<String, Object> getFilters() {
+        return filters;
+    }
+
+    public boolean hasFilter(String key) {
+        return filters.containsKey(key);
+    }
+
+    /**
+     * Returns a filter value converted to the given type, or null when the filter is not set.
+     */
+    public <V> V getFilter(String key, Class<V> type) {
+        Object value = filters.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return type.cast(value.toString());
+        }
+        return type.cast(value);
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public Page.Cursor getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PageRequest)) return false;
+        PageRequest other = (PageRequest) o;
+        return pageSize == other.pageSize &&
+                descending == other.descending &&
+                Objects.equals(sortKey, other.sortKey) &&
+                filters.equals(other.filters) &&
+                position == other.position &&
+                Objects.equals(cursor, other.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pageSize, sortKey, descending, filters, position, cursor);
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{" +
+                "pageSize=" + pageSize +
+                ", sortKey='" + sortKey + '\'' +
+                ", descending=" + descending +
+                ", filters=" + filters +
+                ", position=" + position +
+                ", cursor=" + cursor +
+                '}';
+    }
+}
@@ -4,7 +4,9 @@ import com.hotel.model.Payment;
 import com.hotel.model.Invoice;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Data Access Object interface for Payment-related database operations
@@ -28,6 +30,42 @@ public interface PaymentDAO {
      */
     List<Payment> getAllPayments() throws SQLException;
     
+    /**
+     * Retrieves the most recent payment records, newest first
+     * 
+     * @param limit The maximum number of payments to return
+     * @return List of Payment objects with associated invoice, booking, customer, and room data
+     * @throws SQLException If a database error occurs
+     */
+    List<Payment> getRecentPayments(int limit) throws SQLException;
+    
+    /**
+     * Counts the payments matching the given filters
+     * 
+     * @param fromDate      First payment date to include, or null for no lower bound
+     * @param toDate        Last payment date to include, or null for no upper bound
+     * @param invoiceStatus Invoice status to match, or null for any status
+     * @return The number of matching payments
+     * @throws SQLException If a database error occurs
+     */
+    int countPayments(LocalDate fromDate, LocalDate toDate, String invoiceStatus) throws SQLException;
+    
+    /**
+     * Reads the payments matching the given filters, newest first, and passes them
+     * to the handler one at a time. Rows are fetched from a forward-only result set
+     * in chunks of fetchSize, so memory use does not grow with the number of rows.
+     * 
+     * @param fromDate      First payment date to include, or null for no lower bound
+     * @param toDate        Last payment date to include, or null for no upper bound
+     * @param invoiceStatus Invoice status to match, or null for any status
+     * @param fetchSize     Number of rows fetched from the database at a time
+     * @param handler       Receives each payment; returning false stops the read
+     * @return The number of payments passed to the handler
+     * @throws SQLException If a database error occurs
+     */
+    int streamPayments(LocalDate fromDate, LocalDate toDate, String invoiceStatus, int fetchSize,
+                       Predicate<Payment> handler) throws SQLException;
+    
     /**
      * Retrieves detailed information about a specific payment for receipt generation
      * 
@@ -0,0 +1,86 @@
+package com.hotel.dao;
+
+import com.hotel.model.Booking;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of BookingDAO.reserve, reserveAll and updateBooking: either the
+ * booking was saved, or it was refused because the room, customer or booking
+ * is missing or the room is already taken for some of the nights.
+ */
+public final class Reservation {
+
+    public enum Status {
+        /** The booking was inserted and has its generated id, or updated. */
+        RESERVED,
+        /** Another active booking occupies at least one of the requested nights. */
+        CONFLICT,
+        /** The room does not exist. */
+        ROOM_NOT_FOUND,
+        /** The customer does not exist; only reserveAll checks this, reserve fails on the foreign key. */
+        CUSTOMER_NOT_FOUND,
+        /** The booking to update does not exist, e.g. it was deleted on another terminal. */
+        BOOKING_NOT_FOUND
+    }
+
+    private final Status status;
+    private final Booking booking;
+    private final List<Integer> conflictingBookingIds;
+
+    private Reservation(Status status, Booking booking, List<Integer> conflictingBookingIds) {
+        this.status = status;
+        this.booking = booking;
+        this.conflictingBookingIds = Collections.unmodifiableList(conflictingBookingIds);
+    }
+
+    public static Reservation reserved(Booking booking) {
+        return new Reservation(Status.RESERVED, booking, Collections.emptyList());
+    }
+
+    public static Reservation conflict(Booking booking, List<Integer> conflictingBookingIds) {
+        return new Reservation(Status.CONFLICT, booking, conflictingBookingIds);
+    }
+
+    public static Reservation roomNotFound(Booking booking) {
+        return new Reservation(Status.ROOM_NOT_FOUND, booking, Collections.emptyList());
+    }
+
+    public static Reservation customerNotFound(Booking booking) {
+        return new Reservation(Status.CUSTOMER_NOT_FOUND, booking, Collections.emptyList());
+    }
+
+    public static Reservation bookingNotFound(Booking booking) {
+        return new Reservation(Status.BOOKING_NOT_FOUND, booking, Collections.emptyList());
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isReserved() {
+        return status == Status.RESERVED;
+    }
+
+    /**
+     * The booking that was requested; after a successful reservation it carries its new id.
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * The active bookings of the room that overlap the requested nights; empty unless the status is CONFLICT.
+     */
+    public List<Integer> getConflictingBookingIds() {
+        return conflictingBookingIds;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" + status + ", room " + booking.getRoomId() + ", " + booking.getCheckInDate() +
+                " - " + booking.getCheckOutDate() +
+                (conflictingBookingIds.isEmpty() ? "" : ", conflicts with " + conflictingBookingIds) + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.hotel.dao;
 
+import com.hotel.model.OperationalSnapshot;
 import com.hotel.model.Room;
 import java.sql.SQLException;
 import java.util.List;
@@ -15,6 +16,12 @@ public interface RoomDAO {
     
     // Dashboard methods
 
+    /**
+     * Returns all dashboard counters, read together in one query. The counter
+     * methods below are views of the same snapshot.
+     */
+    OperationalSnapshot getOperationalSnapshot() throws SQLException;
+
     int getAvailableRoomCount() throws SQLException;
     int getOccupiedRoomCount() throws SQLException;
     int getCheckedInGuestsCount() throws SQLException;
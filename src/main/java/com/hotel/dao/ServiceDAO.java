@@ -10,4 +10,15 @@ public interface ServiceDAO {
     Service updateService(Service service) throws SQLException;
     void deleteService(int serviceId) throws SQLException;
     Service getServiceById(int serviceId) throws SQLException;
+
+    // Paged queries
+    String SORT_NAME = "name";
+    String SORT_PRICE = "price";
+    String FILTER_SEARCH = "search";   // Matches id, name, description or price
+
+    /**
+     * Returns one page of services, filtered and sorted by the database.
+     * Sorts by service name unless another sort key is given.
+     */
+    Page<Service> findPage(PageRequest request) throws SQLException;
 }
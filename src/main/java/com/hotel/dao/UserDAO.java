@@ -14,6 +14,17 @@ public interface UserDAO {
      * @throws SQLException if a database access error occurs.
      */
     Optional<User> findByUsername(String username) throws SQLException;
+
+    /**
+     * Checks a login and returns the signed-in user with their staff details,
+     * read in a single query. The returned user does not carry the password.
+     *
+     * @param username The username entered at login.
+     * @param password The password entered at login.
+     * @return An Optional containing the User if the credentials match, otherwise empty.
+     * @throws SQLException if a database access error occurs.
+     */
+    Optional<User> authenticate(String username, String password) throws SQLException;
     
     /**
      * Retrieves a user with their staff details by user ID.
@@ -1,301 +1,459 @@
 package com.hotel.dao.impl;
 
 import com.hotel.dao.BookingDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.Reservation;
 import com.hotel.model.Booking;
 import com.hotel.model.Customer;
+import com.hotel.model.OperationalSnapshot;
 import com.hotel.model.Room;
-import com.hotel.util.DatabaseConnection;
 
-import java.sql.*;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class BookingDAOImpl implements BookingDAO {
 
+    // Tries of a reservation that was rolled back by a deadlock or lock timeout
+    private static final int RESERVE_ATTEMPTS = 3;
+
+    // Bookings in these states take no room-nights
+    private static final Set<String> INACTIVE_STATUSES = Set.of("Cancelled", "Checked-out");
+
+    private final RoomAvailabilityIndex availabilityIndex = RoomAvailabilityIndex.getInstance();
+    private final DashboardAggregator dashboardAggregator = DashboardAggregator.getInstance();
+    private final OperationalSnapshotQuery snapshotQuery = OperationalSnapshotQuery.getInstance();
+
+    private static final RowMapper<Booking> BOOKING = RowMapper.of(columns -> {
+        int bookingId = columns.index("booking_id");
+        int roomId = columns.index("room_id");
+        int customerId = columns.index("customer_id");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        int bookingStatus = columns.index("booking_status");
+        int createdAt = columns.index("created_at");
+        int numberOfAdults = columns.index("number_of_adults");
+        int numberOfKids = columns.index("number_of_kids");
+        return rs -> {
+            Booking booking = new Booking();
+            booking.setBookingId(rs.getInt(bookingId));
+            booking.setRoomId(rs.getInt(roomId));
+            booking.setCustomerId(rs.getInt(customerId));
+            booking.setCheckInDate(rs.getDate(checkInDate).toLocalDate());
+            booking.setCheckOutDate(rs.getDate(checkOutDate).toLocalDate());
+            booking.setBookingStatus(rs.getString(bookingStatus));
+            Timestamp created = rs.getTimestamp(createdAt);
+            if (created != null) {
+                booking.setCreatedAt(created.toLocalDateTime());
+            }
+            booking.setNumberOfAdults(rs.getInt(numberOfAdults));
+            booking.setNumberOfKids(rs.getInt(numberOfKids));
+            return booking;
+        };
+    });
+
+    private static final RowMapper<Integer> BOOKING_ID = RowMapper.of(columns -> {
+        int bookingId = columns.index("booking_id");
+        return rs -> rs.getInt(bookingId);
+    });
+
+    private static final RowMapper<Integer> ROOM_ID = RowMapper.of(columns -> {
+        int roomId = columns.index("room_id");
+        return rs -> rs.getInt(roomId);
+    });
+
+    private static final RowMapper<Integer> CUSTOMER_ID = RowMapper.of(columns -> {
+        int customerId = columns.index("customer_id");
+        return rs -> rs.getInt(customerId);
+    });
+
+    // The nights a booking occupies its room, for overlap checks
+    private static final RowMapper<String> BOOKING_STATUS = RowMapper.of(columns -> {
+        int bookingStatus = columns.index("booking_status");
+        return rs -> rs.getString(bookingStatus);
+    });
+
+    private static final RowMapper<Booking> BOOKED_NIGHTS = RowMapper.of(columns -> {
+        int bookingId = columns.index("booking_id");
+        int roomId = columns.index("room_id");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        return rs -> {
+            Booking booking = new Booking();
+            booking.setBookingId(rs.getInt(bookingId));
+            booking.setRoomId(rs.getInt(roomId));
+            booking.setCheckInDate(rs.getDate(checkInDate).toLocalDate());
+            booking.setCheckOutDate(rs.getDate(checkOutDate).toLocalDate());
+            return booking;
+        };
+    });
+
+    // A booking joined with its customer's name and room number, for display
+    private static final RowMapper<Booking> BOOKING_WITH_NAMES = RowMapper.of(columns -> {
+        RowMapper.Reader<Booking> booking = BOOKING.bind(columns);
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        int roomNumber = columns.index("room_number");
+        return rs -> {
+            Booking row = booking.read(rs);
+            row.setCustomerName(rs.getString(firstName) + " " + rs.getString(lastName));
+            row.setRoomNumber(rs.getString(roomNumber));
+            return row;
+        };
+    });
+
     @Override
     public Optional<Booking> findById(int bookingId) throws SQLException {
-        String sql = "SELECT * FROM bookings WHERE booking_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, bookingId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                return Optional.of(booking);
-            }
-        }
-        return Optional.empty();
+        return JdbcExecutor.queryOne("SELECT * FROM bookings WHERE booking_id = ?", BOOKING, bookingId);
     }
 
     @Override
     public List<Booking> findAll() throws SQLException {
-        List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings ORDER BY check_in_date";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                bookings.add(booking);
+        return JdbcExecutor.query("SELECT * FROM bookings ORDER BY check_in_date", BOOKING);
+    }
+
+    @Override
+    public boolean addBooking(Booking booking) throws SQLException {
+        return reserve(booking).isReserved();
+    }
+
+    @Override
+    public Reservation reserve(Booking booking) throws SQLException {
+        if (!booking.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Reservation reservation = JdbcExecutor.inTransaction(conn -> reserve(conn, booking));
+                if (reservation.isReserved()) {
+                    availabilityIndex.onBookingSaved(booking);
+                    dashboardAggregator.onBookingSaved(booking, true);
+                    snapshotQuery.invalidate();
+                }
+                return reservation;
+            } catch (SQLTransactionRollbackException e) {
+                // Deadlock or lock wait timeout; the transaction was rolled back, so it is safe to run again
+                if (attempt == RESERVE_ATTEMPTS) {
+                    throw e;
+                }
             }
         }
-        return bookings;
+    }
+
+    /**
+     * Locks the room row, so reservations of the same room run one after the
+     * other, then checks for overlapping bookings and inserts. The overlap
+     * check runs after the lock is granted, so it sees every booking committed
+     * by an earlier holder of the lock.
+     */
+    private Reservation reserve(Connection conn, Booking booking) throws SQLException {
+        if (JdbcExecutor.queryInt(conn, "SELECT room_id FROM Rooms WHERE room_id = ? FOR UPDATE",
+                booking.getRoomId()) == 0) {
+            return Reservation.roomNotFound(booking);
+        }
+
+        List<Integer> conflicts = findConflicts(conn, booking);
+        if (!conflicts.isEmpty()) {
+            return Reservation.conflict(booking, conflicts);
+        }
+
+        String sql = "INSERT INTO bookings (room_id, customer_id, check_in_date, check_out_date, " +
+                "number_of_adults, number_of_kids) VALUES (?, ?, ?, ?, ?, ?)";
+        OptionalInt bookingId = JdbcExecutor.insert(conn, sql,
+                booking.getRoomId(), booking.getCustomerId(), booking.getCheckInDate(), booking.getCheckOutDate(),
+                booking.getNumberOfAdults(), booking.getNumberOfKids());
+        if (!bookingId.isPresent()) {
+            throw new SQLException("Creating booking failed, no ID obtained.");
+        }
+        booking.setBookingId(bookingId.getAsInt());
+        return Reservation.reserved(booking);
+    }
+
+    /**
+     * The active bookings of the booking's room, other than the booking
+     * itself, that overlap its nights.
+     */
+    private static List<Integer> findConflicts(Connection conn, Booking booking) throws SQLException {
+        String sql = "SELECT booking_id FROM bookings WHERE room_id = ? " +
+                "AND check_in_date < ? AND check_out_date > ? AND booking_id <> ? " +
+                "AND booking_status NOT IN ('Cancelled', 'Checked-out') ORDER BY check_in_date";
+        return JdbcExecutor.query(conn, sql, BOOKING_ID,
+                booking.getRoomId(), booking.getCheckOutDate(), booking.getCheckInDate(), booking.getBookingId());
     }
 
     @Override
-    public boolean addBooking(Booking booking) throws SQLException {
-        String sql = "INSERT INTO bookings (room_id, customer_id, check_in_date, check_out_date) VALUES (?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, booking.getRoomId());
-            stmt.setInt(2, booking.getCustomerId());
-            stmt.setDate(3, Date.valueOf(booking.getCheckInDate()));
-            stmt.setDate(4, Date.valueOf(booking.getCheckOutDate()));
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                ResultSet generatedKeys = stmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    booking.setBookingId(generatedKeys.getInt(1));
-                    return true;
+    public List<Reservation> reserveAll(List<Booking> bookings) throws SQLException {
+        for (Booking booking : bookings) {
+            if (!booking.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+                throw new IllegalArgumentException("Check-out date must be after check-in date");
+            }
+        }
+        if (bookings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<Reservation> reservations = JdbcExecutor.inTransaction(conn -> reserveAll(conn, bookings));
+                boolean reservedAny = false;
+                for (Reservation reservation : reservations) {
+                    if (reservation.isReserved()) {
+                        availabilityIndex.onBookingSaved(reservation.getBooking());
+                        dashboardAggregator.onBookingSaved(reservation.getBooking(), true);
+                        reservedAny = true;
+                    }
+                }
+                if (reservedAny) {
+                    snapshotQuery.invalidate();
+                }
+                return reservations;
+            } catch (SQLTransactionRollbackException e) {
+                // Deadlock or lock wait timeout; the transaction was rolled back, so it is safe to run again
+                if (attempt == RESERVE_ATTEMPTS) {
+                    throw e;
                 }
             }
         }
-        return false;
+    }
+
+    /**
+     * Locks the rooms of the batch in id order, the order in which any other
+     * batch locks them too, then reads the active bookings of those rooms over
+     * the batch's dates once and checks every booking in memory.
+     */
+    private List<Reservation> reserveAll(Connection conn, List<Booking> bookings) throws SQLException {
+        Set<Integer> roomIds = new TreeSet<>();
+        Set<Integer> customerIds = new TreeSet<>();
+        LocalDate from = bookings.get(0).getCheckInDate();
+        LocalDate to = bookings.get(0).getCheckOutDate();
+        for (Booking booking : bookings) {
+            roomIds.add(booking.getRoomId());
+            customerIds.add(booking.getCustomerId());
+            from = booking.getCheckInDate().isBefore(from) ? booking.getCheckInDate() : from;
+            to = booking.getCheckOutDate().isAfter(to) ? booking.getCheckOutDate() : to;
+        }
+        Set<Integer> rooms = new HashSet<>(JdbcExecutor.query(conn,
+                "SELECT room_id FROM Rooms WHERE room_id IN (" + JdbcExecutor.placeholders(roomIds.size()) + ") " +
+                        "ORDER BY room_id FOR UPDATE", ROOM_ID, roomIds.toArray()));
+        Set<Integer> customers = new HashSet<>(JdbcExecutor.query(conn,
+                "SELECT customer_id FROM customers WHERE customer_id IN (" + JdbcExecutor.placeholders(customerIds.size()) + ")",
+                CUSTOMER_ID, customerIds.toArray()));
+
+        // Nights taken per room: the active bookings, then each booking of the batch that is accepted
+        Map<Integer, List<Booking>> taken = new HashMap<>();
+        if (!rooms.isEmpty()) {
+            List<Object> params = new ArrayList<>(rooms);
+            params.add(to);
+            params.add(from);
+            // With an IN list, idx_bookings_room_dates is only searched by room, which reads every stay the
+            // rooms ever had; the check-out index reads only the stays that end after the batch's first night
+            String sql = "SELECT booking_id, room_id, check_in_date, check_out_date FROM bookings " +
+                    "USE INDEX (idx_bookings_check_out_status) " +
+                    "WHERE room_id IN (" + JdbcExecutor.placeholders(rooms.size()) + ") " +
+                    "AND check_in_date < ? AND check_out_date > ? " +
+                    "AND booking_status NOT IN ('Cancelled', 'Checked-out') ORDER BY check_in_date";
+            for (Booking booked : JdbcExecutor.query(conn, sql, BOOKED_NIGHTS, params.toArray())) {
+                taken.computeIfAbsent(booked.getRoomId(), room -> new ArrayList<>()).add(booked);
+            }
+        }
+
+        // Conflicts with bookings of the batch are resolved to ids once those are inserted
+        Map<Booking, List<Booking>> conflicts = new IdentityHashMap<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (!rooms.contains(booking.getRoomId()) || !customers.contains(booking.getCustomerId())) {
+                continue;
+            }
+            List<Booking> roomBookings = taken.computeIfAbsent(booking.getRoomId(), room -> new ArrayList<>());
+            List<Booking> overlapping = new ArrayList<>();
+            for (Booking other : roomBookings) {
+                if (other.getCheckInDate().isBefore(booking.getCheckOutDate())
+                        && other.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+                    overlapping.add(other);
+                }
+            }
+            if (overlapping.isEmpty()) {
+                roomBookings.add(booking);
+                accepted.add(booking);
+            } else {
+                conflicts.put(booking, overlapping);
+            }
+        }
+
+        String sql = "INSERT INTO bookings (room_id, customer_id, check_in_date, check_out_date, " +
+                "number_of_adults, number_of_kids) VALUES (?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(accepted.size());
+        for (Booking booking : accepted) {
+            rows.add(new Object[] {booking.getRoomId(), booking.getCustomerId(), booking.getCheckInDate(),
+                    booking.getCheckOutDate(), booking.getNumberOfAdults(), booking.getNumberOfKids()});
+        }
+        int[] bookingIds = JdbcExecutor.insertBatch(conn, sql, rows);
+        for (int i = 0; i < bookingIds.length; i++) {
+            accepted.get(i).setBookingId(bookingIds[i]);
+        }
+
+        List<Reservation> reservations = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            if (!rooms.contains(booking.getRoomId())) {
+                reservations.add(Reservation.roomNotFound(booking));
+            } else if (!customers.contains(booking.getCustomerId())) {
+                reservations.add(Reservation.customerNotFound(booking));
+            } else if (conflicts.containsKey(booking)) {
+                reservations.add(Reservation.conflict(booking, conflicts.get(booking).stream()
+                        .map(Booking::getBookingId).collect(Collectors.toList())));
+            } else {
+                reservations.add(Reservation.reserved(booking));
+            }
+        }
+        return reservations;
     }
 
     @Override
-    public boolean updateBooking(Booking booking) throws SQLException {
-        String sql = "UPDATE bookings SET room_id = ?, customer_id = ?, check_in_date = ?, check_out_date = ? WHERE booking_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, booking.getRoomId());
-            stmt.setInt(2, booking.getCustomerId());
-            stmt.setDate(3, Date.valueOf(booking.getCheckInDate()));
-            stmt.setDate(4, Date.valueOf(booking.getCheckOutDate()));
-            stmt.setInt(5, booking.getBookingId());
-            
-            return stmt.executeUpdate() > 0;
+    public Reservation updateBooking(Booking booking) throws SQLException {
+        if (!booking.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Reservation reservation = JdbcExecutor.inTransaction(conn -> updateBooking(conn, booking));
+                if (reservation.isReserved()) {
+                    availabilityIndex.onBookingSaved(booking);
+                    dashboardAggregator.onBookingSaved(booking, false);
+                    snapshotQuery.invalidate();
+                }
+                return reservation;
+            } catch (SQLTransactionRollbackException e) {
+                // Deadlock or lock wait timeout; the transaction was rolled back, so it is safe to run again
+                if (attempt == RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Locks the booking's new room, as reserve does, then the booking row, and
+     * checks the new nights against the room's other active bookings before
+     * the update. A cancelled or checked-out booking takes no nights, so it is
+     * not checked.
+     */
+    private Reservation updateBooking(Connection conn, Booking booking) throws SQLException {
+        if (JdbcExecutor.queryInt(conn, "SELECT room_id FROM Rooms WHERE room_id = ? FOR UPDATE",
+                booking.getRoomId()) == 0) {
+            return Reservation.roomNotFound(booking);
+        }
+        Optional<String> status = JdbcExecutor.queryOne(conn,
+                "SELECT booking_status FROM bookings WHERE booking_id = ? FOR UPDATE", BOOKING_STATUS,
+                booking.getBookingId());
+        if (!status.isPresent()) {
+            return Reservation.bookingNotFound(booking);
         }
+        booking.setBookingStatus(status.get());
+
+        if (!INACTIVE_STATUSES.contains(status.get())) {
+            List<Integer> conflicts = findConflicts(conn, booking);
+            if (!conflicts.isEmpty()) {
+                return Reservation.conflict(booking, conflicts);
+            }
+        }
+
+        String sql = "UPDATE bookings SET room_id = ?, customer_id = ?, check_in_date = ?, check_out_date = ? WHERE booking_id = ?";
+        JdbcExecutor.update(conn, sql,
+                booking.getRoomId(), booking.getCustomerId(), booking.getCheckInDate(), booking.getCheckOutDate(),
+                booking.getBookingId());
+        return Reservation.reserved(booking);
     }
 
     @Override
     public boolean deleteBooking(int bookingId) throws SQLException {
-        String sql = "DELETE FROM bookings WHERE booking_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, bookingId);
-            return stmt.executeUpdate() > 0;
+        boolean deleted = JdbcExecutor.update("DELETE FROM bookings WHERE booking_id = ?", bookingId) > 0;
+        if (deleted) {
+            availabilityIndex.onBookingDeleted(bookingId);
+            dashboardAggregator.onBookingDeleted(bookingId);
+            snapshotQuery.invalidate();
         }
+        return deleted;
     }
 
     @Override
     public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
-        List<Booking> bookings = new ArrayList<>();
         // Find all bookings that overlap with the specified date range
         String sql = "SELECT * FROM bookings WHERE " +
                    "(check_in_date <= ? AND check_out_date >= ?) OR " +  // Booking spans the entire range
                    "(check_in_date >= ? AND check_in_date <= ?) OR " +   // Booking starts within range
                    "(check_out_date >= ? AND check_out_date <= ?)";      // Booking ends within range
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            // Set parameters for the query
-            stmt.setDate(1, Date.valueOf(endDate));
-            stmt.setDate(2, Date.valueOf(startDate));
-            stmt.setDate(3, Date.valueOf(startDate));
-            stmt.setDate(4, Date.valueOf(endDate));
-            stmt.setDate(5, Date.valueOf(startDate));
-            stmt.setDate(6, Date.valueOf(endDate));
-            
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                booking.setBookingStatus(rs.getString("booking_status"));
-                bookings.add(booking);
-            }
-        }
-        return bookings;
+        return JdbcExecutor.query(sql, BOOKING, endDate, startDate, startDate, endDate, startDate, endDate);
     }
 
     @Override
     public List<Booking> findByCustomerId(int customerId) throws SQLException {
-        List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE customer_id = ? ORDER BY check_in_date";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, customerId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                bookings.add(booking);
-            }
-        }
-        return bookings;
+        return JdbcExecutor.query("SELECT * FROM bookings WHERE customer_id = ? ORDER BY check_in_date",
+                BOOKING, customerId);
     }
 
     @Override
     public List<Booking> findByRoomId(int roomId) throws SQLException {
-        List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE room_id = ? ORDER BY check_in_date";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, roomId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                booking.setBookingStatus(rs.getString("booking_status"));
-                booking.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                booking.setNumberOfAdults(rs.getInt("number_of_adults"));
-                booking.setNumberOfKids(rs.getInt("number_of_kids"));
-                bookings.add(booking);
-            }
-        }
-        return bookings;
+        return JdbcExecutor.query("SELECT * FROM bookings WHERE room_id = ? ORDER BY check_in_date",
+                BOOKING, roomId);
     }
 
     @Override
     public List<Room> getAllAvailableRooms(LocalDate checkIn, LocalDate checkOut) throws SQLException {
-        List<Room> availableRooms = new ArrayList<>();
-        String sql = "SELECT r.room_id, r.room_number, r.type, r.price, r.status, r.floor FROM rooms r WHERE r.status = 'Available' " +
-                "AND r.room_id NOT IN (" +
-                "SELECT b.room_id FROM bookings b " +
-                "WHERE (? BETWEEN b.check_in_date AND b.check_out_date " +
-                "OR ? BETWEEN b.check_in_date AND b.check_out_date " +
-                "OR (b.check_in_date BETWEEN ? AND ? )) " +
-                "AND b.booking_status NOT IN ('Cancelled', 'Checked-out'))";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setDate(1, Date.valueOf(checkIn));
-            stmt.setDate(2, Date.valueOf(checkOut));
-            stmt.setDate(3, Date.valueOf(checkIn));
-            stmt.setDate(4, Date.valueOf(checkOut));
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Room room = new Room();
-                room.setRoomId(rs.getInt("room_id"));
-                room.setRoomNumber(rs.getString("room_number"));
-                room.setType(rs.getString("type"));
-                room.setPrice(rs.getBigDecimal("price"));
-                room.setStatus(rs.getString("status"));
-                room.setFloor(rs.getInt("floor"));
-                    availableRooms.add(room);
+        if (availabilityIndex.isEnabled()) {
+            Optional<List<Room>> indexed = availabilityIndex.findAvailableRooms(checkIn, checkOut);
+            if (indexed.isPresent()) {
+                return indexed.get();
             }
         }
-        return availableRooms;
+        return queryAvailableRooms(checkIn, checkOut);
+    }
+
+    /**
+     * SQL fallback for getAllAvailableRooms, used when the index is disabled
+     * or the range lies outside its horizon. Nights are half-open like in the
+     * index: a booking occupies [check-in, check-out), so a stay may start on
+     * the day another one checks out. RoomAvailabilityIndex.verifyAgainstDatabase
+     * compares the index with this query.
+     */
+    static List<Room> queryAvailableRooms(LocalDate checkIn, LocalDate checkOut) throws SQLException {
+        String sql = "SELECT r.room_id, r.room_number, r.type, r.price, r.status, r.floor FROM rooms r " +
+                "WHERE r.status = 'Available' " +
+                "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.room_id = r.room_id " +
+                "AND b.check_in_date < ? AND b.check_out_date > ? " +
+                "AND b.booking_status NOT IN ('Cancelled', 'Checked-out')) " +
+                "ORDER BY r.room_number";
+        return JdbcExecutor.query(sql, RoomDAOImpl.ROOM, checkOut, checkIn);
     }
 
     @Override
     public List<Booking> getAllBookings() throws SQLException {
-        List<Booking> bookings = new ArrayList<>();
         String sql = "SELECT b.*, c.first_name, c.last_name, r.room_number " +
                      "FROM bookings b " +
                      "JOIN customers c ON b.customer_id = c.customer_id " +
                      "JOIN rooms r ON b.room_id = r.room_id " +
                      "ORDER BY b.check_in_date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setBookingId(rs.getInt("booking_id"));
-                booking.setRoomId(rs.getInt("room_id"));
-                booking.setCustomerId(rs.getInt("customer_id"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
-                booking.setBookingStatus(rs.getString("booking_status"));
-                
-                if (rs.getTimestamp("created_at") != null) {
-                    booking.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                }
-                
-                booking.setNumberOfAdults(rs.getInt("number_of_adults"));
-                booking.setNumberOfKids(rs.getInt("number_of_kids"));
-                
-                // Set the additional properties for display
-                String firstName = rs.getString("first_name");
-                String lastName = rs.getString("last_name");
-                booking.setCustomerName(firstName + " " + lastName);
-                booking.setRoomNumber(rs.getString("room_number"));
-                
-                bookings.add(booking);
-            }
-        }
-        return bookings;
+        return JdbcExecutor.query(sql, BOOKING_WITH_NAMES);
     }
 
     @Override
     public List<Customer> getAllCustomers() throws SQLException {
-        List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM customers ORDER BY last_name, first_name";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Customer customer = new Customer();
-                customer.setCustomerId(rs.getInt("customer_id"));
-                customer.setFirstName(rs.getString("first_name"));
-                customer.setLastName(rs.getString("last_name"));
-                customer.setEmail(rs.getString("email"));
-                customer.setPhoneNumber(rs.getString("phone_number"));
-                customer.setAddress(rs.getString("address"));
-                customers.add(customer);
-            }
-        }
-        return customers;
+        return JdbcExecutor.query("SELECT * FROM customers ORDER BY last_name, first_name", CustomerDAOImpl.CUSTOMER);
     }
 
     @Override
@@ -303,69 +461,58 @@ public class BookingDAOImpl implements BookingDAO {
         return Arrays.asList("Confirmed", "Checked-in", "Checked-out", "Cancelled");
     }
 
+    @Override
+    public OperationalSnapshot getOperationalSnapshot() throws SQLException {
+        return snapshotQuery.get();
+    }
+
+    // The single counters read the shared snapshot, so a caller asking for several runs one query
+
     @Override
     public int getCheckedInGuestsCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE booking_status = 'Checked-in'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        return 0;
+        return snapshotQuery.get().getCheckedInGuests();
     }
 
     @Override
     public int getExpectedCheckInsToday() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE check_in_date = CURRENT_DATE AND booking_status = 'Confirmed'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        return 0;
+        return snapshotQuery.get().getExpectedCheckInsToday();
     }
 
     @Override
     public int getExpectedCheckOutsToday() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE check_out_date = CURRENT_DATE AND booking_status = 'Checked-in'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        return 0;
+        return snapshotQuery.get().getExpectedCheckOutsToday();
     }
 
     @Override
     public int getNewBookingsToday() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE DATE(created_at) = CURRENT_DATE";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        return 0;
+        return snapshotQuery.get().getReservationsToday();
     }
 
     @Override
     public double getRevenueToday() throws SQLException {
-        // Assuming there's a payment or invoice table linked to bookings
-        String sql = "SELECT COALESCE(SUM(amount), 0.0) FROM payments WHERE DATE(payment_date) = CURRENT_DATE";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getDouble(1);
-            }
+        return snapshotQuery.get().getRevenueToday().doubleValue();
+    }
+
+    @Override
+    public Page<Booking> findPage(PageRequest request) throws SQLException {
+        String sortColumn = SORT_CHECK_OUT.equals(request.getSortKey()) ? "b.check_out_date" : "b.check_in_date";
+        KeysetQuery<Booking> query = new KeysetQuery<>("SELECT b.*", "FROM bookings b", sortColumn, "b.booking_id");
+
+        String search = request.getFilter(FILTER_SEARCH, String.class);
+        if (search != null) {
+            String pattern = "%" + search + "%";
+            query.where("(CAST(b.booking_id AS CHAR) LIKE ? OR CAST(b.room_id AS CHAR) LIKE ? OR CAST(b.customer_id AS CHAR) LIKE ?)",
+                    pattern, pattern, pattern);
         }
-        return 0.0;
+        LocalDate from = request.getFilter(FILTER_CHECK_IN_FROM, LocalDate.class);
+        if (from != null) {
+            query.where("b.check_in_date >= ?", Date.valueOf(from));
+        }
+        LocalDate to = request.getFilter(FILTER_CHECK_IN_TO, LocalDate.class);
+        if (to != null) {
+            query.where("b.check_in_date <= ?", Date.valueOf(to));
+        }
+        return query.fetch(request, BOOKING);
     }
+
 }
\ No newline at end of file
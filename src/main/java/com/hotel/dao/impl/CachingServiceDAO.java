@@ -0,0 +1,378 @@
+package com.hotel.dao.impl;
+
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.dao.ServiceDAO;
+import com.hotel.model.Service;
+import com.hotel.util.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ServiceDAO decorator that serves reads of the services catalog from memory.
+ *
+ * The whole catalog is loaded with one getAllServices call into an immutable
+ * snapshot, indexed by id. getAllServices, getServiceById and findPage
+ * (filter, sort and keyset paging included) are answered from the snapshot.
+ * addService, updateService and deleteService go to the database and then
+ * drop the snapshot, so the next read loads the catalog again. Every write
+ * bumps a version number; a load that overlaps a write is returned to its
+ * caller but not kept, so a stale catalog is never cached.
+ *
+ * Writes made outside this application are picked up when the snapshot
+ * expires, if a TTL is configured, or after invalidate().
+ *
+ * Callers get copies of the cached services and may modify them freely.
+ *
+ * Configuration (application.properties):
+ *   services.cache.enabled    - serve reads from memory (default true)
+ *   services.cache.ttlSeconds - reload the catalog after this long; 0 keeps it until a write (default 0)
+ */
+public class CachingServiceDAO implements ServiceDAO {
+
+    private static final CachingServiceDAO INSTANCE = new CachingServiceDAO(new ServiceDAOImpl(), DatabaseConfig.load());
+
+    private static final Comparator<Service> BY_NAME = Comparator
+            .comparing((Service s) -> nullToEmpty(s.getServiceName()), String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Service::getServiceId);
+    private static final Comparator<Service> BY_PRICE = Comparator
+            .comparing(Service::getPrice, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(Service::getServiceId);
+
+    private final ServiceDAO delegate;
+    private final long ttlNanos;
+    private volatile boolean enabled;
+
+    // Only one thread loads the catalog at a time
+    private final Object loadLock = new Object();
+    // Held briefly to bump the version and clear the snapshot, or to publish one if the version is unchanged
+    private final Object publishLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    CachingServiceDAO(ServiceDAO delegate, DatabaseConfig config) {
+        this.delegate = delegate;
+        this.enabled = config.getBoolean("services.cache.enabled", true);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getLong("services.cache.ttlSeconds", 0)));
+    }
+
+    public static CachingServiceDAO getInstance() {
+        return INSTANCE;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        invalidate();
+    }
+
+    /**
+     * Drops the cached catalog; the next read loads it again.
+     */
+    public void invalidate() {
+        synchronized (publishLock) {
+            version.incrementAndGet();
+            snapshot = null;
+        }
+        invalidations.incrementAndGet();
+    }
+
+    @Override
+    public List<Service> getAllServices() throws SQLException {
+        if (!enabled) {
+            return delegate.getAllServices();
+        }
+        return copyOf(current().byName);
+    }
+
+    @Override
+    public Service getServiceById(int serviceId) throws SQLException {
+        if (!enabled) {
+            return delegate.getServiceById(serviceId);
+        }
+        Service service = current().byId.get(serviceId);
+        return service == null ? null : copyOf(service);
+    }
+
+    @Override
+    public Page<Service> findPage(PageRequest request) throws SQLException {
+        if (!enabled) {
+            return delegate.findPage(request);
+        }
+        Snapshot current = current();
+        boolean byPrice = SORT_PRICE.equals(request.getSortKey());
+        List<Service> rows = byPrice ? current.byPrice : current.byName;
+
+        String search = request.getFilter(FILTER_SEARCH, String.class);
+        if (search != null) {
+            String needle = search.toLowerCase(Locale.ROOT);
+            List<Service> matching = new ArrayList<>();
+            for (Service service : rows) {
+                if (matches(service, needle)) {
+                    matching.add(service);
+                }
+            }
+            rows = matching;
+        }
+        if (request.isDescending()) {
+            rows = new ArrayList<>(rows);
+            Collections.reverse(rows);
+        }
+        return page(request, rows, byPrice);
+    }
+
+    @Override
+    public Service addService(Service service) throws SQLException {
+        try {
+            return delegate.addService(service);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Service updateService(Service service) throws SQLException {
+        try {
+            return delegate.updateService(service);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteService(int serviceId) throws SQLException {
+        try {
+            delegate.deleteService(serviceId);
+        } finally {
+            invalidate();
+        }
+    }
+
+    public Stats getStats() {
+        Snapshot current = snapshot;
+        return new Stats(hits.get(), misses.get(), loads.get(), loadNanos.get(), invalidations.get(),
+                version.get(), current == null ? 0 : current.byName.size());
+    }
+
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        synchronized (loadLock) {
+            current = snapshot;
+            if (current != null && !current.isExpired(ttlNanos)) {
+                return current;
+            }
+            long loadVersion = version.get();
+            long start = System.nanoTime();
+            Snapshot loaded = new Snapshot(delegate.getAllServices());
+            loads.incrementAndGet();
+            loadNanos.addAndGet(System.nanoTime() - start);
+            // A write during the load may not be in it; use it this once but don't keep it
+            synchronized (publishLock) {
+                if (version.get() == loadVersion) {
+                    snapshot = loaded;
+                }
+            }
+            return loaded;
+        }
+    }
+
+    // Same columns as the LIKE filter in ServiceDAOImpl.findPage
+    private static boolean matches(Service service, String needle) {
+        return contains(service.getServiceName(), needle)
+                || contains(service.getDescription(), needle)
+                || (service.getPrice() != null && service.getPrice().toPlainString().contains(needle))
+                || String.valueOf(service.getServiceId()).contains(needle);
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    /**
+     * Cuts one page out of the filtered rows, which are already in the requested order,
+     * with the same cursors and page positions as KeysetQuery.
+     */
+    private static Page<Service> page(PageRequest request, List<Service> rows, boolean byPrice) {
+        int total = rows.size();
+        int size = request.getPageSize();
+        int from;
+        int to;
+        switch (request.getPosition()) {
+            case AFTER:
+                from = positionOf(rows, request.getCursor(), request.isDescending(), byPrice, true);
+                to = Math.min(total, from + size);
+                break;
+            case BEFORE:
+                to = positionOf(rows, request.getCursor(), request.isDescending(), byPrice, false);
+                from = Math.max(0, to - size);
+                break;
+            case LAST:
+                to = total;
+                from = total == 0 ? 0 : total - (((total - 1) % size) + 1);
+                break;
+            default:
+                from = 0;
+                to = Math.min(total, size);
+                break;
+        }
+        if (from >= to) {
+            return new Page<>(request, new ArrayList<>(), total, null, null);
+        }
+        List<Service> items = copyOf(rows.subList(from, to));
+        Page.Cursor previous = from > 0 ? cursorOf(rows.get(from), byPrice) : null;
+        Page.Cursor next = to < total ? cursorOf(rows.get(to - 1), byPrice) : null;
+        return new Page<>(request, items, total, previous, next);
+    }
+
+    // Index of the first row that sorts after the cursor, or of the cursor row itself when after is false
+    private static int positionOf(List<Service> rows, Page.Cursor cursor, boolean descending, boolean byPrice,
+                                  boolean after) {
+        Service probe = new Service();
+        probe.setServiceId(cursor.getId());
+        if (byPrice) {
+            probe.setPrice(cursor.getSortValue() instanceof BigDecimal ? (BigDecimal) cursor.getSortValue()
+                    : new BigDecimal(String.valueOf(cursor.getSortValue())));
+        } else {
+            probe.setServiceName(String.valueOf(cursor.getSortValue()));
+        }
+        Comparator<Service> order = byPrice ? BY_PRICE : BY_NAME;
+        if (descending) {
+            order = order.reversed();
+        }
+        int index = Collections.binarySearch(rows, probe, order);
+        if (index < 0) {
+            return -index - 1;
+        }
+        return after ? index + 1 : index;
+    }
+
+    private static Page.Cursor cursorOf(Service service, boolean byPrice) {
+        return new Page.Cursor(byPrice ? service.getPrice() : service.getServiceName(), service.getServiceId());
+    }
+
+    private static List<Service> copyOf(List<Service> services) {
+        List<Service> copies = new ArrayList<>(services.size());
+        for (Service service : services) {
+            copies.add(copyOf(service));
+        }
+        return copies;
+    }
+
+    private static Service copyOf(Service service) {
+        return new Service(service.getServiceId(), service.getServiceName(), service.getPrice(),
+                service.getDescription(), service.getCreatedAt(), service.getUpdatedAt());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class Snapshot {
+        private final long loadedAt = System.nanoTime();
+        private final List<Service> byName;
+        private final List<Service> byPrice;
+        private final Map<Integer, Service> byId = new HashMap<>();
+
+        private Snapshot(List<Service> services) {
+            List<Service> sortedByName = new ArrayList<>(services);
+            sortedByName.sort(BY_NAME);
+            List<Service> sortedByPrice = new ArrayList<>(services);
+            sortedByPrice.sort(BY_PRICE);
+            this.byName = Collections.unmodifiableList(sortedByName);
+            this.byPrice = Collections.unmodifiableList(sortedByPrice);
+            for (Service service : services) {
+                byId.put(service.getServiceId(), service);
+            }
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            return ttlNanos > 0 && System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+
+    /**
+     * Cache counters since startup.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long loadNanos;
+        private final long invalidations;
+        private final long version;
+        private final int cachedServices;
+
+        Stats(long hits, long misses, long loads, long loadNanos, long invalidations, long version,
+              int cachedServices) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadNanos = loadNanos;
+            this.invalidations = invalidations;
+            this.version = version;
+            this.cachedServices = cachedServices;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public double getAverageLoadMillis() {
+            return loads == 0 ? 0 : loadNanos / 1_000_000.0 / loads;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        /** Incremented by every write and invalidation */
+        public long getVersion() {
+            return version;
+        }
+
+        public int getCachedServices() {
+            return cachedServices;
+        }
+
+        public double getHitRatio() {
+            long reads = hits + misses;
+            return reads == 0 ? 0 : (double) hits / reads;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ServiceCache[hits=%d, misses=%d, hitRatio=%.2f, loads=%d, avgLoad=%.3fms, "
+                            + "invalidations=%d, version=%d, services=%d]",
+                    hits, misses, getHitRatio(), loads, getAverageLoadMillis(), invalidations, version,
+                    cachedServices);
+        }
+    }
+}
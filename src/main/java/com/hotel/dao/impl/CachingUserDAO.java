@@ -0,0 +1,164 @@
+package com.hotel.dao.impl;
+
+import com.hotel.dao.UserDAO;
+import com.hotel.model.User;
+import com.hotel.util.DatabaseConfig;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserDAO decorator that keeps the principals of signed-in users in memory,
+ * keyed by user id.
+ *
+ * authenticate puts the user it returns in the cache, so the main window and
+ * the profile dialog, which read the user through getUserWithStaffDetails,
+ * do not query the database again after login. The cache holds at most
+ * users.cache.maxEntries users, evicting the least recently used, and an
+ * entry is reloaded after users.cache.ttlSeconds so edits made elsewhere are
+ * picked up. updateUser and deleteUser drop the user's entry, as does
+ * StaffDAOImpl when it changes the staff details of a user; a load that
+ * overlaps such a write is returned but not kept.
+ *
+ * Users returned by this class never carry a password, and callers get
+ * copies they may modify freely.
+ *
+ * Configuration (application.properties):
+ *   users.cache.enabled    - serve getUserWithStaffDetails from memory (default true)
+ *   users.cache.maxEntries - users kept (default 100)
+ *   users.cache.ttlSeconds - reload a user after this long; 0 keeps it until a write (default 300)
+ */
+public class CachingUserDAO implements UserDAO {
+
+    private static final CachingUserDAO INSTANCE = new CachingUserDAO(new UserDAOImpl(), DatabaseConfig.load());
+
+    private final UserDAO delegate;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Bumped by every invalidation, so a load that overlapped one is not cached
+    private final AtomicLong version = new AtomicLong();
+
+    // Guarded by itself; access order, so the eldest entry is the least recently used
+    private final Map<Integer, Entry> users;
+
+    CachingUserDAO(UserDAO delegate, DatabaseConfig config) {
+        this.delegate = delegate;
+        this.enabled = config.getBoolean("users.cache.enabled", true);
+        this.maxEntries = Math.max(1, config.getInt("users.cache.maxEntries", 100));
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getLong("users.cache.ttlSeconds", 300)));
+        this.users = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static CachingUserDAO getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Drops the cached user; the next read loads it again.
+     */
+    public void invalidate(int userId) {
+        version.incrementAndGet();
+        synchronized (users) {
+            users.remove(userId);
+        }
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        synchronized (users) {
+            users.clear();
+        }
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) throws SQLException {
+        return delegate.findByUsername(username);
+    }
+
+    @Override
+    public Optional<User> authenticate(String username, String password) throws SQLException {
+        long loadVersion = version.get();
+        Optional<User> principal = delegate.authenticate(username, password);
+        principal.ifPresent(user -> put(user, loadVersion));
+        return principal.map(CachingUserDAO::copyOf);
+    }
+
+    @Override
+    public Optional<User> getUserWithStaffDetails(int userId) throws SQLException {
+        if (!enabled) {
+            return delegate.getUserWithStaffDetails(userId).map(CachingUserDAO::copyOf);
+        }
+        synchronized (users) {
+            Entry entry = users.get(userId);
+            if (entry != null && (ttlNanos == 0 || System.nanoTime() - entry.loadedAt < ttlNanos)) {
+                return Optional.of(copyOf(entry.user));
+            }
+        }
+        long loadVersion = version.get();
+        Optional<User> user = delegate.getUserWithStaffDetails(userId);
+        user.ifPresent(loaded -> put(loaded, loadVersion));
+        return user.map(CachingUserDAO::copyOf);
+    }
+
+    @Override
+    public boolean addUser(User user) throws SQLException {
+        return delegate.addUser(user);
+    }
+
+    @Override
+    public boolean updateUser(User user) throws SQLException {
+        try {
+            return delegate.updateUser(user);
+        } finally {
+            invalidate(user.getUserId());
+        }
+    }
+
+    @Override
+    public boolean deleteUser(int userId) throws SQLException {
+        try {
+            return delegate.deleteUser(userId);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    private void put(User user, long loadVersion) {
+        if (!enabled) {
+            return;
+        }
+        User cached = copyOf(user);
+        synchronized (users) {
+            // A write during the load may not be in it
+            if (version.get() == loadVersion) {
+                users.put(cached.getUserId(), new Entry(cached));
+            }
+        }
+    }
+
+    // A copy without the password
+    private static User copyOf(User user) {
+        return new User(user.getUserId(), user.getUsername(), null, user.getRole(),
+                user.getFirstName(), user.getLastName(), user.getPhoneNumber(), user.getEmail(), user.getPosition());
+    }
+
+    private static final class Entry {
+        final User user;
+        final long loadedAt = System.nanoTime();
+
+        Entry(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -1,130 +1,253 @@
 package com.hotel.dao.impl;
 
 import com.hotel.dao.CustomerDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
 import com.hotel.model.Customer;
-import com.hotel.util.DatabaseConnection;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.IntPredicate;
 
 public class CustomerDAOImpl implements CustomerDAO {
 
+    // Also used by BookingDAOImpl.getAllCustomers
+    static final RowMapper<Customer> CUSTOMER = RowMapper.of(columns -> {
+        int customerId = columns.index("customer_id");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        int email = columns.index("email");
+        int phoneNumber = columns.index("phone_number");
+        int address = columns.index("address");
+        int numberOfAdults = columns.index("number_of_adults");
+        int numberOfKids = columns.index("number_of_kids");
+        return rs -> new Customer(
+            rs.getInt(customerId),
+            rs.getString(firstName),
+            rs.getString(lastName),
+            rs.getString(email),
+            rs.getString(phoneNumber),
+            rs.getString(address),
+            rs.getInt(numberOfAdults),
+            rs.getInt(numberOfKids)
+        );
+    });
+
+    // Customers fetched per query when loading search hits by id
+    private static final int ID_BATCH_SIZE = 500;
+
+    private final CustomerSearchIndex searchIndex = CustomerSearchIndex.getInstance();
+
     public CustomerDAOImpl() {
         // Empty constructor
     }
 
     @Override
     public Optional<Customer> findById(int customerId) throws SQLException {
-        String sql = "SELECT * FROM customers WHERE customer_id = ?";
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, customerId);
-            var rs = stmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("phone_number"),
-                    rs.getString("address"),
-                    rs.getInt("number_of_adults"),
-                    rs.getInt("number_of_kids")
-                ));
-            }
-            return Optional.empty();
-        }
+        return JdbcExecutor.queryOne("SELECT * FROM customers WHERE customer_id = ?", CUSTOMER, customerId);
     }
 
     @Override
     public List<Customer> findAll() throws SQLException {
-        String sql = "SELECT * FROM customers";
-        List<Customer> customers = new ArrayList<>();
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            var rs = stmt.executeQuery();
-            while (rs.next()) {
-                customers.add(new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("phone_number"),
-                    rs.getString("address"),
-                    rs.getInt("number_of_adults"),
-                    rs.getInt("number_of_kids")
-                ));
-            }
-        }
-        return customers;
+        return JdbcExecutor.query("SELECT * FROM customers", CUSTOMER);
     }
 
     @Override
     public boolean addCustomer(Customer customer) throws SQLException {
         String sql = "INSERT INTO customers (first_name, last_name, email, phone_number, address, number_of_adults, number_of_kids) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, customer.getFirstName());
-            stmt.setString(2, customer.getLastName());
-            stmt.setString(3, customer.getEmail());
-            stmt.setString(4, customer.getPhoneNumber());
-            stmt.setString(5, customer.getAddress());
-            stmt.setInt(6, customer.getNumberOfAdults());
-            stmt.setInt(7, customer.getNumberOfKids());
-            return stmt.executeUpdate() > 0;
+        OptionalInt customerId = JdbcExecutor.insert(sql,
+                customer.getFirstName(),
+                customer.getLastName(),
+                customer.getEmail(),
+                customer.getPhoneNumber(),
+                customer.getAddress(),
+                customer.getNumberOfAdults(),
+                customer.getNumberOfKids());
+        if (!customerId.isPresent()) {
+            return false;
         }
+        customer.setCustomerId(customerId.getAsInt());
+        searchIndex.onCustomerSaved(customer);
+        return true;
     }
 
     @Override
     public boolean updateCustomer(Customer customer) throws SQLException {
         String sql = "UPDATE customers SET first_name = ?, last_name = ?, email = ?, phone_number = ?, address = ?, number_of_adults = ?, number_of_kids = ? WHERE customer_id = ?";
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, customer.getFirstName());
-            stmt.setString(2, customer.getLastName());
-            stmt.setString(3, customer.getEmail());
-            stmt.setString(4, customer.getPhoneNumber());
-            stmt.setString(5, customer.getAddress());
-            stmt.setInt(6, customer.getNumberOfAdults());
-            stmt.setInt(7, customer.getNumberOfKids());
-            stmt.setInt(8, customer.getCustomerId());
-            return stmt.executeUpdate() > 0;
+        boolean updated = JdbcExecutor.update(sql,
+                customer.getFirstName(),
+                customer.getLastName(),
+                customer.getEmail(),
+                customer.getPhoneNumber(),
+                customer.getAddress(),
+                customer.getNumberOfAdults(),
+                customer.getNumberOfKids(),
+                customer.getCustomerId()) > 0;
+        if (updated) {
+            searchIndex.onCustomerSaved(customer);
         }
+        return updated;
     }
 
     @Override
     public boolean deleteCustomer(int customerId) throws SQLException {
-        String sql = "DELETE FROM customers WHERE customer_id = ?";
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, customerId);
-            return stmt.executeUpdate() > 0;
+        boolean deleted = JdbcExecutor.update("DELETE FROM customers WHERE customer_id = ?", customerId) > 0;
+        if (deleted) {
+            searchIndex.onCustomerDeleted(customerId);
         }
+        return deleted;
     }
 
     @Override
     public List<Customer> findByName(String name) throws SQLException {
-        String sql = "SELECT * FROM customers WHERE CONCAT(first_name, ' ', last_name) LIKE ?";
-        List<Customer> customers = new ArrayList<>();
-        try (var conn = DatabaseConnection.getConnection();
-             var stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, "%" + name + "%");
-            var rs = stmt.executeQuery();
-            while (rs.next()) {
-                customers.add(new Customer(
-                    rs.getInt("customer_id"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("phone_number"),
-                    rs.getString("address"),
-                    rs.getInt("number_of_adults"),
-                    rs.getInt("number_of_kids")
-                ));
+        Optional<CustomerSearchIndex.Hits> hits = searchIndex.search(name, true, CustomerSearchIndex.PartyFilter.ANY,
+                0, Integer.MAX_VALUE);
+        if (hits.isPresent()) {
+            return findByIds(hits.get().getCustomerIds());
+        }
+        return JdbcExecutor.query("SELECT * FROM customers WHERE CONCAT(first_name, ' ', last_name) LIKE ?",
+                CUSTOMER, "%" + name + "%");
+    }
+
+    /**
+     * Searches go through the search index when it is enabled: the hits are
+     * ranked by relevance instead of the sort key, and the page cursors hold
+     * positions in the ranking.
+     */
+    @Override
+    public Page<Customer> findPage(PageRequest request) throws SQLException {
+        String search = request.getFilter(FILTER_SEARCH, String.class);
+        if (search != null && searchIndex.isEnabled() && !CustomerSearchIndex.split(search).isEmpty()) {
+            return findSearchPage(request, search);
+        }
+
+        String sortColumn;
+        if (SORT_FIRST_NAME.equals(request.getSortKey())) {
+            sortColumn = "first_name";
+        } else if (SORT_EMAIL.equals(request.getSortKey())) {
+            sortColumn = "email";
+        } else {
+            sortColumn = "last_name";
+        }
+        KeysetQuery<Customer> query = new KeysetQuery<>("SELECT *", "FROM customers", sortColumn, "customer_id");
+
+        if (search != null) {
+            String pattern = "%" + search + "%";
+            query.where("(first_name LIKE ? OR last_name LIKE ? OR email LIKE ? OR phone_number LIKE ?)",
+                    pattern, pattern, pattern, pattern);
+        }
+        addCountFilter(query, "number_of_adults", request.getFilter(FILTER_ADULTS, String.class));
+        addCountFilter(query, "number_of_kids", request.getFilter(FILTER_KIDS, String.class));
+        return query.fetch(request, CUSTOMER);
+    }
+
+    private Page<Customer> findSearchPage(PageRequest request, String search) throws SQLException {
+        IntPredicate adults = countFilter("number_of_adults", request.getFilter(FILTER_ADULTS, String.class));
+        IntPredicate kids = countFilter("number_of_kids", request.getFilter(FILTER_KIDS, String.class));
+        CustomerSearchIndex.PartyFilter party = (adultCount, kidCount) -> adults.test(adultCount) && kids.test(kidCount);
+        int size = request.getPageSize();
+
+        // Cursors are positions in the ranking
+        Object position = request.getCursor() != null ? request.getCursor().getSortValue() : null;
+        int offset;
+        switch (request.getPosition()) {
+            case AFTER:
+                offset = position instanceof Integer ? (Integer) position + 1 : 0;
+                break;
+            case BEFORE:
+                offset = position instanceof Integer ? Math.max(0, (Integer) position - size) : 0;
+                break;
+            case LAST:
+                int total = searchIndex.search(search, false, party, 0, 0).map(CustomerSearchIndex.Hits::getTotalCount)
+                        .orElse(0);
+                offset = total == 0 ? 0 : total - ((total - 1) % size) - 1;
+                break;
+            default:
+                offset = 0;
+                break;
+        }
+
+        Optional<CustomerSearchIndex.Hits> found = searchIndex.search(search, false, party, offset, size);
+        if (!found.isPresent()) {
+            return new Page<>(request, Collections.emptyList(), 0, null, null);
+        }
+        CustomerSearchIndex.Hits hits = found.get();
+        List<Customer> customers = findByIds(hits.getCustomerIds());
+        if (customers.isEmpty()) {
+            return new Page<>(request, customers, hits.getTotalCount(), null, null);
+        }
+        int last = offset + customers.size() - 1;
+        Page.Cursor previous = offset > 0 ? new Page.Cursor(offset, customers.get(0).getCustomerId()) : null;
+        Page.Cursor next = offset + hits.getCustomerIds().size() < hits.getTotalCount()
+                ? new Page.Cursor(last, customers.get(customers.size() - 1).getCustomerId()) : null;
+        return new Page<>(request, customers, hits.getTotalCount(), previous, next);
+    }
+
+    /**
+     * Loads the given customers in the order of the ids. Ids of customers that
+     * no longer exist are skipped.
+     */
+    private List<Customer> findByIds(List<Integer> customerIds) throws SQLException {
+        Map<Integer, Customer> byId = new HashMap<>();
+        for (int from = 0; from < customerIds.size(); from += ID_BATCH_SIZE) {
+            List<Integer> batch = customerIds.subList(from, Math.min(customerIds.size(), from + ID_BATCH_SIZE));
+            String sql = "SELECT * FROM customers WHERE customer_id IN (" +
+                    String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+            for (Customer customer : JdbcExecutor.query(sql, CUSTOMER, batch.toArray())) {
+                byId.put(customer.getCustomerId(), customer);
+            }
+        }
+        List<Customer> customers = new ArrayList<>(customerIds.size());
+        for (Integer customerId : customerIds) {
+            Customer customer = byId.get(customerId);
+            if (customer != null) {
+                customers.add(customer);
             }
         }
         return customers;
     }
+
+    /**
+     * The in-memory form of addCountFilter.
+     */
+    private static IntPredicate countFilter(String column, String value) {
+        if (value == null || value.equals("Any")) {
+            return count -> true;
+        }
+        try {
+            if (value.endsWith("+")) {
+                int min = Integer.parseInt(value.substring(0, value.length() - 1));
+                return count -> count >= min;
+            }
+            int exact = Integer.parseInt(value);
+            return count -> count == exact;
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid " + column + " filter: " + value);
+            return count -> true;
+        }
+    }
+
+    /**
+     * Applies an adults/kids filter value: "Any", an exact number, or "N+" for at least N.
+     */
+    private void addCountFilter(KeysetQuery<Customer> query, String column, String value) {
+        if (value == null || value.equals("Any")) {
+            return;
+        }
+        try {
+            if (value.endsWith("+")) {
+                query.where(column + " >= ?", Integer.parseInt(value.substring(0, value.length() - 1)));
+            } else {
+                query.where(column + " = ?", Integer.parseInt(value));
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid " + column + " filter: " + value);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,884 @@
+package com.hotel.dao.impl;
+
+import com.hotel.model.Customer;
+import com.hotel.util.DatabaseConfig;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over customer names, email addresses and phone
+ * numbers, used by CustomerDAOImpl for the customer search box.
+ *
+ * Every customer is split into lower-case words with accents removed, letters
+ * and digits apart: the first and last name, the parts of the email address
+ * ("jane.doe84@mail.com" gives jane, doe, 84, mail, com) and the phone number,
+ * whose digits form one number. Each distinct word has a posting list of the
+ * customers that have it, and each three-letter gram of a word points back to
+ * the word. Numbers are indexed by their digit grams instead, and by their
+ * first one and two digits, as nearly every customer has numbers of their own.
+ *
+ * A query is split the same way, and a customer matches when every query term
+ * matches one of their words or numbers, in decreasing order of score:
+ *
+ *   exact     - the term is the word
+ *   prefix    - the word starts with the term ("sm" finds smith)
+ *   substring - the word contains the term, from three characters ("4567" finds a phone number)
+ *   typo      - the word, or its start, is one edit away from the term, from four
+ *               letters, or two edits from eight; a swapped pair of letters is one
+ *               edit and the first letter must match ("jhon" finds john)
+ *
+ * A match on the name counts more than one on the email or phone. Hits are
+ * ranked by their total score, then by last and first name; search returns
+ * one page of customer ids and the number of hits.
+ *
+ * The index is loaded from the database on first use, normally by MainApp
+ * during startup, and then kept current by CustomerDAOImpl.addCustomer,
+ * updateCustomer and deleteCustomer. A changed customer is re-added and the
+ * old entry left as garbage until enough has built up to compact the index.
+ * Changes made to the customers table by anything other than CustomerDAOImpl
+ * show up after invalidate or a restart.
+ *
+ * Configuration (application.properties):
+ *   customers.search.index.enabled - search customers through the index; false uses SQL LIKE (default true)
+ */
+public class CustomerSearchIndex {
+
+    private static final CustomerSearchIndex INSTANCE = new CustomerSearchIndex(DatabaseConfig.load());
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int GRAM = 3;
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    // Score of a term by how it matches a word; a customer's score is the sum over the terms
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float SUBSTRING = 0.5f;
+    private static final float TYPO = 0.4f;
+    private static final float CONTACT_WEIGHT = 0.8f;
+
+    // Postings hold entry << 1 | field
+    private static final int NAME = 0;
+    private static final int CONTACT = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean enabled;
+
+    // Guarded by lock. Entries are numbered in the order they were added; postings hold those numbers
+    private boolean loaded;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Integer, Integer> entryByCustomer = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final TreeMap<String, Integer> wordIds = new TreeMap<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final Map<String, IntList> wordGrams = new HashMap<>();
+    private final Map<String, IntList> numberGrams = new HashMap<>();
+    private int deadEntries;
+
+    CustomerSearchIndex(DatabaseConfig config) {
+        this.enabled = config.getBoolean("customers.search.index.enabled", true);
+    }
+
+    public static CustomerSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches between the index and SQL LIKE at runtime.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Which customers may be returned, by the size of their party; applied to
+     * every hit before ranking.
+     */
+    @FunctionalInterface
+    public interface PartyFilter {
+        PartyFilter ANY = (adults, kids) -> true;
+
+        boolean test(int adults, int kids);
+    }
+
+    /**
+     * One page of ranked hits.
+     */
+    public static final class Hits {
+        private final List<Integer> customerIds;
+        private final int totalCount;
+
+        Hits(List<Integer> customerIds, int totalCount) {
+            this.customerIds = Collections.unmodifiableList(customerIds);
+            this.totalCount = totalCount;
+        }
+
+        /**
+         * @return The ids of the customers on the page, best match first
+         */
+        public List<Integer> getCustomerIds() {
+            return customerIds;
+        }
+
+        /**
+         * @return The number of customers matching the query across all pages
+         */
+        public int getTotalCount() {
+            return totalCount;
+        }
+    }
+
+    /**
+     * Loads the index now unless it is loaded already, so the first search does not wait for it.
+     */
+    public void preload() throws SQLException {
+        if (enabled) {
+            ensureLoaded();
+        }
+    }
+
+    /**
+     * Searches the index, or returns empty when it is disabled or the query has no terms.
+     *
+     * @param query     The text typed into the search box
+     * @param namesOnly Match first and last names only, not email or phone
+     * @param filter    Party sizes to include
+     * @param offset    Hits to skip
+     * @param limit     Hits to return at most
+     */
+    public Optional<Hits> search(String query, boolean namesOnly, PartyFilter filter, int offset, int limit)
+            throws SQLException {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        List<String> queryTerms = split(query);
+        if (queryTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Term> terms = new ArrayList<>();
+            for (String text : queryTerms) {
+                terms.add(isNumber(text) ? new NumberTerm(text, namesOnly) : new WordTerm(text, namesOnly));
+            }
+            // Candidates come from the term with the fewest postings; the others are checked per customer
+            Term driver = Collections.min(terms, (a, b) -> Long.compare(a.estimate(), b.estimate()));
+            float[] driverScores = new float[entries.size()];
+            IntList candidates = new IntList();
+            driver.collect(driverScores, candidates);
+
+            int wanted = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, offset) + Math.max(0, limit));
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(wanted, 1024) + 1, (a, b) -> rank(b, a));
+            int total = 0;
+            for (int c = 0; c < candidates.size; c++) {
+                int entryNumber = candidates.values[c];
+                Entry entry = entries.get(entryNumber);
+                if (entry.dead || !filter.test(entry.adults, entry.kids)) {
+                    continue;
+                }
+                float score = driverScores[entryNumber];
+                for (Term term : terms) {
+                    if (term != driver) {
+                        float termScore = term.score(entry);
+                        if (termScore == 0) {
+                            score = 0;
+                            break;
+                        }
+                        score += termScore;
+                    }
+                }
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                if (wanted == 0) {
+                    continue;
+                }
+                if (best.size() < wanted) {
+                    best.add(new Hit(entry, score));
+                } else if (rank(score, entry, best.peek().score, best.peek().entry) < 0) {
+                    best.poll();
+                    best.add(new Hit(entry, score));
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(best);
+            ranked.sort(CustomerSearchIndex::rank);
+            List<Integer> page = new ArrayList<>();
+            for (int i = Math.max(0, offset); i < ranked.size(); i++) {
+                page.add(ranked.get(i).entry.customerId);
+            }
+            return Optional.of(new Hits(page, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a new customer or replaces the indexed copy of an updated one.
+     */
+    public void onCustomerSaved(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            remove(customer.getCustomerId());
+            add(customer.getCustomerId(), customer.getNumberOfAdults(), customer.getNumberOfKids(),
+                    split(customer.getLastName(), customer.getFirstName()), split(customer.getEmail()),
+                    numbers(customer));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted customer.
+     */
+    public void onCustomerDeleted(int customerId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            remove(customerId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index; it is reloaded from the database on the next search.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws SQLException {
+        clear();
+        JdbcExecutor.stream("SELECT * FROM customers", CustomerDAOImpl.CUSTOMER, LOAD_FETCH_SIZE, customer -> {
+            add(customer.getCustomerId(), customer.getNumberOfAdults(), customer.getNumberOfKids(),
+                    split(customer.getLastName(), customer.getFirstName()), split(customer.getEmail()),
+                    numbers(customer));
+            return true;
+        });
+        loaded = true;
+    }
+
+    private void clear() {
+        entries.clear();
+        entryByCustomer.clear();
+        words.clear();
+        wordIds.clear();
+        postings.clear();
+        wordGrams.clear();
+        numberGrams.clear();
+        deadEntries = 0;
+    }
+
+    /**
+     * Indexes a customer.
+     *
+     * @param name    The words of the last name, then the first name
+     * @param contact The words of the email address; numbers among them are taken out
+     * @param numbers The phone number's digits first, if any, then other numbers
+     */
+    private void add(int customerId, int adults, int kids, List<String> name, List<String> contact,
+                     List<String> numbers) {
+        List<String> nameWords = new ArrayList<>();
+        for (String word : name) {
+            (isNumber(word) ? numbers : nameWords).add(word);
+        }
+        List<String> contactWords = new ArrayList<>();
+        for (String word : contact) {
+            (isNumber(word) ? numbers : contactWords).add(word);
+        }
+
+        int entryNumber = entries.size();
+        Entry entry = new Entry(customerId, adults, kids, nameKey(nameWords),
+                wordIds(nameWords, entryNumber, NAME), wordIds(contactWords, entryNumber, CONTACT),
+                numbers.isEmpty() ? null : String.join(" ", numbers));
+        for (String number : numbers) {
+            addNumberGram("^" + number.substring(0, 1), entryNumber);
+            if (number.length() >= 2) {
+                addNumberGram("^" + number.substring(0, 2), entryNumber);
+            }
+            for (int i = 0; i + GRAM <= number.length(); i++) {
+                addNumberGram(number.substring(i, i + GRAM), entryNumber);
+            }
+        }
+        entries.add(entry);
+        entryByCustomer.put(customerId, entryNumber);
+    }
+
+    private void addNumberGram(String gram, int entryNumber) {
+        IntList list = numberGrams.computeIfAbsent(gram, g -> new IntList());
+        if (list.size == 0 || list.values[list.size - 1] != entryNumber) {
+            list.add(entryNumber);
+        }
+    }
+
+    private void remove(int customerId) {
+        Integer entryNumber = entryByCustomer.remove(customerId);
+        if (entryNumber != null) {
+            entries.get(entryNumber).dead = true;
+            deadEntries++;
+        }
+    }
+
+    private int[] wordIds(List<String> entryWords, int entryNumber, int field) {
+        int[] ids = new int[entryWords.size()];
+        int posting = entryNumber << 1 | field;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = wordId(entryWords.get(i));
+            IntList list = postings.get(ids[i]);
+            // A customer with a repeated word is posted once per field
+            if (list.size == 0 || list.values[list.size - 1] != posting) {
+                list.add(posting);
+            }
+        }
+        return ids;
+    }
+
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) {
+            return id;
+        }
+        int newId = words.size();
+        words.add(word);
+        wordIds.put(word, newId);
+        postings.add(new IntList());
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            IntList list = wordGrams.computeIfAbsent(word.substring(i, i + GRAM), g -> new IntList());
+            if (list.size == 0 || list.values[list.size - 1] != newId) {
+                list.add(newId);
+            }
+        }
+        return newId;
+    }
+
+    // Rebuilds the index from its live entries once a fifth of it is replaced or deleted customers
+    private void compactIfNeeded() {
+        if (deadEntries < 1000 || deadEntries * 5 < entries.size()) {
+            return;
+        }
+        List<Entry> live = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.dead) {
+                live.add(entry);
+            }
+        }
+        List<String> oldWords = new ArrayList<>(words);
+        clear();
+        for (Entry entry : live) {
+            List<String> numbers = new ArrayList<>();
+            if (entry.numbers != null) {
+                numbers.addAll(Arrays.asList(entry.numbers.split(" ")));
+            }
+            add(entry.customerId, entry.adults, entry.kids, lookUp(entry.nameWords, oldWords),
+                    lookUp(entry.contactWords, oldWords), numbers);
+        }
+    }
+
+    private static List<String> lookUp(int[] ids, List<String> vocabulary) {
+        List<String> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            found.add(vocabulary.get(id));
+        }
+        return found;
+    }
+
+    // Hits in rank order: higher score, then last and first name, then customer id
+    private static int rank(Hit a, Hit b) {
+        return rank(a.score, a.entry, b.score, b.entry);
+    }
+
+    private static int rank(float scoreA, Entry a, float scoreB, Entry b) {
+        int byScore = Float.compare(scoreB, scoreA);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byName = Long.compare(a.nameKey, b.nameKey);
+        return byName != 0 ? byName : Integer.compare(a.customerId, b.customerId);
+    }
+
+    /**
+     * The first twelve characters of the name as a number that sorts like them.
+     */
+    private static long nameKey(List<String> nameWords) {
+        String name = String.join(" ", nameWords);
+        long key = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = 0;
+            if (i < name.length()) {
+                char c = name.charAt(i);
+                digit = c == ' ' ? 1 : c >= '0' && c <= '9' ? 2 + (c - '0') : c >= 'a' && c <= 'z' ? 12 + (c - 'a') : 36;
+            }
+            key = key * 37 + digit;
+        }
+        return key;
+    }
+
+    private static List<String> numbers(Customer customer) {
+        List<String> numbers = new ArrayList<>();
+        String phone = customer.getPhoneNumber();
+        if (phone != null) {
+            StringBuilder digits = new StringBuilder();
+            for (int i = 0; i < phone.length(); i++) {
+                if (Character.isDigit(phone.charAt(i))) {
+                    digits.append(phone.charAt(i));
+                }
+            }
+            if (digits.length() > 0) {
+                numbers.add(digits.toString());
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Lower-case words of the texts with accents removed, runs of letters and runs of digits apart.
+     */
+    static List<String> split(String... texts) {
+        List<String> found = new ArrayList<>();
+        for (String text : texts) {
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+            String folded = text;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) > 127) {
+                    folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                    break;
+                }
+            }
+            folded = folded.toLowerCase();
+            int start = -1;
+            for (int i = 0; i <= folded.length(); i++) {
+                char c = i < folded.length() ? folded.charAt(i) : ' ';
+                boolean letterOrDigit = Character.isLetterOrDigit(c);
+                if (start >= 0 && (!letterOrDigit || Character.isDigit(c) != Character.isDigit(folded.charAt(start)))) {
+                    found.add(folded.substring(start, i));
+                    start = -1;
+                }
+                if (start < 0 && letterOrDigit) {
+                    start = i;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isNumber(String word) {
+        return Character.isDigit(word.charAt(0));
+    }
+
+    /**
+     * Edits (insertions, deletions, substitutions and swaps of neighbouring
+     * characters) between the term and the closest prefix of the word, or
+     * maxEdits + 1 if that is more than maxEdits.
+     */
+    static int prefixEditDistance(String term, String word, int maxEdits) {
+        int m = term.length();
+        int n = Math.min(word.length(), m + maxEdits);
+        int[] beforePrevious = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = term.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && term.charAt(i - 1) == word.charAt(j - 2)
+                        && term.charAt(i - 2) == word.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        // The term against every prefix of the word; the shortest distance wins
+        int best = maxEdits + 1;
+        for (int j = Math.max(0, m - maxEdits); j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    /**
+     * One term of a query.
+     */
+    private interface Term {
+        /** Postings the term has, to pick the term that yields the fewest candidates */
+        long estimate();
+
+        /** Adds every customer the term matches to candidates, with its score for the term */
+        void collect(float[] scores, IntList candidates);
+
+        /** The term's score for the customer, 0 if it does not match */
+        float score(Entry entry);
+    }
+
+    /**
+     * A term of letters, matched against the word vocabulary.
+     */
+    private final class WordTerm implements Term {
+        private final boolean namesOnly;
+        private final WordScores matches = new WordScores();
+        private long postingCount;
+
+        WordTerm(String term, boolean namesOnly) {
+            this.namesOnly = namesOnly;
+
+            // Exact and prefix: the words sorting from the term up to the term followed by the highest character
+            for (Map.Entry<String, Integer> word
+                    : wordIds.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                // Closer to the whole word scores higher, so "smit" ranks smith before smithers
+                float score = word.getKey().length() == term.length() ? EXACT
+                        : PREFIX + 0.2f * term.length() / word.getKey().length();
+                matches.put(word.getValue(), score);
+            }
+
+            if (term.length() >= GRAM) {
+                IntList candidates = intersect(wordGrams, term, false);
+                for (int i = 0; i < candidates.size; i++) {
+                    if (words.get(candidates.values[i]).contains(term)) {
+                        matches.put(candidates.values[i], SUBSTRING);
+                    }
+                }
+            }
+
+            int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+            if (maxEdits > 0) {
+                String first = term.substring(0, 1);
+                for (Map.Entry<String, Integer> word
+                        : wordIds.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                    if (word.getKey().length() < term.length() - maxEdits) {
+                        continue;
+                    }
+                    int edits = prefixEditDistance(term, word.getKey(), maxEdits);
+                    if (edits > 0 && edits <= maxEdits) {
+                        matches.put(word.getValue(), TYPO - 0.1f * (edits - 1));
+                    }
+                }
+            }
+
+            for (int i = 0; i < matches.size; i++) {
+                postingCount += postings.get(matches.words[i]).size;
+            }
+        }
+
+        @Override
+        public long estimate() {
+            return postingCount;
+        }
+
+        @Override
+        public void collect(float[] scores, IntList candidates) {
+            for (int i = 0; i < matches.size; i++) {
+                float wordScore = matches.scoreAt(i);
+                IntList list = postings.get(matches.words[i]);
+                for (int p = 0; p < list.size; p++) {
+                    int posting = list.values[p];
+                    if ((posting & 1) == CONTACT && namesOnly) {
+                        continue;
+                    }
+                    int entryNumber = posting >>> 1;
+                    float score = (posting & 1) == CONTACT ? CONTACT_WEIGHT * wordScore : wordScore;
+                    if (scores[entryNumber] == 0) {
+                        candidates.add(entryNumber);
+                    }
+                    scores[entryNumber] = Math.max(scores[entryNumber], score);
+                }
+            }
+        }
+
+        @Override
+        public float score(Entry entry) {
+            float best = 0;
+            for (int word : entry.nameWords) {
+                best = Math.max(best, matches.get(word));
+            }
+            if (!namesOnly) {
+                for (int word : entry.contactWords) {
+                    best = Math.max(best, CONTACT_WEIGHT * matches.get(word));
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A term of digits, matched against the numbers of each customer through the number grams.
+     */
+    private final class NumberTerm implements Term {
+        private final String term;
+        private final boolean namesOnly;
+        private final IntList candidates;
+
+        NumberTerm(String term, boolean namesOnly) {
+            this.term = term;
+            this.namesOnly = namesOnly;
+            if (namesOnly) {
+                candidates = new IntList();
+            } else if (term.length() < GRAM) {
+                IntList starting = numberGrams.get("^" + term);
+                candidates = starting != null ? starting : new IntList();
+            } else {
+                candidates = intersect(numberGrams, term, true);
+            }
+        }
+
+        @Override
+        public long estimate() {
+            return candidates.size;
+        }
+
+        @Override
+        public void collect(float[] scores, IntList found) {
+            for (int i = 0; i < candidates.size; i++) {
+                int entryNumber = candidates.values[i];
+                float score = score(entries.get(entryNumber));
+                if (score > 0) {
+                    scores[entryNumber] = score;
+                    found.add(entryNumber);
+                }
+            }
+        }
+
+        @Override
+        public float score(Entry entry) {
+            if (namesOnly || entry.numbers == null) {
+                return 0;
+            }
+            String numbers = entry.numbers;
+            float best = 0;
+            for (int start = 0; start < numbers.length(); ) {
+                int end = numbers.indexOf(' ', start);
+                if (end < 0) {
+                    end = numbers.length();
+                }
+                int length = end - start;
+                if (numbers.startsWith(term, start)) {
+                    best = Math.max(best, length == term.length() ? EXACT : PREFIX + 0.2f * term.length() / length);
+                } else if (term.length() >= GRAM) {
+                    int at = numbers.indexOf(term, start);
+                    if (at >= 0 && at + term.length() <= end) {
+                        best = Math.max(best, SUBSTRING);
+                    }
+                }
+                start = end + 1;
+            }
+            return CONTACT_WEIGHT * best;
+        }
+    }
+
+    /**
+     * The values in every gram list of the term, from the shortest list; they
+     * are the candidates for containing the term. Gram lists are in ascending order.
+     */
+    private static IntList intersect(Map<String, IntList> grams, String term, boolean copy) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            IntList list = grams.get(term.substring(i, i + GRAM));
+            if (list == null) {
+                return new IntList();
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        IntList shortest = lists.get(0);
+        IntList result = new IntList();
+        for (int i = 0; i < shortest.size; i++) {
+            int value = shortest.values[i];
+            boolean inAll = true;
+            for (int l = 1; l < lists.size() && inAll; l++) {
+                inAll = lists.get(l).contains(value);
+            }
+            if (inAll) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The indexed part of a customer. Words are ids into the vocabulary.
+     */
+    private static final class Entry {
+        final int customerId;
+        final int adults;
+        final int kids;
+        final long nameKey;
+        final int[] nameWords;
+        final int[] contactWords;
+        // The customer's numbers separated by spaces, phone first; null if none
+        final String numbers;
+        boolean dead;
+
+        Entry(int customerId, int adults, int kids, long nameKey, int[] nameWords, int[] contactWords,
+              String numbers) {
+            this.customerId = customerId;
+            this.adults = adults;
+            this.kids = kids;
+            this.nameKey = nameKey;
+            this.nameWords = nameWords;
+            this.contactWords = contactWords;
+            this.numbers = numbers;
+        }
+    }
+
+    private static final class Hit {
+        final Entry entry;
+        final float score;
+
+        Hit(Entry entry, float score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Growable list of ints in the order added.
+     */
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Binary search; the lists it is used on are in ascending order
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+
+    /**
+     * The words matched by one query term with their scores, in an open-addressing
+     * hash table; a word keeps its best score.
+     */
+    private static final class WordScores {
+        int[] words = new int[16];
+        int size;
+        private int[] keys = new int[32];
+        private float[] scores = new float[32];
+
+        WordScores() {
+            Arrays.fill(keys, -1);
+        }
+
+        void put(int word, float score) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int slot = slot(word);
+            if (keys[slot] == -1) {
+                keys[slot] = word;
+                scores[slot] = score;
+                if (size == words.length) {
+                    words = Arrays.copyOf(words, size * 2);
+                }
+                words[size++] = word;
+            } else {
+                scores[slot] = Math.max(scores[slot], score);
+            }
+        }
+
+        float get(int word) {
+            int slot = slot(word);
+            return keys[slot] == -1 ? 0 : scores[slot];
+        }
+
+        // The score of the i-th word put
+        float scoreAt(int i) {
+            return get(words[i]);
+        }
+
+        private int slot(int word) {
+            int mask = keys.length - 1;
+            int slot = (word * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != -1 && keys[slot] != word) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldScores = scores;
+            keys = new int[oldKeys.length * 2];
+            scores = new float[oldScores.length * 2];
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    scores[slot] = oldScores[i];
+                }
+            }
+        }
+    }
+}
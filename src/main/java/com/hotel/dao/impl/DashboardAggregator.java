@@ -0,0 +1,529 @@
+package com.hotel.dao.impl;
+
+import com.hotel.model.Booking;
+import com.hotel.model.Room;
+import com.hotel.models.DashboardSummary;
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the dashboard counters in memory so DashboardDAOImpl does not have to
+ * evaluate the dashboard_summary view on every refresh.
+ *
+ * The counters are seeded from the view together with the few rows needed to
+ * apply changes to them (room statuses, today's bookings, the 30-day feedback
+ * count). After that the room, booking, payment, staff and feedback DAOs
+ * report each successful write here and the affected counters are adjusted
+ * in place. The view is read again when the date changes, after a change that
+ * cannot be applied as a delta, and every reconcile interval; any drift found
+ * then is logged and discarded.
+ *
+ * Configuration (application.properties):
+ *   dashboard.aggregator.enabled      - keep counters in memory (default true)
+ *   dashboard.reconcileIntervalSeconds - how often the view is re-read (default 300)
+ */
+public class DashboardAggregator {
+
+    private static final String AVAILABLE = "Available";
+    private static final String BOOKED = "Booked";
+    private static final String OCCUPIED = "Occupied";
+    private static final String CLEANING = "Cleaning";
+    private static final String MAINTENANCE = "Maintenance";
+    private static final String OUT_OF_SERVICE = "Out of Service";
+    private static final String CANCELLED = "Cancelled";
+
+    private static final int FEEDBACK_DAYS = 30;
+    private static final int REVENUE_DAYS = 30;
+
+    private static final DashboardAggregator INSTANCE = new DashboardAggregator(DatabaseConfig.load());
+
+    // The booking columns a counter depends on
+    private static final RowMapper<Booking> BOOKING_ENTRY = RowMapper.of(columns -> {
+        int bookingId = columns.index("booking_id");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        int bookingStatus = columns.index("booking_status");
+        int createdAt = columns.index("created_at");
+        return rs -> {
+            Booking booking = new Booking();
+            booking.setBookingId(rs.getInt(bookingId));
+            booking.setCheckInDate(rs.getDate(checkInDate).toLocalDate());
+            booking.setCheckOutDate(rs.getDate(checkOutDate).toLocalDate());
+            booking.setBookingStatus(rs.getString(bookingStatus));
+            Timestamp created = rs.getTimestamp(createdAt);
+            if (created != null) {
+                booking.setCreatedAt(created.toLocalDateTime());
+            }
+            return booking;
+        };
+    });
+
+    private static final RowMapper<DashboardSummary> SUMMARY = RowMapper.of(columns -> {
+        int availableRooms = columns.index("available_rooms");
+        int cleaningRooms = columns.index("cleaning_rooms");
+        int maintenanceRooms = columns.index("maintenance_rooms");
+        int outOfServiceRooms = columns.index("out_of_service_rooms");
+        int bookedRooms = columns.index("booked_rooms");
+        int occupiedRooms = columns.index("occupied_rooms");
+        int totalRooms = columns.index("total_rooms");
+        int totalStaff = columns.index("total_staff");
+        int todaysBookings = columns.index("todays_bookings");
+        int todaysCheckIns = columns.index("todays_check_ins");
+        int todaysCheckOuts = columns.index("todays_check_outs");
+        int avgFeedbackRating = columns.index("avg_feedback_rating_30_days");
+        int todaysRevenue = columns.index("todays_revenue");
+        int revenueLast30Days = columns.index("revenue_last_30_days");
+        return rs -> {
+            DashboardSummary summary = new DashboardSummary();
+            summary.setAvailableRooms(rs.getInt(availableRooms));
+            summary.setCleaningRooms(rs.getInt(cleaningRooms));
+            summary.setMaintenanceRooms(rs.getInt(maintenanceRooms));
+            summary.setOutOfServiceRooms(rs.getInt(outOfServiceRooms));
+            summary.setBookedRooms(rs.getInt(bookedRooms));
+            summary.setOccupiedRooms(rs.getInt(occupiedRooms));
+            summary.setTotalRooms(rs.getInt(totalRooms));
+            summary.setTotalStaff(rs.getInt(totalStaff));
+            summary.setTodaysBookings(rs.getInt(todaysBookings));
+            summary.setTodaysCheckIns(rs.getInt(todaysCheckIns));
+            summary.setTodaysCheckOuts(rs.getInt(todaysCheckOuts));
+            summary.setAvgFeedbackRating30Days(rs.getDouble(avgFeedbackRating));
+            summary.setTodaysRevenue(orZero(rs.getBigDecimal(todaysRevenue)));
+            summary.setRevenueLast30Days(orZero(rs.getBigDecimal(revenueLast30Days)));
+            return summary;
+        };
+    });
+
+    private final long reconcileIntervalNanos;
+    private volatile boolean enabled;
+
+    // Only one thread reads the view at a time
+    private final Object seedLock = new Object();
+
+    // Guarded by this
+    private boolean seeded;
+    private boolean dirty;
+    private long modifications;
+    private LocalDate seededDate;
+    private long seededAt;
+    private final Map<String, Integer> roomStatusCounts = new HashMap<>();
+    private final Map<String, String> roomStatusByNumber = new HashMap<>();
+    private final Map<Integer, String> roomNumberById = new HashMap<>();
+    private final Map<Integer, BookingEntry> todaysBookings = new HashMap<>();
+    private final int[] bookingOffsets = new int[3];
+    private int totalStaff;
+    private int feedbackCount;
+    private double feedbackAverage;
+    private BigDecimal todaysRevenue = BigDecimal.ZERO;
+    private BigDecimal revenueLast30Days = BigDecimal.ZERO;
+
+    DashboardAggregator(DatabaseConfig config) {
+        this.enabled = config.getBoolean("dashboard.aggregator.enabled", true);
+        this.reconcileIntervalNanos = TimeUnit.SECONDS.toNanos(
+                Math.max(1, config.getLong("dashboard.reconcileIntervalSeconds", 300)));
+    }
+
+    public static DashboardAggregator getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches between the in-memory counters and reading the view on every call.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Returns the current counters, reading the view first when they are
+     * missing, stale or due for reconciliation.
+     */
+    public DashboardSummary getSummary() throws SQLException {
+        if (!enabled) {
+            return readView();
+        }
+        synchronized (this) {
+            if (isCurrent()) {
+                return toSummary();
+            }
+        }
+        seed(false);
+        synchronized (this) {
+            return toSummary();
+        }
+    }
+
+    /**
+     * Re-reads the view now and logs any counter that had drifted from it.
+     */
+    public void reconcile() throws SQLException {
+        if (enabled) {
+            seed(true);
+        }
+    }
+
+    /**
+     * Drops the counters; the view is read again on the next call to getSummary.
+     */
+    public synchronized void invalidate() {
+        seeded = false;
+        modifications++;
+    }
+
+    public synchronized void onRoomAdded(Room room) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        if (room.getRoomNumber() == null || roomStatusByNumber.containsKey(room.getRoomNumber())) {
+            dirty = true;
+            return;
+        }
+        // addRoom does not read back the generated id, so deleting this room later forces a reseed
+        roomStatusByNumber.put(room.getRoomNumber(), room.getStatus());
+        adjustRoomStatus(room.getStatus(), 1);
+    }
+
+    public synchronized void onRoomStatusChanged(String roomNumber, String newStatus) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        if (!roomStatusByNumber.containsKey(roomNumber)) {
+            dirty = true;
+            return;
+        }
+        adjustRoomStatus(roomStatusByNumber.put(roomNumber, newStatus), -1);
+        adjustRoomStatus(newStatus, 1);
+    }
+
+    public synchronized void onRoomUpdated(Room room) {
+        if (!seeded) {
+            return;
+        }
+        String roomNumber = roomNumberById.get(room.getRoomId());
+        if (roomNumber == null) {
+            modifications++;
+            dirty = true;
+            return;
+        }
+        onRoomStatusChanged(roomNumber, room.getStatus());
+    }
+
+    public synchronized void onRoomDeleted(int roomId) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        String roomNumber = roomNumberById.remove(roomId);
+        if (roomNumber == null) {
+            dirty = true;
+            return;
+        }
+        adjustRoomStatus(roomStatusByNumber.remove(roomNumber), -1);
+    }
+
+    /**
+     * Records a new or changed booking. created is true for a booking inserted just now.
+     */
+    public synchronized void onBookingSaved(Booking booking, boolean created) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        BookingEntry previous = todaysBookings.remove(booking.getBookingId());
+        String status = booking.getBookingStatus() != null ? booking.getBookingStatus()
+                : previous != null ? previous.status : null;
+        boolean createdToday = created || (previous != null && previous.createdToday);
+        BookingEntry updated = new BookingEntry(booking.getCheckInDate(), booking.getCheckOutDate(),
+                status, createdToday);
+        if (updated.isRelevant(seededDate)) {
+            todaysBookings.put(booking.getBookingId(), updated);
+        }
+    }
+
+    public synchronized void onBookingDeleted(int bookingId) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        todaysBookings.remove(bookingId);
+    }
+
+    public synchronized void onStaffAdded() {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        totalStaff++;
+    }
+
+    public synchronized void onStaffDeleted() {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        totalStaff = Math.max(0, totalStaff - 1);
+    }
+
+    public synchronized void onPaymentAdded(BigDecimal amount, LocalDate paymentDate) {
+        if (!seeded || amount == null || paymentDate == null) {
+            return;
+        }
+        modifications++;
+        if (paymentDate.equals(seededDate)) {
+            todaysRevenue = todaysRevenue.add(amount);
+        }
+        if (!paymentDate.isBefore(seededDate.minusDays(REVENUE_DAYS)) && !paymentDate.isAfter(seededDate)) {
+            revenueLast30Days = revenueLast30Days.add(amount);
+        }
+    }
+
+    /**
+     * Records feedback submitted now; the database stamps it with the current time.
+     */
+    public synchronized void onFeedbackAdded(int rating) {
+        if (!seeded) {
+            return;
+        }
+        modifications++;
+        feedbackAverage = (feedbackAverage * feedbackCount + rating) / (feedbackCount + 1);
+        feedbackCount++;
+    }
+
+    private boolean isCurrent() {
+        return seeded && !dirty
+                && LocalDate.now().equals(seededDate)
+                && System.nanoTime() - seededAt < reconcileIntervalNanos;
+    }
+
+    private void seed(boolean force) throws SQLException {
+        synchronized (seedLock) {
+            synchronized (this) {
+                // Another thread may have seeded while this one waited
+                if (!force && isCurrent()) {
+                    return;
+                }
+            }
+            long modificationsBefore;
+            synchronized (this) {
+                modificationsBefore = modifications;
+            }
+            Snapshot snapshot = loadSnapshot();
+
+            synchronized (this) {
+                if (seeded && force) {
+                    List<String> drift = compare(toSummary(), snapshot.summary);
+                    if (!drift.isEmpty()) {
+                        System.err.println("Dashboard counters drifted from dashboard_summary: " + drift);
+                    }
+                }
+                apply(snapshot);
+                // A write that landed while the view was being read may or may not be in it
+                dirty = modifications != modificationsBefore;
+            }
+        }
+    }
+
+    private Snapshot loadSnapshot() throws SQLException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.date = LocalDate.now();
+        snapshot.summary = readView();
+
+        String roomSql = "SELECT room_id, room_number, type, price, status, floor FROM rooms";
+        String bookingSql = "SELECT booking_id, check_in_date, check_out_date, booking_status, created_at FROM bookings " +
+                "WHERE check_in_date = ? OR check_out_date = ? OR created_at >= ?";
+        String feedbackSql = "SELECT COUNT(*) FROM feedback WHERE feedback_date >= ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Room room : JdbcExecutor.query(conn, roomSql, RoomDAOImpl.ROOM)) {
+                snapshot.roomNumberById.put(room.getRoomId(), room.getRoomNumber());
+                snapshot.roomStatusByNumber.put(room.getRoomNumber(), room.getStatus());
+            }
+            for (Booking booking : JdbcExecutor.query(conn, bookingSql, BOOKING_ENTRY,
+                    snapshot.date, snapshot.date, snapshot.date.atStartOfDay())) {
+                LocalDateTime createdAt = booking.getCreatedAt();
+                snapshot.todaysBookings.put(booking.getBookingId(), new BookingEntry(
+                        booking.getCheckInDate(), booking.getCheckOutDate(), booking.getBookingStatus(),
+                        createdAt != null && !createdAt.toLocalDate().isBefore(snapshot.date)));
+            }
+            snapshot.feedbackCount = JdbcExecutor.queryInt(conn, feedbackSql,
+                    snapshot.date.minusDays(FEEDBACK_DAYS).atStartOfDay());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads the dashboard_summary view directly.
+     */
+    DashboardSummary readView() throws SQLException {
+        return JdbcExecutor.queryOne("SELECT * FROM dashboard_summary", SUMMARY).orElseGet(DashboardSummary::new);
+    }
+
+    private void apply(Snapshot snapshot) {
+        DashboardSummary view = snapshot.summary;
+        seededDate = snapshot.date;
+        seededAt = System.nanoTime();
+
+        roomNumberById.clear();
+        roomNumberById.putAll(snapshot.roomNumberById);
+        roomStatusByNumber.clear();
+        roomStatusByNumber.putAll(snapshot.roomStatusByNumber);
+        todaysBookings.clear();
+        todaysBookings.putAll(snapshot.todaysBookings);
+
+        // Today's booking counters start from the view; the tracked rows only supply changes to them
+        int[] counted = countTodaysBookings();
+        bookingOffsets[0] = view.getTodaysBookings() - counted[0];
+        bookingOffsets[1] = view.getTodaysCheckIns() - counted[1];
+        bookingOffsets[2] = view.getTodaysCheckOuts() - counted[2];
+
+        // The room counters come from the view so they match its definition exactly
+        roomStatusCounts.clear();
+        roomStatusCounts.put(AVAILABLE, view.getAvailableRooms());
+        roomStatusCounts.put(CLEANING, view.getCleaningRooms());
+        roomStatusCounts.put(MAINTENANCE, view.getMaintenanceRooms());
+        roomStatusCounts.put(OUT_OF_SERVICE, view.getOutOfServiceRooms());
+        roomStatusCounts.put(BOOKED, view.getBookedRooms());
+        roomStatusCounts.put(OCCUPIED, view.getOccupiedRooms());
+        roomStatusCounts.put(null, view.getTotalRooms());
+
+        totalStaff = view.getTotalStaff();
+        feedbackCount = snapshot.feedbackCount;
+        feedbackAverage = view.getAvgFeedbackRating30Days();
+        todaysRevenue = orZero(view.getTodaysRevenue());
+        revenueLast30Days = orZero(view.getRevenueLast30Days());
+        seeded = true;
+    }
+
+    private DashboardSummary toSummary() {
+        DashboardSummary summary = new DashboardSummary();
+        summary.setAvailableRooms(roomStatusCounts.getOrDefault(AVAILABLE, 0));
+        summary.setCleaningRooms(roomStatusCounts.getOrDefault(CLEANING, 0));
+        summary.setMaintenanceRooms(roomStatusCounts.getOrDefault(MAINTENANCE, 0));
+        summary.setOutOfServiceRooms(roomStatusCounts.getOrDefault(OUT_OF_SERVICE, 0));
+        summary.setBookedRooms(roomStatusCounts.getOrDefault(BOOKED, 0));
+        summary.setOccupiedRooms(roomStatusCounts.getOrDefault(OCCUPIED, 0));
+        summary.setTotalRooms(roomStatusCounts.getOrDefault(null, 0));
+        summary.setTotalStaff(totalStaff);
+
+        int[] counted = countTodaysBookings();
+        summary.setTodaysBookings(counted[0] + bookingOffsets[0]);
+        summary.setTodaysCheckIns(counted[1] + bookingOffsets[1]);
+        summary.setTodaysCheckOuts(counted[2] + bookingOffsets[2]);
+
+        summary.setAvgFeedbackRating30Days(feedbackAverage);
+        summary.setTodaysRevenue(todaysRevenue);
+        summary.setRevenueLast30Days(revenueLast30Days);
+        return summary;
+    }
+
+    // Bookings created, checking in and checking out today, in that order
+    private int[] countTodaysBookings() {
+        int[] counts = new int[3];
+        for (BookingEntry entry : todaysBookings.values()) {
+            if (CANCELLED.equals(entry.status)) {
+                continue;
+            }
+            if (entry.createdToday) {
+                counts[0]++;
+            }
+            if (seededDate.equals(entry.checkIn)) {
+                counts[1]++;
+            }
+            if (seededDate.equals(entry.checkOut)) {
+                counts[2]++;
+            }
+        }
+        return counts;
+    }
+
+    // Counts under the null key are the room total
+    private void adjustRoomStatus(String status, int delta) {
+        roomStatusCounts.merge(null, delta, Integer::sum);
+        if (status != null) {
+            roomStatusCounts.merge(status, delta, Integer::sum);
+        }
+    }
+
+    private static List<String> compare(DashboardSummary counted, DashboardSummary view) {
+        List<String> drift = new ArrayList<>();
+        compare(drift, "available_rooms", counted.getAvailableRooms(), view.getAvailableRooms());
+        compare(drift, "cleaning_rooms", counted.getCleaningRooms(), view.getCleaningRooms());
+        compare(drift, "maintenance_rooms", counted.getMaintenanceRooms(), view.getMaintenanceRooms());
+        compare(drift, "out_of_service_rooms", counted.getOutOfServiceRooms(), view.getOutOfServiceRooms());
+        compare(drift, "booked_rooms", counted.getBookedRooms(), view.getBookedRooms());
+        compare(drift, "occupied_rooms", counted.getOccupiedRooms(), view.getOccupiedRooms());
+        compare(drift, "total_rooms", counted.getTotalRooms(), view.getTotalRooms());
+        compare(drift, "total_staff", counted.getTotalStaff(), view.getTotalStaff());
+        compare(drift, "todays_bookings", counted.getTodaysBookings(), view.getTodaysBookings());
+        compare(drift, "todays_check_ins", counted.getTodaysCheckIns(), view.getTodaysCheckIns());
+        compare(drift, "todays_check_outs", counted.getTodaysCheckOuts(), view.getTodaysCheckOuts());
+        compare(drift, "avg_feedback_rating_30_days",
+                BigDecimal.valueOf(counted.getAvgFeedbackRating30Days()).setScale(2, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(view.getAvgFeedbackRating30Days()).setScale(2, RoundingMode.HALF_UP));
+        compare(drift, "todays_revenue", counted.getTodaysRevenue(), view.getTodaysRevenue());
+        compare(drift, "revenue_last_30_days", counted.getRevenueLast30Days(), view.getRevenueLast30Days());
+        return drift;
+    }
+
+    private static void compare(List<String> drift, String column, Object counted, Object actual) {
+        boolean same = counted instanceof BigDecimal && actual instanceof BigDecimal
+                ? ((BigDecimal) counted).compareTo((BigDecimal) actual) == 0
+                : Objects.equals(counted, actual);
+        if (!same) {
+            drift.add(column + " " + counted + " -> " + actual);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static final class Snapshot {
+        LocalDate date;
+        DashboardSummary summary;
+        final Map<Integer, String> roomNumberById = new HashMap<>();
+        final Map<String, String> roomStatusByNumber = new HashMap<>();
+        final Map<Integer, BookingEntry> todaysBookings = new HashMap<>();
+        int feedbackCount;
+    }
+
+    private static final class BookingEntry {
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final String status;
+        final boolean createdToday;
+
+        BookingEntry(LocalDate checkIn, LocalDate checkOut, String status, boolean createdToday) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.status = status;
+            this.createdToday = createdToday;
+        }
+
+        boolean isRelevant(LocalDate today) {
+            return createdToday || today.equals(checkIn) || today.equals(checkOut);
+        }
+    }
+}
@@ -1,38 +1,50 @@
 package com.hotel.dao.impl;
 
 import com.hotel.dao.FeedbackDAO;
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
 import com.hotel.models.Feedback;
-import com.hotel.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.List;
 
 public class FeedbackDAOImpl implements FeedbackDAO {
 
+    private static final String FEEDBACK_SELECT = "SELECT f.*, c.first_name, c.last_name FROM feedback f " +
+            "JOIN customers c ON f.customer_id = c.customer_id ";
+
+    private static final RowMapper<Feedback> FEEDBACK = RowMapper.of(columns -> {
+        int feedbackId = columns.index("feedback_id");
+        int customerId = columns.index("customer_id");
+        int bookingId = columns.index("booking_id");
+        int rating = columns.index("rating");
+        int comments = columns.index("comments");
+        int feedbackDate = columns.index("feedback_date");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        return rs -> {
+            Feedback feedback = new Feedback();
+            feedback.setFeedbackId(rs.getInt(feedbackId));
+            feedback.setCustomerId(rs.getInt(customerId));
+            int booking = rs.getInt(bookingId);
+            feedback.setBookingId(rs.wasNull() ? null : booking);
+            feedback.setRating(rs.getInt(rating));
+            feedback.setComments(rs.getString(comments));
+            feedback.setFeedbackDate(rs.getTimestamp(feedbackDate));
+            feedback.setCustomerName(rs.getString(firstName) + " " + rs.getString(lastName));
+            return feedback;
+        };
+    });
+
+    private static final RowMapper<Double> AVERAGE = RowMapper.of(columns -> rs -> rs.getDouble(1));
+
     @Override
     public void addFeedback(Feedback feedback) {
         String sql = "INSERT INTO feedback (customer_id, booking_id, rating, comments) VALUES (?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, feedback.getCustomerId());
-            if (feedback.getBookingId() != null) {
-                pstmt.setInt(2, feedback.getBookingId());
-            } else {
-                pstmt.setNull(2, Types.INTEGER);
-            }
-            pstmt.setInt(3, feedback.getRating());
-            pstmt.setString(4, feedback.getComments());
-            
-            pstmt.executeUpdate();
-            
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    feedback.setFeedbackId(generatedKeys.getInt(1));
-                }
-            }
+        try {
+            JdbcExecutor.insert(sql, feedback.getCustomerId(), feedback.getBookingId(), feedback.getRating(),
+                    feedback.getComments()).ifPresent(feedback::setFeedbackId);
+            DashboardAggregator.getInstance().onFeedbackAdded(feedback.getRating());
         } catch (SQLException e) {
             throw new RuntimeException("Error adding feedback", e);
         }
@@ -40,115 +52,72 @@ public class FeedbackDAOImpl implements FeedbackDAO {
 
     @Override
     public List<Feedback> getAllFeedback() {
-        List<Feedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT f.*, c.first_name, c.last_name FROM feedback f " +
-                    "JOIN customers c ON f.customer_id = c.customer_id " +
-                    "ORDER BY f.feedback_date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            while (rs.next()) {
-                feedbackList.add(extractFeedbackFromResultSet(rs));
-            }
+        try {
+            return JdbcExecutor.query(FEEDBACK_SELECT + "ORDER BY f.feedback_date DESC", FEEDBACK);
         } catch (SQLException e) {
             throw new RuntimeException("Error retrieving feedback", e);
         }
-        return feedbackList;
     }
 
     @Override
     public Feedback getFeedbackById(int feedbackId) {
-        String sql = "SELECT f.*, c.first_name, c.last_name FROM feedback f " +
-                    "JOIN customers c ON f.customer_id = c.customer_id " +
-                    "WHERE f.feedback_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, feedbackId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return extractFeedbackFromResultSet(rs);
-                }
-            }
+        try {
+            return JdbcExecutor.queryOne(FEEDBACK_SELECT + "WHERE f.feedback_id = ?", FEEDBACK, feedbackId)
+                    .orElse(null);
         } catch (SQLException e) {
             throw new RuntimeException("Error retrieving feedback by ID", e);
         }
-        return null;
     }
 
     @Override
     public List<Feedback> getFeedbackByCustomerId(int customerId) {
-        List<Feedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT f.*, c.first_name, c.last_name FROM feedback f " +
-                    "JOIN customers c ON f.customer_id = c.customer_id " +
-                    "WHERE f.customer_id = ? ORDER BY f.feedback_date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, customerId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    feedbackList.add(extractFeedbackFromResultSet(rs));
-                }
-            }
+        try {
+            return JdbcExecutor.query(FEEDBACK_SELECT + "WHERE f.customer_id = ? ORDER BY f.feedback_date DESC",
+                    FEEDBACK, customerId);
         } catch (SQLException e) {
             throw new RuntimeException("Error retrieving feedback by customer ID", e);
         }
-        return feedbackList;
     }
 
     @Override
     public List<Feedback> getFeedbackByBookingId(int bookingId) {
-        List<Feedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT f.*, c.first_name, c.last_name FROM feedback f " +
-                    "JOIN customers c ON f.customer_id = c.customer_id " +
-                    "WHERE f.booking_id = ? ORDER BY f.feedback_date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, bookingId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    feedbackList.add(extractFeedbackFromResultSet(rs));
-                }
-            }
+        try {
+            return JdbcExecutor.query(FEEDBACK_SELECT + "WHERE f.booking_id = ? ORDER BY f.feedback_date DESC",
+                    FEEDBACK, bookingId);
         } catch (SQLException e) {
             throw new RuntimeException("Error retrieving feedback by booking ID", e);
         }
-        return feedbackList;
     }
 
     @Override
     public double getAverageRating() {
-        String sql = "SELECT AVG(rating) as avg_rating FROM feedback";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            if (rs.next()) {
-                return rs.getDouble("avg_rating");
-            }
+        try {
+            return JdbcExecutor.queryOne("SELECT AVG(rating) as avg_rating FROM feedback", AVERAGE).orElse(0.0);
         } catch (SQLException e) {
             throw new RuntimeException("Error calculating average rating", e);
         }
-        return 0.0;
     }
 
-    private Feedback extractFeedbackFromResultSet(ResultSet rs) throws SQLException {
-        Feedback feedback = new Feedback();
-        feedback.setFeedbackId(rs.getInt("feedback_id"));
-        feedback.setCustomerId(rs.getInt("customer_id"));
-        feedback.setBookingId(rs.getObject("booking_id") != null ? rs.getInt("booking_id") : null);
-        feedback.setRating(rs.getInt("rating"));
-        feedback.setComments(rs.getString("comments"));
-        feedback.setFeedbackDate(rs.getTimestamp("feedback_date"));
-        feedback.setCustomerName(rs.getString("first_name") + " " + rs.getString("last_name"));
-        return feedback;
-    }
-}
+    @Override
+    public Page<Feedback> findPage(PageRequest request) {
+        String sortColumn = SORT_RATING.equals(request.getSortKey()) ? "f.rating" : "f.feedback_date";
+        KeysetQuery<Feedback> query = new KeysetQuery<>("SELECT f.*, c.first_name, c.last_name",
+                "FROM feedback f JOIN customers c ON f.customer_id = c.customer_id",
+                sortColumn, "f.feedback_id");
+
+        String search = request.getFilter(FILTER_SEARCH, String.class);
+        if (search != null) {
+            String pattern = "%" + search + "%";
+            query.where("(f.comments LIKE ? OR CONCAT(c.first_name, ' ', c.last_name) LIKE ?)", pattern, pattern);
+        }
+        Integer rating = request.getFilter(FILTER_RATING, Integer.class);
+        if (rating != null) {
+            query.where("f.rating = ?", rating);
+        }
+
+        try {
+            return query.fetch(request, FEEDBACK);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving feedback page", e);
+        }
+    }}
\ No newline at end of file
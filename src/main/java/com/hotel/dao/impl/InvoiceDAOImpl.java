@@ -3,127 +3,164 @@ package com.hotel.dao.impl;
 import com.hotel.dao.InvoiceDAO;
 import com.hotel.model.Invoice;
 import com.hotel.model.BookingService;
-import com.hotel.util.DatabaseUtil;
 
-import java.sql.*;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public class InvoiceDAOImpl implements InvoiceDAO {
 
+    private static final String INVOICE_SELECT = "SELECT i.*, " +
+            "b.check_in_date, b.check_out_date, " +
+            "CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
+            "r.room_number ";
+
+    private static final String INVOICE_FROM = "FROM invoices i " +
+            "JOIN bookings b ON i.booking_id = b.booking_id " +
+            "JOIN customers c ON b.customer_id = c.customer_id " +
+            "JOIN Rooms r ON b.room_id = r.room_id ";
+
+    private static final RowMapper<Invoice> INVOICE = RowMapper.of(columns -> {
+        int invoiceId = columns.index("invoice_id");
+        int bookingId = columns.index("booking_id");
+        int issueDate = columns.index("issue_date");
+        int dueDate = columns.index("due_date");
+        int roomCost = columns.index("room_cost");
+        int serviceCost = columns.index("service_cost");
+        int totalAmount = columns.index("total_amount");
+        int paidAmount = columns.index("paid_amount");
+        int invoiceStatus = columns.index("invoice_status");
+        int createdAt = columns.index("created_at");
+        int updatedAt = columns.index("updated_at");
+        int customerName = columns.index("customer_name");
+        int roomNumber = columns.index("room_number");
+        return rs -> {
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceId(rs.getInt(invoiceId));
+            invoice.setBookingId(rs.getInt(bookingId));
+            invoice.setIssueDate(rs.getDate(issueDate));
+            invoice.setDueDate(rs.getDate(dueDate));
+            invoice.setRoomCost(rs.getBigDecimal(roomCost));
+            invoice.setServiceCost(rs.getBigDecimal(serviceCost));
+            invoice.setTotalAmount(rs.getBigDecimal(totalAmount));
+            invoice.setPaidAmount(rs.getBigDecimal(paidAmount));
+            invoice.setInvoiceStatus(rs.getString(invoiceStatus));
+            invoice.setCreatedAt(rs.getTimestamp(createdAt));
+            invoice.setUpdatedAt(rs.getTimestamp(updatedAt));
+
+            // Set additional properties for display and PDF generation
+            invoice.setCustomerName(rs.getString(customerName));
+            invoice.setRoomNumber(rs.getString(roomNumber));
+            return invoice;
+        };
+    });
+
+    // Adds the stay dates printed on the PDF
+    private static final RowMapper<Invoice> INVOICE_WITH_STAY = RowMapper.of(columns -> {
+        RowMapper.Reader<Invoice> invoice = INVOICE.bind(columns);
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        return rs -> {
+            Invoice row = invoice.read(rs);
+            row.setCheckInDate(rs.getDate(checkInDate));
+            row.setCheckOutDate(rs.getDate(checkOutDate));
+            return row;
+        };
+    });
+
+    private static final RowMapper<BookingService> BOOKING_SERVICE_WITH_SERVICE = RowMapper.of(columns -> {
+        RowMapper.Reader<BookingService> bookingService = BookingServiceDAOImpl.BOOKING_SERVICE.bind(columns);
+        int serviceName = columns.index("service_name");
+        int price = columns.index("price");
+        return rs -> {
+            BookingService row = bookingService.read(rs);
+            row.setServiceName(rs.getString(serviceName));
+            row.setServicePrice(rs.getBigDecimal(price));
+            return row;
+        };
+    });
+
     @Override
     public List<Invoice> getAllInvoices() throws SQLException {
-        List<Invoice> invoices = new ArrayList<>();
-        String sql = "SELECT i.*, " +
-                "b.check_in_date, b.check_out_date, " +
-                "CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
-                "r.room_number " +
-                "FROM invoices i " +
-                "JOIN bookings b ON i.booking_id = b.booking_id " +
-                "JOIN customers c ON b.customer_id = c.customer_id " +
-                "JOIN Rooms r ON b.room_id = r.room_id " +
-                "ORDER BY i.invoice_id DESC";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Invoice invoice = mapInvoiceFromResultSet(rs);
-                invoices.add(invoice);
-            }
-        }
-        
-        return invoices;
+        return JdbcExecutor.query(INVOICE_SELECT + INVOICE_FROM + "ORDER BY i.invoice_id DESC", INVOICE);
     }
 
     @Override
     public Invoice getInvoiceDetails(int invoiceId) throws SQLException {
-        Invoice invoice = null;
         String sql = "SELECT i.*, " +
                 "b.check_in_date, b.check_out_date, " +
                 "CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
                 "c.email, c.phone_number, c.address, " +
                 "r.room_number, r.type AS room_type, r.price AS room_price " +
-                "FROM invoices i " +
-                "JOIN bookings b ON i.booking_id = b.booking_id " +
-                "JOIN customers c ON b.customer_id = c.customer_id " +
-                "JOIN Rooms r ON b.room_id = r.room_id " +
+                INVOICE_FROM +
                 "WHERE i.invoice_id = ?";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, invoiceId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    invoice = mapInvoiceFromResultSet(rs);
-                    // Additional fields for PDF generation
-                    invoice.setCheckInDate(rs.getDate("check_in_date"));
-                    invoice.setCheckOutDate(rs.getDate("check_out_date"));
-                }
-            }
-        }
-        
-        return invoice;
+        return JdbcExecutor.queryOne(sql, INVOICE_WITH_STAY, invoiceId).orElse(null);
     }
 
     @Override
     public List<BookingService> getBookingServicesForBooking(int bookingId) throws SQLException {
-        List<BookingService> bookingServices = new ArrayList<>();
         String sql = "SELECT bs.*, s.service_name, s.price " +
                 "FROM booking_services bs " +
                 "JOIN services s ON bs.service_id = s.service_id " +
                 "WHERE bs.booking_id = ?";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, bookingId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    BookingService bookingService = new BookingService();
-                    bookingService.setBookingServiceId(rs.getInt("booking_service_id"));
-                    bookingService.setBookingId(rs.getInt("booking_id"));
-                    bookingService.setServiceId(rs.getInt("service_id"));
-                    bookingService.setQuantity(rs.getInt("quantity"));
-                    bookingService.setServiceDate(rs.getDate("service_date"));
-                    
-                    // Set service details
-                    bookingService.setServiceName(rs.getString("service_name"));
-                    bookingService.setServicePrice(rs.getBigDecimal("price"));
-                    
-                    bookingServices.add(bookingService);
-                }
-            }
+        return JdbcExecutor.query(sql, BOOKING_SERVICE_WITH_SERVICE, bookingId);
+    }
+
+    @Override
+    public Map<Integer, List<BookingService>> getBookingServicesForBookings(Collection<Integer> bookingIds)
+            throws SQLException {
+        Map<Integer, List<BookingService>> services = new HashMap<>();
+        if (bookingIds.isEmpty()) {
+            return services;
         }
-        
-        return bookingServices;
+        String sql = "SELECT bs.*, s.service_name, s.price " +
+                "FROM booking_services bs " +
+                "JOIN services s ON bs.service_id = s.service_id " +
+                "WHERE bs.booking_id IN (" + JdbcExecutor.placeholders(bookingIds.size()) + ") " +
+                "ORDER BY bs.booking_id";
+        for (BookingService service : JdbcExecutor.query(sql, BOOKING_SERVICE_WITH_SERVICE, bookingIds.toArray())) {
+            services.computeIfAbsent(service.getBookingId(), booking -> new ArrayList<>()).add(service);
+        }
+        return services;
     }
     
-    /**
-     * Helper method to map a ResultSet to an Invoice object
-     */
-    private Invoice mapInvoiceFromResultSet(ResultSet rs) throws SQLException {
-        Invoice invoice = new Invoice();
-        invoice.setInvoiceId(rs.getInt("invoice_id"));
-        invoice.setBookingId(rs.getInt("booking_id"));
-        invoice.setIssueDate(rs.getDate("issue_date"));
-        invoice.setDueDate(rs.getDate("due_date"));
-        invoice.setRoomCost(rs.getBigDecimal("room_cost"));
-        invoice.setServiceCost(rs.getBigDecimal("service_cost"));
-        invoice.setTotalAmount(rs.getBigDecimal("total_amount"));
-        invoice.setPaidAmount(rs.getBigDecimal("paid_amount"));
-        invoice.setInvoiceStatus(rs.getString("invoice_status"));
-        invoice.setCreatedAt(rs.getTimestamp("created_at"));
-        invoice.setUpdatedAt(rs.getTimestamp("updated_at"));
-        
-        // Set additional properties for display and PDF generation
-        invoice.setCustomerName(rs.getString("customer_name"));
-        invoice.setRoomNumber(rs.getString("room_number"));
-        
-        return invoice;
+    @Override
+    public int countInvoices(LocalDate fromDate, LocalDate toDate, String invoiceStatus) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM invoices i " + whereClause(fromDate, toDate, invoiceStatus, params);
+        return JdbcExecutor.queryInt(sql, params.toArray());
+    }
+
+    @Override
+    public int streamInvoices(LocalDate fromDate, LocalDate toDate, String invoiceStatus, int fetchSize,
+                              Predicate<Invoice> handler) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = INVOICE_SELECT + INVOICE_FROM +
+                whereClause(fromDate, toDate, invoiceStatus, params) +
+                "ORDER BY i.invoice_id";
+        return JdbcExecutor.stream(sql, INVOICE_WITH_STAY, fetchSize, handler, params.toArray());
+    }
+    
+    // Date bounds are half-open so an index on issue_date can be used
+    private String whereClause(LocalDate fromDate, LocalDate toDate, String invoiceStatus, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (fromDate != null) {
+            conditions.add("i.issue_date >= ?");
+            params.add(fromDate);
+        }
+        if (toDate != null) {
+            conditions.add("i.issue_date < ?");
+            params.add(toDate.plusDays(1));
+        }
+        if (invoiceStatus != null) {
+            conditions.add("i.invoice_status = ?");
+            params.add(invoiceStatus);
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
     }
 }
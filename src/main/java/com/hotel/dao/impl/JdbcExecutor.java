@@ -0,0 +1,334 @@
+package com.hotel.dao.impl;
+
+import com.hotel.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Predicate;
+
+/**
+ * Runs the DAO implementations' statements: borrows a pooled connection
+ * (unless the caller passes the one its transaction runs on), binds the
+ * parameters and maps the rows with a RowMapper.
+ *
+ * Statements are prepared through the pool, which keeps them open per
+ * connection, so a DAO method prepares its SQL once per connection rather than
+ * once per call. Parameters are bound in order with setObject; LocalDate and
+ * LocalDateTime are converted to their java.sql types and null is bound as SQL NULL.
+ * Statements slower than the SlowQueryLog threshold are recorded there.
+ */
+final class JdbcExecutor {
+
+    private static final SlowQueryLog SLOW_QUERIES = SlowQueryLog.getInstance();
+
+    private JdbcExecutor() {
+    }
+
+    /**
+     * Marks a parameter that must not show up in the slow query log, e.g. a password.
+     */
+    static Object secret(Object value) {
+        return new Secret(value);
+    }
+
+    /**
+     * Runs a query and maps every row.
+     */
+    static <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return query(conn, sql, mapper, params);
+        }
+    }
+
+    static <T> List<T> query(Connection conn, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        long start = SLOW_QUERIES.start();
+        List<T> rows = new ArrayList<>();
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    RowMapper.Reader<T> reader = mapper.reader(sql, rs);
+                    do {
+                        rows.add(reader.read(rs));
+                    } while (rs.next());
+                }
+            }
+            failed = false;
+            return rows;
+        } finally {
+            SLOW_QUERIES.record(start, sql, params, rows.size(), failed);
+        }
+    }
+
+    /**
+     * Runs a query and maps its first row, if there is one.
+     */
+    static <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryOne(conn, sql, mapper, params);
+        }
+    }
+
+    static <T> Optional<T> queryOne(Connection conn, String sql, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        long start = SLOW_QUERIES.start();
+        int found = 0;
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Optional<T> row = rs.next() ? Optional.of(mapper.reader(sql, rs).read(rs)) : Optional.empty();
+                found = row.isPresent() ? 1 : 0;
+                failed = false;
+                return row;
+            }
+        } finally {
+            SLOW_QUERIES.record(start, sql, params, found, failed);
+        }
+    }
+
+    /**
+     * Runs a query for a single number, e.g. a COUNT(*). Returns 0 if there is no row.
+     */
+    static int queryInt(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryInt(conn, sql, params);
+        }
+    }
+
+    static int queryInt(Connection conn, String sql, Object... params) throws SQLException {
+        long start = SLOW_QUERIES.start();
+        int found = 0;
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                found = rs.next() ? 1 : 0;
+                int value = found == 1 ? rs.getInt(1) : 0;
+                failed = false;
+                return value;
+            }
+        } finally {
+            SLOW_QUERIES.record(start, sql, params, found, failed);
+        }
+    }
+
+    /**
+     * Runs a query and hands the mapped rows to the handler one at a time, until
+     * it returns false. The rows are fetched fetchSize at a time; MySQL only honours
+     * that with useCursorFetch=true on the URL. The statement is not cached, as
+     * its fetch size differs from the driver default.
+     *
+     * @return The number of rows handled
+     */
+    static <T> int stream(String sql, RowMapper<T> mapper, int fetchSize, Predicate<? super T> handler,
+                          Object... params) throws SQLException {
+        long start = SLOW_QUERIES.start();
+        int count = 0;
+        boolean failed = true;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            bind(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<T> reader = null;
+                while (rs.next()) {
+                    if (reader == null) {
+                        reader = mapper.reader(sql, rs);
+                    }
+                    count++;
+                    if (!handler.test(reader.read(rs))) {
+                        break;
+                    }
+                }
+            }
+            failed = false;
+            return count;
+        } finally {
+            // Includes the time the handler spent on the rows
+            SLOW_QUERIES.record(start, sql, params, count, failed);
+        }
+    }
+
+    /**
+     * Runs an INSERT, UPDATE or DELETE.
+     *
+     * @return The number of rows affected
+     */
+    static int update(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return update(conn, sql, params);
+        }
+    }
+
+    static int update(Connection conn, String sql, Object... params) throws SQLException {
+        long start = SLOW_QUERIES.start();
+        int affected = 0;
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            affected = stmt.executeUpdate();
+            failed = false;
+            return affected;
+        } finally {
+            SLOW_QUERIES.record(start, sql, params, affected, failed);
+        }
+    }
+
+    /**
+     * Runs an INSERT and returns the generated key of the new row, or nothing
+     * if no row was inserted.
+     */
+    static OptionalInt insert(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return insert(conn, sql, params);
+        }
+    }
+
+    static OptionalInt insert(Connection conn, String sql, Object... params) throws SQLException {
+        long start = SLOW_QUERIES.start();
+        int affected = 0;
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            bind(stmt, params);
+            affected = stmt.executeUpdate();
+            failed = false;
+            if (affected == 0) {
+                return OptionalInt.empty();
+            }
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                return keys.next() ? OptionalInt.of(keys.getInt(1)) : OptionalInt.empty();
+            }
+        } finally {
+            SLOW_QUERIES.record(start, sql, params, affected, failed);
+        }
+    }
+
+    /**
+     * Runs an INSERT once per parameter row as one JDBC batch.
+     *
+     * @return The generated key of each row, in the order of the rows
+     */
+    static int[] insertBatch(Connection conn, String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        long start = SLOW_QUERIES.start();
+        boolean failed = true;
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Object[] params : rows) {
+                bind(stmt, params);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            failed = false;
+            int[] keys = new int[rows.size()];
+            int count = 0;
+            try (ResultSet generated = stmt.getGeneratedKeys()) {
+                while (count < keys.length && generated.next()) {
+                    keys[count++] = generated.getInt(1);
+                }
+            }
+            if (count != keys.length) {
+                throw new SQLException("Batch insert returned " + count + " keys for " + keys.length + " rows");
+            }
+            return keys;
+        } finally {
+            // The log shows the first row's parameters for the whole batch
+            SLOW_QUERIES.record(start, sql, rows.get(0), rows.size(), failed);
+        }
+    }
+
+    /**
+     * Work done on one connection inside a transaction.
+     */
+    @FunctionalInterface
+    interface Transaction<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs the work in a transaction on a pooled connection: commits if it
+     * returns, rolls back if it throws.
+     */
+    static <T> T inTransaction(Transaction<T> work) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns count comma-separated ? placeholders, for an IN list.
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Binds the parameters in order, starting at index 1.
+     *
+     * @return The index after the last parameter bound
+     */
+    static int bind(PreparedStatement stmt, Object... params) throws SQLException {
+        int index = 1;
+        for (Object value : params) {
+            if (value instanceof Secret) {
+                value = ((Secret) value).value;
+            }
+            if (value == null) {
+                stmt.setNull(index, Types.NULL);
+            } else if (value instanceof LocalDate) {
+                stmt.setDate(index, Date.valueOf((LocalDate) value));
+            } else if (value instanceof LocalDateTime) {
+                stmt.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+            } else {
+                stmt.setObject(index, value);
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static final class Secret {
+        final Object value;
+
+        Secret(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "****";
+        }
+    }
+}
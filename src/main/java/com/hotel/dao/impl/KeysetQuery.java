@@ -0,0 +1,162 @@
+package com.hotel.dao.impl;
+
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import com.hotel.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds and runs a keyset-paginated query for the DAO findPage methods.
+ *
+ * The filters, ORDER BY and LIMIT are all applied by the database. Instead of
+ * an OFFSET, the page boundary is expressed as a predicate on the sort column
+ * and primary key of the last row seen, so moving to the next page costs the
+ * same regardless of how deep into the table it is. The sort column must be
+ * NOT NULL.
+ *
+ * @param <T> The row type
+ */
+final class KeysetQuery<T> {
+
+    private static final String SORT_VALUE_LABEL = "page_sort_value";
+    private static final String ROW_ID_LABEL = "page_row_id";
+
+    private final String select;
+    private final String from;
+    private final String sortColumn;
+    private final String idColumn;
+    private final List<String> predicates = new ArrayList<>();
+    private final List<Object> parameters = new ArrayList<>();
+
+    /**
+     * @param select     The select list, e.g. "SELECT b.*"
+     * @param from       The FROM clause including joins, e.g. "FROM bookings b"
+     * @param sortColumn The column (expression) to sort on
+     * @param idColumn   The primary key column used as a tie-breaker
+     */
+    KeysetQuery(String select, String from, String sortColumn, String idColumn) {
+        this.select = select;
+        this.from = from;
+        this.sortColumn = sortColumn;
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * Adds a predicate to the WHERE clause, with its parameters in order.
+     */
+    KeysetQuery<T> where(String predicate, Object... values) {
+        predicates.add(predicate);
+        Collections.addAll(parameters, values);
+        return this;
+    }
+
+    /**
+     * Runs the count and page queries on one pooled connection.
+     */
+    Page<T> fetch(PageRequest request, RowMapper<T> mapper) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int total = count(conn);
+            int size = request.getPageSize();
+            PageRequest.Position position = request.getPosition();
+            boolean backwards = position == PageRequest.Position.BEFORE || position == PageRequest.Position.LAST;
+            boolean descendingScan = request.isDescending() != backwards;
+
+            List<String> conditions = new ArrayList<>(predicates);
+            List<Object> values = new ArrayList<>(parameters);
+            if (position == PageRequest.Position.AFTER || position == PageRequest.Position.BEFORE) {
+                String op = descendingScan ? "<" : ">";
+                conditions.add("(" + sortColumn + " " + op + " ? OR (" + sortColumn + " = ? AND " + idColumn + " " + op + " ?))");
+                values.add(request.getCursor().getSortValue());
+                values.add(request.getCursor().getSortValue());
+                values.add(request.getCursor().getId());
+            }
+
+            int limit;
+            if (position == PageRequest.Position.LAST) {
+                limit = total == 0 ? 0 : ((total - 1) % size) + 1;
+            } else {
+                // One extra row tells us whether there is a page beyond this one
+                limit = size + 1;
+            }
+
+            String direction = descendingScan ? " DESC" : " ASC";
+            String sql = select + ", " + sortColumn + " AS " + SORT_VALUE_LABEL + ", " + idColumn + " AS " + ROW_ID_LABEL +
+                    " " + from + whereClause(conditions) +
+                    " ORDER BY " + sortColumn + direction + ", " + idColumn + direction +
+                    " LIMIT ?";
+
+            List<T> rows = new ArrayList<>();
+            List<Page.Cursor> cursors = new ArrayList<>();
+            long start = SlowQueryLog.getInstance().start();
+            boolean failed = true;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = JdbcExecutor.bind(stmt, values.toArray());
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        RowMapper.Reader<T> reader = mapper.reader(sql, rs);
+                        int sortValue = rs.findColumn(SORT_VALUE_LABEL);
+                        int rowId = rs.findColumn(ROW_ID_LABEL);
+                        do {
+                            rows.add(reader.read(rs));
+                            cursors.add(new Page.Cursor(rs.getObject(sortValue), rs.getInt(rowId)));
+                        } while (rs.next());
+                    }
+                }
+                failed = false;
+            } finally {
+                values.add(limit);
+                SlowQueryLog.getInstance().record(start, sql, values.toArray(), rows.size(), failed);
+            }
+
+            boolean more = position != PageRequest.Position.LAST && rows.size() > size;
+            if (more) {
+                rows.remove(rows.size() - 1);
+                cursors.remove(cursors.size() - 1);
+            }
+            if (backwards) {
+                Collections.reverse(rows);
+                Collections.reverse(cursors);
+            }
+            if (rows.isEmpty()) {
+                return new Page<>(request, rows, total, null, null);
+            }
+
+            boolean hasPrevious;
+            boolean hasNext;
+            switch (position) {
+                case AFTER:
+                    hasPrevious = true;
+                    hasNext = more;
+                    break;
+                case BEFORE:
+                    hasPrevious = more;
+                    hasNext = true;
+                    break;
+                case LAST:
+                    hasPrevious = total > rows.size();
+                    hasNext = false;
+                    break;
+                default:
+                    hasPrevious = false;
+                    hasNext = more;
+                    break;
+            }
+            return new Page<>(request, rows, total,
+                    hasPrevious ? cursors.get(0) : null,
+                    hasNext ? cursors.get(cursors.size() - 1) : null);
+        }
+    }
+
+    private int count(Connection conn) throws SQLException {
+        return JdbcExecutor.queryInt(conn, "SELECT COUNT(*) " + from + whereClause(predicates), parameters.toArray());
+    }
+
+    private static String whereClause(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
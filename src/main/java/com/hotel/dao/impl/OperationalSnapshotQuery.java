@@ -0,0 +1,156 @@
+package com.hotel.dao.impl;
+
+import com.hotel.model.OperationalSnapshot;
+import com.hotel.util.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Reads every RoomDAO and BookingDAO dashboard counter with one statement.
+ *
+ * Each group of counters is a single-row derived table, using conditional
+ * aggregation where several counters share a predicate, and the derived
+ * tables are cross joined, so the whole snapshot costs one connection and
+ * one round trip instead of one of each per counter. "Today" is passed in as
+ * half-open ranges rather than wrapping the columns in DATE(), so every
+ * bookings and payments predicate is answered from an index (see the
+ * V2__todays_activity_indexes migration).
+ *
+ * The last snapshot is reused for a few seconds, so a dashboard that asks
+ * for several counters in a row still only runs the query once. It is
+ * dropped early when the date changes or invalidate() is called. A query
+ * that overlapped an invalidate() may miss the write behind it and is not
+ * kept, and neither is one that started before the snapshot already kept.
+ *
+ * Configuration (application.properties):
+ *   dashboard.snapshot.ttlMillis - how long a snapshot is reused; 0 queries every time (default 2000)
+ */
+public class OperationalSnapshotQuery {
+
+    /**
+     * The snapshot statement. Each derived table filters on one indexed
+     * predicate; only Rooms, which is small, is read in full. Public so the
+     * benchmark module's query plan check can EXPLAIN it.
+     */
+    public static final String SQL =
+            "SELECT r.total_rooms, r.available_rooms, r.occupied_rooms, " +
+            "ci.checked_in, cin.check_ins_today, cout.check_outs_today, " +
+            "cr.created_today, cr.confirmed_created_today, p.revenue_today " +
+            "FROM (SELECT COUNT(*) AS total_rooms, " +
+            "  COALESCE(SUM(CASE WHEN status = 'Available' THEN 1 ELSE 0 END), 0) AS available_rooms, " +
+            "  COALESCE(SUM(CASE WHEN status = 'Booked' THEN 1 ELSE 0 END), 0) AS occupied_rooms " +
+            "  FROM Rooms) r " +
+            "CROSS JOIN (SELECT COUNT(*) AS checked_in FROM bookings " +
+            "  WHERE booking_status = 'Checked-in') ci " +
+            "CROSS JOIN (SELECT COUNT(*) AS check_ins_today FROM bookings " +
+            "  WHERE check_in_date = ? AND booking_status = 'Confirmed') cin " +
+            "CROSS JOIN (SELECT COUNT(*) AS check_outs_today FROM bookings " +
+            "  WHERE check_out_date = ? AND booking_status = 'Checked-in') cout " +
+            "CROSS JOIN (SELECT COUNT(*) AS created_today, " +
+            "  COALESCE(SUM(CASE WHEN booking_status = 'Confirmed' THEN 1 ELSE 0 END), 0) AS confirmed_created_today " +
+            "  FROM bookings WHERE created_at >= ? AND created_at < ?) cr " +
+            "CROSS JOIN (SELECT COALESCE(SUM(amount), 0) AS revenue_today " +
+            "  FROM payments WHERE payment_date >= ? AND payment_date < ?) p";
+
+    private static final OperationalSnapshotQuery INSTANCE = new OperationalSnapshotQuery(DatabaseConfig.load());
+
+    private final long ttlNanos;
+
+    // Guarded by this
+    private OperationalSnapshot cached;
+    private long cachedAt;
+    // Bumped by every invalidation, so a query that overlapped one is not cached
+    private long version;
+
+    OperationalSnapshotQuery(DatabaseConfig config) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getLong("dashboard.snapshot.ttlMillis", 2000)));
+    }
+
+    public static OperationalSnapshotQuery getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the current counters, querying the database unless a snapshot
+     * of today younger than the TTL is at hand.
+     */
+    public OperationalSnapshot get() throws SQLException {
+        LocalDate today = LocalDate.now();
+        long queryVersion;
+        long start;
+        synchronized (this) {
+            if (cached != null && cached.getDate().equals(today) && System.nanoTime() - cachedAt < ttlNanos) {
+                return cached;
+            }
+            queryVersion = version;
+            start = System.nanoTime();
+        }
+        OperationalSnapshot snapshot = query(today);
+        synchronized (this) {
+            if (ttlNanos > 0 && version == queryVersion && (cached == null || cachedAt - start < 0)) {
+                cached = snapshot;
+                cachedAt = start;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the reused snapshot; the next call to get() queries the database.
+     */
+    public synchronized void invalidate() {
+        version++;
+        cached = null;
+    }
+
+    /**
+     * Binds the parameters of {@link #SQL} for the given day.
+     */
+    public static void setParameters(PreparedStatement stmt, LocalDate today) throws SQLException {
+        JdbcExecutor.bind(stmt, parameters(today));
+    }
+
+    private static Object[] parameters(LocalDate today) {
+        LocalDate nextDay = today.plusDays(1);
+        return new Object[] {today, today, today.atStartOfDay(), nextDay.atStartOfDay(), today, nextDay};
+    }
+
+    private OperationalSnapshot query(LocalDate today) throws SQLException {
+        return JdbcExecutor.queryOne(SQL, SNAPSHOT, parameters(today))
+                .orElseThrow(() -> new SQLException("Snapshot query returned no row"))
+                .apply(today);
+    }
+
+    // Reads the counters; the snapshot is stamped with the day they were queried for
+    private static final RowMapper<Function<LocalDate, OperationalSnapshot>> SNAPSHOT = RowMapper.of(columns -> {
+        int totalRoomsColumn = columns.index("total_rooms");
+        int availableRoomsColumn = columns.index("available_rooms");
+        int occupiedRoomsColumn = columns.index("occupied_rooms");
+        int checkedInColumn = columns.index("checked_in");
+        int checkInsTodayColumn = columns.index("check_ins_today");
+        int checkOutsTodayColumn = columns.index("check_outs_today");
+        int createdTodayColumn = columns.index("created_today");
+        int confirmedCreatedTodayColumn = columns.index("confirmed_created_today");
+        int revenueTodayColumn = columns.index("revenue_today");
+        return rs -> {
+            int totalRooms = rs.getInt(totalRoomsColumn);
+            int availableRooms = rs.getInt(availableRoomsColumn);
+            int occupiedRooms = rs.getInt(occupiedRoomsColumn);
+            int checkedIn = rs.getInt(checkedInColumn);
+            int checkInsToday = rs.getInt(checkInsTodayColumn);
+            int checkOutsToday = rs.getInt(checkOutsTodayColumn);
+            int createdToday = rs.getInt(createdTodayColumn);
+            int confirmedCreatedToday = rs.getInt(confirmedCreatedTodayColumn);
+            BigDecimal revenueToday = rs.getBigDecimal(revenueTodayColumn);
+            return today -> new OperationalSnapshot(today, LocalDateTime.now(), totalRooms, availableRooms,
+                    occupiedRooms, checkedIn, checkInsToday, checkOutsToday, createdToday, confirmedCreatedToday,
+                    revenueToday);
+        };
+    });
+}
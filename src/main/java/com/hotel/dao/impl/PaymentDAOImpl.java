@@ -3,11 +3,12 @@ package com.hotel.dao.impl;
 import com.hotel.dao.PaymentDAO;
 import com.hotel.model.Payment;
 import com.hotel.model.Invoice;
-import com.hotel.util.DatabaseUtil;
 
-import java.sql.*;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.math.BigDecimal;
 
 /**
@@ -15,89 +16,186 @@ import java.math.BigDecimal;
  */
 public class PaymentDAOImpl implements PaymentDAO {
 
+    private static final String PAYMENT_SELECT =
+            "SELECT p.payment_id, p.invoice_id, p.payment_date, p.amount, p.payment_method, " +
+            "p.transaction_id, p.notes, p.created_at, " +
+            "i.total_amount, i.paid_amount, i.invoice_status, " +
+            "b.booking_id, b.check_in_date, b.check_out_date, " +
+            "c.first_name, c.last_name, " +
+            "r.room_number " +
+            "FROM payments p " +
+            "JOIN invoices i ON p.invoice_id = i.invoice_id " +
+            "JOIN bookings b ON i.booking_id = b.booking_id " +
+            "JOIN customers c ON b.customer_id = c.customer_id " +
+            "JOIN rooms r ON b.room_id = r.room_id ";
+
+    private static final RowMapper<Payment> PAYMENT = RowMapper.of(columns -> {
+        int paymentId = columns.index("payment_id");
+        int invoiceId = columns.index("invoice_id");
+        int paymentDate = columns.index("payment_date");
+        int amount = columns.index("amount");
+        int paymentMethod = columns.index("payment_method");
+        int transactionId = columns.index("transaction_id");
+        int notes = columns.index("notes");
+        int createdAt = columns.index("created_at");
+        int totalAmount = columns.index("total_amount");
+        int paidAmount = columns.index("paid_amount");
+        int invoiceStatus = columns.index("invoice_status");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        int roomNumber = columns.index("room_number");
+        return rs -> {
+            Payment payment = new Payment();
+            payment.setPaymentId(rs.getInt(paymentId));
+            payment.setInvoiceId(rs.getInt(invoiceId));
+            payment.setPaymentDate(rs.getDate(paymentDate));
+            payment.setAmount(rs.getBigDecimal(amount));
+            payment.setPaymentMethod(rs.getString(paymentMethod));
+            payment.setTransactionId(rs.getString(transactionId));
+            payment.setNotes(rs.getString(notes));
+            payment.setCreatedAt(rs.getTimestamp(createdAt));
+
+            // Related data
+            BigDecimal total = rs.getBigDecimal(totalAmount);
+            BigDecimal paid = rs.getBigDecimal(paidAmount);
+            payment.setInvoiceTotal(total);
+            payment.setPaidAmount(paid);
+            payment.setInvoiceStatus(rs.getString(invoiceStatus));
+            payment.setCheckInDate(rs.getDate(checkInDate));
+            payment.setCheckOutDate(rs.getDate(checkOutDate));
+            payment.setRoomNumber(rs.getString(roomNumber));
+
+            // Calculate balance due
+            payment.setBalanceDue(total.subtract(paid));
+            return payment;
+        };
+    });
+
+    // PAYMENT_SELECT's columns: the customer's name in two parts, and the booking id
+    private static final RowMapper<Payment> PAYMENT_WITH_BOOKING = RowMapper.of(columns -> {
+        RowMapper.Reader<Payment> payment = PAYMENT.bind(columns);
+        int bookingId = columns.index("booking_id");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        return rs -> {
+            Payment row = payment.read(rs);
+            row.setBookingId(rs.getInt(bookingId));
+            row.setCustomerName(rs.getString(firstName) + " " + rs.getString(lastName));
+            return row;
+        };
+    });
+
+    // The receipt query's columns, with the customer's name already joined
+    private static final RowMapper<Payment> RECEIPT = RowMapper.of(columns -> {
+        RowMapper.Reader<Payment> payment = PAYMENT.bind(columns);
+        int customerName = columns.index("customer_name");
+        return rs -> {
+            Payment row = payment.read(rs);
+            row.setCustomerName(rs.getString(customerName));
+            return row;
+        };
+    });
+
+    private static final RowMapper<Invoice> INVOICE_SUMMARY = RowMapper.of(columns -> {
+        int invoiceId = columns.index("invoice_id");
+        int bookingId = columns.index("booking_id");
+        int issueDate = columns.index("issue_date");
+        int dueDate = columns.index("due_date");
+        int totalAmount = columns.index("total_amount");
+        int paidAmount = columns.index("paid_amount");
+        int invoiceStatus = columns.index("invoice_status");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        int roomNumber = columns.index("room_number");
+        return rs -> {
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceId(rs.getInt(invoiceId));
+            invoice.setBookingId(rs.getInt(bookingId));
+            invoice.setIssueDate(rs.getDate(issueDate));
+            invoice.setDueDate(rs.getDate(dueDate));
+            invoice.setTotalAmount(rs.getBigDecimal(totalAmount));
+            invoice.setPaidAmount(rs.getBigDecimal(paidAmount));
+            invoice.setInvoiceStatus(rs.getString(invoiceStatus));
+
+            // Related data
+            invoice.setCheckInDate(rs.getDate(checkInDate));
+            invoice.setCheckOutDate(rs.getDate(checkOutDate));
+            invoice.setCustomerName(rs.getString(firstName) + " " + rs.getString(lastName));
+            invoice.setRoomNumber(rs.getString(roomNumber));
+
+            // Balance due is calculated by getBalanceDue() method
+            return invoice;
+        };
+    });
+
     @Override
     public void addPayment(Payment payment) throws SQLException {
         String sql = "INSERT INTO payments (invoice_id, payment_date, amount, payment_method, transaction_id, notes) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, payment.getInvoiceId());
-            stmt.setDate(2, payment.getPaymentDate());
-            stmt.setBigDecimal(3, payment.getAmount());
-            stmt.setString(4, payment.getPaymentMethod());
-            stmt.setString(5, payment.getTransactionId());
-            stmt.setString(6, payment.getNotes());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating payment failed, no rows affected.");
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    payment.setPaymentId(generatedKeys.getInt(1));
-                } else {
-                    throw new SQLException("Creating payment failed, no ID obtained.");
-                }
-            }
+        int paymentId = JdbcExecutor.insert(sql,
+                payment.getInvoiceId(),
+                payment.getPaymentDate(),
+                payment.getAmount(),
+                payment.getPaymentMethod(),
+                payment.getTransactionId(),
+                payment.getNotes())
+                .orElseThrow(() -> new SQLException("Creating payment failed, no ID obtained."));
+        payment.setPaymentId(paymentId);
+        if (payment.getPaymentDate() != null) {
+            DashboardAggregator.getInstance().onPaymentAdded(payment.getAmount(),
+                    payment.getPaymentDate().toLocalDate());
         }
+        OperationalSnapshotQuery.getInstance().invalidate();
     }
 
     @Override
     public List<Payment> getAllPayments() throws SQLException {
-        List<Payment> payments = new ArrayList<>();
-        
-        String sql = "SELECT p.payment_id, p.invoice_id, p.payment_date, p.amount, p.payment_method, " +
-                     "p.transaction_id, p.notes, p.created_at, " +
-                     "i.total_amount, i.paid_amount, i.invoice_status, " +
-                     "b.booking_id, b.check_in_date, b.check_out_date, " +
-                     "c.first_name, c.last_name, " +
-                     "r.room_number " +
-                     "FROM payments p " +
+        return JdbcExecutor.query(PAYMENT_SELECT + "ORDER BY p.payment_date DESC", PAYMENT_WITH_BOOKING);
+    }
+
+    @Override
+    public List<Payment> getRecentPayments(int limit) throws SQLException {
+        return JdbcExecutor.query(PAYMENT_SELECT + "ORDER BY p.payment_date DESC, p.payment_id DESC LIMIT ?",
+                PAYMENT_WITH_BOOKING, limit);
+    }
+
+    @Override
+    public int countPayments(LocalDate fromDate, LocalDate toDate, String invoiceStatus) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM payments p " +
                      "JOIN invoices i ON p.invoice_id = i.invoice_id " +
-                     "JOIN bookings b ON i.booking_id = b.booking_id " +
-                     "JOIN customers c ON b.customer_id = c.customer_id " +
-                     "JOIN rooms r ON b.room_id = r.room_id " +
-                     "ORDER BY p.payment_date DESC";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Payment payment = new Payment();
-                payment.setPaymentId(rs.getInt("payment_id"));
-                payment.setInvoiceId(rs.getInt("invoice_id"));
-                payment.setPaymentDate(rs.getDate("payment_date"));
-                payment.setAmount(rs.getBigDecimal("amount"));
-                payment.setPaymentMethod(rs.getString("payment_method"));
-                payment.setTransactionId(rs.getString("transaction_id"));
-                payment.setNotes(rs.getString("notes"));
-                payment.setCreatedAt(rs.getTimestamp("created_at"));
-                
-                // Related data
-                payment.setInvoiceTotal(rs.getBigDecimal("total_amount"));
-                payment.setPaidAmount(rs.getBigDecimal("paid_amount"));
-                payment.setInvoiceStatus(rs.getString("invoice_status"));
-                payment.setBookingId(rs.getInt("booking_id"));
-                payment.setCheckInDate(rs.getDate("check_in_date"));
-                payment.setCheckOutDate(rs.getDate("check_out_date"));
-                payment.setCustomerName(rs.getString("first_name") + " " + rs.getString("last_name"));
-                payment.setRoomNumber(rs.getString("room_number"));
-                
-                // Calculate balance due
-                BigDecimal total = rs.getBigDecimal("total_amount");
-                BigDecimal paid = rs.getBigDecimal("paid_amount");
-                payment.setBalanceDue(total.subtract(paid));
-                
-                payments.add(payment);
-            }
+                     whereClause(fromDate, toDate, invoiceStatus, params);
+        return JdbcExecutor.queryInt(sql, params.toArray());
+    }
+
+    @Override
+    public int streamPayments(LocalDate fromDate, LocalDate toDate, String invoiceStatus, int fetchSize,
+                              Predicate<Payment> handler) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = PAYMENT_SELECT + whereClause(fromDate, toDate, invoiceStatus, params) +
+                     "ORDER BY p.payment_date DESC, p.payment_id DESC";
+        return JdbcExecutor.stream(sql, PAYMENT_WITH_BOOKING, fetchSize, handler, params.toArray());
+    }
+
+    // Date bounds are half-open so an index on payment_date can be used
+    private String whereClause(LocalDate fromDate, LocalDate toDate, String invoiceStatus, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (fromDate != null) {
+            conditions.add("p.payment_date >= ?");
+            params.add(fromDate);
         }
-        
-        return payments;
+        if (toDate != null) {
+            conditions.add("p.payment_date < ?");
+            params.add(toDate.plusDays(1));
+        }
+        if (invoiceStatus != null) {
+            conditions.add("i.invoice_status = ?");
+            params.add(invoiceStatus);
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
     }
 
     @Override
@@ -111,52 +209,11 @@ public class PaymentDAOImpl implements PaymentDAO {
                      "JOIN customers c ON b.customer_id = c.customer_id " +
                      "JOIN rooms r ON b.room_id = r.room_id " +
                      "WHERE p.payment_id = ?";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, paymentId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Payment payment = new Payment();
-                    // Set payment fields
-                    payment.setPaymentId(rs.getInt("payment_id"));
-                    payment.setInvoiceId(rs.getInt("invoice_id"));
-                    payment.setPaymentDate(rs.getDate("payment_date"));
-                    payment.setAmount(rs.getBigDecimal("amount"));
-                    payment.setPaymentMethod(rs.getString("payment_method"));
-                    payment.setTransactionId(rs.getString("transaction_id"));
-                    payment.setNotes(rs.getString("notes"));
-                    payment.setCreatedAt(rs.getTimestamp("created_at"));
-                    
-                    // Set related invoice data
-                    payment.setInvoiceTotal(rs.getBigDecimal("total_amount"));
-                    payment.setPaidAmount(rs.getBigDecimal("paid_amount"));
-                    payment.setInvoiceStatus(rs.getString("invoice_status"));
-                    
-                    // Set customer and booking data
-                    payment.setCustomerName(rs.getString("customer_name"));
-                    payment.setRoomNumber(rs.getString("room_number"));
-                    payment.setCheckInDate(rs.getDate("check_in_date"));
-                    payment.setCheckOutDate(rs.getDate("check_out_date"));
-                    
-                    // Calculate balance due
-                    BigDecimal total = rs.getBigDecimal("total_amount");
-                    BigDecimal paid = rs.getBigDecimal("paid_amount");
-                    payment.setBalanceDue(total.subtract(paid));
-                    
-                    return payment;
-                }
-                return null;
-            }
-        }
+        return JdbcExecutor.queryOne(sql, RECEIPT, paymentId).orElse(null);
     }
 
     @Override
     public List<Invoice> getAllInvoices() throws SQLException {
-        List<Invoice> invoices = new ArrayList<>();
-        
         String sql = "SELECT i.invoice_id, i.booking_id, i.issue_date, i.due_date, " +
                      "i.total_amount, i.paid_amount, i.invoice_status, " +
                      "b.check_in_date, b.check_out_date, " +
@@ -167,33 +224,6 @@ public class PaymentDAOImpl implements PaymentDAO {
                      "JOIN customers c ON b.customer_id = c.customer_id " +
                      "JOIN rooms r ON b.room_id = r.room_id " +
                      "ORDER BY i.invoice_status, i.due_date";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Invoice invoice = new Invoice();
-                invoice.setInvoiceId(rs.getInt("invoice_id"));
-                invoice.setBookingId(rs.getInt("booking_id"));
-                invoice.setIssueDate(rs.getDate("issue_date"));
-                invoice.setDueDate(rs.getDate("due_date"));
-                invoice.setTotalAmount(rs.getBigDecimal("total_amount"));
-                invoice.setPaidAmount(rs.getBigDecimal("paid_amount"));
-                invoice.setInvoiceStatus(rs.getString("invoice_status"));
-                
-                // Related data
-                invoice.setCheckInDate(rs.getDate("check_in_date"));
-                invoice.setCheckOutDate(rs.getDate("check_out_date"));
-                invoice.setCustomerName(rs.getString("first_name") + " " + rs.getString("last_name"));
-                invoice.setRoomNumber(rs.getString("room_number"));
-                
-                // Balance due is calculated by getBalanceDue() method
-                
-                invoices.add(invoice);
-            }
-        }
-        
-        return invoices;
+        return JdbcExecutor.query(sql, INVOICE_SUMMARY);
     }
 }
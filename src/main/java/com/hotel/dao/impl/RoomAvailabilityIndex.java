@@ -0,0 +1,384 @@
+package com.hotel.dao.impl;
+
+import com.hotel.model.Booking;
+import com.hotel.model.Room;
+import com.hotel.util.DatabaseConfig;
+import com.hotel.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory room-night availability index used by BookingDAOImpl.getAllAvailableRooms.
+ *
+ * Each room keeps a bitmap with one bit per night over a rolling horizon
+ * (a booking from check-in to check-out occupies the nights [checkIn, checkOut)).
+ * The index is loaded once from the database and then kept current by the
+ * booking and room DAOs. Queries outside the horizon return empty so the
+ * caller falls back to SQL.
+ *
+ * Configuration (application.properties):
+ *   availability.index.enabled     - use the index (default true)
+ *   availability.index.pastDays    - nights kept before today (default 7)
+ *   availability.index.horizonDays - total nights covered (default 730)
+ */
+public class RoomAvailabilityIndex {
+
+    private static final String AVAILABLE_STATUS = "Available";
+
+    private static final RoomAvailabilityIndex INSTANCE = new RoomAvailabilityIndex(DatabaseConfig.load());
+
+    private static final RowMapper<BookingEntry> BOOKING_ENTRY = RowMapper.of(columns -> {
+        int bookingId = columns.index("booking_id");
+        int roomId = columns.index("room_id");
+        int checkInDate = columns.index("check_in_date");
+        int checkOutDate = columns.index("check_out_date");
+        int bookingStatus = columns.index("booking_status");
+        return rs -> new BookingEntry(
+                rs.getInt(bookingId),
+                rs.getInt(roomId),
+                rs.getDate(checkInDate).toLocalDate(),
+                rs.getDate(checkOutDate).toLocalDate(),
+                rs.getString(bookingStatus));
+    });
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int pastDays;
+    private final int horizonDays;
+    private final int words;
+    private volatile boolean enabled;
+
+    // Guarded by lock
+    private boolean loaded;
+    private LocalDate horizonStart;
+    private final Map<Integer, RoomEntry> rooms = new LinkedHashMap<>();
+    private final Map<Integer, BookingEntry> bookings = new HashMap<>();
+
+    RoomAvailabilityIndex(DatabaseConfig config) {
+        this.enabled = config.getBoolean("availability.index.enabled", true);
+        this.pastDays = Math.max(0, config.getInt("availability.index.pastDays", 7));
+        this.horizonDays = Math.max(pastDays + 1, config.getInt("availability.index.horizonDays", 730));
+        this.words = (horizonDays + 63) / 64;
+    }
+
+    public static RoomAvailabilityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches between the index and the SQL query at runtime.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Returns the rooms with status 'Available' that are free for every night in [checkIn, checkOut),
+     * or empty when the range is not covered by the index.
+     */
+    public Optional<List<Room>> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int from = (int) ChronoUnit.DAYS.between(horizonStart, checkIn);
+            int to = (int) ChronoUnit.DAYS.between(horizonStart, checkOut);
+            if (from < 0 || to > horizonDays || from >= to) {
+                return Optional.empty();
+            }
+            List<Room> available = new ArrayList<>();
+            for (RoomEntry entry : rooms.values()) {
+                if (AVAILABLE_STATUS.equals(entry.room.getStatus()) && !entry.isOccupied(from, to)) {
+                    available.add(copyOf(entry.room));
+                }
+            }
+            return Optional.of(available);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a new or changed booking.
+     */
+    public void onBookingSaved(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            BookingEntry previous = bookings.get(booking.getBookingId());
+            String status = booking.getBookingStatus() != null ? booking.getBookingStatus()
+                    : previous != null ? previous.status : null;
+            BookingEntry updated = new BookingEntry(booking.getBookingId(), booking.getRoomId(),
+                    booking.getCheckInDate(), booking.getCheckOutDate(), status);
+
+            if (previous != null) {
+                bookings.remove(previous.bookingId);
+                rebuildRoom(previous.roomId);
+            }
+            if (updated.isActive()) {
+                bookings.put(updated.bookingId, updated);
+                RoomEntry room = rooms.get(updated.roomId);
+                if (room == null) {
+                    // Room added since the last load
+                    loaded = false;
+                    return;
+                }
+                room.bookingIds.add(updated.bookingId);
+                room.mark(updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted booking.
+     */
+    public void onBookingDeleted(int bookingId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            BookingEntry previous = bookings.remove(bookingId);
+            if (previous != null) {
+                rebuildRoom(previous.roomId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tracks housekeeping status changes so 'Available' filtering stays correct.
+     */
+    public void onRoomStatusChanged(String roomNumber, String newStatus) {
+        lock.writeLock().lock();
+        try {
+            for (RoomEntry entry : rooms.values()) {
+                if (entry.room.getRoomNumber() != null && entry.room.getRoomNumber().equals(roomNumber)) {
+                    entry.room.setStatus(newStatus);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the cached details of an updated room.
+     */
+    public void onRoomUpdated(Room room) {
+        lock.writeLock().lock();
+        try {
+            RoomEntry entry = rooms.get(room.getRoomId());
+            if (entry != null) {
+                entry.room.setType(room.getType());
+                entry.room.setPrice(room.getPrice());
+                entry.room.setStatus(room.getStatus());
+                entry.room.setFloor(room.getFloor());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index; it is reloaded from the database on the next query.
+     * Used when rooms are added or removed.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            rooms.clear();
+            bookings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compares the index with the SQL fallback BookingDAOImpl runs outside it.
+     *
+     * @return A description of every room whose availability differs; empty when consistent
+     */
+    public List<String> verifyAgainstDatabase(LocalDate checkIn, LocalDate checkOut) throws SQLException {
+        Optional<List<Room>> fromIndex = findAvailableRooms(checkIn, checkOut);
+        if (!fromIndex.isPresent()) {
+            return Collections.singletonList("Range " + checkIn + " - " + checkOut + " is outside the index horizon");
+        }
+
+        Set<Integer> fromDatabase = new TreeSet<>();
+        BookingDAOImpl.queryAvailableRooms(checkIn, checkOut).forEach(room -> fromDatabase.add(room.getRoomId()));
+
+        Set<Integer> indexed = new TreeSet<>();
+        fromIndex.get().forEach(room -> indexed.add(room.getRoomId()));
+
+        List<String> differences = new ArrayList<>();
+        for (Integer roomId : fromDatabase) {
+            if (!indexed.contains(roomId)) {
+                differences.add("Room " + roomId + " is free in the database but occupied in the index");
+            }
+        }
+        for (Integer roomId : indexed) {
+            if (!fromDatabase.contains(roomId)) {
+                differences.add("Room " + roomId + " is occupied in the database but free in the index");
+            }
+        }
+        return differences;
+    }
+
+    private void ensureLoaded() throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (loaded && horizonStart.equals(LocalDate.now().minusDays(pastDays))) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            // Reload when first used and once per day to roll the horizon forward
+            if (!loaded || !horizonStart.equals(LocalDate.now().minusDays(pastDays))) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws SQLException {
+        rooms.clear();
+        bookings.clear();
+        horizonStart = LocalDate.now().minusDays(pastDays);
+
+        String roomSql = "SELECT room_id, room_number, type, price, status, floor FROM rooms ORDER BY room_number";
+        String bookingSql = "SELECT booking_id, room_id, check_in_date, check_out_date, booking_status FROM bookings " +
+                "WHERE check_out_date > ? AND booking_status NOT IN ('Cancelled', 'Checked-out')";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Room room : JdbcExecutor.query(conn, roomSql, RoomDAOImpl.ROOM)) {
+                rooms.put(room.getRoomId(), new RoomEntry(room));
+            }
+            for (BookingEntry booking : JdbcExecutor.query(conn, bookingSql, BOOKING_ENTRY, horizonStart)) {
+                RoomEntry room = rooms.get(booking.roomId);
+                if (room != null) {
+                    bookings.put(booking.bookingId, booking);
+                    room.bookingIds.add(booking.bookingId);
+                    room.mark(booking);
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    private void rebuildRoom(int roomId) {
+        RoomEntry room = rooms.get(roomId);
+        if (room == null) {
+            return;
+        }
+        room.clear();
+        room.bookingIds.removeIf(id -> !bookings.containsKey(id) || bookings.get(id).roomId != roomId);
+        for (Integer id : room.bookingIds) {
+            room.mark(bookings.get(id));
+        }
+    }
+
+    private static Room copyOf(Room room) {
+        Room copy = new Room();
+        copy.setRoomId(room.getRoomId());
+        copy.setRoomNumber(room.getRoomNumber());
+        copy.setType(room.getType());
+        copy.setPrice(room.getPrice());
+        copy.setStatus(room.getStatus());
+        copy.setFloor(room.getFloor());
+        return copy;
+    }
+
+    /**
+     * A room and its occupancy bitmap. Bit n is night horizonStart + n.
+     */
+    private final class RoomEntry {
+        final Room room;
+        final long[] nights = new long[words];
+        final List<Integer> bookingIds = new ArrayList<>();
+
+        RoomEntry(Room room) {
+            this.room = room;
+        }
+
+        void mark(BookingEntry booking) {
+            int from = Math.max(0, (int) ChronoUnit.DAYS.between(horizonStart, booking.checkIn));
+            int to = Math.min(horizonDays, (int) ChronoUnit.DAYS.between(horizonStart, booking.checkOut));
+            for (int night = from; night < to; night++) {
+                nights[night >>> 6] |= 1L << night;
+            }
+        }
+
+        void clear() {
+            java.util.Arrays.fill(nights, 0L);
+        }
+
+        boolean isOccupied(int from, int to) {
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long mask = -1L;
+                if (w == firstWord) {
+                    mask &= -1L << from;
+                }
+                if (w == lastWord) {
+                    mask &= -1L >>> (63 - ((to - 1) & 63));
+                }
+                if ((nights[w] & mask) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The part of a booking the index needs.
+     */
+    private static final class BookingEntry {
+        final int bookingId;
+        final int roomId;
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final String status;
+
+        BookingEntry(int bookingId, int roomId, LocalDate checkIn, LocalDate checkOut, String status) {
+            this.bookingId = bookingId;
+            this.roomId = roomId;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.status = status;
+        }
+
+        boolean isActive() {
+            return !"Cancelled".equals(status) && !"Checked-out".equals(status);
+        }
+    }
+}
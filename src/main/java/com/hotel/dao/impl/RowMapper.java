@@ -0,0 +1,122 @@
+package com.hotel.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps result rows to objects of one type, reading the columns by position.
+ *
+ * A mapper is written as a binding: given the columns of a result, it looks up
+ * the position of each label it reads and returns a Reader that only uses those
+ * positions, so mapping a row does no label lookups. The reader is kept per SQL
+ * statement, so running the same query again reuses the positions resolved the
+ * first time:
+ *
+ * <pre>
+ * static final RowMapper&lt;Room&gt; ROOM = RowMapper.of(columns -&gt; {
+ *     int roomId = columns.index("room_id");
+ *     int roomNumber = columns.index("room_number");
+ *     return rs -&gt; {
+ *         Room room = new Room();
+ *         room.setRoomId(rs.getInt(roomId));
+ *         room.setRoomNumber(rs.getString(roomNumber));
+ *         return room;
+ *     };
+ * });
+ * </pre>
+ *
+ * Mappers are immutable apart from that cache and are shared as constants by
+ * the DAO implementations.
+ *
+ * @param <T> The row type
+ */
+final class RowMapper<T> {
+
+    /**
+     * Reads the current row of a result whose columns have been resolved.
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Resolves the columns a mapper reads and returns the reader using them.
+     */
+    @FunctionalInterface
+    interface Binding<T> {
+        Reader<T> bind(Columns columns) throws SQLException;
+    }
+
+    // Statements a mapper is used with are fixed strings or a few filter combinations
+    private static final int MAX_SHAPES = 256;
+
+    private final Binding<T> binding;
+    private final ConcurrentHashMap<String, Shape<T>> shapes = new ConcurrentHashMap<>();
+
+    private RowMapper(Binding<T> binding) {
+        this.binding = binding;
+    }
+
+    static <T> RowMapper<T> of(Binding<T> binding) {
+        return new RowMapper<>(binding);
+    }
+
+    /**
+     * Returns the reader for a result of the given statement, resolving the
+     * columns only the first time the statement is seen. A result with a
+     * different number of columns than before, e.g. a SELECT * after a schema
+     * change, is resolved again.
+     */
+    Reader<T> reader(String sql, ResultSet rs) throws SQLException {
+        int columnCount = rs.getMetaData().getColumnCount();
+        Shape<T> shape = shapes.get(sql);
+        if (shape == null || shape.columnCount != columnCount) {
+            shape = new Shape<>(columnCount, bind(new Columns(rs)));
+            if (shapes.size() >= MAX_SHAPES) {
+                shapes.clear();
+            }
+            shapes.put(sql, shape);
+        }
+        return shape.reader;
+    }
+
+    /**
+     * Resolves this mapper's columns without caching, e.g. to build on it in
+     * another mapper's binding.
+     */
+    Reader<T> bind(Columns columns) throws SQLException {
+        return binding.bind(columns);
+    }
+
+    /**
+     * The columns of a result, looked up by label.
+     */
+    static final class Columns {
+        private final ResultSet rs;
+
+        Columns(ResultSet rs) {
+            this.rs = rs;
+        }
+
+        /**
+         * Returns the 1-based position of a column, matched like ResultSet.findColumn.
+         *
+         * @throws SQLException If the result has no such column
+         */
+        int index(String label) throws SQLException {
+            return rs.findColumn(label);
+        }
+    }
+
+    private static final class Shape<T> {
+        final int columnCount;
+        final Reader<T> reader;
+
+        Shape(int columnCount, Reader<T> reader) {
+            this.columnCount = columnCount;
+            this.reader = reader;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.hotel.dao.impl;
+
+import com.hotel.util.DatabaseConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Records the statements run by JdbcExecutor and KeysetQuery that take longer
+ * than a threshold: SQL, bound parameters, elapsed time, rows, and the
+ * controller method the call came from. A statement that throws is recorded
+ * too, marked FAILED, if it was slow before it failed; a lock wait timeout
+ * shows up that way.
+ *
+ * The last entries are kept in a fixed-size ring buffer (see recent()) and
+ * appended to a log file that is rolled over when it reaches its maximum size,
+ * keeping file.1 ... file.N. The origin is found by walking the stack of a slow
+ * statement only; for a load that runs on a BackgroundLoader thread it is the
+ * controller lambda that submitted it, e.g. BookingController.loadBookings.
+ *
+ * Parameters passed through JdbcExecutor.secret, such as passwords, are logged
+ * as ****; with slowquery.logParameters=false no parameter values are logged.
+ * When the log is disabled a statement costs one volatile read.
+ *
+ * Configuration (application.properties):
+ *   slowquery.enabled         - record slow statements (default true)
+ *   slowquery.thresholdMillis - statements at least this slow are recorded (default 250)
+ *   slowquery.logParameters   - include bound values (default true)
+ *   slowquery.bufferSize      - entries kept in memory (default 200)
+ *   slowquery.file            - log file; empty for none (default logs/slow-queries.log)
+ *   slowquery.maxFileBytes    - size at which the file is rolled over (default 10 MB)
+ *   slowquery.maxFiles        - rolled files kept (default 5)
+ */
+public final class SlowQueryLog {
+
+    private static final SlowQueryLog INSTANCE = new SlowQueryLog(DatabaseConfig.load());
+
+    private static final String CONTROLLERS_PACKAGE = "com.hotel.controllers.";
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private volatile boolean enabled;
+    private final long thresholdNanos;
+    private final boolean logParameters;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    // Guarded by this
+    private final Entry[] buffer;
+    private long recorded;
+    private BufferedWriter writer;
+    private long fileBytes;
+
+    SlowQueryLog(DatabaseConfig config) {
+        this.enabled = config.getBoolean("slowquery.enabled", true);
+        this.thresholdNanos = Math.max(0, config.getLong("slowquery.thresholdMillis", 250)) * 1_000_000;
+        this.logParameters = config.getBoolean("slowquery.logParameters", true);
+        this.buffer = new Entry[Math.max(1, config.getInt("slowquery.bufferSize", 200))];
+        String fileName = config.getProperty("slowquery.file", "logs/slow-queries.log").trim();
+        this.file = fileName.isEmpty() ? null : Paths.get(fileName);
+        this.maxFileBytes = Math.max(1_024, config.getLong("slowquery.maxFileBytes", 10L * 1024 * 1024));
+        this.maxFiles = Math.max(1, config.getInt("slowquery.maxFiles", 5));
+    }
+
+    public static SlowQueryLog getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start time to pass to record, or 0 when the log is disabled.
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the statement if it took at least the threshold since start.
+     * Called from a finally block; failed is true when the statement threw, and
+     * rows then counts what was read before it did.
+     */
+    void record(long start, String sql, Object[] params, int rows, boolean failed) {
+        if (start == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (elapsed < thresholdNanos || !enabled) {
+            return;
+        }
+        Entry entry = new Entry(LocalDateTime.now(), sql, formatParameters(params), elapsed / 1_000_000.0, rows,
+                failed, findOrigin(), Thread.currentThread().getName());
+        synchronized (this) {
+            buffer[(int) (recorded++ % buffer.length)] = entry;
+            write(entry);
+        }
+    }
+
+    /**
+     * Returns the recorded entries still in the ring buffer, oldest first.
+     */
+    public synchronized List<Entry> recent() {
+        List<Entry> entries = new ArrayList<>();
+        long first = Math.max(0, recorded - buffer.length);
+        for (long i = first; i < recorded; i++) {
+            entries.add(buffer[(int) (i % buffer.length)]);
+        }
+        return entries;
+    }
+
+    /**
+     * Number of slow statements recorded since startup.
+     */
+    public synchronized long getRecordedCount() {
+        return recorded;
+    }
+
+    private String formatParameters(Object[] params) {
+        if (params.length == 0) {
+            return "[]";
+        }
+        if (!logParameters) {
+            return "[" + params.length + " redacted]";
+        }
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Object value = params[i];
+            if (value instanceof CharSequence) {
+                String text = value.toString();
+                if (text.length() > MAX_PARAMETER_LENGTH) {
+                    text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+                }
+                out.append('\'').append(text).append('\'');
+            } else {
+                out.append(value); // a secret prints as ****
+            }
+        }
+        return out.append(']').toString();
+    }
+
+    // The first controller frame, with lambda names reduced to the method that declared them
+    private static String findOrigin() {
+        Optional<StackWalker.StackFrame> frame = StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(CONTROLLERS_PACKAGE))
+                .findFirst());
+        if (!frame.isPresent()) {
+            return "unknown";
+        }
+        StackWalker.StackFrame f = frame.get();
+        String className = f.getClassName().substring(CONTROLLERS_PACKAGE.length());
+        int nested = className.indexOf('$');
+        if (nested >= 0) {
+            className = className.substring(0, nested);
+        }
+        String method = f.getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = end > 0 ? method.substring("lambda$".length(), end) : method;
+        }
+        return className + "." + method + ":" + f.getLineNumber();
+    }
+
+    private void write(Entry entry) {
+        if (file == null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                fileBytes = Files.exists(file) ? Files.size(file) : 0;
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            String line = entry + System.lineSeparator();
+            writer.write(line);
+            writer.flush();
+            fileBytes += line.getBytes(StandardCharsets.UTF_8).length;
+            if (fileBytes >= maxFileBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write the slow query log, keeping entries in memory only: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void roll() throws IOException {
+        closeWriter();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rolled(i);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        fileBytes = 0;
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing the slow query log: " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * One slow statement.
+     */
+    public static final class Entry {
+        private final LocalDateTime time;
+        private final String sql;
+        private final String parameters;
+        private final double elapsedMillis;
+        private final int rows;
+        private final boolean failed;
+        private final String origin;
+        private final String thread;
+
+        Entry(LocalDateTime time, String sql, String parameters, double elapsedMillis, int rows, boolean failed,
+              String origin, String thread) {
+            this.time = time;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsedMillis = elapsedMillis;
+            this.rows = rows;
+            this.failed = failed;
+            this.origin = origin;
+            this.thread = thread;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public String getSql() { return sql; }
+        public String getParameters() { return parameters; }
+        public double getElapsedMillis() { return elapsedMillis; }
+        public int getRows() { return rows; }
+        public boolean isFailed() { return failed; }
+        public String getOrigin() { return origin; }
+        public String getThread() { return thread; }
+
+        @Override
+        public String toString() {
+            return String.format("%s %.1fms rows=%d%s origin=%s thread=%s sql=%s params=%s",
+                    TIMESTAMP.format(time), elapsedMillis, rows, failed ? " FAILED" : "", origin, thread, sql,
+                    parameters);
+        }
+    }
+}
@@ -2,46 +2,52 @@ package com.hotel.dao.impl;
 
 import com.hotel.dao.StaffDAO;
 import com.hotel.model.Staff;
-import com.hotel.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.Date;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
 public class StaffDAOImpl implements StaffDAO {
 
+    private static final RowMapper<Staff> STAFF = RowMapper.of(columns -> {
+        int userId = columns.index("user_id");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        int phoneNumber = columns.index("phone_number");
+        int email = columns.index("email");
+        int position = columns.index("position");
+        int hireDate = columns.index("hire_date");
+        int salary = columns.index("salary");
+        int address = columns.index("address");
+        int createdAt = columns.index("created_at");
+        int updatedAt = columns.index("updated_at");
+        return rs -> {
+            Staff staff = new Staff();
+            staff.setUserId(rs.getInt(userId));
+            staff.setFirstName(rs.getString(firstName));
+            staff.setLastName(rs.getString(lastName));
+            staff.setPhoneNumber(rs.getString(phoneNumber));
+            staff.setEmail(rs.getString(email));
+            staff.setPosition(rs.getString(position));
+            Date hired = rs.getDate(hireDate);
+            staff.setHireDate(hired != null ? hired.toLocalDate() : null);
+            staff.setSalary(rs.getDouble(salary));
+            staff.setAddress(rs.getString(address));
+            staff.setCreatedAt(rs.getTimestamp(createdAt).toLocalDateTime());
+            staff.setUpdatedAt(rs.getTimestamp(updatedAt).toLocalDateTime());
+            return staff;
+        };
+    });
+
     @Override
     public List<Staff> findAll() throws SQLException {
-        String sql = "SELECT * FROM staff ORDER BY last_name, first_name";
-        List<Staff> staffList = new ArrayList<>();
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                staffList.add(mapRowToStaff(rs));
-            }
-        }
-        return staffList;
+        return JdbcExecutor.query("SELECT * FROM staff ORDER BY last_name, first_name", STAFF);
     }
 
     @Override
     public Optional<Staff> findById(int userId) throws SQLException {
-        String sql = "SELECT * FROM staff WHERE user_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return Optional.of(mapRowToStaff(rs));
-            }
-        }
-        return Optional.empty();
+        return JdbcExecutor.queryOne("SELECT * FROM staff WHERE user_id = ?", STAFF, userId);
     }
 
     @Override
@@ -50,12 +56,21 @@ public class StaffDAOImpl implements StaffDAO {
                     "email, position, hire_date, salary, address) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            setStaffParameters(pstmt, staff);
-            return pstmt.executeUpdate() > 0;
+        boolean added = JdbcExecutor.update(sql,
+                staff.getUserId(),
+                staff.getFirstName(),
+                staff.getLastName(),
+                staff.getPhoneNumber(),
+                staff.getEmail(),
+                staff.getPosition(),
+                staff.getHireDate(),
+                staff.getSalary(),
+                staff.getAddress()) > 0;
+        if (added) {
+            DashboardAggregator.getInstance().onStaffAdded();
+            CachingUserDAO.getInstance().invalidate(staff.getUserId());
         }
+        return added;
     }
 
     @Override
@@ -64,79 +79,40 @@ public class StaffDAOImpl implements StaffDAO {
                     "email = ?, position = ?, hire_date = ?, salary = ?, address = ? " +
                     "WHERE user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Set parameters in correct order matching the SQL query
-            pstmt.setString(1, staff.getFirstName());
-            pstmt.setString(2, staff.getLastName());
-            pstmt.setString(3, staff.getPhoneNumber());
-            pstmt.setString(4, staff.getEmail());
-            pstmt.setString(5, staff.getPosition());
-            pstmt.setDate(6, staff.getHireDate() != null ? Date.valueOf(staff.getHireDate()) : null);
-            pstmt.setDouble(7, staff.getSalary());
-            pstmt.setString(8, staff.getAddress());
-            pstmt.setInt(9, staff.getUserId());
-            
-            return pstmt.executeUpdate() > 0;
+        // Parameters in the order of the SQL query
+        try {
+            return JdbcExecutor.update(sql,
+                    staff.getFirstName(),
+                    staff.getLastName(),
+                    staff.getPhoneNumber(),
+                    staff.getEmail(),
+                    staff.getPosition(),
+                    staff.getHireDate(),
+                    staff.getSalary(),
+                    staff.getAddress(),
+                    staff.getUserId()) > 0;
+        } finally {
+            CachingUserDAO.getInstance().invalidate(staff.getUserId());
         }
     }
 
     @Override
     public boolean deleteStaff(int userId) throws SQLException {
-        String sql = "DELETE FROM staff WHERE user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-            return pstmt.executeUpdate() > 0;
+        boolean deleted;
+        try {
+            deleted = JdbcExecutor.update("DELETE FROM staff WHERE user_id = ?", userId) > 0;
+        } finally {
+            CachingUserDAO.getInstance().invalidate(userId);
+        }
+        if (deleted) {
+            DashboardAggregator.getInstance().onStaffDeleted();
         }
+        return deleted;
     }
 
     @Override
     public List<Staff> findByPosition(String position) throws SQLException {
-        String sql = "SELECT * FROM staff WHERE position = ? ORDER BY last_name, first_name";
-        List<Staff> staffList = new ArrayList<>();
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, position);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                staffList.add(mapRowToStaff(rs));
-            }
-        }
-        return staffList;
-    }
-
-    private Staff mapRowToStaff(ResultSet rs) throws SQLException {
-        Staff staff = new Staff();
-        staff.setUserId(rs.getInt("user_id"));
-        staff.setFirstName(rs.getString("first_name"));
-        staff.setLastName(rs.getString("last_name"));
-        staff.setPhoneNumber(rs.getString("phone_number"));
-        staff.setEmail(rs.getString("email"));
-        staff.setPosition(rs.getString("position"));
-        staff.setHireDate(rs.getDate("hire_date") != null ? rs.getDate("hire_date").toLocalDate() : null);
-        staff.setSalary(rs.getDouble("salary"));
-        staff.setAddress(rs.getString("address"));
-        staff.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        staff.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-        return staff;
-    }
-
-    private void setStaffParameters(PreparedStatement pstmt, Staff staff) throws SQLException {
-        pstmt.setInt(1, staff.getUserId());
-        pstmt.setString(2, staff.getFirstName());
-        pstmt.setString(3, staff.getLastName());
-        pstmt.setString(4, staff.getPhoneNumber());
-        pstmt.setString(5, staff.getEmail());
-        pstmt.setString(6, staff.getPosition());
-        pstmt.setDate(7, staff.getHireDate() != null ? Date.valueOf(staff.getHireDate()) : null);
-        pstmt.setDouble(8, staff.getSalary());
-        pstmt.setString(9, staff.getAddress());
+        return JdbcExecutor.query("SELECT * FROM staff WHERE position = ? ORDER BY last_name, first_name",
+                STAFF, position);
     }
 }
@@ -3,56 +3,114 @@ package com.hotel.dao.impl;
 import com.hotel.dao.UserDAO;
 import com.hotel.model.User;
 import com.hotel.util.DatabaseConnection;
+import com.hotel.util.PasswordHasher;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Optional;
 
 public class UserDAOImpl implements UserDAO {
 
+    private static final RowMapper<User> USER = RowMapper.of(columns -> {
+        int userId = columns.index("user_id");
+        int username = columns.index("username");
+        int password = columns.index("password");
+        int role = columns.index("role");
+        return rs -> {
+            User user = new User();
+            user.setUserId(rs.getInt(userId));
+            user.setUsername(rs.getString(username));
+            user.setPassword(rs.getString(password)); // Remember: Hash in real app
+            user.setRole(rs.getString(role));
+            return user;
+        };
+    });
+
+    private static final RowMapper<User> USER_WITH_STAFF = RowMapper.of(columns -> {
+        int userId = columns.index("user_id");
+        int username = columns.index("username");
+        int password = columns.index("password");
+        int role = columns.index("role");
+        int firstName = columns.index("first_name");
+        int lastName = columns.index("last_name");
+        int phoneNumber = columns.index("phone_number");
+        int email = columns.index("email");
+        int position = columns.index("position");
+        return rs -> new User(
+            rs.getInt(userId),
+            rs.getString(username),
+            rs.getString(password),
+            rs.getString(role),
+            rs.getString(firstName),
+            rs.getString(lastName),
+            rs.getString(phoneNumber),
+            rs.getString(email),
+            rs.getString(position)
+        );
+    });
+
     @Override
     public Optional<User> findByUsername(String username) throws SQLException {
         // TODO: Implement actual database query logic
         System.out.println("UserDAOImpl: findByUsername called (placeholder)");
         String sql = "SELECT user_id, username, password, role FROM Users WHERE username = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password")); // Remember: Hash in real app
-                user.setRole(rs.getString("role"));
-                return Optional.of(user);
-            }
+        try {
+            return JdbcExecutor.queryOne(sql, USER, username);
         } catch (SQLException e) {
              System.err.println("SQL Error in findByUsername: " + e.getMessage());
              throw e; // Re-throw exception after logging
         }
-        return Optional.empty(); // Return empty if not found or error occurred before return
+    }
+
+    @Override
+    public Optional<User> authenticate(String username, String password) throws SQLException {
+        String sql = "SELECT u.user_id, u.username, u.password, u.role, " +
+                    "s.first_name, s.last_name, s.phone_number, s.email, s.position " +
+                    "FROM Users u " +
+                    "LEFT JOIN Staff s ON u.user_id = s.user_id " +
+                    "WHERE u.username = ?";
+        try {
+            Optional<User> user = JdbcExecutor.queryOne(sql, USER_WITH_STAFF, username);
+            PasswordHasher hasher = PasswordHasher.getInstance();
+            if (!user.isPresent()) {
+                // Costs a hash like a wrong password does, so the time does not give the username away
+                hasher.verifyUnknown(password);
+                return Optional.empty();
+            }
+            if (!hasher.verify(password, user.get().getPassword())) {
+                return Optional.empty();
+            }
+            String stored = user.get().getPassword();
+            if (hasher.needsRehash(stored)) {
+                rehash(user.get().getUserId(), password, stored);
+            }
+            user.get().setPassword(null);
+            return user;
+        } catch (SQLException e) {
+            System.err.println("SQL Error in authenticate: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Replaces a plaintext password or a hash made with old parameters; the login goes ahead if this fails
+    private void rehash(int userId, String password, String stored) {
+        try {
+            // Only if the password was not changed since it was read
+            JdbcExecutor.update("UPDATE Users SET password = ? WHERE user_id = ? AND password = ?",
+                    JdbcExecutor.secret(PasswordHasher.getInstance().hash(password)), userId, JdbcExecutor.secret(stored));
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Could not rehash the password of user ID " + userId + ": " + e.getMessage());
+        }
     }
 
     // TODO: Implement other UserDAO methods if added to the interface (addUser, updateUser, deleteUser)
     @Override
     public boolean addUser(User user) throws SQLException {
-        // Ensure password hashing is implemented in a real application before storing
         String sql = "INSERT INTO Users (username, password, role) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPassword()); // Store hashed password in production!
-            pstmt.setString(3, user.getRole());
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-
+        try {
+            return JdbcExecutor.update(sql, user.getUsername(),
+                    JdbcExecutor.secret(PasswordHasher.getInstance().hash(user.getPassword())),
+                    user.getRole()) > 0;
         } catch (SQLException e) {
             System.err.println("SQL Error in addUser: " + e.getMessage());
             // Consider more specific error handling (e.g., duplicate username)
@@ -68,28 +126,8 @@ public class UserDAOImpl implements UserDAO {
                     "LEFT JOIN Staff s ON u.user_id = s.user_id " +
                     "WHERE u.user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                    rs.getInt("user_id"),
-                    rs.getString("username"),
-                    rs.getString("password"),
-                    rs.getString("role"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("phone_number"),
-                    rs.getString("email"),
-                    rs.getString("position")
-                );
-                return Optional.of(user);
-            }
-            return Optional.empty();
-
+        try {
+            return JdbcExecutor.queryOne(sql, USER_WITH_STAFF, userId);
         } catch (SQLException e) {
             System.err.println("SQL Error in getUserWithStaffDetails: " + e.getMessage());
             throw e;
@@ -106,78 +144,57 @@ public class UserDAOImpl implements UserDAO {
         System.out.println("Password changed: " + (!user.getPassword().isEmpty() ? "Yes" : "No"));
 
         Connection conn = null;
+        // Hashed before the transaction starts, so it does not hold a connection meanwhile
+        String passwordHash = user.getPassword().isEmpty() ? null : PasswordHasher.getInstance().hash(user.getPassword());
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false);
 
             // First verify the user exists
             String checkUserSql = "SELECT COUNT(*) FROM Users WHERE user_id = ?";
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkUserSql)) {
-                checkStmt.setInt(1, user.getUserId());
-                ResultSet rs = checkStmt.executeQuery();
-                if (!rs.next() || rs.getInt(1) == 0) {
-                    throw new SQLException("User not found with ID: " + user.getUserId());
-                }
+            if (JdbcExecutor.queryInt(conn, checkUserSql, user.getUserId()) == 0) {
+                throw new SQLException("User not found with ID: " + user.getUserId());
             }
 
             // Update Users table (only password if provided)
-            if (!user.getPassword().isEmpty()) {
+            if (passwordHash != null) {
                 String userSql = "UPDATE Users SET password = ? WHERE user_id = ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(userSql)) {
-                    pstmt.setString(1, user.getPassword());
-                    pstmt.setInt(2, user.getUserId());
-                    int updated = pstmt.executeUpdate();
-                    System.out.println("Updated password rows: " + updated);
-                    if (updated == 0) {
-                        throw new SQLException("Failed to update password for user ID: " + user.getUserId());
-                    }
+                int updated = JdbcExecutor.update(conn, userSql, JdbcExecutor.secret(passwordHash),
+                        user.getUserId());
+                System.out.println("Updated password rows: " + updated);
+                if (updated == 0) {
+                    throw new SQLException("Failed to update password for user ID: " + user.getUserId());
                 }
             }
 
             // Check if staff record exists
             String checkSql = "SELECT COUNT(*) FROM Staff WHERE user_id = ?";
-            boolean staffExists = false;
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, user.getUserId());
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    staffExists = rs.getInt(1) > 0;
-                }
-            }
+            boolean staffExists = JdbcExecutor.queryInt(conn, checkSql, user.getUserId()) > 0;
 
             // Update or insert staff record
             if (staffExists) {
                 String staffSql = "UPDATE Staff SET first_name = ?, last_name = ?, email = ?, phone_number = ? WHERE user_id = ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(staffSql)) {
-                    pstmt.setString(1, user.getFirstName());
-                    pstmt.setString(2, user.getLastName());
-                    pstmt.setString(3, user.getEmail());
-                    pstmt.setString(4, user.getPhoneNumber());
-                    pstmt.setInt(5, user.getUserId());
-                    int updated = pstmt.executeUpdate();
-                    System.out.println("Updated staff rows: " + updated);
-                    if (updated == 0) {
-                        throw new SQLException("Failed to update staff record for user ID: " + user.getUserId());
-                    }
+                int updated = JdbcExecutor.update(conn, staffSql, user.getFirstName(), user.getLastName(),
+                        user.getEmail(), user.getPhoneNumber(), user.getUserId());
+                System.out.println("Updated staff rows: " + updated);
+                if (updated == 0) {
+                    throw new SQLException("Failed to update staff record for user ID: " + user.getUserId());
                 }
             } else {
                 String insertSql = "INSERT INTO Staff (user_id, first_name, last_name, email, phone_number) VALUES (?, ?, ?, ?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
-                    pstmt.setInt(1, user.getUserId());
-                    pstmt.setString(2, user.getFirstName());
-                    pstmt.setString(3, user.getLastName());
-                    pstmt.setString(4, user.getEmail());
-                    pstmt.setString(5, user.getPhoneNumber());
-                    int inserted = pstmt.executeUpdate();
-                    System.out.println("Inserted staff rows: " + inserted);
-                    if (inserted == 0) {
-                        throw new SQLException("Failed to create staff record for user ID: " + user.getUserId());
-                    }
+                int inserted = JdbcExecutor.update(conn, insertSql, user.getUserId(), user.getFirstName(),
+                        user.getLastName(), user.getEmail(), user.getPhoneNumber());
+                System.out.println("Inserted staff rows: " + inserted);
+                if (inserted == 0) {
+                    throw new SQLException("Failed to create staff record for user ID: " + user.getUserId());
                 }
             }
 
             // If we got here, all operations succeeded
             conn.commit();
+            if (!staffExists) {
+                DashboardAggregator.getInstance().onStaffAdded();
+            }
             System.out.println("User update successful");
             return true;
 
@@ -215,14 +232,8 @@ public class UserDAOImpl implements UserDAO {
     @Override
     public boolean deleteUser(int userId) throws SQLException {
         String sql = "DELETE FROM Users WHERE user_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-
+        try {
+            return JdbcExecutor.update(sql, userId) > 0;
         } catch (SQLException e) {
             System.err.println("SQL Error in deleteUser: " + e.getMessage());
             // Handle potential foreign key constraints if users are linked elsewhere
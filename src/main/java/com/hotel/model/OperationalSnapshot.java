@@ -0,0 +1,87 @@
+package com.hotel.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The room and booking counters behind the RoomDAO and BookingDAO dashboard
+ * methods, all taken by one query at the same moment. Instances are immutable.
+ */
+public final class OperationalSnapshot {
+    private final LocalDate date;
+    private final LocalDateTime takenAt;
+    private final int totalRooms;
+    private final int availableRooms;
+    private final int occupiedRooms;
+    private final int checkedInGuests;
+    private final int expectedCheckInsToday;
+    private final int expectedCheckOutsToday;
+    private final int reservationsToday;
+    private final int newConfirmedBookingsToday;
+    private final BigDecimal revenueToday;
+
+    public OperationalSnapshot(LocalDate date, LocalDateTime takenAt, int totalRooms, int availableRooms,
+                               int occupiedRooms, int checkedInGuests, int expectedCheckInsToday,
+                               int expectedCheckOutsToday, int reservationsToday, int newConfirmedBookingsToday,
+                               BigDecimal revenueToday) {
+        this.date = date;
+        this.takenAt = takenAt;
+        this.totalRooms = totalRooms;
+        this.availableRooms = availableRooms;
+        this.occupiedRooms = occupiedRooms;
+        this.checkedInGuests = checkedInGuests;
+        this.expectedCheckInsToday = expectedCheckInsToday;
+        this.expectedCheckOutsToday = expectedCheckOutsToday;
+        this.reservationsToday = reservationsToday;
+        this.newConfirmedBookingsToday = newConfirmedBookingsToday;
+        this.revenueToday = revenueToday != null ? revenueToday : BigDecimal.ZERO;
+    }
+
+    // The day the "today" counters refer to
+    public LocalDate getDate() { return date; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+
+    public int getTotalRooms() { return totalRooms; }
+
+    // Rooms with status Available
+    public int getAvailableRooms() { return availableRooms; }
+
+    // Rooms with status Booked
+    public int getOccupiedRooms() { return occupiedRooms; }
+
+    // Bookings with status Checked-in
+    public int getCheckedInGuests() { return checkedInGuests; }
+
+    // Confirmed bookings checking in today
+    public int getExpectedCheckInsToday() { return expectedCheckInsToday; }
+
+    // Checked-in bookings checking out today
+    public int getExpectedCheckOutsToday() { return expectedCheckOutsToday; }
+
+    // Bookings of any status created today
+    public int getReservationsToday() { return reservationsToday; }
+
+    // Bookings created today that are still Confirmed
+    public int getNewConfirmedBookingsToday() { return newConfirmedBookingsToday; }
+
+    // Sum of the payments dated today
+    public BigDecimal getRevenueToday() { return revenueToday; }
+
+    @Override
+    public String toString() {
+        return "OperationalSnapshot{" +
+                "date=" + date +
+                ", totalRooms=" + totalRooms +
+                ", availableRooms=" + availableRooms +
+                ", occupiedRooms=" + occupiedRooms +
+                ", checkedInGuests=" + checkedInGuests +
+                ", expectedCheckInsToday=" + expectedCheckInsToday +
+                ", expectedCheckOutsToday=" + expectedCheckOutsToday +
+                ", reservationsToday=" + reservationsToday +
+                ", newConfirmedBookingsToday=" + newConfirmedBookingsToday +
+                ", revenueToday=" + revenueToday +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+package com.hotel.util;
+
+import javafx.application.Platform;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs DAO queries for the controllers off the JavaFX Application Thread.
+ *
+ * Each controller opens a {@link Channel} per kind of load (a table page, a
+ * combo box, the dashboard). Submitting to a channel cancels the load already
+ * running on it, and a request equal to the one in flight is not started
+ * again. Results are handed back on the FX thread; results that finish close
+ * together are applied in one Platform.runLater batch, and a result from a
+ * load that has since been superseded is dropped.
+ *
+ * Configuration (application.properties):
+ *   loader.threads       - worker threads (default 4)
+ *   loader.queueCapacity - queued loads before new ones are rejected (default 64)
+ */
+public final class BackgroundLoader {
+
+    private static final BackgroundLoader INSTANCE = create(DatabaseConfig.load());
+
+    private final ThreadPoolExecutor executor;
+    private final Executor uiExecutor;
+    private final ConcurrentLinkedQueue<Runnable> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    BackgroundLoader(int threads, int queueCapacity, Executor uiExecutor) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "data-loader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.uiExecutor = uiExecutor;
+    }
+
+    private static BackgroundLoader create(DatabaseConfig config) {
+        int threads = Math.max(1, config.getInt("loader.threads", 4));
+        int queueCapacity = Math.max(1, config.getInt("loader.queueCapacity", 64));
+        return new BackgroundLoader(threads, queueCapacity, Platform::runLater);
+    }
+
+    public static BackgroundLoader getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Opens a new channel. The name is only used in log messages.
+     */
+    public <T> Channel<T> channel(String name) {
+        return new Channel<>(name);
+    }
+
+    /**
+     * Stops the worker threads. Loads still queued are discarded.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void publish(Runnable update) {
+        pendingUpdates.add(update);
+        if (flushScheduled.compareAndSet(false, true)) {
+            uiExecutor.execute(this::flush);
+        }
+    }
+
+    // Runs on the FX thread and applies every result that is ready
+    private void flush() {
+        flushScheduled.set(false);
+        Runnable update;
+        while ((update = pendingUpdates.poll()) != null) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error applying loaded data: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A sequence of loads of which only the latest matters.
+     *
+     * @param <T> The loaded value type
+     */
+    public final class Channel<T> {
+        private final String name;
+
+        // Guarded by this
+        private long generation;
+        private Object inFlightRequest;
+        private Future<?> inFlight;
+
+        private Channel(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Runs the query in the background and passes its result to onSuccess on the FX thread.
+         *
+         * @param request   Identifies what is being loaded; a load equal to the one in flight is dropped
+         * @param query     The DAO call; runs on a worker thread and must not touch the UI
+         * @param onSuccess Applies the result; runs on the FX thread
+         * @param onError   Reports a failure; runs on the FX thread
+         */
+        public synchronized void submit(Object request, Callable<T> query,
+                                        Consumer<T> onSuccess, Consumer<Exception> onError) {
+            if (inFlight != null && !inFlight.isDone() && Objects.equals(request, inFlightRequest)) {
+                return;
+            }
+            cancel();
+            long loadGeneration = generation;
+            inFlightRequest = request;
+            try {
+                inFlight = executor.submit(() -> run(loadGeneration, query, onSuccess, onError));
+            } catch (RejectedExecutionException e) {
+                System.err.println("Load '" + name + "' rejected: too many loads queued");
+                inFlight = null;
+                publish(() -> {
+                    if (isCurrent(loadGeneration)) {
+                        onError.accept(e);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Cancels the load in flight, if any. Its result will not be delivered.
+         */
+        public synchronized void cancel() {
+            generation++;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+                inFlight = null;
+            }
+            inFlightRequest = null;
+        }
+
+        public synchronized boolean isLoading() {
+            return inFlight != null && !inFlight.isDone();
+        }
+
+        private synchronized boolean isCurrent(long loadGeneration) {
+            return generation == loadGeneration;
+        }
+
+        private void run(long loadGeneration, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            if (!isCurrent(loadGeneration)) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                T result = query.call();
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (elapsedMillis > 500) {
+                    System.out.println("Slow load '" + name + "': " + elapsedMillis + " ms");
+                }
+                publish(() -> {
+                    if (isCurrent(loadGeneration)) {
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                if (!isCurrent(loadGeneration)) {
+                    // Superseded while running; the interrupt may surface as an exception
+                    return;
+                }
+                publish(() -> {
+                    if (isCurrent(loadGeneration)) {
+                        onError.accept(e);
+                    }
+                });
+            }
+        }
+    }
+}
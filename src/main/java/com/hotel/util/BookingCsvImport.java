@@ -0,0 +1,608 @@
+package com.hotel.util;
+
+import com.hotel.dao.BookingDAO;
+import com.hotel.dao.Reservation;
+import com.hotel.dao.RoomDAO;
+import com.hotel.model.Booking;
+import com.hotel.model.Room;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Imports bookings from a CSV file, e.g. the reservation list of a group or a
+ * tour operator.
+ *
+ * The first line names the columns, in any order:
+ *
+ * <pre>
+ * room_number (or room_id), customer_id, check_in_date, check_out_date, number_of_adults, number_of_kids
+ * </pre>
+ *
+ * Dates are yyyy-MM-dd. The guest counts may be left out and default to one
+ * adult and no kids. Fields may be quoted with double quotes but must not
+ * span lines.
+ *
+ * Rows pass through four stages, each on its own thread and linked by bounded
+ * queues, so the file is never held in memory and a slow stage holds back the
+ * ones before it instead of letting rows pile up:
+ *
+ *   parse        - splits each line into fields
+ *   validate     - turns the fields into a booking: known room, dates, guest counts
+ *   availability - refuses rows whose room is taken, by a booking or an earlier
+ *                  row of the file, and groups the rest into batches
+ *   insert       - reserves each batch with BookingDAO.reserveAll, one transaction per batch
+ *
+ * The availability stage checks against the bookings of a room as they were
+ * when it first met the room, without locks. reserveAll checks again under
+ * the room locks, so a booking made in the meantime still wins. A row refused
+ * for overlapping an earlier row of the file stays refused even if that row
+ * then fails to insert.
+ *
+ * Refused rows are written to an error report next to the file,
+ * &lt;file&gt;.errors.csv, with their line number, the reason and the original
+ * line; the report is only written when some row is refused. A batch that
+ * fails as a whole, e.g. when the connection drops, is reported row by row
+ * and the import goes on with the next one. Cancelling stops the import after
+ * the batch being inserted; batches already inserted are kept. No thread of
+ * the import is interrupted, as an interrupt in the middle of a JDBC call can
+ * leave the connection, or with H2 the whole database, unusable.
+ *
+ * Configuration (application.properties):
+ *   import.batchSize     - bookings inserted per transaction (default 500)
+ *   import.queueCapacity - rows waiting between two stages (default 2000)
+ */
+public class BookingCsvImport extends Task<BookingCsvImport.Result> {
+
+    // Marks the end of the rows and of the batches in the queues
+    private static final Row END = new Row(0, null);
+    private static final List<Row> END_OF_BATCHES = Collections.emptyList();
+
+    private static final List<String> ROOM_COLUMNS = List.of("room_number", "room_id");
+    private static final String CUSTOMER_COLUMN = "customer_id";
+    private static final String CHECK_IN_COLUMN = "check_in_date";
+    private static final String CHECK_OUT_COLUMN = "check_out_date";
+    private static final String ADULTS_COLUMN = "number_of_adults";
+    private static final String KIDS_COLUMN = "number_of_kids";
+
+    // Same limits as the booking form
+    private static final int MAX_ADULTS = 10;
+    private static final int MAX_KIDS = 10;
+
+    private final BookingDAO bookingDAO;
+    private final RoomDAO roomDAO;
+    private final File source;
+    private final File report;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicReference<Exception> stageError = new AtomicReference<>();
+
+    /**
+     * @param source The CSV file; the error report is written next to it
+     */
+    public BookingCsvImport(BookingDAO bookingDAO, RoomDAO roomDAO, File source) {
+        DatabaseConfig config = DatabaseConfig.load();
+        this.bookingDAO = bookingDAO;
+        this.roomDAO = roomDAO;
+        this.source = source;
+        this.report = new File(source.getParentFile(), source.getName() + ".errors.csv");
+        this.batchSize = Math.max(1, config.getInt("import.batchSize", 500));
+        this.queueCapacity = Math.max(1, config.getInt("import.queueCapacity", 2000));
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        updateMessage("Reading " + source.getName() + "...");
+        long total;
+        try (Stream<String> lines = Files.lines(source.toPath(), StandardCharsets.UTF_8)) {
+            total = Math.max(0, lines.count() - 1);
+        }
+        Map<String, Room> roomsByNumber = new HashMap<>();
+        Map<Integer, Room> roomsById = new HashMap<>();
+        for (Room room : roomDAO.findAll()) {
+            roomsByNumber.put(room.getRoomNumber().toLowerCase(Locale.ROOT), room);
+            roomsById.put(room.getRoomId(), room);
+        }
+        Files.deleteIfExists(report.toPath());
+
+        long start = System.nanoTime();
+        BlockingQueue<Row> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Row> validated = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<Row>> batches = new ArrayBlockingQueue<>(Math.max(2, queueCapacity / batchSize));
+        Counts counts = new Counts();
+        BufferedWriter errors = null;
+        try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+            Header header = Header.read(reader.readLine(), roomsByNumber.isEmpty());
+
+            stage("booking-import-parse", () -> parse(reader, parsed));
+            stage("booking-import-validate", () -> validate(header, roomsByNumber, roomsById, parsed, validated));
+            stage("booking-import-availability", () -> checkAvailability(roomsById, validated, batches));
+
+            // The insert stage runs on the task's own thread; a cancel is only seen between batches
+            while (!isCancelled()) {
+                List<Row> batch = take(batches);
+                if (batch == null || batch == END_OF_BATCHES) {
+                    break;
+                }
+                insert(batch, roomsById, counts);
+                for (Row row : batch) {
+                    if (row.error != null) {
+                        if (errors == null) {
+                            errors = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8);
+                            errors.write("line,error,row");
+                            errors.newLine();
+                        }
+                        errors.write(row.line + "," + quote(row.error) + "," + quote(row.text));
+                        errors.newLine();
+                    }
+                }
+                reportProgress(counts, total, start);
+            }
+            if (stageError.get() != null) {
+                throw stageError.get();
+            }
+        } finally {
+            // The stages see the flag within one queue poll and end
+            stopped.set(true);
+            if (errors != null) {
+                errors.close();
+            }
+        }
+
+        Result result = new Result(counts.rows, counts.imported, System.nanoTime() - start,
+                counts.rows > counts.imported ? report : null);
+        updateProgress(total, total);
+        updateMessage(result.toString());
+        System.out.println("Booking import of " + source.getName() + ": " + result);
+        return result;
+    }
+
+    /**
+     * Stops the import once the batch being inserted is committed, without
+     * interrupting it; TaskProgressDialog cancels with an interrupt.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return super.cancel(false);
+    }
+
+    // Parse stage: one row per non-blank line after the header
+    private void parse(BufferedReader reader, BlockingQueue<Row> out) throws IOException {
+        int number = 1;
+        String line;
+        while (!stopped.get() && (line = reader.readLine()) != null) {
+            number++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Row row = new Row(number, line);
+            try {
+                row.fields = split(line);
+            } catch (IllegalArgumentException e) {
+                row.error = e.getMessage();
+            }
+            put(out, row);
+        }
+        put(out, END);
+    }
+
+    // Validate stage: turns the fields of each row into a booking
+    private void validate(Header header, Map<String, Room> roomsByNumber, Map<Integer, Room> roomsById,
+                          BlockingQueue<Row> in, BlockingQueue<Row> out) {
+        Row row;
+        while ((row = take(in)) != null && row != END) {
+            if (row.error == null) {
+                try {
+                    row.booking = header.toBooking(row.fields, roomsByNumber, roomsById);
+                } catch (IllegalArgumentException e) {
+                    row.error = e.getMessage();
+                }
+            }
+            put(out, row);
+        }
+        put(out, END);
+    }
+
+    // Availability stage: refuses rows whose nights are taken and batches the rest, in file order
+    private void checkAvailability(Map<Integer, Room> roomsById, BlockingQueue<Row> in,
+                                   BlockingQueue<List<Row>> out) throws SQLException {
+        Map<Integer, List<Stay>> stays = new HashMap<>();
+        List<Row> batch = new ArrayList<>();
+        int accepted = 0;
+        Row row;
+        while ((row = take(in)) != null && row != END) {
+            if (row.error == null) {
+                Booking booking = row.booking;
+                List<Stay> roomStays = stays.get(booking.getRoomId());
+                if (roomStays == null) {
+                    roomStays = activeStays(booking.getRoomId());
+                    stays.put(booking.getRoomId(), roomStays);
+                }
+                for (Stay stay : roomStays) {
+                    if (stay.checkIn.isBefore(booking.getCheckOutDate())
+                            && stay.checkOut.isAfter(booking.getCheckInDate())) {
+                        row.error = "Room " + roomsById.get(booking.getRoomId()).getRoomNumber()
+                                + " is already booked for some of these nights "
+                                + (stay.line > 0 ? "by line " + stay.line + " of this file" : "(booking " + stay.bookingId + ")");
+                        break;
+                    }
+                }
+                if (row.error == null) {
+                    roomStays.add(new Stay(booking.getCheckInDate(), booking.getCheckOutDate(), 0, row.line));
+                    accepted++;
+                }
+            }
+            batch.add(row);
+            // Refused rows travel with the batch so the report stays in file order
+            if (accepted == batchSize || batch.size() >= queueCapacity) {
+                put(out, batch);
+                batch = new ArrayList<>();
+                accepted = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            put(out, batch);
+        }
+        put(out, END_OF_BATCHES);
+    }
+
+    private List<Stay> activeStays(int roomId) throws SQLException {
+        List<Stay> stays = new ArrayList<>();
+        for (Booking booking : bookingDAO.findByRoomId(roomId)) {
+            String status = booking.getBookingStatus();
+            if (!"Cancelled".equals(status) && !"Checked-out".equals(status)) {
+                stays.add(new Stay(booking.getCheckInDate(), booking.getCheckOutDate(), booking.getBookingId(), 0));
+            }
+        }
+        return stays;
+    }
+
+    // Insert stage: reserves the batch's bookings in one transaction
+    private void insert(List<Row> batch, Map<Integer, Room> roomsById, Counts counts) {
+        List<Row> valid = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (Row row : batch) {
+            if (row.error == null) {
+                valid.add(row);
+                bookings.add(row.booking);
+            }
+        }
+        counts.rows += batch.size();
+        if (bookings.isEmpty()) {
+            return;
+        }
+        try {
+            List<Reservation> reservations = bookingDAO.reserveAll(bookings);
+            for (int i = 0; i < valid.size(); i++) {
+                Reservation reservation = reservations.get(i);
+                Booking booking = reservation.getBooking();
+                switch (reservation.getStatus()) {
+                    case RESERVED:
+                        counts.imported++;
+                        break;
+                    case CONFLICT:
+                        valid.get(i).error = "Room " + roomsById.get(booking.getRoomId()).getRoomNumber()
+                                + " is already booked for some of these nights (booking "
+                                + reservation.getConflictingBookingIds().get(0) + ")";
+                        break;
+                    case CUSTOMER_NOT_FOUND:
+                        valid.get(i).error = "Unknown customer " + booking.getCustomerId();
+                        break;
+                    default:
+                        valid.get(i).error = "Room " + roomsById.get(booking.getRoomId()).getRoomNumber()
+                                + " no longer exists";
+                        break;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            // The transaction was rolled back, so none of the batch is in the database
+            for (Row row : valid) {
+                row.error = "Not imported, batch failed: " + e.getMessage();
+            }
+            System.err.println("Booking import batch failed: " + e.getMessage());
+        }
+    }
+
+    private void reportProgress(Counts counts, long total, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        updateProgress(Math.min(counts.rows, total), total);
+        updateMessage(String.format("Imported %,d of %,d rows, %,d refused (%.0f rows/s)",
+                counts.imported, total, counts.rows - counts.imported, counts.rows / seconds));
+    }
+
+    private void stage(String name, StageBody body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Exception e) {
+                if (!stopped.get()) {
+                    stageError.compareAndSet(null, e);
+                }
+                stopped.set(true);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Blocks while the queue is full, so no stage gets far ahead of the next; ends the stream when stopped
+    private <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            while (!stopped.get()) {
+                if (queue.offer(item, 200, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The next item, or null once the import is stopped
+    private <T> T take(BlockingQueue<T> queue) {
+        try {
+            while (!stopped.get() && !isCancelled()) {
+                T item = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (item != null) {
+                    return item;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Splits a CSV line into trimmed fields; a quoted field may contain commas and "" for a quote.
+     */
+    static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Outcome of an import.
+     */
+    public static final class Result {
+        private final int rows;
+        private final int imported;
+        private final long elapsedNanos;
+        private final File report;
+
+        Result(int rows, int imported, long elapsedNanos, File report) {
+            this.rows = rows;
+            this.imported = imported;
+            this.elapsedNanos = elapsedNanos;
+            this.report = report;
+        }
+
+        /** Rows read from the file, not counting the header and blank lines */
+        public int getRows() {
+            return rows;
+        }
+
+        /** Bookings inserted */
+        public int getImported() {
+            return imported;
+        }
+
+        public int getRefused() {
+            return rows - imported;
+        }
+
+        /** The error report, or null when every row was imported */
+        public File getReport() {
+            return report;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d rows: %,d imported, %,d refused in %.1f s, %.0f rows/s",
+                    rows, imported, getRefused(), elapsedNanos / 1_000_000_000.0, getRowsPerSecond())
+                    + (report != null ? "; errors in " + report.getName() : "");
+        }
+    }
+
+    /**
+     * Positions of the columns, from the header line.
+     */
+    private static final class Header {
+        private final int room;
+        private final boolean roomById;
+        private final int customer;
+        private final int checkIn;
+        private final int checkOut;
+        private final int adults;
+        private final int kids;
+
+        private Header(Map<String, Integer> columns) {
+            roomById = !columns.containsKey(ROOM_COLUMNS.get(0));
+            room = require(columns, roomById ? ROOM_COLUMNS.get(1) : ROOM_COLUMNS.get(0));
+            customer = require(columns, CUSTOMER_COLUMN);
+            checkIn = require(columns, CHECK_IN_COLUMN);
+            checkOut = require(columns, CHECK_OUT_COLUMN);
+            adults = columns.getOrDefault(ADULTS_COLUMN, -1);
+            kids = columns.getOrDefault(KIDS_COLUMN, -1);
+        }
+
+        static Header read(String line, boolean noRooms) {
+            if (line == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            if (noRooms) {
+                throw new IllegalArgumentException("There are no rooms to book");
+            }
+            // A byte order mark would stick to the first column name
+            String[] names = split(line.startsWith("\uFEFF") ? line.substring(1) : line);
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].toLowerCase(Locale.ROOT), i);
+            }
+            return new Header(columns);
+        }
+
+        private static int require(Map<String, Integer> columns, String name) {
+            Integer index = columns.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("The header line has no " + name + " column");
+            }
+            return index;
+        }
+
+        Booking toBooking(String[] fields, Map<String, Room> roomsByNumber, Map<Integer, Room> roomsById) {
+            String roomValue = field(fields, room, roomById ? ROOM_COLUMNS.get(1) : ROOM_COLUMNS.get(0));
+            Room bookedRoom = roomById ? roomsById.get(parseInt(roomValue, ROOM_COLUMNS.get(1)))
+                    : roomsByNumber.get(roomValue.toLowerCase(Locale.ROOT));
+            if (bookedRoom == null) {
+                throw new IllegalArgumentException("Unknown room " + roomValue);
+            }
+            Booking booking = new Booking();
+            booking.setRoomId(bookedRoom.getRoomId());
+            booking.setCustomerId(parseInt(field(fields, customer, CUSTOMER_COLUMN), CUSTOMER_COLUMN));
+            booking.setCheckInDate(parseDate(field(fields, checkIn, CHECK_IN_COLUMN), CHECK_IN_COLUMN));
+            booking.setCheckOutDate(parseDate(field(fields, checkOut, CHECK_OUT_COLUMN), CHECK_OUT_COLUMN));
+            if (!booking.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+                throw new IllegalArgumentException("Check-out date must be after check-in date");
+            }
+            booking.setNumberOfAdults(count(fields, adults, ADULTS_COLUMN, 1, 1, MAX_ADULTS));
+            booking.setNumberOfKids(count(fields, kids, KIDS_COLUMN, 0, 0, MAX_KIDS));
+            return booking;
+        }
+
+        private static String field(String[] fields, int index, String name) {
+            if (index >= fields.length || fields[index].isEmpty()) {
+                throw new IllegalArgumentException("Missing " + name);
+            }
+            return fields[index];
+        }
+
+        private static int count(String[] fields, int index, String name, int defaultValue, int min, int max) {
+            if (index < 0 || index >= fields.length || fields[index].isEmpty()) {
+                return defaultValue;
+            }
+            int value = parseInt(fields[index], name);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException(name + " must be between " + min + " and " + max);
+            }
+            return value;
+        }
+
+        private static int parseInt(String value, String name) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad " + name + " '" + value + "', expected a number");
+            }
+        }
+
+        private static LocalDate parseDate(String value, String name) {
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Bad " + name + " '" + value + "', expected yyyy-MM-dd");
+            }
+        }
+    }
+
+    private static final class Row {
+        final int line;
+        final String text;
+        String[] fields;
+        Booking booking;
+        // Why the row is not imported; null while it may be
+        String error;
+
+        Row(int line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+
+    // Nights a room is taken, by a booking or by a row of the file
+    private static final class Stay {
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final int bookingId;
+        final int line;
+
+        Stay(LocalDate checkIn, LocalDate checkOut, int bookingId, int line) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.bookingId = bookingId;
+            this.line = line;
+        }
+    }
+
+    // Only touched by the insert stage
+    private static final class Counts {
+        int rows;
+        int imported;
+    }
+
+    @FunctionalInterface
+    private interface StageBody {
+        void run() throws Exception;
+    }
+}
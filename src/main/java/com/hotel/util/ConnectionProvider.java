@@ -0,0 +1,27 @@
+package com.hotel.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source of JDBC connections for the DAO layer.
+ * DatabaseConnection and DatabaseUtil delegate to the active provider,
+ * so a different implementation can be plugged in without touching the DAOs.
+ */
+public interface ConnectionProvider extends AutoCloseable {
+
+    /**
+     * Borrows a connection. Callers must close it (try-with-resources),
+     * which hands it back to the provider instead of closing the socket.
+     *
+     * @return An open connection
+     * @throws SQLException If no connection could be obtained
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Releases every resource held by the provider.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,395 @@
+package com.hotel.util;
+
+import com.hotel.dao.Page;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Call metrics for every DAO method: latency histogram, rows returned, time
+ * spent waiting for a pooled connection, and errors.
+ *
+ * A DAO is instrumented by wrapping it in a proxy of its interface:
+ *
+ * <pre>
+ * BookingDAO bookingDAO = DaoMetrics.instrument(BookingDAO.class, new BookingDAOImpl());
+ * </pre>
+ *
+ * Each method gets a DaoMethodMXBean, registered with the platform MBean server
+ * as com.hotel:type=DaoMetrics,dao=BookingDAO,method=findById on its first call,
+ * so the numbers can be watched in JConsole or VisualVM. The same numbers are
+ * printed every log interval, slowest methods first, when there were calls since
+ * the last dump. record adds timings of other operations under a name of their
+ * own, e.g. the searches of SearchPipeline.
+ *
+ * Rows are counted for results that are a Collection, an Optional or a Page, and
+ * for the int returned by the stream* methods. Connection wait is the time the
+ * calling thread spent in PooledConnectionProvider.getConnection during the call.
+ * Latencies are bucketed by powers of two microseconds, so percentiles are upper
+ * bounds within a factor of two. Recording a call costs two nanoTime reads and a
+ * few atomic increments; with metrics disabled instrument returns the DAO itself.
+ *
+ * Configuration (application.properties):
+ *   metrics.dao.enabled            - instrument the DAOs (default true)
+ *   metrics.dao.logIntervalSeconds - how often the metrics are printed; 0 never (default 300)
+ */
+public final class DaoMetrics {
+
+    /**
+     * Metrics of one DAO method, as shown over JMX.
+     */
+    public interface DaoMethodMXBean {
+        long getCalls();
+        long getErrors();
+        long getRows();
+        double getMeanMillis();
+        double getMaxMillis();
+        double getP50Millis();
+        double getP95Millis();
+        double getP99Millis();
+        double getMeanConnectionWaitMillis();
+
+        /**
+         * Calls per latency bucket; bucket i counts calls of less than 2^i microseconds.
+         */
+        long[] getLatencyHistogram();
+
+        void reset();
+    }
+
+    private static final DaoMetrics INSTANCE = new DaoMetrics(DatabaseConfig.load());
+
+    private static final int BUCKETS = 40;
+
+    // Nanoseconds the current thread has waited for pooled connections, ever; calls read the difference
+    private static final ThreadLocal<long[]> CONNECTION_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final boolean enabled;
+    private final long logIntervalSeconds;
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService logger;
+    private long callsAtLastLog;
+
+    DaoMetrics(DatabaseConfig config) {
+        this.enabled = config.getBoolean("metrics.dao.enabled", true);
+        this.logIntervalSeconds = Math.max(0, config.getLong("metrics.dao.logIntervalSeconds", 300));
+    }
+
+    public static DaoMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Wraps a DAO so every call through the given interface is measured.
+     * Returns the DAO unchanged when metrics are disabled.
+     */
+    public static <T> T instrument(Class<T> type, T dao) {
+        return INSTANCE.wrap(type, dao);
+    }
+
+    /**
+     * Called by the connection pool with the time a borrow waited.
+     */
+    static void recordConnectionWait(long nanos) {
+        CONNECTION_WAIT.get()[0] += nanos;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private <T> T wrap(Class<T> type, T dao) {
+        if (!enabled) {
+            return dao;
+        }
+        startLogger();
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new Handler(type.getSimpleName(), dao));
+        return type.cast(proxy);
+    }
+
+    /**
+     * Returns every method's metrics as report lines, slowest total time first.
+     */
+    public List<String> report() {
+        List<MethodStats> sorted = new ArrayList<>(methods.values());
+        sorted.sort(Comparator.comparingLong((MethodStats stats) -> stats.totalNanos.get()).reversed());
+        List<String> lines = new ArrayList<>();
+        for (MethodStats stats : sorted) {
+            if (stats.getCalls() > 0) {
+                lines.add(stats.toString());
+            }
+        }
+        return lines;
+    }
+
+    public void reset() {
+        methods.values().forEach(MethodStats::reset);
+    }
+
+    private synchronized void startLogger() {
+        if (logger != null || logIntervalSeconds == 0) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dao-metrics-logger");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.scheduleWithFixedDelay(this::logReport, logIntervalSeconds, logIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Prints the report, unless there were no calls since it was last printed.
+     */
+    public void logReport() {
+        long calls = methods.values().stream().mapToLong(MethodStats::getCalls).sum();
+        synchronized (this) {
+            if (calls == callsAtLastLog) {
+                return;
+            }
+            callsAtLastLog = calls;
+        }
+        StringBuilder out = new StringBuilder("DAO metrics:");
+        report().forEach(line -> out.append(System.lineSeparator()).append("  ").append(line));
+        System.out.println(out);
+    }
+
+    /**
+     * Records a timing that is not a DAO call, e.g. a search from input to
+     * result, under the given group and name as if it were a DAO method.
+     */
+    public void record(String group, String name, long nanos, long rows) {
+        if (!enabled) {
+            return;
+        }
+        startLogger();
+        stats(group, name).record(nanos, 0, rows, false);
+    }
+
+    private MethodStats stats(String dao, String method) {
+        return methods.computeIfAbsent(dao + "." + method, name -> {
+            MethodStats stats = new MethodStats(name);
+            register(stats, dao, method);
+            return stats;
+        });
+    }
+
+    private static void register(MethodStats stats, String dao, String method) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.hotel:type=DaoMetrics,dao=" + dao + ",method=" + method);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Could not register DAO metrics for " + dao + "." + method + ": " + e.getMessage());
+        }
+    }
+
+    private static long rows(Method method, Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Page) {
+            return ((Page<?>) result).getItems().size();
+        }
+        if (result instanceof Integer && method.getName().startsWith("stream")) {
+            return (Integer) result;
+        }
+        return 0;
+    }
+
+    private final class Handler implements InvocationHandler {
+        private final String dao;
+        private final Object target;
+        private final ConcurrentHashMap<Method, MethodStats> statsByMethod = new ConcurrentHashMap<>();
+
+        Handler(String dao, Object target) {
+            this.dao = dao;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "Instrumented" + dao + "[" + target + "]";
+                }
+            }
+            MethodStats stats = statsByMethod.get(method);
+            if (stats == null) {
+                stats = statsByMethod.computeIfAbsent(method, m -> stats(dao, m.getName()));
+            }
+
+            long[] connectionWait = CONNECTION_WAIT.get();
+            long waitBefore = connectionWait[0];
+            long start = System.nanoTime();
+            try {
+                Object result = method.invoke(target, args);
+                stats.record(System.nanoTime() - start, connectionWait[0] - waitBefore, rows(method, result), false);
+                return result;
+            } catch (InvocationTargetException e) {
+                stats.record(System.nanoTime() - start, connectionWait[0] - waitBefore, 0, true);
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class MethodStats implements DaoMethodMXBean {
+        private final String name;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong connectionWaitNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        MethodStats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long waitNanos, long rowCount, boolean error) {
+            calls.incrementAndGet();
+            if (error) {
+                errors.incrementAndGet();
+            }
+            if (rowCount > 0) {
+                rows.addAndGet(rowCount);
+            }
+            if (waitNanos > 0) {
+                connectionWaitNanos.addAndGet(waitNanos);
+            }
+            totalNanos.addAndGet(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+            long micros = nanos / 1_000;
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        @Override
+        public long getCalls() {
+            return calls.get();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.get();
+        }
+
+        @Override
+        public long getRows() {
+            return rows.get();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            long count = calls.get();
+            return count == 0 ? 0.0 : totalNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return percentile(0.50);
+        }
+
+        @Override
+        public double getP95Millis() {
+            return percentile(0.95);
+        }
+
+        @Override
+        public double getP99Millis() {
+            return percentile(0.99);
+        }
+
+        @Override
+        public double getMeanConnectionWaitMillis() {
+            long count = calls.get();
+            return count == 0 ? 0.0 : connectionWaitNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        @Override
+        public long[] getLatencyHistogram() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+            }
+            return counts;
+        }
+
+        @Override
+        public void reset() {
+            calls.set(0);
+            errors.set(0);
+            rows.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            connectionWaitNanos.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        // Upper bound of the bucket holding the given fraction of calls, capped at the slowest call
+        private double percentile(double fraction) {
+            long[] counts = getLatencyHistogram();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) / 1_000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[calls=%d, errors=%d, rows=%d, mean=%.3fms, p50=%.3fms, p95=%.3fms, "
+                            + "p99=%.3fms, max=%.3fms, connectionWait=%.3fms]",
+                    name, getCalls(), getErrors(), getRows(), getMeanMillis(), getP50Millis(), getP95Millis(),
+                    getP99Millis(), getMaxMillis(), getMeanConnectionWaitMillis());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.hotel.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Database and connection pool settings.
+ * Values are read from application.properties on the classpath and can be
+ * overridden with JVM system properties of the same name (e.g. -Ddb.url=...).
+ * With -Ddb.backend=embedded the application runs on a local H2 database
+ * instead of MySQL.
+ */
+public class DatabaseConfig {
+
+    private static final String PROPERTIES_FILE = "/application.properties";
+
+    private final Properties properties;
+
+    private DatabaseConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the configuration from application.properties and system properties.
+     */
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        try (InputStream in = DatabaseConfig.class.getResourceAsStream(PROPERTIES_FILE)) {
+            if (in != null) {
+                props.load(in);
+            } else {
+                System.err.println("Warning: " + PROPERTIES_FILE + " not found, using defaults");
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + PROPERTIES_FILE + ": " + e.getMessage());
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("db.")) {
+                props.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new DatabaseConfig(props);
+    }
+
+    /**
+     * True when db.backend is "embedded": an H2 database in MySQL mode, in a local
+     * file or in memory, instead of the MySQL server at db.url. Migrations give it
+     * the same schema, including the dashboard_summary view and, through
+     * H2InvoiceTrigger, the invoice triggers.
+     */
+    public boolean isEmbedded() {
+        return "embedded".equalsIgnoreCase(properties.getProperty("db.backend", "mysql").trim());
+    }
+
+    public String getUrl() {
+        if (isEmbedded()) {
+            return embeddedUrl(properties.getProperty("db.embedded.location", "data/hotel").trim());
+        }
+        return properties.getProperty("db.url", "jdbc:mysql://localhost:3306/hotel_management");
+    }
+
+    public String getUsername() {
+        if (isEmbedded()) {
+            return properties.getProperty("db.embedded.username", "sa");
+        }
+        return properties.getProperty("db.username", "root");
+    }
+
+    public String getPassword() {
+        if (isEmbedded()) {
+            return properties.getProperty("db.embedded.password", "");
+        }
+        return properties.getProperty("db.password", "");
+    }
+
+    // "mem:name" stays in memory until the JVM exits; anything else is a file path without the .mv.db suffix.
+    // Files go through H2's async file system: the plain one closes the store for good when a thread is
+    // interrupted during I/O, and cancelled background loads interrupt their worker threads.
+    private static String embeddedUrl(String location) {
+        String database = location.startsWith("mem:")
+                ? location + ";DB_CLOSE_DELAY=-1"
+                : "async:" + Paths.get(location).toAbsolutePath();
+        return "jdbc:h2:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    }
+
+    public int getMinPoolSize() {
+        return getInt("db.pool.minSize", 2);
+    }
+
+    public int getMaxPoolSize() {
+        return getInt("db.pool.maxSize", 10);
+    }
+
+    public long getMaxWaitMillis() {
+        return getLong("db.pool.maxWaitMillis", 5_000);
+    }
+
+    public long getIdleTimeoutMillis() {
+        return getLong("db.pool.idleTimeoutMillis", 300_000);
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return getLong("db.pool.leakDetectionThresholdMillis", 30_000);
+    }
+
+    /** Whether a leak report includes the borrower's stack trace, which is captured on every borrow. */
+    public boolean isLeakDetectionStackTraceEnabled() {
+        return getBoolean("db.pool.leakDetectionStackTraces", false);
+    }
+
+    /** Idle connections older than this are re-validated before being handed out. */
+    public long getValidationIntervalMillis() {
+        return getLong("db.pool.validationIntervalMillis", 30_000);
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return getInt("db.pool.validationTimeoutSeconds", 2);
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return getLong("db.pool.housekeepingIntervalMillis", 30_000);
+    }
+
+    /** Prepared statements each pooled connection keeps open for reuse; 0 disables the cache. */
+    public int getStatementCacheSize() {
+        return getInt("db.pool.statementCacheSize", 100);
+    }
+
+    /**
+     * Returns a raw property value, for settings owned by other components.
+     */
+    public String getProperty(String name, String defaultValue) {
+        return properties.getProperty(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+}
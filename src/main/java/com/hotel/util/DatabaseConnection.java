@@ -0,0 +1,63 @@
+package com.hotel.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Entry point used by the DAO implementations to obtain connections.
+ * All connections come from a single pluggable ConnectionProvider,
+ * by default a PooledConnectionProvider configured from application.properties.
+ */
+public final class DatabaseConnection {
+
+    private static volatile ConnectionProvider provider;
+
+    private DatabaseConnection() {
+    }
+
+    /**
+     * Borrows a connection from the active provider.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getProvider().getConnection();
+    }
+
+    /**
+     * Returns the active provider, creating the default pool on first use.
+     */
+    public static ConnectionProvider getProvider() {
+        ConnectionProvider current = provider;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = provider;
+                if (current == null) {
+                    current = new PooledConnectionProvider(DatabaseConfig.load());
+                    provider = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the active provider. The previous provider is closed.
+     */
+    public static synchronized void setProvider(ConnectionProvider newProvider) {
+        ConnectionProvider previous = provider;
+        provider = newProvider;
+        if (previous != null && previous != newProvider) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Closes the active provider and all pooled connections. Called on application shutdown.
+     */
+    public static synchronized void closeConnection() {
+        if (provider != null) {
+            provider.close();
+            provider = null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotel.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection helper, kept for callers outside the DAOs; the DAO implementations
+ * go through JdbcExecutor. Shares the same ConnectionProvider as DatabaseConnection.
+ */
+public final class DatabaseUtil {
+
+    private DatabaseUtil() {
+    }
+
+    public static Connection getConnection() throws SQLException {
+        return DatabaseConnection.getConnection();
+    }
+}
@@ -0,0 +1,106 @@
+package com.hotel.util;
+
+import javafx.collections.FXCollections;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Window;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Which records an export covers: a date range, an invoice status and, for
+ * PDF exports, whether the documents go into one merged file.
+ */
+public final class ExportOptions {
+
+    private static final String ALL_STATUSES = "All";
+    private static final String SEPARATE_FILES = "One file per document";
+    private static final String MERGED_FILE = "One merged file";
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final String invoiceStatus;
+    private final boolean merged;
+
+    public ExportOptions(LocalDate fromDate, LocalDate toDate, String invoiceStatus, boolean merged) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.invoiceStatus = invoiceStatus;
+        this.merged = merged;
+    }
+
+    /**
+     * Asks the user for the export options. Dates default to the current year
+     * and may be cleared to remove that bound.
+     *
+     * @param askOutput Whether to offer the choice between separate and merged files
+     * @return The options, or empty if the dialog was cancelled or the range is invalid
+     */
+    public static Optional<ExportOptions> showDialog(Window owner, String title, boolean askOutput) {
+        DatePicker fromDatePicker = new DatePicker(LocalDate.now().withDayOfYear(1));
+        DatePicker toDatePicker = new DatePicker(LocalDate.now());
+        ComboBox<String> statusComboBox = new ComboBox<>(FXCollections.observableArrayList(
+                ALL_STATUSES, "Pending", "Partially Paid", "Paid", "Overdue"));
+        statusComboBox.getSelectionModel().selectFirst();
+        ComboBox<String> outputComboBox = new ComboBox<>(FXCollections.observableArrayList(
+                SEPARATE_FILES, MERGED_FILE));
+        outputComboBox.getSelectionModel().selectFirst();
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("From:"), fromDatePicker);
+        grid.addRow(1, new Label("To:"), toDatePicker);
+        grid.addRow(2, new Label("Invoice Status:"), statusComboBox);
+        if (askOutput) {
+            grid.addRow(3, new Label("Output:"), outputComboBox);
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(title);
+        dialog.setHeaderText("Choose the records to export. Leave a date empty for no limit.");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.initOwner(owner);
+
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (!result.isPresent() || result.get() != ButtonType.OK) {
+            return Optional.empty();
+        }
+
+        LocalDate fromDate = fromDatePicker.getValue();
+        LocalDate toDate = toDatePicker.getValue();
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            AlertUtil.showWarningAlert("Validation Error", "Invalid Date Range",
+                    "The start date must not be after the end date.");
+            return Optional.empty();
+        }
+        String status = ALL_STATUSES.equals(statusComboBox.getValue()) ? null : statusComboBox.getValue();
+        boolean merged = askOutput && MERGED_FILE.equals(outputComboBox.getValue());
+        return Optional.of(new ExportOptions(fromDate, toDate, status, merged));
+    }
+
+    /** First date to include, or null for no lower bound */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /** Last date to include, or null for no upper bound */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /** Invoice status to include, or null for all */
+    public String getInvoiceStatus() {
+        return invoiceStatus;
+    }
+
+    public boolean isMerged() {
+        return merged;
+    }
+}
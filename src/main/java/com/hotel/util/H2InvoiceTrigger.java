@@ -0,0 +1,135 @@
+package com.hotel.util;
+
+import org.h2.api.Trigger;
+import org.h2.tools.TriggerAdapter;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The invoice triggers of mysql/V1_1__invoice_triggers.sql for the embedded H2
+ * backend, which runs triggers as Java classes. h2/V1_1__invoice_triggers.sql
+ * installs this class on bookings, booking_services and payments; it picks the
+ * rule from the table and the event it fires for:
+ *
+ *   booking inserted            -> invoice raised for nights x room price
+ *   booking room/dates changed  -> room cost recalculated
+ *   booked service changed      -> service cost recalculated
+ *   payment added or removed    -> paid amount adjusted
+ *
+ * followed, as on MySQL, by the total and the status. H2 evaluates every
+ * assignment of an UPDATE against the old row, unlike MySQL, so each step is
+ * its own statement. SET @skip_invoice_triggers = 1 turns the triggers off for
+ * the session, as on MySQL.
+ */
+public class H2InvoiceTrigger extends TriggerAdapter {
+
+    private static final String SERVICE_COST = "(SELECT COALESCE(SUM(bs.quantity * s.price), 0) " +
+            "FROM booking_services bs JOIN services s ON s.service_id = bs.service_id " +
+            "WHERE bs.booking_id = invoices.booking_id)";
+
+    private static final String UPDATE_TOTAL = "UPDATE invoices SET total_amount = room_cost + service_cost WHERE ";
+
+    private static final String UPDATE_STATUS = "UPDATE invoices SET invoice_status = CASE " +
+            "WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid' " +
+            "WHEN paid_amount > 0 THEN 'Partially Paid' " +
+            "WHEN invoice_status = 'Overdue' THEN 'Overdue' " +
+            "ELSE 'Pending' END, updated_at = CURRENT_TIMESTAMP WHERE ";
+
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (skipped(conn)) {
+            return;
+        }
+        switch (tableName.toLowerCase()) {
+            case "bookings":
+                if (type == Trigger.INSERT) {
+                    bookingInserted(conn, newRow);
+                } else if (type == Trigger.UPDATE) {
+                    bookingUpdated(conn, oldRow, newRow);
+                }
+                break;
+            case "booking_services":
+                serviceChanged(conn, oldRow, newRow);
+                break;
+            case "payments":
+                if (type == Trigger.INSERT) {
+                    paymentChanged(conn, "paid_amount + ?", newRow.getInt("invoice_id"), newRow.getBigDecimal("amount"));
+                } else if (type == Trigger.DELETE) {
+                    paymentChanged(conn, "GREATEST(paid_amount - ?, 0)", oldRow.getInt("invoice_id"),
+                            oldRow.getBigDecimal("amount"));
+                }
+                break;
+            default:
+                throw new SQLException("H2InvoiceTrigger installed on unexpected table " + tableName);
+        }
+    }
+
+    private static boolean skipped(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT @skip_invoice_triggers");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() && rs.getObject(1) != null;
+        }
+    }
+
+    private static void bookingInserted(Connection conn, ResultSet booking) throws SQLException {
+        Date checkOut = booking.getDate("check_out_date");
+        long nights = nights(booking.getDate("check_in_date"), checkOut);
+        execute(conn, "INSERT INTO invoices (booking_id, issue_date, due_date, room_cost, service_cost, " +
+                        "total_amount, paid_amount, invoice_status) " +
+                        "SELECT ?, CURRENT_DATE, ?, r.price * ?, 0, r.price * ?, 0, 'Pending' " +
+                        "FROM Rooms r WHERE r.room_id = ?",
+                booking.getInt("booking_id"), checkOut, nights, nights, booking.getInt("room_id"));
+    }
+
+    private static void bookingUpdated(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        Date checkIn = newRow.getDate("check_in_date");
+        Date checkOut = newRow.getDate("check_out_date");
+        if (newRow.getInt("room_id") == oldRow.getInt("room_id")
+                && checkIn.equals(oldRow.getDate("check_in_date"))
+                && checkOut.equals(oldRow.getDate("check_out_date"))) {
+            return;
+        }
+        int bookingId = newRow.getInt("booking_id");
+        execute(conn, "UPDATE invoices SET room_cost = (SELECT price FROM Rooms WHERE room_id = ?) * ?, " +
+                        "due_date = ? WHERE booking_id = ?",
+                newRow.getInt("room_id"), nights(checkIn, checkOut), checkOut, bookingId);
+        execute(conn, UPDATE_TOTAL + "booking_id = ?", bookingId);
+        execute(conn, UPDATE_STATUS + "booking_id = ?", bookingId);
+    }
+
+    private static void serviceChanged(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        // An update can move the service to another booking; both invoices change
+        int first = (newRow != null ? newRow : oldRow).getInt("booking_id");
+        int second = (oldRow != null ? oldRow : newRow).getInt("booking_id");
+        String where = "booking_id IN (?, ?)";
+        execute(conn, "UPDATE invoices SET service_cost = " + SERVICE_COST + " WHERE " + where, first, second);
+        execute(conn, UPDATE_TOTAL + where, first, second);
+        execute(conn, UPDATE_STATUS + where, first, second);
+    }
+
+    private static void paymentChanged(Connection conn, String paidAmount, int invoiceId, BigDecimal amount)
+            throws SQLException {
+        execute(conn, "UPDATE invoices SET paid_amount = " + paidAmount + " WHERE invoice_id = ?", amount, invoiceId);
+        execute(conn, UPDATE_STATUS + "invoice_id = ?", invoiceId);
+    }
+
+    // At least one night, as GREATEST(DATEDIFF(check_out, check_in), 1) on MySQL
+    private static long nights(Date checkIn, Date checkOut) {
+        return Math.max(ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate()), 1);
+    }
+
+    private static void execute(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+}
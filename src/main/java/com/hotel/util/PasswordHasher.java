@@ -0,0 +1,209 @@
+package com.hotel.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and verifies user passwords with PBKDF2-HMAC-SHA256.
+ *
+ * A stored hash records its own parameters:
+ *
+ * <pre>
+ * pbkdf2-sha256$&lt;iterations&gt;$&lt;salt, base64&gt;$&lt;hash, base64&gt;
+ * </pre>
+ *
+ * so password.hash.iterations can be raised at any time: existing hashes keep
+ * verifying with the iterations they were made with, and needsRehash tells
+ * the caller to store a new hash the next time the user logs in. Values that
+ * are not in this format are taken as plaintext passwords from before hashing
+ * was introduced; they verify by comparison and always need a rehash.
+ *
+ * Hashing costs CPU time by design, so it runs on a small pool of its own
+ * instead of the thread that asks for it. The pool bounds how many hashes are
+ * computed at once during a login burst; requests beyond the queue are
+ * rejected rather than piling up. The FX thread must never wait for a hash;
+ * hash and verify throw when called on it. Use the PasswordHashCalibration
+ * program in the benchmarks module to pick iterations for the host CPU.
+ *
+ * Configuration (application.properties):
+ *   password.hash.iterations  - PBKDF2 iterations for new hashes (default 310000)
+ *   password.verify.threads   - threads computing hashes (default 2)
+ *   password.verify.queueSize - hash requests waiting before new ones are rejected (default 32)
+ */
+public final class PasswordHasher {
+
+    private static final PasswordHasher INSTANCE = create(DatabaseConfig.load());
+
+    private static final String ALGORITHM = "pbkdf2-sha256";
+    private static final String KEY_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final String FX_THREAD_NAME = "JavaFX Application Thread";
+    // Salt of the hash verifyUnknown computes; its result is never compared
+    private static final byte[] DUMMY_SALT = new byte[SALT_BYTES];
+
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+
+    PasswordHasher(int iterations, int threads, int queueSize) {
+        this.iterations = iterations;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static PasswordHasher create(DatabaseConfig config) {
+        int iterations = Math.max(1, config.getInt("password.hash.iterations", 310000));
+        int threads = Math.max(1, config.getInt("password.verify.threads", 2));
+        int queueSize = Math.max(1, config.getInt("password.verify.queueSize", 32));
+        return new PasswordHasher(iterations, threads, queueSize);
+    }
+
+    public static PasswordHasher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The iterations used for new hashes.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns a new salted hash of the password, in the format stored in the Users table.
+     *
+     * @throws RejectedExecutionException if too many hashes are waiting to be computed
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = await(() -> derive(password, salt, iterations));
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return ALGORITHM + "$" + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored hash, or a stored plaintext password.
+     *
+     * @throws RejectedExecutionException if too many hashes are waiting to be computed
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        Hash parsed = Hash.parse(stored);
+        if (parsed == null) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] actual = await(() -> derive(password, parsed.salt, parsed.iterations));
+        return MessageDigest.isEqual(actual, parsed.hash);
+    }
+
+    /**
+     * Takes as long as verifying the password against a hash made with the
+     * configured iterations, and returns false. For a username that does not
+     * exist: the login then fails no faster than with a wrong password, so the
+     * response time does not tell which usernames exist.
+     *
+     * @throws RejectedExecutionException if too many hashes are waiting to be computed
+     */
+    public boolean verifyUnknown(String password) {
+        await(() -> derive(password == null ? "" : password, DUMMY_SALT, iterations));
+        return false;
+    }
+
+    /**
+     * Whether a stored value should be replaced by a new hash: it is plaintext,
+     * or was made with other parameters than the configured ones.
+     */
+    public boolean needsRehash(String stored) {
+        Hash parsed = Hash.parse(stored);
+        return parsed == null || parsed.iterations != iterations || parsed.hash.length != HASH_BITS / 8;
+    }
+
+    /**
+     * Computes one hash on the calling thread with the given iterations; for calibration.
+     */
+    public static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(KEY_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(KEY_ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] await(Callable<byte[]> computation) {
+        // By name: Platform.isFxApplicationThread would start the toolkit in headless tools
+        if (FX_THREAD_NAME.equals(Thread.currentThread().getName())) {
+            throw new IllegalStateException("Passwords must not be hashed on the JavaFX Application Thread");
+        }
+        Future<byte[]> result = executor.submit(computation);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // A stored hash split into its parts; null from parse for anything else
+    private static final class Hash {
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        private Hash(int iterations, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+
+        static Hash parse(String stored) {
+            if (stored == null || !stored.startsWith(ALGORITHM + "$")) {
+                return null;
+            }
+            String[] parts = stored.split("\\$");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                Base64.Decoder base64 = Base64.getDecoder();
+                return new Hash(Integer.parseInt(parts[1]), base64.decode(parts[2]), base64.decode(parts[3]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.hotel.util;
+
+import com.hotel.dao.PaymentDAO;
+import com.hotel.model.Payment;
+
+import javafx.concurrent.Task;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+/**
+ * Writes payment records to an .xlsx file without holding them in memory.
+ *
+ * Payments are read from PaymentDAO.streamPayments and written through an
+ * SXSSFWorkbook, which keeps only the last few rows in memory and flushes the
+ * rest to a temporary file. Memory use therefore stays flat however many
+ * payments are exported. The task reports progress as rows written out of
+ * the matching row count and can be cancelled; the target file is only
+ * replaced once the export has completed.
+ *
+ * The task's value is the number of payments exported; zero means nothing
+ * matched the filters and no file was written.
+ *
+ * Configuration (application.properties):
+ *   export.fetchSize - rows fetched from the database at a time (default 500)
+ *   export.rowWindow - rows the workbook keeps in memory (default 100)
+ */
+public class PaymentExcelExport extends Task<Integer> {
+
+    private static final String[] HEADERS = {
+        "Payment ID", "Invoice ID", "Customer", "Room", "Payment Date",
+        "Amount", "Method", "Transaction ID", "Notes", "Invoice Status"
+    };
+
+    // Column widths in characters; autoSizeColumn would need every row in memory
+    private static final int[] COLUMN_WIDTHS = {12, 12, 28, 8, 14, 14, 16, 22, 40, 16};
+
+    private static final int PROGRESS_INTERVAL = 500;
+
+    private final PaymentDAO paymentDAO;
+    private final File file;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final String invoiceStatus;
+    private final int fetchSize;
+    private final int rowWindow;
+
+    /**
+     * @param paymentDAO    Source of the payments
+     * @param file          The .xlsx file to write
+     * @param fromDate      First payment date to export, or null for no lower bound
+     * @param toDate        Last payment date to export, or null for no upper bound
+     * @param invoiceStatus Invoice status to export, or null for all
+     */
+    public PaymentExcelExport(PaymentDAO paymentDAO, File file, LocalDate fromDate, LocalDate toDate,
+                              String invoiceStatus) {
+        DatabaseConfig config = DatabaseConfig.load();
+        this.paymentDAO = paymentDAO;
+        this.file = file;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.invoiceStatus = invoiceStatus;
+        this.fetchSize = Math.max(1, config.getInt("export.fetchSize", 500));
+        this.rowWindow = Math.max(1, config.getInt("export.rowWindow", 100));
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        updateMessage("Counting payments...");
+        int total = paymentDAO.countPayments(fromDate, toDate, invoiceStatus);
+        if (total == 0 || isCancelled()) {
+            return 0;
+        }
+
+        Path tempFile = file.toPath().resolveSibling(file.getName() + ".tmp");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Payment Records");
+            writeHeader(workbook, sheet);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            CellStyle amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00"));
+
+            int[] written = {0};
+            paymentDAO.streamPayments(fromDate, toDate, invoiceStatus, fetchSize, payment -> {
+                if (isCancelled()) {
+                    return false;
+                }
+                writeRow(sheet.createRow(written[0] + 1), payment, dateStyle, amountStyle);
+                written[0]++;
+                if (written[0] % PROGRESS_INTERVAL == 0) {
+                    // More rows may have been added since the count
+                    updateProgress(Math.min(written[0], total), total);
+                    updateMessage(String.format("Exported %,d of %,d payments", written[0], total));
+                }
+                return true;
+            });
+            if (isCancelled()) {
+                return written[0];
+            }
+
+            updateMessage("Writing file...");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                workbook.write(out);
+            }
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            updateProgress(total, total);
+            updateMessage(String.format("Exported %,d payments", written[0]));
+            return written[0];
+        } finally {
+            // Removes the workbook's own temporary files
+            workbook.dispose();
+            workbook.close();
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private void writeHeader(SXSSFWorkbook workbook, Sheet sheet) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    private void writeRow(Row row, Payment payment, CellStyle dateStyle, CellStyle amountStyle) {
+        row.createCell(0).setCellValue(payment.getPaymentId());
+        row.createCell(1).setCellValue(payment.getInvoiceId());
+        row.createCell(2).setCellValue(payment.getCustomerName());
+        row.createCell(3).setCellValue(payment.getRoomNumber());
+
+        Cell dateCell = row.createCell(4);
+        if (payment.getPaymentDate() != null) {
+            dateCell.setCellValue(payment.getPaymentDate().toLocalDate());
+            dateCell.setCellStyle(dateStyle);
+        }
+
+        Cell amountCell = row.createCell(5);
+        if (payment.getAmount() != null) {
+            amountCell.setCellValue(payment.getAmount().doubleValue());
+            amountCell.setCellStyle(amountStyle);
+        }
+
+        row.createCell(6).setCellValue(payment.getPaymentMethod());
+        row.createCell(7).setCellValue(payment.getTransactionId());
+        row.createCell(8).setCellValue(payment.getNotes());
+        row.createCell(9).setCellValue(payment.getInvoiceStatus());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete temporary export file " + path + ": " + e.getMessage());
+        }
+    }
+}
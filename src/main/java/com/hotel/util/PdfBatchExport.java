@@ -0,0 +1,381 @@
+package com.hotel.util;
+
+import com.hotel.dao.InvoiceDAO;
+import com.hotel.dao.PaymentDAO;
+import com.hotel.model.BookingService;
+import com.hotel.model.Invoice;
+import com.hotel.model.Payment;
+
+import javafx.concurrent.Task;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Renders every invoice or payment receipt matching an {@link ExportOptions}
+ * filter to PDF, either as one file per document in a directory or as one
+ * merged file.
+ *
+ * The records are streamed from the DAO on a reader thread, which loads what
+ * their documents need, such as an invoice's booking services, with one query
+ * per fetched batch of records. Each record is laid out, and in separate-file
+ * mode also written, on a pool of render threads; the task's own thread
+ * collects the results in order, draws them into the merged document if there
+ * is one and reports progress and throughput. At most a fixed number of
+ * documents are queued or in flight at any time, so in separate-file mode heap
+ * use does not grow with the size of the batch. The merged document keeps its
+ * page content in a scratch file, but PDFBox holds its page tree, a few small
+ * objects per page, on the heap until the file is saved; a merged export of
+ * N documents needs heap in proportion to N, if far less than the pages
+ * themselves. Export very large batches as separate files.
+ *
+ * A document that cannot be rendered is logged and skipped; the task's value
+ * reports how many failed. Cancelling stops the batch; files already written
+ * in separate-file mode are kept, a merged file is not written.
+ *
+ * Configuration (application.properties):
+ *   pdf.batch.threads - render threads (default 0, one per processor)
+ *   export.fetchSize  - rows fetched from the database at a time (default 500)
+ */
+public class PdfBatchExport<T> extends Task<PdfBatchExport.Result> {
+
+    private static final int PROGRESS_INTERVAL = 50;
+
+    // Marks the end of the records in the pending queue
+    private static final Future<PdfDocuments.Layout> END = CompletableFuture.completedFuture(null);
+
+    // A record skipped before its render was queued
+    private static final Future<PdfDocuments.Layout> SKIPPED = CompletableFuture.completedFuture(null);
+
+    private final String documentName;
+    private final Counter counter;
+    private final Source<T> source;
+    private final Preparer<T> preparer;
+    private final Function<T, String> fileNamer;
+    private final File target;
+    private final boolean merged;
+    private final int threads;
+    private final int fetchSize;
+
+    private PdfBatchExport(String documentName, Counter counter, Source<T> source, Preparer<T> preparer,
+                           Function<T, String> fileNamer, File target, boolean merged) {
+        DatabaseConfig config = DatabaseConfig.load();
+        int configuredThreads = config.getInt("pdf.batch.threads", 0);
+        this.documentName = documentName;
+        this.counter = counter;
+        this.source = source;
+        this.preparer = preparer;
+        this.fileNamer = fileNamer;
+        this.target = target;
+        this.merged = merged;
+        this.threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        this.fetchSize = Math.max(1, config.getInt("export.fetchSize", 500));
+    }
+
+    /**
+     * Exports the invoices issued in the date range with the given status.
+     *
+     * @param target The merged PDF file, or the directory for separate files
+     */
+    public static PdfBatchExport<Invoice> invoices(InvoiceDAO invoiceDAO, ExportOptions options, File target) {
+        return new PdfBatchExport<>("invoices",
+                () -> invoiceDAO.countInvoices(options.getFromDate(), options.getToDate(), options.getInvoiceStatus()),
+                (fetchSize, handler) -> invoiceDAO.streamInvoices(options.getFromDate(), options.getToDate(),
+                        options.getInvoiceStatus(), fetchSize, handler),
+                invoices -> {
+                    Map<Integer, List<BookingService>> services = invoiceDAO.getBookingServicesForBookings(
+                            invoices.stream().map(Invoice::getBookingId).collect(Collectors.toSet()));
+                    return invoice -> PdfDocuments.invoice(invoice,
+                            services.getOrDefault(invoice.getBookingId(), Collections.emptyList()));
+                },
+                invoice -> "Invoice_" + invoice.getInvoiceId() + ".pdf",
+                target, options.isMerged());
+    }
+
+    /**
+     * Exports receipts for the payments made in the date range on invoices with the given status.
+     *
+     * @param target The merged PDF file, or the directory for separate files
+     */
+    public static PdfBatchExport<Payment> receipts(PaymentDAO paymentDAO, ExportOptions options, File target) {
+        LocalDate generatedOn = LocalDate.now();
+        return new PdfBatchExport<>("receipts",
+                () -> paymentDAO.countPayments(options.getFromDate(), options.getToDate(), options.getInvoiceStatus()),
+                (fetchSize, handler) -> paymentDAO.streamPayments(options.getFromDate(), options.getToDate(),
+                        options.getInvoiceStatus(), fetchSize, handler),
+                payments -> payment -> PdfDocuments.receipt(payment, generatedOn),
+                payment -> "Receipt_" + payment.getPaymentId() + ".pdf",
+                target, options.isMerged());
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        updateMessage("Counting " + documentName + "...");
+        int total = counter.count();
+        if (total == 0 || isCancelled()) {
+            return new Result(0, 0, 0);
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<Exception> readError = new AtomicReference<>();
+        BlockingQueue<Future<PdfDocuments.Layout>> pending = new ArrayBlockingQueue<>(threads * 4);
+        ExecutorService renderers = Executors.newFixedThreadPool(threads, new DaemonThreads("pdf-render"));
+        Thread reader = new Thread(() -> read(pending, renderers, stopped, failed, readError), "pdf-batch-reader");
+        reader.setDaemon(true);
+
+        Path mergedFile = null;
+        PDDocument mergedDocument = null;
+        int done = 0;
+        try {
+            if (merged) {
+                mergedFile = target.toPath().resolveSibling(target.getName() + ".tmp");
+                mergedDocument = new PDDocument(MemoryUsageSetting.setupTempFileOnly());
+            }
+            reader.start();
+
+            while (!isCancelled()) {
+                Future<PdfDocuments.Layout> next = pending.poll(200, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                if (next == END) {
+                    break;
+                }
+                PdfDocuments.Layout layout = next.get();
+                if (mergedDocument != null && layout != null) {
+                    layout.drawOn(mergedDocument);
+                }
+                done++;
+                if (done % PROGRESS_INTERVAL == 0) {
+                    reportProgress(done, total, start);
+                }
+            }
+            if (readError.get() != null) {
+                throw readError.get();
+            }
+            if (isCancelled()) {
+                return new Result(done, failed.get(), System.nanoTime() - start);
+            }
+
+            if (mergedDocument != null) {
+                updateMessage("Writing merged file...");
+                mergedDocument.save(mergedFile.toFile());
+                mergedDocument.close();
+                mergedDocument = null;
+                Files.move(mergedFile, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Result result = new Result(done, failed.get(), System.nanoTime() - start);
+            updateProgress(total, total);
+            updateMessage(result.toString());
+            System.out.println("PDF batch export of " + documentName + ": " + result);
+            return result;
+        } catch (ExecutionException e) {
+            // Only writing a separate file fails a render
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            stopped.set(true);
+            renderers.shutdownNow();
+            if (mergedDocument != null) {
+                mergedDocument.close();
+            }
+            if (mergedFile != null) {
+                Files.deleteIfExists(mergedFile);
+            }
+        }
+    }
+
+    // Runs on the reader thread: streams the records and queues one render per record, a fetched batch at a time
+    private void read(BlockingQueue<Future<PdfDocuments.Layout>> pending, ExecutorService renderers,
+                      AtomicBoolean stopped, AtomicInteger failed, AtomicReference<Exception> readError) {
+        List<T> records = new ArrayList<>(fetchSize);
+        try {
+            source.stream(fetchSize, record -> {
+                if (stopped.get()) {
+                    return false;
+                }
+                records.add(record);
+                return records.size() < fetchSize || queue(records, pending, renderers, stopped, failed);
+            });
+            if (!records.isEmpty()) {
+                queue(records, pending, renderers, stopped, failed);
+            }
+        } catch (Exception e) {
+            if (!stopped.get()) {
+                readError.set(e);
+            }
+        } finally {
+            offer(pending, END, stopped);
+        }
+    }
+
+    // Prepares the records' renderer and queues their renders; if it cannot be prepared they are all skipped
+    private boolean queue(List<T> records, BlockingQueue<Future<PdfDocuments.Layout>> pending,
+                          ExecutorService renderers, AtomicBoolean stopped, AtomicInteger failed) {
+        Renderer<T> renderer;
+        try {
+            renderer = preparer.prepare(records);
+        } catch (SQLException | RuntimeException e) {
+            renderer = null;
+            failed.addAndGet(records.size());
+            System.err.println("Skipping " + records.size() + " " + documentName + " from "
+                    + fileNamer.apply(records.get(0)) + ": " + e.getMessage());
+        }
+        try {
+            for (T record : records) {
+                Renderer<T> prepared = renderer;
+                Future<PdfDocuments.Layout> future = prepared == null ? SKIPPED
+                        : renderers.submit(() -> render(prepared, record, failed));
+                if (!offer(pending, future, stopped)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            records.clear();
+        }
+    }
+
+    // Blocks while the queue is full so the reader never gets far ahead of the renderers
+    private boolean offer(BlockingQueue<Future<PdfDocuments.Layout>> pending, Future<PdfDocuments.Layout> future,
+                          AtomicBoolean stopped) {
+        try {
+            while (!stopped.get()) {
+                if (pending.offer(future, 200, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    // Runs on a render thread; returns the layout to merge, or null once the document is written or skipped
+    private PdfDocuments.Layout render(Renderer<T> renderer, T record, AtomicInteger failed) throws IOException {
+        PdfDocuments.Layout layout;
+        try {
+            layout = renderer.render(record);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Skipping " + fileNamer.apply(record) + ": " + e.getMessage());
+            return null;
+        }
+        if (merged) {
+            return layout;
+        }
+        PdfDocuments.save(layout, new File(target, fileNamer.apply(record)));
+        return null;
+    }
+
+    private void reportProgress(int done, int total, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        // More records may have been added since the count
+        updateProgress(Math.min(done, total), total);
+        updateMessage(String.format("Rendered %,d of %,d %s (%.0f documents/s)",
+                done, total, documentName, done / seconds));
+    }
+
+    /**
+     * Outcome of a batch export.
+     */
+    public static final class Result {
+        private final int documents;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Result(int documents, int failed, long elapsedNanos) {
+            this.documents = documents;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Records processed, including failed ones */
+        public int getDocuments() {
+            return documents;
+        }
+
+        /** Records that could not be rendered and were skipped */
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        public double getDocumentsPerSecond() {
+            return elapsedNanos == 0 ? 0 : documents * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d documents (%,d failed) in %.1f s, %.0f documents/s",
+                    documents, failed, elapsedNanos / 1_000_000_000.0, getDocumentsPerSecond());
+        }
+    }
+
+    private interface Counter {
+        int count() throws SQLException;
+    }
+
+    private interface Source<T> {
+        void stream(int fetchSize, Predicate<T> handler) throws SQLException;
+    }
+
+    // Loads what the documents of a batch of records need, in one go, and returns their renderer
+    private interface Preparer<T> {
+        Renderer<T> prepare(List<T> records) throws SQLException;
+    }
+
+    private interface Renderer<T> {
+        PdfDocuments.Layout render(T record);
+    }
+
+    private static final class DaemonThreads implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private DaemonThreads(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.hotel.util;
+
+import com.hotel.model.BookingService;
+import com.hotel.model.Invoice;
+import com.hotel.model.Payment;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lays out the invoice and payment receipt PDFs.
+ *
+ * A document is first built as a {@link Layout}, a list of drawing operations
+ * that holds no PDFBox objects, and then drawn into a PDDocument. Building a
+ * layout is thread-safe, so the batch export lays out documents on several
+ * threads and can still draw them all into one merged file. Every document
+ * uses the shared standard 14 fonts, and the parts of a page that never change
+ * are laid out once and copied into each document.
+ */
+public final class PdfDocuments {
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 50;
+    private static final float TOP = PAGE_SIZE.getHeight() - MARGIN;
+    private static final float LINE_HEIGHT = 20;
+    private static final int FONT_SIZE = 12;
+
+    private static final PDFont REGULAR = PDType1Font.HELVETICA;
+    private static final PDFont BOLD = PDType1Font.HELVETICA_BOLD;
+    private static final PDFont ITALIC = PDType1Font.HELVETICA_OBLIQUE;
+
+    private static final DateTimeFormatter INVOICE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter RECEIPT_DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter GENERATED_DATE = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+    // NumberFormat is not thread-safe
+    private static final ThreadLocal<NumberFormat> CURRENCY = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
+
+    private static final List<Op> INVOICE_TEMPLATE = invoiceTemplate();
+    private static final List<Op> RECEIPT_TEMPLATE = receiptTemplate();
+
+    private PdfDocuments() {
+    }
+
+    /**
+     * Lays out an invoice with its booked services. Long service lists continue on further pages.
+     */
+    public static Layout invoice(Invoice invoice, List<BookingService> services) {
+        Layout layout = new Layout(INVOICE_TEMPLATE);
+        float y = TOP - LINE_HEIGHT;
+
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, "Invoice No: " + invoice.getInvoiceId());
+        y -= LINE_HEIGHT;
+        layout.text(REGULAR, FONT_SIZE, MARGIN, y, "Customer Name: " + invoice.getCustomerName());
+        y -= LINE_HEIGHT;
+        layout.text(REGULAR, FONT_SIZE, MARGIN, y, "Room Number: " + invoice.getRoomNumber());
+        y -= LINE_HEIGHT;
+        layout.text(REGULAR, FONT_SIZE, MARGIN, y, "Issue Date: " + formatDate(invoice.getIssueDate(), INVOICE_DATE));
+        y -= LINE_HEIGHT;
+        layout.text(REGULAR, FONT_SIZE, MARGIN, y, "Due Date: " + formatDate(invoice.getDueDate(), INVOICE_DATE));
+        y -= LINE_HEIGHT;
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, "Services:");
+        y -= LINE_HEIGHT;
+
+        for (BookingService service : services) {
+            if (y < MARGIN) {
+                layout.newPage();
+                y = TOP;
+            }
+            BigDecimal total = service.getServicePrice().multiply(BigDecimal.valueOf(service.getQuantity()));
+            layout.text(REGULAR, FONT_SIZE, MARGIN, y,
+                    service.getServiceName() + " x " + service.getQuantity() + " = " + formatInvoiceAmount(total));
+            y -= LINE_HEIGHT;
+        }
+
+        String[] totals = {
+            "Room Cost: " + formatInvoiceAmount(invoice.getRoomCost()),
+            "Service Cost: " + formatInvoiceAmount(invoice.getServiceCost()),
+            "Total Amount: " + formatInvoiceAmount(invoice.getTotalAmount()),
+            "Paid Amount: " + formatInvoiceAmount(invoice.getPaidAmount()),
+            "Balance Due: " + formatInvoiceAmount(invoice.getBalanceDue())
+        };
+        if (y - (totals.length - 1) * LINE_HEIGHT < MARGIN) {
+            layout.newPage();
+            y = TOP;
+        }
+        for (String line : totals) {
+            layout.text(BOLD, FONT_SIZE, MARGIN, y, line);
+            y -= LINE_HEIGHT;
+        }
+        return layout;
+    }
+
+    /**
+     * Lays out a payment receipt dated today.
+     */
+    public static Layout receipt(Payment payment) {
+        return receipt(payment, LocalDate.now());
+    }
+
+    /**
+     * Lays out a payment receipt.
+     *
+     * @param generatedOn The date printed in the footer
+     */
+    public static Layout receipt(Payment payment, LocalDate generatedOn) {
+        Layout layout = new Layout(RECEIPT_TEMPLATE);
+        float y = TOP - 75;
+
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, "PAYMENT DETAILS");
+        y -= LINE_HEIGHT;
+        y = labelValue(layout, "Payment ID:", String.valueOf(payment.getPaymentId()), y);
+        y = labelValue(layout, "Invoice ID:", String.valueOf(payment.getInvoiceId()), y);
+        y = labelValue(layout, "Date:", formatDate(payment.getPaymentDate(), RECEIPT_DATE), y);
+        y = labelValue(layout, "Amount:", formatReceiptAmount(payment.getAmount()), y);
+        y = labelValue(layout, "Payment Method:", orNotAvailable(payment.getPaymentMethod()), y);
+        if (payment.getTransactionId() != null && !payment.getTransactionId().isEmpty()) {
+            y = labelValue(layout, "Transaction ID:", payment.getTransactionId(), y);
+        }
+
+        y -= 10;
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, "CUSTOMER INFORMATION");
+        y -= LINE_HEIGHT;
+        y = labelValue(layout, "Customer Name:", orNotAvailable(payment.getCustomerName()), y);
+        labelValue(layout, "Room Number:", orNotAvailable(payment.getRoomNumber()), y);
+
+        y -= 30;
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, "INVOICE STATUS");
+        y -= LINE_HEIGHT;
+        y = labelValue(layout, "Status:", orNotAvailable(payment.getInvoiceStatus()), y);
+        if (payment.getInvoiceTotal() != null) {
+            y = labelValue(layout, "Invoice Total:", formatReceiptAmount(payment.getInvoiceTotal()), y);
+        }
+        if (payment.getPaidAmount() != null) {
+            y = labelValue(layout, "Amount Paid:", formatReceiptAmount(payment.getPaidAmount()), y);
+        }
+        if (payment.getBalanceDue() != null) {
+            y = labelValue(layout, "Balance Due:", formatReceiptAmount(payment.getBalanceDue()), y);
+        }
+
+        if (payment.getNotes() != null && !payment.getNotes().trim().isEmpty()) {
+            y -= 10;
+            layout.text(BOLD, FONT_SIZE, MARGIN, y, "NOTES");
+            y -= LINE_HEIGHT;
+            layout.text(REGULAR, FONT_SIZE, MARGIN, y, payment.getNotes());
+        }
+
+        layout.text(ITALIC, 10, MARGIN, 50, "Generated on: " + generatedOn.format(GENERATED_DATE));
+        return layout;
+    }
+
+    /**
+     * Writes a layout to a new PDF file.
+     */
+    public static void save(Layout layout, File file) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            layout.drawOn(document);
+            document.save(file);
+        }
+    }
+
+    private static List<Op> invoiceTemplate() {
+        Layout template = new Layout(Collections.emptyList());
+        template.text(BOLD, 18, MARGIN, TOP, "Hotel Management System");
+        return template.pages.get(0);
+    }
+
+    private static List<Op> receiptTemplate() {
+        Layout template = new Layout(Collections.emptyList());
+        float right = PAGE_SIZE.getWidth() - MARGIN;
+        template.text(BOLD, 18, MARGIN, TOP, "HOTEL MANAGEMENT SYSTEM");
+        template.text(BOLD, 14, MARGIN, TOP - 25, "PAYMENT RECEIPT");
+        template.line(MARGIN, TOP - 55, right, TOP - 55);
+        template.line(MARGIN, 100, right, 100);
+        template.text(ITALIC, 10, MARGIN, 70, "Thank you for your payment. This is an official receipt.");
+        return template.pages.get(0);
+    }
+
+    private static float labelValue(Layout layout, String label, String value, float y) {
+        layout.text(BOLD, FONT_SIZE, MARGIN, y, label);
+        layout.text(REGULAR, FONT_SIZE, MARGIN + 120, y, value);
+        return y - LINE_HEIGHT;
+    }
+
+    private static String formatDate(Date date, DateTimeFormatter format) {
+        return date == null ? "N/A" : date.toLocalDate().format(format);
+    }
+
+    private static String formatInvoiceAmount(BigDecimal amount) {
+        return amount == null ? "N/A" : CURRENCY.get().format(amount);
+    }
+
+    private static String formatReceiptAmount(BigDecimal amount) {
+        return amount == null ? "$0.00" : String.format("$%.2f", amount);
+    }
+
+    private static String orNotAvailable(String value) {
+        return value != null ? value : "N/A";
+    }
+
+    /**
+     * The pages of one document as text and line drawing operations.
+     */
+    public static final class Layout {
+        private final List<List<Op>> pages = new ArrayList<>();
+
+        private Layout(List<Op> template) {
+            pages.add(new ArrayList<>(template));
+        }
+
+        public int getPageCount() {
+            return pages.size();
+        }
+
+        /**
+         * Adds the layout's pages to the end of the document.
+         */
+        public void drawOn(PDDocument document) throws IOException {
+            for (List<Op> ops : pages) {
+                PDPage page = new PDPage(PAGE_SIZE);
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    for (Op op : ops) {
+                        op.draw(contentStream);
+                    }
+                }
+            }
+        }
+
+        private void newPage() {
+            pages.add(new ArrayList<>());
+        }
+
+        private void text(PDFont font, float size, float x, float y, String text) {
+            pages.get(pages.size() - 1).add(new Op(font, size, x, y, printable(text), 0, 0));
+        }
+
+        private void line(float x1, float y1, float x2, float y2) {
+            pages.get(pages.size() - 1).add(new Op(null, 0, x1, y1, null, x2, y2));
+        }
+
+        // showText rejects line breaks and other control characters
+        private static String printable(String text) {
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                sb.append(Character.isISOControl(c) ? ' ' : c);
+            }
+            return sb.toString();
+        }
+    }
+
+    // A line of text, or a straight line when text is null
+    private static final class Op {
+        private final PDFont font;
+        private final float size;
+        private final float x;
+        private final float y;
+        private final String text;
+        private final float x2;
+        private final float y2;
+
+        private Op(PDFont font, float size, float x, float y, String text, float x2, float y2) {
+            this.font = font;
+            this.size = size;
+            this.x = x;
+            this.y = y;
+            this.text = text;
+            this.x2 = x2;
+            this.y2 = y2;
+        }
+
+        private void draw(PDPageContentStream contentStream) throws IOException {
+            if (text == null) {
+                contentStream.moveTo(x, y);
+                contentStream.lineTo(x2, y2);
+                contentStream.stroke();
+            } else {
+                contentStream.beginText();
+                contentStream.setFont(font, size);
+                contentStream.newLineAtOffset(x, y);
+                contentStream.showText(text);
+                contentStream.endText();
+            }
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package com.hotel.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Connections handed out are proxies: closing one returns the physical
+ * connection to the pool. Idle connections are re-validated before reuse,
+ * evicted after the idle timeout (down to the minimum size), and borrowed
+ * connections held longer than the leak threshold are reported with the
+ * borrowing thread, and with its stack trace if
+ * db.pool.leakDetectionStackTraces is set.
+ *
+ * The borrow semaphore bounds the connections in use; totalConnections, raised
+ * by compare-and-set before a connection is opened, bounds the physical
+ * connections, idle ones and those being opened included, to the maximum size.
+ *
+ * Each physical connection also keeps its prepared statements open across
+ * borrows (see StatementCache), up to db.pool.statementCacheSize of them.
+ */
+public class PooledConnectionProvider implements ConnectionProvider {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean leakStackTraces;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledEntry, Lease> active = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final ScheduledExecutorService housekeeper;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public PooledConnectionProvider(DatabaseConfig config) {
+        this.url = config.getUrl();
+        this.username = config.getUsername();
+        this.password = config.getPassword();
+        this.maxSize = Math.max(1, config.getMaxPoolSize());
+        this.minSize = Math.max(0, Math.min(config.getMinPoolSize(), maxSize));
+        this.maxWaitMillis = config.getMaxWaitMillis();
+        this.idleTimeoutMillis = config.getIdleTimeoutMillis();
+        this.leakThresholdMillis = config.getLeakDetectionThresholdMillis();
+        this.leakStackTraces = config.isLeakDetectionStackTraceEnabled();
+        this.validationIntervalMillis = config.getValidationIntervalMillis();
+        this.validationTimeoutSeconds = config.getValidationTimeoutSeconds();
+        this.statementCacheSize = Math.max(0, config.getStatementCacheSize());
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1_000, config.getHousekeepingIntervalMillis());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+
+        System.err.println("Connection pool created (min=" + minSize + ", max=" + maxSize
+                + ", statementCache=" + statementCacheSize + ")");
+    }
+
+    /**
+     * Opens connections until the pool holds its minimum size.
+     * Called once at startup so the first screens do not pay connection setup.
+     */
+    public void warmUp() {
+        fillToMinimum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw timedOut();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        PooledEntry entry;
+        try {
+            entry = takeValidEntry(start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        recordWait(System.nanoTime() - start);
+
+        String borrower = Thread.currentThread().getName();
+        Lease lease = new Lease(System.currentTimeMillis(), borrower,
+                leakThresholdMillis > 0 && leakStackTraces ? new Exception("Connection borrowed by " + borrower) : null);
+        active.put(entry, lease);
+        return entry.newHandle();
+    }
+
+    /**
+     * Returns a snapshot of the pool metrics.
+     */
+    public Stats getStats() {
+        long borrows = borrowCount.get();
+        return new Stats(
+                totalConnections.get(),
+                active.size(),
+                idle.size(),
+                maxSize,
+                borrows,
+                borrows == 0 ? 0.0 : totalWaitNanos.get() / (double) borrows / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                timeoutCount.get(),
+                createdCount.get(),
+                destroyedCount.get(),
+                validationFailures.get(),
+                leakCount.get(),
+                statementHits.get(),
+                statementMisses.get());
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+        if (!active.isEmpty()) {
+            System.err.println("Connection pool closed with " + active.size() + " connection(s) still in use");
+        }
+        System.err.println("Connection pool closed. " + getStats());
+    }
+
+    private SQLException timedOut() {
+        timeoutCount.incrementAndGet();
+        return new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection ("
+                + active.size() + " in use, max " + maxSize + ")");
+    }
+
+    // The caller holds a borrow permit, so fewer than maxSize connections are in use
+    private PooledEntry takeValidEntry(long deadline) throws SQLException {
+        while (true) {
+            PooledEntry entry = idle.pollFirst();
+            if (entry == null) {
+                if (reserveSlot(maxSize)) {
+                    return createEntry();
+                }
+                // Every slot is taken, so a connection is idle for another borrower or being opened by fillToMinimum
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw timedOut();
+                }
+                try {
+                    entry = idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+                if (entry == null) {
+                    continue;
+                }
+            }
+            if (isUsable(entry)) {
+                return entry;
+            }
+            validationFailures.incrementAndGet();
+            destroy(entry);
+        }
+    }
+
+    /**
+     * Counts a connection about to be opened, unless the pool already holds limit connections.
+     */
+    private boolean reserveSlot(int limit) {
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= limit) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        return true;
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (entry.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - entry.lastUsed < validationIntervalMillis) {
+                return true;
+            }
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Opens a connection in a slot taken with reserveSlot, and gives the slot back if that fails
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical;
+        try {
+            physical = DriverManager.getConnection(url, username, password);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        createdCount.incrementAndGet();
+        return new PooledEntry(physical);
+    }
+
+    private void release(PooledEntry entry) {
+        Lease lease = active.remove(entry);
+        if (lease == null) {
+            return; // already released
+        }
+        try {
+            boolean reusable = !closed.get() && resetState(entry.physical);
+            if (reusable) {
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                destroy(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Puts a returned connection back into its default state.
+     * A connection left in an open transaction is rolled back.
+     */
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Discarding pooled connection after reset failure: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        if (entry.statements != null) {
+            entry.statements.clear();
+        }
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        DaoMetrics.recordConnectionWait(waitNanos);
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.descendingIterator(); // oldest first
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsed > idleTimeoutMillis && idle.remove(entry)) {
+                destroy(entry);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed.get() && reserveSlot(minSize)) {
+            try {
+                idle.offerLast(createEntry());
+            } catch (SQLException e) {
+                System.err.println("Could not open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : active.values()) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.reported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + (now - lease.borrowedAt) + " ms by " + lease.borrower);
+                if (lease.origin != null) {
+                    lease.origin.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PooledEntry {
+        final Connection physical;
+        final StatementCache statements = statementCacheSize > 0
+                ? new StatementCache(statementCacheSize, statementHits, statementMisses) : null;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Borrow record used for leak detection.
+     */
+    private static final class Lease {
+        final long borrowedAt;
+        final String borrower;
+        // Null unless db.pool.leakDetectionStackTraces is set
+        final Exception origin;
+        volatile boolean reported;
+
+        Lease(long borrowedAt, String borrower, Exception origin) {
+            this.borrowedAt = borrowedAt;
+            this.borrower = borrower;
+            this.origin = origin;
+        }
+    }
+
+    /**
+     * Connection handle given to callers. close() returns the connection to the pool;
+     * any use after close fails like it would on a real closed connection.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledEntry entry;
+        private final AtomicBoolean handleClosed = new AtomicBoolean(false);
+
+        Handle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (handleClosed.compareAndSet(false, true)) {
+                        if (entry.statements != null) {
+                            entry.statements.closeLeases();
+                        }
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed.get() || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (handleClosed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            if (entry.statements != null && method.getName().equals("prepareStatement")
+                    && StatementCache.isCacheable(method)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return entry.statements.prepare(entry.physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool metrics.
+     */
+    public static final class Stats {
+        private final int totalConnections;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int maxSize;
+        private final long borrowCount;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long validationFailures;
+        private final long leakCount;
+        private final long statementHits;
+        private final long statementMisses;
+
+        Stats(int totalConnections, int activeConnections, int idleConnections, int maxSize,
+              long borrowCount, double averageWaitMillis, double maxWaitMillis, long timeoutCount,
+              long createdCount, long destroyedCount, long validationFailures, long leakCount,
+              long statementHits, long statementMisses) {
+            this.totalConnections = totalConnections;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.validationFailures = validationFailures;
+            this.leakCount = leakCount;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public int getTotalConnections() { return totalConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getMaxSize() { return maxSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getLeakCount() { return leakCount; }
+        public long getStatementHits() { return statementHits; }
+        public long getStatementMisses() { return statementMisses; }
+
+        @Override
+        public String toString() {
+            return String.format("Pool[total=%d, active=%d, idle=%d, max=%d, borrows=%d, avgWait=%.3fms, "
+                            + "maxWait=%.3fms, timeouts=%d, created=%d, destroyed=%d, invalid=%d, leaks=%d, "
+                            + "statementHits=%d, statementMisses=%d]",
+                    totalConnections, activeConnections, idleConnections, maxSize, borrowCount,
+                    averageWaitMillis, maxWaitMillis, timeoutCount, createdCount, destroyedCount,
+                    validationFailures, leakCount, statementHits, statementMisses);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.hotel.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Brings the database schema up to date from the SQL migrations on the classpath.
+ *
+ * Migrations live in db/migration and are named V&lt;version&gt;__&lt;description&gt;.sql,
+ * e.g. V2__todays_activity_indexes.sql or V1_1__invoice_triggers.sql (version
+ * 1.1). Scripts for one database product only go in a subdirectory named
+ * after it (db/migration/mysql, db/migration/h2) and are merged into the same
+ * version order. Every applied migration is recorded in the schema_history
+ * table with a CRC32 checksum of its script; a recorded script that has since
+ * been edited stops the migration, since the database no longer matches it.
+ *
+ * Scripts are ';'-separated statements; lines starting with '--' are
+ * comments. A "DELIMITER $$" line switches the separator, as in the mysql
+ * client, so trigger bodies can contain ';'.
+ *
+ * CREATE INDEX statements are managed: one is skipped when the table already
+ * has an index of that name or on exactly those columns, and on MySQL it is
+ * built online (ALGORITHM=INPLACE LOCK=NONE) so the table stays writable.
+ *
+ * A database created before migrations existed has the application's tables
+ * but no history; its migrations up to the baseline version are recorded
+ * without being run. On MySQL a named lock keeps two instances of the
+ * application from migrating at the same time.
+ *
+ * Configuration (application.properties):
+ *   db.migration.enabled         - migrate at startup (default true)
+ *   db.migration.baselineVersion - newest migration an unversioned database already has (default 1.1)
+ *   db.migration.onlineIndexes   - build MySQL indexes without locking the table (default true)
+ *   db.migration.lockTimeoutSeconds - how long to wait for another instance's migration (default 300)
+ */
+public class SchemaMigrator {
+
+    public static final String LOCATION = "db/migration";
+
+    private static final String HISTORY_TABLE = "schema_history";
+    private static final String LOCK_NAME = "hotel_schema_migration";
+
+    // A table every pre-migration database has
+    private static final String EXISTING_SCHEMA_TABLE = "bookings";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+(?:[._]\\d+)*)__(\\w+)\\.sql");
+    private static final Pattern DELIMITER = Pattern.compile("(?i)^\\s*DELIMITER\\s+(\\S+)\\s*$");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "(?is)^\\s*CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)(.*)$");
+
+    private final boolean enabled;
+    private final String baselineVersion;
+    private final boolean onlineIndexes;
+    private final int lockTimeoutSeconds;
+
+    public SchemaMigrator(DatabaseConfig config) {
+        this.enabled = config.getBoolean("db.migration.enabled", true);
+        this.baselineVersion = config.getProperty("db.migration.baselineVersion", "1.1");
+        this.onlineIndexes = config.getBoolean("db.migration.onlineIndexes", true);
+        this.lockTimeoutSeconds = config.getInt("db.migration.lockTimeoutSeconds", 300);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Migrates the application's database on a connection from DatabaseConnection.
+     */
+    public Result migrate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    /**
+     * Applies every pending migration on the given connection.
+     */
+    public Result migrate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        String vendor = vendorOf(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        boolean locked = lock(conn, vendor);
+        try {
+            List<Migration> migrations = findMigrations(vendor);
+            if (!tableExists(conn, HISTORY_TABLE)) {
+                createHistoryTable(conn);
+            }
+            Map<String, Long> applied = readHistory(conn);
+            validate(migrations, applied);
+
+            int baselined = 0;
+            if (applied.isEmpty() && tableExists(conn, EXISTING_SCHEMA_TABLE)) {
+                for (Migration migration : migrations) {
+                    if (compareVersions(migration.version, baselineVersion) <= 0) {
+                        record(conn, migration, 0, "BASELINE");
+                        applied.put(migration.version, migration.checksum);
+                        baselined++;
+                    }
+                }
+                System.out.println("Existing schema baselined at version " + baselineVersion);
+            }
+
+            int count = 0;
+            String current = applied.isEmpty() ? null : Collections.max(applied.keySet(), SchemaMigrator::compareVersions);
+            for (Migration migration : migrations) {
+                if (applied.containsKey(migration.version)) {
+                    continue;
+                }
+                long migrationStart = System.nanoTime();
+                apply(conn, vendor, migration);
+                long millis = (System.nanoTime() - migrationStart) / 1_000_000;
+                record(conn, migration, millis, "SQL");
+                System.out.println(String.format("Applied migration V%s %s in %d ms",
+                        migration.version, migration.description, millis));
+                current = migration.version;
+                count++;
+            }
+            return new Result(count, baselined, current, System.nanoTime() - start);
+        } finally {
+            if (locked) {
+                unlock(conn);
+            }
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Lists the migrations that apply to the given database product, in version order.
+     */
+    public List<Migration> findMigrations(String vendor) throws SQLException {
+        Map<String, Migration> byVersion = new TreeMap<>(SchemaMigrator::compareVersions);
+        for (String location : new String[] {LOCATION, LOCATION + "/" + vendor}) {
+            for (Migration migration : readLocation(location)) {
+                Migration duplicate = byVersion.put(migration.version, migration);
+                if (duplicate != null) {
+                    throw new SQLException("Two migrations with version " + migration.version + ": "
+                            + duplicate.script + " and " + migration.script);
+                }
+            }
+        }
+        return new ArrayList<>(byVersion.values());
+    }
+
+    // The checksums of applied scripts must still match
+    private void validate(List<Migration> migrations, Map<String, Long> applied) throws SQLException {
+        Map<String, Migration> byVersion = new HashMap<>();
+        for (Migration migration : migrations) {
+            byVersion.put(migration.version, migration);
+        }
+        for (Map.Entry<String, Long> entry : applied.entrySet()) {
+            Migration migration = byVersion.get(entry.getKey());
+            if (migration == null) {
+                System.err.println("Warning: applied migration V" + entry.getKey() + " is no longer on the classpath");
+            } else if (entry.getValue() != null && entry.getValue() != migration.checksum) {
+                throw new SQLException("Migration " + migration.script + " was changed after it was applied "
+                        + "(checksum " + entry.getValue() + ", now " + migration.checksum + ")");
+            }
+        }
+    }
+
+    private void apply(Connection conn, String vendor, Migration migration) throws SQLException {
+        List<String> statements = split(migration.sql);
+        try (Statement stmt = conn.createStatement()) {
+            for (int i = 0; i < statements.size(); i++) {
+                String sql = statements.get(i);
+                Matcher index = CREATE_INDEX.matcher(sql);
+                if (index.matches()) {
+                    if (indexExists(conn, index.group(2), index.group(1), columns(index.group(3)))) {
+                        System.out.println("Index " + index.group(1) + " already exists, skipped");
+                        continue;
+                    }
+                    if ("mysql".equals(vendor) && onlineIndexes
+                            && !index.group(4).toUpperCase(Locale.ROOT).contains("ALGORITHM")) {
+                        sql = sql + " ALGORITHM=INPLACE LOCK=NONE";
+                    }
+                }
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    // Most DDL commits as it goes, so earlier statements of the script stay applied
+                    throw new SQLException("Migration " + migration.script + " failed at statement " + (i + 1)
+                            + " of " + statements.size() + ": " + e.getMessage(), e.getSQLState(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a script into statements, skipping '--' comment lines and
+     * honouring DELIMITER lines and separators inside quoted strings.
+     */
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        String delimiter = ";";
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\r?\n")) {
+            Matcher delimiterLine = DELIMITER.matcher(line);
+            if (delimiterLine.matches()) {
+                delimiter = delimiterLine.group(1);
+                continue;
+            }
+            if (line.trim().startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            int end = endOfStatement(current, delimiter);
+            while (end >= 0) {
+                String statement = current.substring(0, end).trim();
+                if (!statement.isEmpty()) {
+                    statements.add(statement);
+                }
+                current.delete(0, end + delimiter.length());
+                end = endOfStatement(current, delimiter);
+            }
+        }
+        if (!current.toString().trim().isEmpty()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    // Index of the first delimiter outside quotes, or -1
+    private static int endOfStatement(StringBuilder buffer, String delimiter) {
+        String text = buffer.toString();
+        char quote = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (text.startsWith(delimiter, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean indexExists(Connection conn, String table, String name, List<String> columns) throws SQLException {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : tableNameCandidates(table)) {
+            try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, candidate, false, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName != null && column != null) {
+                        indexes.computeIfAbsent(indexName.toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                                .add(column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            if (!indexes.isEmpty()) {
+                break;
+            }
+        }
+        return indexes.containsKey(name.toLowerCase(Locale.ROOT)) || indexes.containsValue(columns);
+    }
+
+    private static List<String> columns(String columnList) {
+        List<String> columns = new ArrayList<>();
+        for (String column : columnList.split(",")) {
+            // Drops ASC/DESC and prefix lengths
+            columns.add(column.trim().split("[\\s(]")[0].replace("`", "").toLowerCase(Locale.ROOT));
+        }
+        return columns;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : tableNameCandidates(table)) {
+            try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, candidate, new String[] {"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Identifier case in the metadata depends on the database and its settings
+    private static List<String> tableNameCandidates(String table) {
+        List<String> candidates = new ArrayList<>();
+        candidates.add(table);
+        candidates.add(table.toLowerCase(Locale.ROOT));
+        candidates.add(table.toUpperCase(Locale.ROOT));
+        return candidates;
+    }
+
+    private void createHistoryTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + HISTORY_TABLE + " (" +
+                    "version VARCHAR(50) NOT NULL PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "checksum BIGINT, " +
+                    "type VARCHAR(10) NOT NULL, " +
+                    "execution_ms BIGINT NOT NULL, " +
+                    "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private Map<String, Long> readHistory(Connection conn) throws SQLException {
+        Map<String, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                long checksum = rs.getLong("checksum");
+                applied.put(rs.getString("version"), rs.wasNull() ? null : checksum);
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection conn, Migration migration, long millis, String type) throws SQLException {
+        String sql = "INSERT INTO " + HISTORY_TABLE +
+                " (version, description, script, checksum, type, execution_ms) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, migration.script);
+            stmt.setLong(4, migration.checksum);
+            stmt.setString(5, type);
+            stmt.setLong(6, millis);
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean lock(Connection conn, String vendor) throws SQLException {
+        if (!"mysql".equals(vendor)) {
+            return false;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, lockTimeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+        return true;
+    }
+
+    private void unlock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Error releasing the schema migration lock: " + e.getMessage());
+        }
+    }
+
+    // "mysql", "h2", ... as used for the vendor subdirectories
+    private static String vendorOf(Connection conn) throws SQLException {
+        return conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).split("\\s")[0];
+    }
+
+    private List<Migration> readLocation(String location) throws SQLException {
+        URL url = SchemaMigrator.class.getClassLoader().getResource(location);
+        if (url == null) {
+            return Collections.emptyList();
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                FileSystem fileSystem;
+                try {
+                    fileSystem = FileSystems.getFileSystem(uri);
+                } catch (FileSystemNotFoundException e) {
+                    try {
+                        fileSystem = FileSystems.newFileSystem(uri, Collections.emptyMap());
+                    } catch (FileSystemAlreadyExistsException raced) {
+                        fileSystem = FileSystems.getFileSystem(uri);
+                    }
+                }
+                return readDirectory(fileSystem.getPath(location));
+            }
+            return readDirectory(Paths.get(uri));
+        } catch (IOException | URISyntaxException e) {
+            throw new SQLException("Error reading migrations from " + url, e);
+        }
+    }
+
+    private List<Migration> readDirectory(Path directory) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher name = SCRIPT_NAME.matcher(file.getFileName().toString());
+                if (Files.isRegularFile(file) && name.matches()) {
+                    String sql = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                    migrations.add(new Migration(name.group(1).replace('_', '.'),
+                            name.group(2).replace('_', ' '), file.getFileName().toString(), sql));
+                }
+            }
+        }
+        return migrations;
+    }
+
+    static int compareVersions(String a, String b) {
+        String[] left = a.split("\\.");
+        String[] right = b.split("\\.");
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            long l = i < left.length ? Long.parseLong(left[i]) : 0;
+            long r = i < right.length ? Long.parseLong(right[i]) : 0;
+            if (l != r) {
+                return Long.compare(l, r);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Migrates the database in application.properties (or -Ddb.url=...) and exits.
+     */
+    public static void main(String[] args) throws SQLException {
+        System.out.println(new SchemaMigrator(DatabaseConfig.load()).migrate());
+        DatabaseConnection.closeConnection();
+    }
+
+    /**
+     * One migration script.
+     */
+    public static final class Migration {
+        private final String version;
+        private final String description;
+        private final String script;
+        private final String sql;
+        private final long checksum;
+
+        Migration(String version, String description, String script, String sql) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.sql = sql;
+            this.checksum = checksum(sql);
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getScript() {
+            return script;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        // Line endings do not count, so a checkout with CRLF matches one with LF
+        private static long checksum(String sql) {
+            CRC32 crc = new CRC32();
+            for (String line : sql.split("\r?\n")) {
+                crc.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Outcome of a migration run.
+     */
+    public static final class Result {
+        private final int applied;
+        private final int baselined;
+        private final String version;
+        private final long elapsedNanos;
+
+        Result(int applied, int baselined, String version, long elapsedNanos) {
+            this.applied = applied;
+            this.baselined = baselined;
+            this.version = version;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getApplied() {
+            return applied;
+        }
+
+        public int getBaselined() {
+            return baselined;
+        }
+
+        /** The schema version after the run, or null for an empty database with no migrations */
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Migrations[version=%s, applied=%d, baselined=%d, elapsed=%.1fms]",
+                    version, applied, baselined, elapsedNanos / 1_000_000.0);
+        }
+    }
+}
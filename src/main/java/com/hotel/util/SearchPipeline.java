@@ -0,0 +1,216 @@
+package com.hotel.util;
+
+import com.hotel.dao.Page;
+import com.hotel.dao.PageRequest;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Search-as-you-type for a paged table: waits for the user to stop typing,
+ * drops searches that a later keystroke has superseded, and answers a query
+ * that narrows the previous one from rows already loaded.
+ *
+ * A controller sends every load of its table through one pipeline. Paging,
+ * filter changes and reloads after an edit go through load and run at once;
+ * keystrokes in the search box go through search, which waits
+ * search.debounceMillis for the next keystroke. A keystroke also cancels the
+ * search in flight, whose result is then dropped. Queries run on a
+ * BackgroundLoader channel.
+ *
+ * The DAO search filters match a substring of some columns, so every row
+ * matching "smit" also matches "smi". When the last result was a first page
+ * holding all of its matches, and the new request differs from it only by a
+ * search text that contains the old one, the pipeline filters those rows with
+ * the controller's matcher instead of querying again. Refinement needs every
+ * match in memory, so it takes over once the search has narrowed the table to
+ * one page. A load always queries the database and discards the rows kept
+ * for refinement.
+ *
+ * Each search is timed from the end of the wait to its result being handed to
+ * the controller, and recorded in DaoMetrics as SearchPipeline.&lt;name&gt;, or
+ * SearchPipeline.&lt;name&gt;Refined when it was answered from memory.
+ *
+ * All methods must be called on the FX thread, and the callbacks run there.
+ *
+ * Configuration (application.properties):
+ *   search.debounceMillis - time without keystrokes before a search runs; 0 searches on every keystroke (default 250)
+ *
+ * @param <T> The row type
+ */
+public final class SearchPipeline<T> {
+
+    private static final long DEBOUNCE_MILLIS =
+            Math.max(0, DatabaseConfig.load().getLong("search.debounceMillis", 250));
+
+    /**
+     * Loads one page; runs on a worker thread and must not touch the UI.
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        Page<T> fetch(PageRequest request) throws Exception;
+    }
+
+    /**
+     * Whether a row matches a search text the way the DAO's search filter does.
+     * The text is trimmed and in lower case.
+     */
+    @FunctionalInterface
+    public interface Matcher<T> {
+        boolean matches(T row, String text);
+    }
+
+    private final String name;
+    private final String searchFilter;
+    private final Query<T> query;
+    private final Matcher<T> matcher;
+    private final BackgroundLoader.Channel<Page<T>> channel;
+
+    // FX thread only
+    private PauseTransition debounce;
+    private Runnable pendingSearch;
+    private Page<T> refinable;
+
+    /**
+     * @param name         Names the channel and the metrics
+     * @param searchFilter The DAO's search filter key, e.g. CustomerDAO.FILTER_SEARCH
+     * @param query        Loads a page
+     * @param matcher      The DAO's search filter in memory; null never refines
+     */
+    public SearchPipeline(String name, String searchFilter, Query<T> query, Matcher<T> matcher) {
+        this.name = name;
+        this.searchFilter = searchFilter;
+        this.query = query;
+        this.matcher = matcher;
+        this.channel = BackgroundLoader.getInstance().channel(name);
+    }
+
+    /**
+     * Loads a page from the database now, cancelling any search.
+     */
+    public void load(PageRequest request, Consumer<Page<T>> onSuccess, Consumer<Exception> onError) {
+        cancelPendingSearch();
+        refinable = null;
+        submit(request, onSuccess, onError);
+    }
+
+    /**
+     * Searches once no other search follows within the debounce time, and
+     * cancels the search in flight.
+     *
+     * @param request A first-page request with the search text and the other filters
+     */
+    public void search(PageRequest request, Consumer<Page<T>> onSuccess, Consumer<Exception> onError) {
+        channel.cancel();
+        if (DEBOUNCE_MILLIS == 0) {
+            runSearch(request, onSuccess, onError);
+            return;
+        }
+        pendingSearch = () -> runSearch(request, onSuccess, onError);
+        if (debounce == null) {
+            debounce = new PauseTransition(Duration.millis(DEBOUNCE_MILLIS));
+            debounce.setOnFinished(e -> {
+                Runnable search = pendingSearch;
+                pendingSearch = null;
+                if (search != null) {
+                    search.run();
+                }
+            });
+        }
+        debounce.playFromStart();
+    }
+
+    /**
+     * Cancels the search waiting for the debounce time and the load or search in flight.
+     */
+    public void cancel() {
+        cancelPendingSearch();
+        channel.cancel();
+    }
+
+    public boolean isLoading() {
+        return pendingSearch != null || channel.isLoading();
+    }
+
+    private void cancelPendingSearch() {
+        pendingSearch = null;
+        if (debounce != null) {
+            debounce.stop();
+        }
+    }
+
+    private void runSearch(PageRequest request, Consumer<Page<T>> onSuccess, Consumer<Exception> onError) {
+        long start = System.nanoTime();
+        Page<T> refined = refine(request);
+        if (refined != null) {
+            refinable = refined;
+            onSuccess.accept(refined);
+            record(name + "Refined", start, refined);
+            return;
+        }
+        submit(request, result -> {
+            onSuccess.accept(result);
+            record(name, start, result);
+        }, onError);
+    }
+
+    private void submit(PageRequest request, Consumer<Page<T>> onSuccess, Consumer<Exception> onError) {
+        channel.submit(request, () -> query.fetch(request), result -> {
+            refinable = isComplete(result) ? result : null;
+            onSuccess.accept(result);
+        }, onError);
+    }
+
+    /**
+     * The rows of the kept result that match the request, or null if the request
+     * does not narrow it.
+     */
+    private Page<T> refine(PageRequest request) {
+        if (refinable == null || matcher == null || request.getPosition() != PageRequest.Position.FIRST) {
+            return null;
+        }
+        String previous = searchText(refinable.getRequest());
+        String current = searchText(request);
+        if (current == null || (previous != null && !current.contains(previous))) {
+            return null;
+        }
+        // Page size, sort order and the other filters must be those of the kept result
+        if (!request.filter(searchFilter, null).equals(refinable.getRequest().filter(searchFilter, null))) {
+            return null;
+        }
+        List<T> rows = new ArrayList<>();
+        for (T row : refinable.getItems()) {
+            if (matcher.matches(row, current)) {
+                rows.add(row);
+            }
+        }
+        return new Page<>(request, rows, rows.size(), null, null);
+    }
+
+    // A first page with no page after it holds every match
+    private boolean isComplete(Page<T> result) {
+        return matcher != null
+                && result.getRequest().getPosition() == PageRequest.Position.FIRST
+                && !result.hasNext() && !result.hasPrevious();
+    }
+
+    private String searchText(PageRequest request) {
+        String text = request.getFilter(searchFilter, String.class);
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    private void record(String metric, long start, Page<T> result) {
+        DaoMetrics.getInstance().record("SearchPipeline", metric, System.nanoTime() - start, result.getItems().size());
+    }
+
+    /**
+     * Whether value, if not null, contains the lower-case text ignoring case; for matchers.
+     */
+    public static boolean contains(Object value, String text) {
+        return value != null && value.toString().toLowerCase(Locale.ROOT).contains(text);
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Timeline of application startup, from the start of the process to the first
+ * frame of each window.
+ *
+ * Each phase is recorded with its start and end relative to the process start,
+ * on whichever thread ran it, so work done in parallel with the FX thread, such
+ * as the schema migration and the connection pool warm-up, shows up next to it:
+ *
+ * <pre>
+ * StartupProfile.Phase phase = StartupProfile.getInstance().start("FXML parse (login)");
+ * Parent root = loader.load();
+ * phase.end();
+ * </pre>
+ *
+ * print writes the phases recorded so far, in the order they started.
+ *
+ * Configuration (application.properties):
+ *   startup.profile.enabled - record and print the startup phases (default true)
+ */
+public final class StartupProfile {
+
+    private static final StartupProfile INSTANCE = new StartupProfile(DatabaseConfig.load());
+
+    private final boolean enabled;
+    private final long processStartNanos;
+
+    // Guarded by this
+    private final List<Phase> phases = new ArrayList<>();
+
+    StartupProfile(DatabaseConfig config) {
+        this.enabled = config.getBoolean("startup.profile.enabled", true);
+        this.processStartNanos = processStartNanos();
+    }
+
+    public static StartupProfile getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a phase; it is recorded when its end method is called.
+     */
+    public Phase start(String name) {
+        return new Phase(name, System.nanoTime());
+    }
+
+    /**
+     * Records a phase that began with the process and ends now, e.g. the JVM start-up before main.
+     */
+    public void recordSinceProcessStart(String name) {
+        new Phase(name, processStartNanos).end();
+    }
+
+    /**
+     * Returns the recorded phases as report lines, in the order they started.
+     */
+    public synchronized List<String> report() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingLong(phase -> phase.startNanos));
+        List<String> lines = new ArrayList<>();
+        for (Phase phase : sorted) {
+            lines.add(phase.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Prints the phases recorded so far under the given milestone, e.g. "first view (login)".
+     */
+    public void print(String milestone) {
+        if (!enabled) {
+            return;
+        }
+        StringBuilder out = new StringBuilder(String.format("Startup profile, %.1f ms from process start to %s:",
+                millisSinceStart(System.nanoTime()), milestone));
+        report().forEach(line -> out.append(System.lineSeparator()).append("  ").append(line));
+        System.out.println(out);
+    }
+
+    private synchronized void record(Phase phase) {
+        if (enabled) {
+            phases.add(phase);
+        }
+    }
+
+    private double millisSinceStart(long nanos) {
+        return (nanos - processStartNanos) / 1_000_000.0;
+    }
+
+    // The process start on the nanoTime clock; the JVM's own start when the OS does not report it
+    private static long processStartNanos() {
+        long now = System.nanoTime();
+        Optional<Instant> start = ProcessHandle.current().info().startInstant();
+        if (!start.isPresent()) {
+            return now;
+        }
+        return now - Math.max(0, Duration.between(start.get(), Instant.now()).toNanos());
+    }
+
+    /**
+     * A named span of startup work.
+     */
+    public final class Phase {
+        private final String name;
+        private final long startNanos;
+        private long endNanos;
+        private String thread;
+
+        private Phase(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Ends and records the phase. Only the first call has an effect.
+         */
+        public void end() {
+            synchronized (StartupProfile.this) {
+                if (endNanos != 0) {
+                    return;
+                }
+                endNanos = System.nanoTime();
+                thread = Thread.currentThread().getName();
+            }
+            record(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMillis() {
+            synchronized (StartupProfile.this) {
+                return endNanos == 0 ? 0.0 : (endNanos - startNanos) / 1_000_000.0;
+            }
+        }
+
+        @Override
+        public String toString() {
+            synchronized (StartupProfile.this) {
+                return String.format("%-32s %8.1f ms  (%.1f - %.1f ms, %s)", name, getMillis(),
+                        millisSinceStart(startNanos), millisSinceStart(endNanos), thread);
+            }
+        }
+    }
+}
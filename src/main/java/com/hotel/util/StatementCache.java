@@ -0,0 +1,264 @@
+package com.hotel.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prepared statements kept open on one pooled connection, keyed by their SQL.
+ *
+ * Callers get a proxy instead of the driver's statement. Closing the proxy
+ * closes its open result sets, clears the parameters and keeps the statement
+ * for the next prepareStatement call with the same SQL on the same physical
+ * connection. With MySQL server-side prepared statements (which useCursorFetch=true
+ * turns on) that saves a prepare and a deallocate round trip per DAO call.
+ * The least recently used statements beyond the cache size are closed.
+ *
+ * A statement whose settings were changed (fetch size, max rows, timeout, ...)
+ * is closed instead of cached, so every reuse starts from the driver defaults.
+ * Preparing the same SQL again while it is still open gives a separate,
+ * uncached statement.
+ */
+final class StatementCache {
+
+    // Statement methods that change settings a later user of the statement would inherit
+    private static final Set<String> SETTINGS = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize",
+            "setQueryTimeout", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion");
+
+    // Keeps statements prepared for generated keys apart from plain ones with the same SQL
+    private static final String GENERATED_KEYS_PREFIX = "\u0001";
+
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Lease> leases = new HashSet<>();
+
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Whether the cache can serve a Connection.prepareStatement overload:
+     * (sql) and (sql, autoGeneratedKeys) are cached, the others are not.
+     */
+    static boolean isCacheable(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1 || (types.length == 2 && types[1] == int.class);
+    }
+
+    /**
+     * Returns a statement for the SQL, reusing an idle cached one if there is one.
+     *
+     * @param physical          The pooled connection's driver connection
+     * @param handle            The connection handle the caller holds, returned by getConnection()
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     */
+    synchronized PreparedStatement prepare(Connection physical, Connection handle, String sql,
+                                           int autoGeneratedKeys) throws SQLException {
+        boolean keys = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS;
+        String key = keys ? GENERATED_KEYS_PREFIX + sql : sql;
+        Entry entry = statements.get(key);
+        if (entry != null && entry.lease == null) {
+            hits.incrementAndGet();
+            return checkOut(entry, handle);
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = keys
+                ? physical.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : physical.prepareStatement(sql);
+        if (entry != null) {
+            // The cached one is in use, e.g. by an enclosing loop over its results
+            return checkOut(new Entry(key, statement, false), handle);
+        }
+        entry = new Entry(key, statement, true);
+        statements.put(key, entry);
+        evict();
+        return checkOut(entry, handle);
+    }
+
+    /**
+     * Closes every statement still checked out, as closing a connection closes
+     * its statements. Called when the connection handle is closed.
+     */
+    synchronized void closeLeases() {
+        for (Lease lease : new ArrayList<>(leases)) {
+            lease.closed = true;
+            checkIn(lease);
+        }
+    }
+
+    /**
+     * Closes every statement. Called before the physical connection is closed.
+     */
+    synchronized void clear() {
+        closeLeases();
+        for (Entry entry : statements.values()) {
+            closeQuietly(entry.statement);
+        }
+        statements.clear();
+    }
+
+    private PreparedStatement checkOut(Entry entry, Connection handle) {
+        Lease lease = new Lease(entry, handle);
+        entry.lease = lease;
+        leases.add(lease);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                lease);
+    }
+
+    private synchronized void checkIn(Lease lease) {
+        Entry entry = lease.entry;
+        if (entry.lease != lease) {
+            return; // already checked in
+        }
+        entry.lease = null;
+        leases.remove(lease);
+        closeQuietly(lease.results);
+        closeQuietly(lease.generatedKeys);
+
+        boolean keep = entry.cached && entry.reusable && statements.get(entry.key) == entry;
+        if (keep) {
+            try {
+                entry.statement.clearParameters();
+                if (entry.batched) {
+                    entry.statement.clearBatch();
+                    entry.batched = false;
+                }
+                entry.statement.clearWarnings();
+                return;
+            } catch (SQLException e) {
+                System.err.println("Discarding cached statement after reset failure: " + e.getMessage());
+            }
+        }
+        if (statements.get(entry.key) == entry) {
+            statements.remove(entry.key);
+        }
+        closeQuietly(entry.statement);
+    }
+
+    private void evict() {
+        Iterator<Entry> it = statements.values().iterator(); // least recently used first
+        while (statements.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            if (eldest.lease == null) {
+                closeQuietly(eldest.statement);
+            }
+            // A statement in use is closed when it is checked in, as it is no longer mapped
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A driver statement owned by the cache.
+     */
+    private static final class Entry {
+        final String key;
+        final PreparedStatement statement;
+        final boolean cached;
+        Lease lease;
+        boolean reusable = true;
+        boolean batched;
+
+        Entry(String key, PreparedStatement statement, boolean cached) {
+            this.key = key;
+            this.statement = statement;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * One checkout of a statement. close() gives it back to the cache; any use
+     * after close fails like it would on a real closed statement.
+     */
+    private final class Lease implements InvocationHandler {
+        private final Entry entry;
+        private final Connection handle;
+        private ResultSet results;
+        private ResultSet generatedKeys;
+        private volatile boolean closed;
+
+        Lease(Entry entry, Connection handle) {
+            this.entry = entry;
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        checkIn(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "getConnection":
+                    return handle;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (SETTINGS.contains(name)) {
+                entry.reusable = false;
+            } else if (name.equals("addBatch")) {
+                entry.batched = true;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                // Executing again closes the previous results, so only the latest needs tracking
+                if (name.equals("getGeneratedKeys")) {
+                    generatedKeys = (ResultSet) result;
+                } else {
+                    results = (ResultSet) result;
+                }
+            }
+            return result;
+        }
+    }
+}
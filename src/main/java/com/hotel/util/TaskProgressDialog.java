@@ -0,0 +1,52 @@
+package com.hotel.util;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+
+/**
+ * A non-blocking dialog that shows a background task's message and progress
+ * and lets the user cancel it. It closes itself when the task finishes.
+ */
+public final class TaskProgressDialog {
+
+    private TaskProgressDialog() {
+    }
+
+    /**
+     * Starts the task on a new daemon thread and shows its progress.
+     *
+     * @param threadName Name of the thread that runs the task
+     */
+    public static void run(Window owner, String title, Task<?> task, String threadName) {
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label messageLabel = new Label();
+        messageLabel.textProperty().bind(task.messageProperty());
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(title);
+        dialog.getDialogPane().setContent(new VBox(10, messageLabel, progressBar));
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        dialog.initOwner(owner);
+        dialog.setOnCloseRequest(e -> task.cancel());
+
+        task.stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED
+                    || newState == Worker.State.CANCELLED) {
+                dialog.close();
+            }
+        });
+
+        Thread thread = new Thread(task, threadName);
+        thread.setDaemon(true);
+        thread.start();
+        dialog.show();
+    }
+}
@@ -0,0 +1,150 @@
+-- Baseline schema: every table the DAOs read and write, and the
+-- dashboard_summary view read by DashboardAggregator. Written for MySQL and
+-- accepted unchanged by H2 in MySQL mode. The invoice triggers, which are
+-- MySQL-specific, are in mysql/V1_1__invoice_triggers.sql.
+--
+-- A database created before migrations existed already has all of this; the
+-- migrator records it as baselined instead of running it.
+
+CREATE TABLE Users (
+    user_id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE Staff (
+    user_id INT PRIMARY KEY,
+    first_name VARCHAR(50),
+    last_name VARCHAR(50),
+    phone_number VARCHAR(20),
+    email VARCHAR(100),
+    position VARCHAR(50),
+    hire_date DATE,
+    salary DECIMAL(10, 2),
+    address VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES Users (user_id) ON DELETE CASCADE
+);
+
+CREATE TABLE Rooms (
+    room_id INT AUTO_INCREMENT PRIMARY KEY,
+    room_number VARCHAR(10) NOT NULL UNIQUE,
+    type VARCHAR(50) NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'Available',
+    floor INT,
+    description VARCHAR(255)
+);
+
+CREATE TABLE customers (
+    customer_id INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100),
+    phone_number VARCHAR(20),
+    address VARCHAR(255),
+    number_of_adults INT NOT NULL DEFAULT 1,
+    number_of_kids INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE bookings (
+    booking_id INT AUTO_INCREMENT PRIMARY KEY,
+    room_id INT NOT NULL,
+    customer_id INT NOT NULL,
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    booking_status VARCHAR(20) NOT NULL DEFAULT 'Confirmed',
+    number_of_adults INT NOT NULL DEFAULT 1,
+    number_of_kids INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (room_id) REFERENCES Rooms (room_id),
+    FOREIGN KEY (customer_id) REFERENCES customers (customer_id)
+);
+
+CREATE TABLE services (
+    service_id INT AUTO_INCREMENT PRIMARY KEY,
+    service_name VARCHAR(100) NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    description VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE booking_services (
+    booking_service_id INT AUTO_INCREMENT PRIMARY KEY,
+    booking_id INT NOT NULL,
+    service_id INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 1,
+    service_date DATE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (booking_id) REFERENCES bookings (booking_id) ON DELETE CASCADE,
+    FOREIGN KEY (service_id) REFERENCES services (service_id)
+);
+
+CREATE TABLE invoices (
+    invoice_id INT AUTO_INCREMENT PRIMARY KEY,
+    booking_id INT NOT NULL,
+    issue_date DATE NOT NULL,
+    due_date DATE,
+    room_cost DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    service_cost DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    total_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    invoice_status VARCHAR(20) NOT NULL DEFAULT 'Pending',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (booking_id) REFERENCES bookings (booking_id) ON DELETE CASCADE
+);
+
+CREATE TABLE payments (
+    payment_id INT AUTO_INCREMENT PRIMARY KEY,
+    invoice_id INT NOT NULL,
+    payment_date DATE NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    payment_method VARCHAR(50),
+    transaction_id VARCHAR(100),
+    notes VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (invoice_id) REFERENCES invoices (invoice_id) ON DELETE CASCADE
+);
+
+CREATE TABLE feedback (
+    feedback_id INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    booking_id INT,
+    rating INT NOT NULL,
+    comments VARCHAR(1000),
+    feedback_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (customer_id) REFERENCES customers (customer_id) ON DELETE CASCADE,
+    FOREIGN KEY (booking_id) REFERENCES bookings (booking_id) ON DELETE SET NULL
+);
+
+-- One row of dashboard counters. Cancelled bookings are not counted; the
+-- feedback average and 30-day revenue include today.
+CREATE VIEW dashboard_summary AS
+SELECT
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Available') AS available_rooms,
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Cleaning') AS cleaning_rooms,
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Maintenance') AS maintenance_rooms,
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Out of Service') AS out_of_service_rooms,
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Booked') AS booked_rooms,
+    (SELECT COUNT(*) FROM Rooms WHERE status = 'Occupied') AS occupied_rooms,
+    (SELECT COUNT(*) FROM Rooms) AS total_rooms,
+    (SELECT COUNT(*) FROM Staff) AS total_staff,
+    (SELECT COUNT(*) FROM bookings
+        WHERE created_at >= CURRENT_DATE AND created_at < CURRENT_DATE + INTERVAL '1' DAY
+          AND booking_status <> 'Cancelled') AS todays_bookings,
+    (SELECT COUNT(*) FROM bookings
+        WHERE check_in_date = CURRENT_DATE AND booking_status <> 'Cancelled') AS todays_check_ins,
+    (SELECT COUNT(*) FROM bookings
+        WHERE check_out_date = CURRENT_DATE AND booking_status <> 'Cancelled') AS todays_check_outs,
+    (SELECT COALESCE(AVG(rating), 0) FROM feedback
+        WHERE feedback_date >= CURRENT_DATE - INTERVAL '30' DAY) AS avg_feedback_rating_30_days,
+    (SELECT COALESCE(SUM(amount), 0) FROM payments
+        WHERE payment_date = CURRENT_DATE) AS todays_revenue,
+    (SELECT COALESCE(SUM(amount), 0) FROM payments
+        WHERE payment_date >= CURRENT_DATE - INTERVAL '30' DAY AND payment_date <= CURRENT_DATE) AS revenue_last_30_days;
@@ -0,0 +1,21 @@
+-- Indexes for the dashboard's "today" counters (OperationalSnapshotQuery) and
+-- the date-bounded payment exports. The queries compare the bare columns with
+-- half-open ranges, e.g. created_at >= '2024-05-01' AND created_at < '2024-05-02',
+-- so each predicate below is answered by an index range scan instead of a full
+-- table scan. The composite indexes also cover the status filter, so the
+-- counts never read the table rows.
+
+-- New bookings and reservations made today
+CREATE INDEX idx_bookings_created_at ON bookings (created_at);
+
+-- Confirmed bookings checking in today
+CREATE INDEX idx_bookings_check_in_status ON bookings (check_in_date, booking_status);
+
+-- Checked-in bookings checking out today
+CREATE INDEX idx_bookings_check_out_status ON bookings (check_out_date, booking_status);
+
+-- Guests currently checked in
+CREATE INDEX idx_bookings_status ON bookings (booking_status);
+
+-- Today's revenue and the payment exports' date range
+CREATE INDEX idx_payments_payment_date ON payments (payment_date);
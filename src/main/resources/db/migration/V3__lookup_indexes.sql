@@ -0,0 +1,18 @@
+-- Indexes behind the DAOs' lookups by foreign key and the room availability
+-- check. MySQL already indexes foreign key columns, so most of these are
+-- skipped there as duplicates; databases that lack them get them here.
+
+-- Overlap check for a room's bookings (BookingDAO.getAllAvailableRooms)
+CREATE INDEX idx_bookings_room_dates ON bookings (room_id, check_in_date, check_out_date);
+
+-- BookingDAO.findByCustomerId
+CREATE INDEX idx_bookings_customer ON bookings (customer_id);
+
+-- Services booked for a booking (BookingServiceDAO, invoice rendering)
+CREATE INDEX idx_booking_services_booking ON booking_services (booking_id);
+
+-- Invoice of a booking
+CREATE INDEX idx_invoices_booking ON invoices (booking_id);
+
+-- Payments of an invoice
+CREATE INDEX idx_payments_invoice ON payments (invoice_id);
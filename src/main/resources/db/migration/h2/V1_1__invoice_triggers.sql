@@ -0,0 +1,25 @@
+-- The invoice triggers of mysql/V1_1__invoice_triggers.sql for the embedded
+-- H2 backend. H2 runs triggers as Java classes; H2InvoiceTrigger applies the
+-- same rules, chosen by the table and event it fires for. As on MySQL,
+-- SET @skip_invoice_triggers = 1 turns them off for a session.
+
+CREATE TRIGGER trg_bookings_invoice_insert AFTER INSERT ON bookings
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_bookings_invoice_update AFTER UPDATE ON bookings
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_booking_services_invoice_insert AFTER INSERT ON booking_services
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_booking_services_invoice_update AFTER UPDATE ON booking_services
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_booking_services_invoice_delete AFTER DELETE ON booking_services
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_payments_invoice_insert AFTER INSERT ON payments
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
+
+CREATE TRIGGER trg_payments_invoice_delete AFTER DELETE ON payments
+FOR EACH ROW CALL 'com.hotel.util.H2InvoiceTrigger';
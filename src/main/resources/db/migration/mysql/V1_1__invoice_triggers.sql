@@ -0,0 +1,148 @@
+-- Keeps invoices in step with bookings, booked services and payments; the DAOs
+-- never write invoices themselves (see PaymentDAO.addPayment).
+--
+--   booking inserted            -> invoice raised for nights x room price
+--   booking room/dates changed  -> room cost recalculated
+--   booked service changed      -> service cost recalculated
+--   payment added or removed    -> paid amount adjusted
+--
+-- Every change also recalculates the total and the status: Paid once the
+-- total is covered, Partially Paid while something is still owed, otherwise
+-- Pending (or Overdue if it already was).
+--
+-- Bulk loaders that write invoices and paid amounts themselves, such as the
+-- benchmark data generator, turn the triggers off for their session with
+-- SET @skip_invoice_triggers = 1.
+
+DELIMITER $$
+
+CREATE TRIGGER trg_bookings_invoice_insert AFTER INSERT ON bookings
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        INSERT INTO invoices (booking_id, issue_date, due_date, room_cost, service_cost,
+                              total_amount, paid_amount, invoice_status)
+        SELECT NEW.booking_id, CURRENT_DATE, NEW.check_out_date,
+               r.price * GREATEST(DATEDIFF(NEW.check_out_date, NEW.check_in_date), 1), 0,
+               r.price * GREATEST(DATEDIFF(NEW.check_out_date, NEW.check_in_date), 1), 0, 'Pending'
+        FROM Rooms r
+        WHERE r.room_id = NEW.room_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_bookings_invoice_update AFTER UPDATE ON bookings
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL
+            AND (NEW.room_id <> OLD.room_id
+                 OR NEW.check_in_date <> OLD.check_in_date
+                 OR NEW.check_out_date <> OLD.check_out_date) THEN
+        -- Single-table UPDATE: later assignments see the earlier ones
+        UPDATE invoices
+        SET room_cost = (SELECT price FROM Rooms WHERE room_id = NEW.room_id)
+                        * GREATEST(DATEDIFF(NEW.check_out_date, NEW.check_in_date), 1),
+            due_date = NEW.check_out_date,
+            total_amount = room_cost + service_cost,
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE booking_id = NEW.booking_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_booking_services_invoice_insert AFTER INSERT ON booking_services
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        UPDATE invoices
+        SET service_cost = (SELECT COALESCE(SUM(bs.quantity * s.price), 0)
+                            FROM booking_services bs
+                            JOIN services s ON s.service_id = bs.service_id
+                            WHERE bs.booking_id = NEW.booking_id),
+            total_amount = room_cost + service_cost,
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE booking_id = NEW.booking_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_booking_services_invoice_update AFTER UPDATE ON booking_services
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        UPDATE invoices
+        SET service_cost = (SELECT COALESCE(SUM(bs.quantity * s.price), 0)
+                            FROM booking_services bs
+                            JOIN services s ON s.service_id = bs.service_id
+                            WHERE bs.booking_id = invoices.booking_id),
+            total_amount = room_cost + service_cost,
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE booking_id IN (NEW.booking_id, OLD.booking_id);
+    END IF;
+END$$
+
+CREATE TRIGGER trg_booking_services_invoice_delete AFTER DELETE ON booking_services
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        UPDATE invoices
+        SET service_cost = (SELECT COALESCE(SUM(bs.quantity * s.price), 0)
+                            FROM booking_services bs
+                            JOIN services s ON s.service_id = bs.service_id
+                            WHERE bs.booking_id = OLD.booking_id),
+            total_amount = room_cost + service_cost,
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE booking_id = OLD.booking_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_payments_invoice_insert AFTER INSERT ON payments
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        UPDATE invoices
+        SET paid_amount = paid_amount + NEW.amount,
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE invoice_id = NEW.invoice_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_payments_invoice_delete AFTER DELETE ON payments
+FOR EACH ROW
+BEGIN
+    IF @skip_invoice_triggers IS NULL THEN
+        UPDATE invoices
+        SET paid_amount = GREATEST(paid_amount - OLD.amount, 0),
+            invoice_status = CASE
+                WHEN total_amount > 0 AND paid_amount >= total_amount THEN 'Paid'
+                WHEN paid_amount > 0 THEN 'Partially Paid'
+                WHEN invoice_status = 'Overdue' THEN 'Overdue'
+                ELSE 'Pending' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE invoice_id = OLD.invoice_id;
+    END IF;
+END$$
+
+DELIMITER ;